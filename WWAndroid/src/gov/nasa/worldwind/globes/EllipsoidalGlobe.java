@@ -311,6 +311,76 @@ public class EllipsoidalGlobe extends AbstractGlobe
         this.geodeticToCartesian(sector, numLat, numLon, metersElevation, result);
     }
 
+    /** {@inheritDoc} */
+    public void computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation,
+        Vec4 referencePoint, float[] result, int offset)
+    {
+        if (sector == null)
+        {
+            String msg = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (numLat <= 0)
+        {
+            String msg = Logging.getMessage("generic.HeightIsInvalid", numLat);
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (numLon <= 0)
+        {
+            String msg = Logging.getMessage("generic.WidthIsInvalid", numLon);
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (metersElevation == null)
+        {
+            String msg = Logging.getMessage("nullValue.ElevationsBufferIsNull");
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (metersElevation.length < numLat * numLon)
+        {
+            String msg = Logging.getMessage("generic.ElevationsBufferInvalidLength", metersElevation.length);
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (referencePoint == null)
+        {
+            String msg = Logging.getMessage("nullValue.PointIsNull");
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (result == null)
+        {
+            String msg = Logging.getMessage("nullValue.ResultIsNull");
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (offset < 0)
+        {
+            String msg = Logging.getMessage("generic.OffsetIsInvalid", offset);
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (result.length < offset + 3 * numLat * numLon)
+        {
+            String msg = Logging.getMessage("generic.ResultArrayInvalidLength", result.length);
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.geodeticToCartesian(sector, numLat, numLon, metersElevation, referencePoint, result, offset);
+    }
+
     /** {@inheritDoc} */
     public Position computePositionFromPoint(Vec4 point)
     {
@@ -450,6 +520,80 @@ public class EllipsoidalGlobe extends AbstractGlobe
         }
     }
 
+    /**
+     * Maps a geographic grid of positions to world Cartesian coordinates relative to a reference point, and stores each
+     * point's X, Y and Z coordinates consecutively in a float array. See {@link #geodeticToCartesian(Sector, int, int,
+     * double[], Vec4[])} for a description of the grid and the coordinate system. Subtracting the reference point
+     * before converting to float preserves the precision of points far from the globe's origin.
+     *
+     * @param sector          the sector in question.
+     * @param numLat          the grid height in number of latitude positions.
+     * @param numLon          the grid width in number of longitude positions.
+     * @param metersElevation an array containing the elevation for each position. The array must be pre-allocated and
+     *                        contain at least numLat * numLon elements.
+     * @param referencePoint  the point subtracted from each world Cartesian point.
+     * @param result          contains the coordinates of each grid position after this method returns. The array must
+     *                        be pre-allocated and contain at least offset + 3 * numLat * numLon elements.
+     * @param offset          the index in the result array where the first point's X coordinate is stored.
+     */
+    protected void geodeticToCartesian(Sector sector, int numLat, int numLon, double[] metersElevation,
+        Vec4 referencePoint, float[] result, int offset)
+    {
+        double minLat = sector.minLatitude.radians;
+        double maxLat = sector.maxLatitude.radians;
+        double minLon = sector.minLongitude.radians;
+        double maxLon = sector.maxLongitude.radians;
+        double deltaLat = sector.getDeltaLatRadians() / (numLat > 1 ? numLat - 1 : 1);
+        double deltaLon = sector.getDeltaLonRadians() / (numLon > 1 ? numLon - 1 : 1);
+
+        double lat = minLat;
+        double lon = minLon;
+        int index = 0;
+        int pos = offset;
+
+        for (int j = 0; j < numLat; j++)
+        {
+            // Explicitly set the first and last row to minLat and maxLat, respectively, rather than using the
+            // accumulated lat value. We do this to ensure that the Cartesian points of adjacent sectors are a
+            // perfect match.
+            if (j == 0)
+                lat = minLat;
+            else if (j == numLat - 1)
+                lat = maxLat;
+            else
+                lat += deltaLat;
+
+            // Latitude is constant for each row, therefore values depending only on latitude can be computed once per
+            // row.
+            double cosLat = Math.cos(lat);
+            double sinLat = Math.sin(lat);
+            double rpm = // getRadius (in meters) of vertical in prime meridian
+                this.equatorialRadius / Math.sqrt(1.0 - this.es * sinLat * sinLat);
+
+            for (int i = 0; i < numLon; i++)
+            {
+                // Explicitly set the first and last column to minLon and maxLon, respectively, rather than using the
+                // accumulated lon value. We do this to ensure that the Cartesian points of adjacent sectors are a
+                // perfect match.
+                if (i == 0)
+                    lon = minLon;
+                else if (i == numLon - 1)
+                    lon = maxLon;
+                else
+                    lon += deltaLon;
+
+                double cosLon = Math.cos(lon);
+                double sinLon = Math.sin(lon);
+
+                double elevation = metersElevation[index];
+                result[pos++] = (float) ((rpm + elevation) * cosLat * sinLon - referencePoint.x);
+                result[pos++] = (float) ((rpm * (1.0 - this.es) + elevation) * sinLat - referencePoint.y);
+                result[pos++] = (float) ((rpm + elevation) * cosLat * cosLon - referencePoint.z);
+                index++;
+            }
+        }
+    }
+
     @SuppressWarnings( {"SuspiciousNameCombination"})
     protected void cartesianToGeodetic(Vec4 cart, Position result)
     {
@@ -133,6 +133,31 @@ public interface Globe extends WWObject
      */
     void computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation, Vec4[] result);
 
+    /**
+     * Maps a geographic grid of positions to world Cartesian coordinates relative to a reference point, and stores the
+     * coordinates in a float array. This is equivalent to {@link #computePointsFromPositions(Sector, int, int,
+     * double[], Vec4[])} followed by subtracting the reference point from each result, but does not require an array of
+     * Vec4 to hold the intermediate points. Each point's X, Y and Z coordinates are stored consecutively in the result
+     * array, starting at the specified offset and proceeding in row major order.
+     *
+     * @param sector          the sector in question.
+     * @param numLat          the grid height in number of latitude positions.
+     * @param numLon          the grid width in number of longitude positions.
+     * @param metersElevation an array containing the elevation for each position. The array must be pre-allocated and
+     *                        contain at least numLat * numLon elements.
+     * @param referencePoint  the point subtracted from each world Cartesian point.
+     * @param result          contains the coordinates of each grid position after this method returns. The array must
+     *                        be pre-allocated and contain at least offset + 3 * numLat * numLon elements.
+     * @param offset          the index in the result array where the first point's X coordinate is stored.
+     *
+     * @throws IllegalArgumentException if the sector is <code>null</code>, if numLat or numLon are less than 1, if
+     *                                  metersElevation is <code>null</code>, if referencePoint is <code>null</code>, if
+     *                                  result is <code>null</code>, if offset is less than 0, or if either
+     *                                  metersElevation or result has insufficient length.
+     */
+    void computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation,
+        Vec4 referencePoint, float[] result, int offset);
+
     Position computePositionFromPoint(Vec4 point);
 
     void computePositionFromPoint(Vec4 point, Position result);
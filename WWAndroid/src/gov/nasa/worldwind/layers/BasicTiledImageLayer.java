@@ -332,6 +332,8 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         if (params.getValue(AVKey.TILE_HEIGHT) == null)
             params.setValue(AVKey.TILE_HEIGHT, 512);
 
+        // Configurations may cache tiles as ETC compressed KTX files, which every OpenGL ES 2.0 device samples
+        // natively, by specifying the ".ktx" format suffix.
         if (params.getValue(AVKey.FORMAT_SUFFIX) == null)
             params.setValue(AVKey.FORMAT_SUFFIX, ".dds");
 
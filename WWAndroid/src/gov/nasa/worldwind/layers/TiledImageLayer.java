@@ -181,7 +181,9 @@ public abstract class TiledImageLayer extends AbstractLayer implements Tile.Tile
     /**
      * Specifies the format used to store images in texture memory, or null to store images in their native format.
      * Suppported texture formats are as follows: <ul> <li><code>image/dds</code> - Stores images in the compressed DDS
-     * format. If the image is already in DDS format it's stored as-is.</li> </ul>
+     * format. If the image is already in DDS format it's stored as-is.</li> <li><code>image/ktx</code> - Stores images
+     * in the ETC compressed KTX format, which OpenGL ES devices sample natively. If the image is already in KTX format
+     * it's stored as-is.</li> </ul>
      *
      * @param textureFormat the texture image format; null to store images in their native format.
      */
@@ -11,9 +11,10 @@ import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.geom.Matrix;
 import gov.nasa.worldwind.util.*;
-import gov.nasa.worldwind.util.dds.DDSTextureReader;
+import gov.nasa.worldwind.util.dds.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 import gov.nasa.worldwind.geom.Matrix;
 
@@ -26,6 +27,8 @@ public class BasicGpuTextureFactory implements GpuTextureFactory
     protected static final boolean DEFAULT_GENERATE_MIPMAP = true;
     protected static final int DEFAULT_MARK_LIMIT = 1024;
 
+    protected Boolean etc2Supported;
+
     public BasicGpuTextureFactory()
     {
     }
@@ -185,6 +188,13 @@ public class BasicGpuTextureFactory implements GpuTextureFactory
 
             stream.reset();
 
+            ETCTextureReader etcReader = new ETCTextureReader();
+            data = etcReader.read(stream);
+            if (data != null)
+                return data;
+
+            stream.reset();
+
             Bitmap bitmap = BitmapFactory.decodeStream(stream);
             return bitmap != null ? GpuTextureData.fromBitmap(bitmap, this.estimateMemorySize(bitmap)) : null;
         }
@@ -250,6 +260,12 @@ public class BasicGpuTextureFactory implements GpuTextureFactory
         int format = data.getCompressedData().format;
         GpuTextureData.MipmapData[] levelData = data.getCompressedData().levelData;
 
+        // ETC2 textures are only guaranteed to be supported by OpenGL ES 3.0 devices. Other devices receive the pixels
+        // decoded in software.
+        boolean decodeETC2 = (format == ETCConstants.GL_COMPRESSED_RGB8_ETC2
+            || format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC) && !this.isETC2Supported();
+        long sizeInBytes = decodeETC2 ? 0 : data.getSizeInBytes();
+
         int[] texture = new int[1];
         try
         {
@@ -273,8 +289,20 @@ public class BasicGpuTextureFactory implements GpuTextureFactory
             for (int levelNum = 0; levelNum < levelData.length; levelNum++)
             {
                 GpuTextureData.MipmapData level = levelData[levelNum];
-                GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, levelNum, format, level.width, level.height, 0,
-                    level.buffer.remaining(), level.buffer);
+                if (decodeETC2)
+                {
+                    // Upload the decoded pixels directly rather than through a Bitmap, which would premultiply alpha a
+                    // second time.
+                    ByteBuffer pixels = this.decodeETC2(format, level);
+                    GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, levelNum, GLES20.GL_RGBA, level.width, level.height, 0,
+                        GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, pixels);
+                    sizeInBytes += pixels.capacity();
+                }
+                else
+                {
+                    GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, levelNum, format, level.width, level.height,
+                        0, level.buffer.remaining(), level.buffer);
+                }
             }
         }
         catch (Exception e)
@@ -288,7 +316,41 @@ public class BasicGpuTextureFactory implements GpuTextureFactory
         }
 
         return new GpuTexture(GLES20.GL_TEXTURE_2D, texture[0], levelData[0].width, levelData[0].height,
-            data.getSizeInBytes(), this.createVerticalFlipTransform());
+            sizeInBytes, this.createVerticalFlipTransform());
+    }
+
+    protected ByteBuffer decodeETC2(int format, GpuTextureData.MipmapData level)
+    {
+        int[] argb = ETCCompressor.decompressLevel(format, level.width, level.height, level.buffer);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * argb.length);
+        for (int c : argb)
+        {
+            buffer.put((byte) (c >> 16)).put((byte) (c >> 8)).put((byte) c).put((byte) (c >>> 24));
+        }
+        buffer.rewind();
+
+        return buffer;
+    }
+
+    /**
+     * Indicates whether the current OpenGL ES context can sample ETC2 compressed textures. ETC2 is a required format
+     * of OpenGL ES 3.0 and later. This must be called on the OpenGL thread.
+     *
+     * @return true if the context's OpenGL ES version is 3.0 or later, and false otherwise.
+     */
+    protected boolean isETC2Supported()
+    {
+        if (this.etc2Supported == null)
+        {
+            // The version string has the form "OpenGL ES N.M vendor-specific information".
+            String version = GLES20.glGetString(GLES20.GL_VERSION);
+            String prefix = "OpenGL ES ";
+            this.etc2Supported = version != null && version.startsWith(prefix) && version.length() > prefix.length()
+                && Character.isDigit(version.charAt(prefix.length())) && version.charAt(prefix.length()) >= '3';
+        }
+
+        return this.etc2Supported;
     }
 
     @SuppressWarnings( {"UnusedParameters"})
@@ -7,9 +7,10 @@
 package gov.nasa.worldwind.retrieve;
 
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.util.*;
-import gov.nasa.worldwind.util.dds.DDSCompressor;
+import gov.nasa.worldwind.util.dds.*;
 
 import java.io.*;
 import java.net.HttpURLConnection;
@@ -507,7 +508,8 @@ public abstract class AbstractRetrievalPostProcessor implements RetrievalPostPro
 
     /**
      * Handles image content. The default implementation simply saves the retrieved data via {@link #saveBuffer()},
-     * first converting it to DDS if the suffix of the output file is .dds.
+     * first converting it to DDS if the suffix of the output file is .dds, or to an ETC compressed KTX file if the
+     * suffix is .ktx.
      * <p/>
      * The default implementation of this method returns immediately if the output file cannot be determined or it
      * exists and {@link #overwriteExistingFile()} returns false.
@@ -528,6 +530,9 @@ public abstract class AbstractRetrievalPostProcessor implements RetrievalPostPro
         if (outFile.getPath().endsWith("dds"))
             return this.saveDDS();
 
+        if (outFile.getPath().endsWith("ktx"))
+            return this.saveKTX();
+
         Bitmap image = this.transformPixels();
 
         if (image != null)
@@ -643,4 +648,52 @@ public abstract class AbstractRetrievalPostProcessor implements RetrievalPostPro
 
         return buffer;
     }
+
+    /**
+     * Saves a KTX image file after first converting any other image format to ETC compressed KTX.
+     *
+     * @return the converted image data if a conversion is performed, otherwise the original image data.
+     *
+     * @throws IOException if an IO error occurs while converting or saving the image.
+     */
+    protected ByteBuffer saveKTX() throws IOException
+    {
+        ByteBuffer buffer = this.getRetriever().getBuffer();
+
+        if (!this.getRetriever().getContentType().contains("ktx"))
+        {
+            ByteBuffer converted = this.convertToKTX();
+            if (converted != null)
+                buffer = converted;
+        }
+
+        this.saveBuffer(buffer);
+
+        return buffer;
+    }
+
+    /**
+     * Converts an image to an ETC compressed KTX file. If the image format is not originally KTX, calls {@link
+     * #transformPixels()} to perform any defined image transform.
+     *
+     * @return the converted image data, or null if the image cannot be decoded.
+     *
+     * @throws IOException if an IO error occurs while converting the image.
+     */
+    protected ByteBuffer convertToKTX() throws IOException
+    {
+        Bitmap image = this.transformPixels();
+        if (image == null)
+            image = BitmapFactory.decodeStream(WWIO.getInputStreamFromByteBuffer(this.getRetriever().getBuffer()));
+
+        if (image == null)
+            return null;
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixels(pixels, 0, width, 0, 0, width, height);
+
+        return ETCCompressor.compressImage(pixels, width, height);
+    }
 }
@@ -7,7 +7,7 @@ package gov.nasa.worldwind.terrain;
 
 import android.graphics.*;
 import android.opengl.GLES20;
-import android.util.Pair;
+import android.util.SparseArray;
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.cache.*;
@@ -241,6 +241,9 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         protected final Object vboCacheKey = new Object();
         protected boolean mustRegnerateVbos;
         protected TerrainSharedGeometry sharedGeom;
+        // Indicates that this geometry is being put back into the geometry cache under the same key. The cache notifies
+        // its listeners when an entry is replaced, so this prevents the geometry from being recycled while in use.
+        protected boolean replacingInCache;
 
         public TerrainGeometry()
         {
@@ -292,8 +295,15 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
     }
 
     protected static final double DEFAULT_DETAIL_HINT_ORIGIN = 1.4;
-    protected static Map<Object, TerrainSharedGeometry> sharedGeometry = new HashMap<Object, TerrainSharedGeometry>();
-    protected static Map<Object, TerrainPickGeometry> pickGeometry = new HashMap<Object, TerrainPickGeometry>();
+    /** The maximum number of unused terrain geometries retained for each tile density. */
+    protected static final int DEFAULT_GEOMETRY_POOL_SIZE = 32;
+    // Shared and pick geometry are keyed by the tile width and height packed into an int. See getDensityKey.
+    protected static SparseArray<TerrainSharedGeometry> sharedGeometry = new SparseArray<TerrainSharedGeometry>();
+    protected static SparseArray<TerrainPickGeometry> pickGeometry = new SparseArray<TerrainPickGeometry>();
+    // Terrain geometry evicted from the geometry cache, keyed by the number of vertex coordinates in its point buffer.
+    // Tiles of the same density reuse these geometries, their direct vertex buffers and their VBO ids rather than
+    // allocating new ones. Access to the pool must be synchronized on the pool.
+    protected static final SparseArray<List<TerrainGeometry>> geometryPool = new SparseArray<List<TerrainGeometry>>();
     protected static final String PICK_VERTEX_SHADER_PATH = "shaders/TiledTessellatorPick.vert";
     protected static final String PICK_FRAGMENT_SHADER_PATH = "shaders/TiledTessellatorPick.frag";
 
@@ -311,7 +321,8 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
     protected Matrix mvpMatrix = Matrix.fromIdentity();
     protected double[] tileElevations;
     protected double[] tileRowElevations;
-    protected Vec4[] tilePoints;
+    protected Sector tileRowSector = new Sector();
+    protected Vec4 tileSkirtPoint = new Vec4();
     protected float[] tileCoords;
     // Properties used for picking.
     protected final Object pickProgramKey = new Object();
@@ -320,6 +331,8 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
     protected Vec4 pickedTriPoint = new Vec4();
     protected Position pickedTriPos = new Position();
     protected float[] pickedTriCoords = new float[9];
+    protected float[] pickCellCorners = new float[12];
+    protected byte[] pickCellColors = new byte[9];
 
     public TiledTessellator(AVList params)
     {
@@ -619,13 +632,98 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         MemoryCache cache = this.getTerrainGeometryCache();
         TerrainGeometry geom = tile.getGeometry(cache);
         if (geom == null)
-            geom = new TerrainGeometry();
+            geom = acquireGeometry(this.computeVertexCoordCount(tile));
 
         this.buildTileVertices(dc, tile, geom);
         this.buildSharedGeometry(tile, geom);
 
-        // Update the geometry's cached size.
-        tile.setGeometry(cache, geom);
+        // Update the geometry's cached size. The cache removes any existing entry for this tile before adding the new
+        // one, so we mark the geometry as being replaced to prevent the cache listener from recycling it.
+        geom.replacingInCache = true;
+        try
+        {
+            tile.setGeometry(cache, geom);
+        }
+        finally
+        {
+            geom.replacingInCache = false;
+        }
+    }
+
+    /**
+     * Returns the number of vertex coordinates in the specified tile's point buffer. This includes one row and column
+     * of vertices between each cell, and an outer row and column of vertices on each side for the tile's skirt.
+     *
+     * @param tile the tile in question.
+     *
+     * @return the number of floats needed to hold the tile's points.
+     */
+    protected int computeVertexCoordCount(TerrainTile tile)
+    {
+        return 3 * (tile.getLevel().getTileHeight() + 3) * (tile.getLevel().getTileWidth() + 3);
+    }
+
+    /**
+     * Returns a terrain geometry whose point buffer holds the specified number of vertex coordinates. This returns an
+     * unused geometry from the geometry pool if one is available, and otherwise returns a new geometry. The returned
+     * geometry's contents are undefined.
+     *
+     * @param numCoords the number of vertex coordinates in the geometry's point buffer.
+     *
+     * @return a terrain geometry.
+     */
+    protected static TerrainGeometry acquireGeometry(int numCoords)
+    {
+        synchronized (geometryPool)
+        {
+            List<TerrainGeometry> list = geometryPool.get(numCoords);
+            if (list != null && !list.isEmpty())
+                return list.remove(list.size() - 1);
+        }
+
+        return new TerrainGeometry();
+    }
+
+    /**
+     * Adds a terrain geometry that is no longer in use to the geometry pool. The geometry is discarded if it has no
+     * point buffer, or if the pool already contains the maximum number of geometries for its tile density.
+     *
+     * @param geom the geometry to recycle.
+     */
+    protected static void releaseGeometry(TerrainGeometry geom)
+    {
+        if (geom.points == null)
+            return;
+
+        synchronized (geometryPool)
+        {
+            int numCoords = geom.points.capacity();
+            List<TerrainGeometry> list = geometryPool.get(numCoords);
+            if (list == null)
+            {
+                list = new ArrayList<TerrainGeometry>();
+                geometryPool.put(numCoords, list);
+            }
+
+            if (list.size() < DEFAULT_GEOMETRY_POOL_SIZE)
+            {
+                geom.sharedGeom = null;
+                list.add(geom);
+            }
+        }
+    }
+
+    /**
+     * Returns the key used to identify shared and pick geometry for tiles of the specified dimensions.
+     *
+     * @param tileWidth  the tile's width in cells.
+     * @param tileHeight the tile's height in cells.
+     *
+     * @return an integer key unique to the tile width and height.
+     */
+    protected static int getDensityKey(int tileWidth, int tileHeight)
+    {
+        return (tileWidth << 16) | (tileHeight & 0xFFFF);
     }
 
     /**
@@ -658,6 +756,21 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
             long size = Configuration.getLongValue(AVKey.SECTOR_GEOMETRY_CACHE_SIZE);
             MemoryCache cache = new BasicMemoryCache((long) (0.8 * size), size);
             cache.setName("Tessellator Geometry");
+            cache.addCacheListener(new MemoryCache.CacheListener()
+            {
+                public void entryRemoved(Object key, Object value)
+                {
+                    // Recycle geometry that leaves the cache, unless it is being replaced by itself.
+                    if (value instanceof TerrainGeometry && !((TerrainGeometry) value).replacingInCache)
+                        releaseGeometry((TerrainGeometry) value);
+                }
+
+                public void removalException(Throwable e, Object key, Object value)
+                {
+                    String msg = Logging.getMessage("Tessellator.ExceptionRecyclingGeometry", key);
+                    Logging.info(msg, e);
+                }
+            });
             WorldWind.getMemoryCacheSet().put(TerrainGeometry.class.getName(), cache);
         }
 
@@ -674,7 +787,8 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         // 1) Avoid explicitly computing and storing the tile's locations by adding methods to Globe that exploit the
         //    tile's grid:
         //    Globe.getElevations(Sector sector, int numLat, int numLon, double targetResolution, double[] buffer)
-        //    Globe.computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation, Vec4[] result).
+        //    Globe.computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation,
+        //    Vec4 referencePoint, float[] result, int offset).
         //
         // 2) Compute the world Cartesian points for each row in one call to Globe.computePointsFromPositions. Since
         //    each row has constant latitude, the implementation of this method can reduce the number of computations by
@@ -684,7 +798,8 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         //    temporary float array. This is necessary on Android because the performance of FloatBuffer.put(float) is
         //    slow. Putting the points in bulk improves performance by approximately 2x (from ~1.4ms to ~0.7ms on a
         //    Samsung Galaxy Tab 10.1 32GB). Note that this change would likely yield no improvement for the desktop
-        //    based World Wind Java.
+        //    based World Wind Java. Globe writes each row's points directly into the temporary float array relative to
+        //    the tile's reference center, so no intermediate Vec4 points are needed.
 
         // Convert from the tile's cell width and height to a number of latitude and longitude vertices. The tile width
         // and height indicates the number of cell rows and columns in the tile. We add one row and column of vertices
@@ -745,7 +860,7 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         double maxLon = tile.getSector().maxLongitude.degrees;
         // Vertex latitudes and longitudes are separated by the cell latitude and longitude delta.
         double deltaLat = tile.getSector().getDeltaLatDegrees() / tile.getLevel().getTileHeight();
-        Sector rowSector = new Sector();
+        Sector rowSector = this.tileRowSector;
 
         // Add redundant points with the row's minimum latitude. These points are used to display the tile's skirt, and
         // have the same locations as the first row, but are assigned the minimum elevation instead of the actual
@@ -792,17 +907,6 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
     protected void buildTileRowVertices(DrawContext dc, Sector rowSector, int width, double[] elevations,
         double minElevation, TerrainGeometry geom)
     {
-        // Allocate an array of points that hold the Cartesian coordinates for each XYZ point in this row. The array
-        // is a property of this tessellator to avoid constantly reallocating it each time a tile is updated.
-        if (this.tilePoints == null || this.tilePoints.length < width)
-        {
-            this.tilePoints = new Vec4[width];
-            for (int i = 0; i < width; i++)
-            {
-                this.tilePoints[i] = new Vec4();
-            }
-        }
-
         // Allocate an array of floats to hold the combined coordinates of each point. We populate this array then add
         // it to the tile's point buffer in bulk. Adding an entire row of points into the FloatBuffer using a temporary
         // array is approximately 2x faster than adding each coordinate individually.
@@ -811,35 +915,27 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
             this.tileCoords = new float[numCoords];
 
         Globe globe = dc.getGlobe();
-        int index = 0;
+        Vec4 point = this.tileSkirtPoint;
 
         // Add a redundant point with the row's minimum latitude. This point is used to display the tile's skirt, and
         // has the same location as the row's first location, but is assigned the minimum elevation instead of the
         // location's actual elevation. We subtract the tile's reference center from the Cartesian point to keep its
         // values as near to zero as possible. This enables us to achieve the resolution we need on the Gpu.
-        globe.computePointFromPosition(rowSector.minLatitude, rowSector.minLongitude, minElevation, this.tilePoints[0]);
-        this.tilePoints[0].subtract3AndSet(geom.referenceCenter);
-        this.tilePoints[0].toArray3f(this.tileCoords, index);
-        index += 3;
+        globe.computePointFromPosition(rowSector.minLatitude, rowSector.minLongitude, minElevation, point);
+        point.subtract3AndSet(geom.referenceCenter);
+        point.toArray3f(this.tileCoords, 0);
 
-        // Add points for each location in the row. We subtract the tile's reference center from the Cartesian point to
-        // keep its values as near to zero as possible. This enables us to achieve the resolution we need on the Gpu.
-        globe.computePointsFromPositions(rowSector, 1, width, elevations, this.tilePoints);
-        for (int i = 0; i < width; i++)
-        {
-            this.tilePoints[i].subtract3AndSet(geom.referenceCenter);
-            this.tilePoints[i].toArray3f(this.tileCoords, index);
-            index += 3;
-        }
+        // Add points for each location in the row. Globe subtracts the tile's reference center from each Cartesian
+        // point before converting it to float, keeping its values as near to zero as possible.
+        globe.computePointsFromPositions(rowSector, 1, width, elevations, geom.referenceCenter, this.tileCoords, 3);
 
         // Add a redundant point with the row's maximum latitude. This point is used to display the tile's skirt, and
         // has the same location as the row's last location, but is assigned the minimum elevation instead of the
         // location's actual elevation. We subtract the tile's reference center from the Cartesian point to keep its
         // values as near to zero as possible. This enables us to achieve the resolution we need on the Gpu.
-        globe.computePointFromPosition(rowSector.minLatitude, rowSector.maxLongitude, minElevation, this.tilePoints[0]);
-        this.tilePoints[0].subtract3AndSet(geom.referenceCenter);
-        this.tilePoints[0].toArray3f(this.tileCoords, index);
-        index += 3;
+        globe.computePointFromPosition(rowSector.minLatitude, rowSector.maxLongitude, minElevation, point);
+        point.subtract3AndSet(geom.referenceCenter);
+        point.toArray3f(this.tileCoords, numCoords - 3);
 
         // Put the row's points into the tile's point buffer in bulk. Adding an entire row of points into the
         // FloatBuffer using a temporary array is approximately 2x faster than adding each coordinate individually.
@@ -850,7 +946,7 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
     {
         int tileWidth = tile.getWidth();
         int tileHeight = tile.getHeight();
-        Object key = Pair.create(tileWidth, tileHeight);
+        int key = getDensityKey(tileWidth, tileHeight);
 
         TerrainSharedGeometry sharedGeom = sharedGeometry.get(key);
         if (sharedGeom == null)
@@ -1462,7 +1558,7 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
 
         int tileWidth = tile.getWidth();
         int tileHeight = tile.getHeight();
-        Object key = Pair.create(tileWidth, tileHeight);
+        int key = getDensityKey(tileWidth, tileHeight);
 
         TerrainPickGeometry pickGeom = pickGeometry.get(key);
         if (pickGeom == null)
@@ -1504,10 +1600,10 @@ public class TiledTessellator extends WWObjectImpl implements Tessellator, Tile.
         int color = dc.getUniquePickColor();
         pickGeom.minColorCode = color;
 
-        // Allocate a buffer to hold the XYZ coordinates of the four vertices defining each tile cell.
-        float[] corners = new float[12];
-        // Allocate a buffer to hold the RGB values of the unique pick colors.
-        byte[] colors = new byte[9];
+        // Use the tessellator's buffers to hold the XYZ coordinates of the four vertices defining each tile cell, and
+        // the RGB values of the unique pick colors.
+        float[] corners = this.pickCellCorners;
+        byte[] colors = this.pickCellColors;
 
         for (int j = 0; j < numLat - 1; j++)
         {
@@ -57,6 +57,7 @@ public class WWIO
         mimeTypeToSuffixMap.put("image/jp2", "jp2");
         mimeTypeToSuffixMap.put("image/jpeg", "jpg");
         mimeTypeToSuffixMap.put("image/jpg", "jpg");
+        mimeTypeToSuffixMap.put("image/ktx", "ktx");
         mimeTypeToSuffixMap.put("image/png", "png");
         mimeTypeToSuffixMap.put("image/svg+xml", "svg");
         mimeTypeToSuffixMap.put("image/tiff", "tif");
@@ -99,6 +100,7 @@ public class WWIO
         suffixToMimeTypeMap.put("jpg", "image/jpeg");
         suffixToMimeTypeMap.put("kml", "application/vnd.google-earth.kml+xml");
         suffixToMimeTypeMap.put("kmz", "application/vnd.google-earth.kmz");
+        suffixToMimeTypeMap.put("ktx", "image/ktx");
         suffixToMimeTypeMap.put("mid", "audio/x-midi");
         suffixToMimeTypeMap.put("midi", "audio/x-midi");
         suffixToMimeTypeMap.put("mov", "video/quicktime");
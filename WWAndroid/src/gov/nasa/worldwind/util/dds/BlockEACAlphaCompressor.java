@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Compressor for the EAC alpha blocks of ETC2 RGBA8 textures. Each 4x4 block of alpha values is encoded as a base
+ * value, a multiplier, and one of sixteen modifier tables, with a 3-bit modifier index per pixel. Blocks of uniform
+ * alpha, such as those in the opaque parts of an image, are encoded exactly.
+ * <p/>
+ * This class is not thread safe. Unsynchronized access will result in unpredictable behavior. Access to methods of this
+ * class must be synchronized by the caller.
+ * <p/>
+ * Documentation on the EAC format is available in the OpenGL ES 3.0 Specification, appendix C.1.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class BlockEACAlphaCompressor
+{
+    /** The EAC modifier tables. */
+    protected static final int[][] MODIFIER_TABLES = {
+        {-3, -6, -9, -15, 2, 5, 8, 14},
+        {-3, -7, -10, -13, 2, 6, 9, 12},
+        {-2, -5, -8, -13, 1, 4, 7, 12},
+        {-2, -4, -6, -13, 1, 3, 5, 12},
+        {-3, -6, -8, -12, 2, 5, 7, 11},
+        {-3, -7, -9, -11, 2, 6, 8, 10},
+        {-4, -7, -8, -11, 3, 6, 7, 10},
+        {-3, -5, -8, -11, 2, 4, 7, 10},
+        {-2, -6, -8, -10, 1, 5, 7, 9},
+        {-2, -5, -8, -10, 1, 4, 7, 9},
+        {-2, -4, -8, -10, 1, 3, 7, 9},
+        {-2, -5, -7, -10, 1, 4, 6, 9},
+        {-3, -4, -7, -10, 2, 3, 6, 9},
+        {-1, -2, -3, -10, 0, 1, 2, 9},
+        {-4, -6, -8, -9, 3, 5, 7, 8},
+        {-3, -5, -7, -9, 2, 4, 6, 8}};
+    /** The table and index whose modifier is zero, used to encode blocks of uniform alpha. */
+    protected static final int ZERO_TABLE = 13;
+    protected static final int ZERO_INDEX = 4;
+
+    // Scratch state reused across calls to compressBlock.
+    protected final int[] alpha = new int[16];
+
+    /** Creates a new EAC alpha block compressor. */
+    public BlockEACAlphaCompressor()
+    {
+    }
+
+    /**
+     * Compresses the alpha values of a 4x4 block of pixels into an EAC block.
+     * <p/>
+     * Access to this method must be synchronized by the caller.
+     *
+     * @param pixels 16 ARGB pixels in row-major order.
+     *
+     * @return the 64-bit EAC block, which is stored in big endian byte order.
+     *
+     * @throws IllegalArgumentException if <code>pixels</code> is null or has fewer than 16 elements.
+     */
+    public long compressBlock(int[] pixels)
+    {
+        if (pixels == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (pixels.length < 16)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", pixels.length);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int min = 255, max = 0;
+        for (int i = 0; i < 16; i++)
+        {
+            this.alpha[i] = pixels[i] >>> 24;
+            min = Math.min(min, this.alpha[i]);
+            max = Math.max(max, this.alpha[i]);
+        }
+
+        if (min == max)
+            return packBlock(min, 1, ZERO_TABLE, ZERO_INDEX, null);
+
+        long bestError = Long.MAX_VALUE;
+        int bestBase = 0, bestMultiplier = 1, bestTable = 0;
+
+        for (int t = 0; t < MODIFIER_TABLES.length; t++)
+        {
+            int[] table = MODIFIER_TABLES[t];
+            int span = table[7] - table[3];
+
+            // Choose the multiplier which stretches the table over the block's range, then search its neighbors and
+            // the base values around the range's center.
+            int m = Math.max(1, Math.min(15, (max - min + span / 2) / span));
+            for (int multiplier = Math.max(1, m - 1); multiplier <= Math.min(15, m + 1); multiplier++)
+            {
+                int center = (min + max + 1) / 2 - multiplier * (table[7] + table[3]) / 2;
+                for (int base = Math.max(0, center - 1); base <= Math.min(255, center + 1); base++)
+                {
+                    long error = this.computeError(base, multiplier, table, bestError);
+                    if (error < bestError)
+                    {
+                        bestError = error;
+                        bestBase = base;
+                        bestMultiplier = multiplier;
+                        bestTable = t;
+                    }
+                }
+            }
+        }
+
+        return this.packBlock(bestBase, bestMultiplier, bestTable);
+    }
+
+    /**
+     * Decompresses an EAC block into the alpha channel of 16 pixels. The pixels' color channels are not modified.
+     *
+     * @param block  the 64-bit block.
+     * @param pixels receives the alpha of 16 ARGB pixels in row-major order.
+     */
+    public static void decompressBlock(long block, int[] pixels)
+    {
+        int base = (int) (block >>> 56) & 0xFF;
+        int multiplier = (int) (block >>> 52) & 0xF;
+        int[] table = MODIFIER_TABLES[(int) (block >>> 48) & 0xF];
+
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                int index = (int) (block >>> (45 - 3 * (4 * x + y))) & 7;
+                int a = clamp(base + table[index] * multiplier);
+                pixels[4 * y + x] = (a << 24) | (pixels[4 * y + x] & 0x00FFFFFF);
+            }
+        }
+    }
+
+    protected long computeError(int base, int multiplier, int[] table, long maxError)
+    {
+        long error = 0;
+        for (int i = 0; i < 16 && error < maxError; i++)
+        {
+            error += this.findIndexError(this.alpha[i], base, multiplier, table);
+        }
+
+        return error;
+    }
+
+    protected int findIndexError(int a, int base, int multiplier, int[] table)
+    {
+        int bestError = Integer.MAX_VALUE;
+        for (int index = 0; index < 8; index++)
+        {
+            int d = clamp(base + table[index] * multiplier) - a;
+            bestError = Math.min(bestError, d * d);
+        }
+
+        return bestError;
+    }
+
+    protected int findIndex(int a, int base, int multiplier, int[] table)
+    {
+        int bestIndex = 0;
+        int bestError = Integer.MAX_VALUE;
+        for (int index = 0; index < 8; index++)
+        {
+            int d = clamp(base + table[index] * multiplier) - a;
+            if (d * d < bestError)
+            {
+                bestError = d * d;
+                bestIndex = index;
+            }
+        }
+
+        return bestIndex;
+    }
+
+    protected long packBlock(int base, int multiplier, int t)
+    {
+        int[] indices = new int[16];
+        for (int i = 0; i < 16; i++)
+        {
+            indices[i] = this.findIndex(this.alpha[i], base, multiplier, MODIFIER_TABLES[t]);
+        }
+
+        return packBlock(base, multiplier, t, 0, indices);
+    }
+
+    /**
+     * Packs an EAC block. Pixel indices are stored in column-major order, starting with the most significant bits.
+     *
+     * @param base         the base alpha value.
+     * @param multiplier   the modifier multiplier, greater than zero.
+     * @param table        the modifier table index.
+     * @param defaultIndex the modifier index of every pixel, used when <code>indices</code> is null.
+     * @param indices      the modifier index of each pixel in row-major order, or null.
+     *
+     * @return the 64-bit EAC block.
+     */
+    protected static long packBlock(int base, int multiplier, int table, int defaultIndex, int[] indices)
+    {
+        long block = ((long) base << 56) | ((long) multiplier << 52) | ((long) table << 48);
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                long index = indices != null ? indices[4 * y + x] : defaultIndex;
+                block |= index << (45 - 3 * (4 * x + y));
+            }
+        }
+
+        return block;
+    }
+
+    protected static int clamp(int value)
+    {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
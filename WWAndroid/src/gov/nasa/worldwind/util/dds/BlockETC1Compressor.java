@@ -0,0 +1,457 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Compressor for ETC1 color blocks. Each 4x4 block is split into two 2x4 or 4x2 subblocks, and each subblock is
+ * encoded as a base color plus one of eight luminance modifier tables. The compressor tries both block orientations
+ * with both the individual and differential base color modes, and keeps the encoding with the least squared error.
+ * Blocks produced by this compressor are also valid ETC2 RGB8 blocks, since ETC2 only assigns new meaning to
+ * differential blocks whose base colors overflow, and this compressor never writes such blocks.
+ * <p/>
+ * This class is not thread safe. Unsynchronized access will result in unpredictable behavior. Access to methods of this
+ * class must be synchronized by the caller.
+ * <p/>
+ * Documentation on the ETC1 format is available at http://www.khronos.org/registry/gles/extensions/OES/OES_compressed_ETC1_RGB8_texture.txt.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class BlockETC1Compressor
+{
+    /** The ETC1 luminance modifier tables. Each table lists its small and large modifier. */
+    protected static final int[][] MODIFIER_TABLES = {
+        {2, 8}, {5, 17}, {9, 29}, {13, 42}, {18, 60}, {24, 80}, {33, 106}, {47, 183}};
+
+    // Scratch state reused across calls to compressBlock.
+    protected final int[] indices = new int[16];
+    protected final int[] subblockIndices = new int[16];
+    protected final int[] subblockTables = new int[2];
+    protected final int[][] baseColors = new int[2][3];
+    protected final int[][] quantized = new int[2][3];
+
+    /** Creates a new ETC1 block compressor. */
+    public BlockETC1Compressor()
+    {
+    }
+
+    /**
+     * Compresses a 4x4 block of pixels into an ETC1 block. The block's alpha is ignored.
+     * <p/>
+     * Access to this method must be synchronized by the caller. This method is frequently invoked by the ETC
+     * compressor, so in order to reduce garbage each instance of this class has unsynchronized properties that are
+     * reused during each call.
+     *
+     * @param pixels 16 ARGB pixels in row-major order.
+     *
+     * @return the 64-bit ETC1 block, which is stored in big endian byte order.
+     *
+     * @throws IllegalArgumentException if <code>pixels</code> is null or has fewer than 16 elements.
+     */
+    public long compressBlock(int[] pixels)
+    {
+        if (pixels == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (pixels.length < 16)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", pixels.length);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        long bestBlock = 0;
+        long bestError = Long.MAX_VALUE;
+
+        for (int flip = 0; flip <= 1; flip++)
+        {
+            for (int diff = 0; diff <= 1; diff++)
+            {
+                if (!this.quantizeBaseColors(pixels, flip, diff == 1))
+                    continue;
+
+                long error = this.encodeSubblock(pixels, flip, 0) + this.encodeSubblock(pixels, flip, 1);
+                if (error < bestError)
+                {
+                    bestError = error;
+                    bestBlock = this.packBlock(flip, diff == 1);
+                }
+            }
+        }
+
+        return bestBlock;
+    }
+
+    /**
+     * Decompresses an ETC1 or ETC2 RGB8 block into 16 opaque pixels.
+     *
+     * @param block  the 64-bit block.
+     * @param pixels receives 16 ARGB pixels in row-major order.
+     */
+    public static void decompressBlock(long block, int[] pixels)
+    {
+        int hi = (int) (block >>> 32);
+        int lo = (int) block;
+        boolean diff = (hi & 2) != 0;
+        boolean flip = (hi & 1) != 0;
+
+        int r0, g0, b0, r1, g1, b1;
+        if (diff)
+        {
+            int r = (hi >>> 27) & 0x1F, dr = signExtend3(hi >>> 24);
+            int g = (hi >>> 19) & 0x1F, dg = signExtend3(hi >>> 16);
+            int b = (hi >>> 11) & 0x1F, db = signExtend3(hi >>> 8);
+
+            // Overflowing differential base colors select the ETC2 T, H and planar modes.
+            if (r + dr < 0 || r + dr > 31)
+            {
+                decompressTMode(block, pixels);
+                return;
+            }
+            else if (g + dg < 0 || g + dg > 31)
+            {
+                decompressHMode(block, pixels);
+                return;
+            }
+            else if (b + db < 0 || b + db > 31)
+            {
+                decompressPlanarMode(block, pixels);
+                return;
+            }
+
+            r0 = expand5(r);
+            g0 = expand5(g);
+            b0 = expand5(b);
+            r1 = expand5(r + dr);
+            g1 = expand5(g + dg);
+            b1 = expand5(b + db);
+        }
+        else
+        {
+            r0 = expand4(hi >>> 28);
+            r1 = expand4(hi >>> 24);
+            g0 = expand4(hi >>> 20);
+            g1 = expand4(hi >>> 16);
+            b0 = expand4(hi >>> 12);
+            b1 = expand4(hi >>> 8);
+        }
+
+        int[] table0 = MODIFIER_TABLES[(hi >>> 5) & 7];
+        int[] table1 = MODIFIER_TABLES[(hi >>> 2) & 7];
+
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                boolean second = flip ? y >= 2 : x >= 2;
+                int m = modifier(second ? table1 : table0, pixelIndex(lo, x, y));
+                pixels[4 * y + x] = second ? makeColor(r1 + m, g1 + m, b1 + m) : makeColor(r0 + m, g0 + m, b0 + m);
+            }
+        }
+    }
+
+    //**************************************************************//
+    //********************  Encoding  ******************************//
+    //**************************************************************//
+
+    protected boolean quantizeBaseColors(int[] pixels, int flip, boolean diff)
+    {
+        for (int sub = 0; sub < 2; sub++)
+        {
+            int r = 0, g = 0, b = 0;
+            for (int y = 0; y < 4; y++)
+            {
+                for (int x = 0; x < 4; x++)
+                {
+                    if (subblockOf(flip, x, y) != sub)
+                        continue;
+
+                    int c = pixels[4 * y + x];
+                    r += (c >> 16) & 0xFF;
+                    g += (c >> 8) & 0xFF;
+                    b += c & 0xFF;
+                }
+            }
+
+            // Round the subblock's average color to 5 or 4 bits per channel.
+            int max = diff ? 31 : 15;
+            this.quantized[sub][0] = (r * max + 4 * 255) / (8 * 255);
+            this.quantized[sub][1] = (g * max + 4 * 255) / (8 * 255);
+            this.quantized[sub][2] = (b * max + 4 * 255) / (8 * 255);
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            if (diff)
+            {
+                int d = this.quantized[1][i] - this.quantized[0][i];
+                if (d < -4 || d > 3)
+                    return false;
+
+                this.baseColors[0][i] = expand5(this.quantized[0][i]);
+                this.baseColors[1][i] = expand5(this.quantized[1][i]);
+            }
+            else
+            {
+                this.baseColors[0][i] = expand4(this.quantized[0][i]);
+                this.baseColors[1][i] = expand4(this.quantized[1][i]);
+            }
+        }
+
+        return true;
+    }
+
+    protected long encodeSubblock(int[] pixels, int flip, int sub)
+    {
+        int[] base = this.baseColors[sub];
+        long bestError = Long.MAX_VALUE;
+
+        for (int t = 0; t < MODIFIER_TABLES.length; t++)
+        {
+            long error = 0;
+            for (int y = 0; y < 4 && error < bestError; y++)
+            {
+                for (int x = 0; x < 4; x++)
+                {
+                    if (subblockOf(flip, x, y) != sub)
+                        continue;
+
+                    int c = pixels[4 * y + x];
+                    int r = (c >> 16) & 0xFF, g = (c >> 8) & 0xFF, b = c & 0xFF;
+
+                    int bestPixelError = Integer.MAX_VALUE;
+                    for (int i = 0; i < 4; i++)
+                    {
+                        int m = modifier(MODIFIER_TABLES[t], i);
+                        int dr = clamp(base[0] + m) - r;
+                        int dg = clamp(base[1] + m) - g;
+                        int db = clamp(base[2] + m) - b;
+                        int e = dr * dr + dg * dg + db * db;
+                        if (e < bestPixelError)
+                        {
+                            bestPixelError = e;
+                            this.indices[4 * y + x] = i;
+                        }
+                    }
+
+                    error += bestPixelError;
+                }
+            }
+
+            if (error < bestError)
+            {
+                bestError = error;
+                this.subblockTables[sub] = t;
+                for (int y = 0; y < 4; y++)
+                {
+                    for (int x = 0; x < 4; x++)
+                    {
+                        if (subblockOf(flip, x, y) == sub)
+                            this.subblockIndices[4 * y + x] = this.indices[4 * y + x];
+                    }
+                }
+            }
+        }
+
+        return bestError;
+    }
+
+    protected long packBlock(int flip, boolean diff)
+    {
+        int[] c0 = this.quantized[0];
+        int[] c1 = this.quantized[1];
+
+        int hi;
+        if (diff)
+        {
+            hi = (c0[0] << 27) | (((c1[0] - c0[0]) & 7) << 24)
+                | (c0[1] << 19) | (((c1[1] - c0[1]) & 7) << 16)
+                | (c0[2] << 11) | (((c1[2] - c0[2]) & 7) << 8);
+        }
+        else
+        {
+            hi = (c0[0] << 28) | (c1[0] << 24) | (c0[1] << 20) | (c1[1] << 16) | (c0[2] << 12) | (c1[2] << 8);
+        }
+        hi |= (this.subblockTables[0] << 5) | (this.subblockTables[1] << 2) | (diff ? 2 : 0) | flip;
+
+        // Pixel indices are stored in column-major order, with all most significant bits followed by all least
+        // significant bits.
+        int lo = 0;
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                int p = 4 * x + y;
+                int i = this.subblockIndices[4 * y + x];
+                lo |= ((i >> 1) << (p + 16)) | ((i & 1) << p);
+            }
+        }
+
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+
+    //**************************************************************//
+    //********************  ETC2 Modes  ****************************//
+    //**************************************************************//
+
+    /** Distances between the paint colors of ETC2 T and H mode blocks. */
+    protected static final int[] DISTANCE_TABLE = {3, 6, 11, 16, 23, 32, 41, 64};
+
+    protected static void decompressTMode(long block, int[] pixels)
+    {
+        int r0 = expand4((int) (((block >>> 59) & 3) << 2 | ((block >>> 56) & 3)));
+        int g0 = expand4((int) (block >>> 52));
+        int b0 = expand4((int) (block >>> 48));
+        int r1 = expand4((int) (block >>> 44));
+        int g1 = expand4((int) (block >>> 40));
+        int b1 = expand4((int) (block >>> 36));
+        int d = DISTANCE_TABLE[(int) (((block >>> 34) & 3) << 1 | ((block >>> 32) & 1))];
+
+        int[] paint = {
+            makeColor(r0, g0, b0),
+            makeColor(r1 + d, g1 + d, b1 + d),
+            makeColor(r1, g1, b1),
+            makeColor(r1 - d, g1 - d, b1 - d)};
+        decompressPaintColors((int) block, paint, pixels);
+    }
+
+    protected static void decompressHMode(long block, int[] pixels)
+    {
+        int r0 = (int) (block >>> 59) & 0xF;
+        int g0 = (int) (((block >>> 56) & 7) << 1 | ((block >>> 52) & 1));
+        int b0 = (int) (((block >>> 51) & 1) << 3 | ((block >>> 47) & 7));
+        int r1 = (int) (block >>> 43) & 0xF;
+        int g1 = (int) (block >>> 39) & 0xF;
+        int b1 = (int) (block >>> 35) & 0xF;
+
+        // The least significant bit of the distance index is implied by the order of the base colors.
+        int order = ((r0 << 8) | (g0 << 4) | b0) >= ((r1 << 8) | (g1 << 4) | b1) ? 1 : 0;
+        int d = DISTANCE_TABLE[(int) (((block >>> 34) & 1) << 2 | ((block >>> 32) & 1) << 1) | order];
+
+        r0 = expand4(r0);
+        g0 = expand4(g0);
+        b0 = expand4(b0);
+        r1 = expand4(r1);
+        g1 = expand4(g1);
+        b1 = expand4(b1);
+
+        int[] paint = {
+            makeColor(r0 + d, g0 + d, b0 + d),
+            makeColor(r0 - d, g0 - d, b0 - d),
+            makeColor(r1 + d, g1 + d, b1 + d),
+            makeColor(r1 - d, g1 - d, b1 - d)};
+        decompressPaintColors((int) block, paint, pixels);
+    }
+
+    protected static void decompressPlanarMode(long block, int[] pixels)
+    {
+        int ro = expand6((int) (block >>> 57));
+        int go = expand7((int) (((block >>> 56) & 1) << 6 | ((block >>> 49) & 0x3F)));
+        int bo = expand6((int) (((block >>> 48) & 1) << 5 | ((block >>> 43) & 3) << 3 | ((block >>> 39) & 7)));
+        int rh = expand6((int) (((block >>> 34) & 0x1F) << 1 | ((block >>> 32) & 1)));
+        int gh = expand7((int) (block >>> 25));
+        int bh = expand6((int) (block >>> 19));
+        int rv = expand6((int) (block >>> 13));
+        int gv = expand7((int) (block >>> 6));
+        int bv = expand6((int) block);
+
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                pixels[4 * y + x] = makeColor(
+                    (x * (rh - ro) + y * (rv - ro) + 4 * ro + 2) >> 2,
+                    (x * (gh - go) + y * (gv - go) + 4 * go + 2) >> 2,
+                    (x * (bh - bo) + y * (bv - bo) + 4 * bo + 2) >> 2);
+            }
+        }
+    }
+
+    protected static void decompressPaintColors(int lo, int[] paint, int[] pixels)
+    {
+        for (int y = 0; y < 4; y++)
+        {
+            for (int x = 0; x < 4; x++)
+            {
+                pixels[4 * y + x] = paint[pixelIndex(lo, x, y)];
+            }
+        }
+    }
+
+    //**************************************************************//
+    //********************  Utilities  *****************************//
+    //**************************************************************//
+
+    protected static int subblockOf(int flip, int x, int y)
+    {
+        return (flip == 0 ? x : y) >> 1;
+    }
+
+    protected static int pixelIndex(int lo, int x, int y)
+    {
+        int p = 4 * x + y;
+        return (((lo >>> (p + 16)) & 1) << 1) | ((lo >>> p) & 1);
+    }
+
+    /**
+     * Returns the luminance modifier for a pixel index: indices 0 and 1 select the small and large positive modifiers,
+     * and indices 2 and 3 select their negations.
+     *
+     * @param table the modifier table.
+     * @param index the pixel index.
+     *
+     * @return the modifier.
+     */
+    protected static int modifier(int[] table, int index)
+    {
+        return (index & 2) == 0 ? table[index & 1] : -table[index & 1];
+    }
+
+    protected static int signExtend3(int value)
+    {
+        return ((value & 7) << 29) >> 29;
+    }
+
+    protected static int expand4(int value)
+    {
+        value &= 0xF;
+        return (value << 4) | value;
+    }
+
+    protected static int expand5(int value)
+    {
+        value &= 0x1F;
+        return (value << 3) | (value >> 2);
+    }
+
+    protected static int expand6(int value)
+    {
+        value &= 0x3F;
+        return (value << 2) | (value >> 4);
+    }
+
+    protected static int expand7(int value)
+    {
+        value &= 0x7F;
+        return (value << 1) | (value >> 6);
+    }
+
+    protected static int clamp(int value)
+    {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    protected static int makeColor(int r, int g, int b)
+    {
+        return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+}
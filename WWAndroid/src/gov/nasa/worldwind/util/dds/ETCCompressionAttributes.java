@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+/**
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCCompressionAttributes
+{
+    private boolean buildMipmaps;
+    private boolean premultiplyAlpha;
+    private int etcFormat;
+
+    public ETCCompressionAttributes()
+    {
+        this.buildMipmaps = true;
+        this.premultiplyAlpha = true;
+        this.etcFormat = 0;
+    }
+
+    public boolean isBuildMipmaps()
+    {
+        return this.buildMipmaps;
+    }
+
+    public void setBuildMipmaps(boolean buildMipmaps)
+    {
+        this.buildMipmaps = buildMipmaps;
+    }
+
+    public boolean isPremultiplyAlpha()
+    {
+        return this.premultiplyAlpha;
+    }
+
+    public void setPremultiplyAlpha(boolean premultiplyAlpha)
+    {
+        this.premultiplyAlpha = premultiplyAlpha;
+    }
+
+    /**
+     * Returns the GL compressed internal format to compress images to, or 0 to let the compressor choose.
+     *
+     * @return the ETC format, or 0.
+     */
+    public int getETCFormat()
+    {
+        return this.etcFormat;
+    }
+
+    /**
+     * Specifies the GL compressed internal format to compress images to: one of the format constants in {@link
+     * ETCConstants}, or 0 to let the compressor choose ETC1 for opaque images and ETC2 RGBA8 for images with alpha.
+     *
+     * @param etcFormat the ETC format, or 0.
+     */
+    public void setETCFormat(int etcFormat)
+    {
+        this.etcFormat = etcFormat;
+    }
+}
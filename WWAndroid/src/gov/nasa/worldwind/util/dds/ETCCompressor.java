@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.*;
+
+/**
+ * ETCCompressor converts in-memory images into a KTX file encoded with ETC1 or ETC2 block compression, and decodes ETC
+ * compressed data back into pixels for devices which cannot sample ETC2 textures directly. ETC1 is supported by every
+ * OpenGL ES 2.0 device, and ETC2 by every OpenGL ES 3.0 device. Unless the caller specifies a format, opaque images are
+ * compressed to ETC1, and images with alpha to ETC2 RGBA8.
+ * <p/>
+ * ETCCompressor operates on ARGB pixel arrays in row-major order, as returned by <code>Bitmap.getPixels</code>, and
+ * does not depend on the Android graphics classes.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCCompressor
+{
+    /** Creates a new ETCCompressor, but otherwise does nothing. */
+    public ETCCompressor()
+    {
+    }
+
+    /**
+     * Returns the default compression attributes: build mipmaps, premultiply alpha, and let the compressor choose the
+     * ETC format.
+     *
+     * @return the default compression attributes.
+     */
+    public static ETCCompressionAttributes getDefaultCompressionAttributes()
+    {
+        ETCCompressionAttributes attributes = new ETCCompressionAttributes();
+        attributes.setBuildMipmaps(true);
+        attributes.setPremultiplyAlpha(true);
+        attributes.setETCFormat(0); // Allow the ETCCompressor to choose the appropriate ETC format.
+        return attributes;
+    }
+
+    /**
+     * Convenience method to convert the specified image to a KTX file according to the default attributes.
+     *
+     * @param pixels the image's ARGB pixels in row-major order.
+     * @param width  the image's width.
+     * @param height the image's height.
+     *
+     * @return little endian ordered ByteBuffer containing the KTX file bytes.
+     *
+     * @throws IllegalArgumentException if <code>pixels</code> is null, or if the dimensions are invalid.
+     */
+    public static ByteBuffer compressImage(int[] pixels, int width, int height)
+    {
+        ETCCompressor compressor = new ETCCompressor();
+        return compressor.compressImage(pixels, width, height, getDefaultCompressionAttributes());
+    }
+
+    /**
+     * Converts the specified image to a KTX file according to the <code>attributes</code>.
+     *
+     * @param pixels     the image's ARGB pixels in row-major order.
+     * @param width      the image's width.
+     * @param height     the image's height.
+     * @param attributes attributes that control the compression.
+     *
+     * @return little endian ordered ByteBuffer containing the KTX file bytes.
+     *
+     * @throws IllegalArgumentException if <code>pixels</code> or <code>attributes</code> are null, or if the
+     *                                  dimensions are invalid.
+     */
+    public ByteBuffer compressImage(int[] pixels, int width, int height, ETCCompressionAttributes attributes)
+    {
+        return this.createTextureFile(pixels, width, height, attributes).writeKTX();
+    }
+
+    /**
+     * Compresses the specified image and, depending on the <code>attributes</code>, its mipmaps.
+     *
+     * @param pixels     the image's ARGB pixels in row-major order.
+     * @param width      the image's width.
+     * @param height     the image's height.
+     * @param attributes attributes that control the compression.
+     *
+     * @return the compressed texture.
+     *
+     * @throws IllegalArgumentException if <code>pixels</code> or <code>attributes</code> are null, or if the
+     *                                  dimensions are invalid.
+     */
+    public ETCTextureFile createTextureFile(int[] pixels, int width, int height, ETCCompressionAttributes attributes)
+    {
+        if (pixels == null)
+        {
+            String message = Logging.getMessage("nullValue.ImageIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (attributes == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributesIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (width < 1)
+        {
+            String message = Logging.getMessage("generic.WidthIsInvalid", width);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (height < 1)
+        {
+            String message = Logging.getMessage("generic.HeightIsInvalid", height);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (pixels.length < width * height)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", pixels.length);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int format = attributes.getETCFormat();
+        if (format == 0)
+            format = hasAlpha(pixels, width * height) ? ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC
+                : ETCConstants.GL_ETC1_RGB8_OES;
+
+        if (!ETCTextureFile.isETCFormat(format))
+        {
+            String message = Logging.getMessage("generic.FormatIsInvalid", format);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (attributes.isPremultiplyAlpha() && format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC)
+            pixels = premultiplyAlpha(pixels, width * height);
+
+        int numLevels = 1;
+        if (attributes.isBuildMipmaps())
+        {
+            for (int w = width, h = height; w > 1 || h > 1; w = Math.max(w / 2, 1), h = Math.max(h / 2, 1))
+            {
+                numLevels++;
+            }
+        }
+
+        int[] widths = new int[numLevels];
+        int[] heights = new int[numLevels];
+        ByteBuffer[] levelData = new ByteBuffer[numLevels];
+        for (int i = 0; i < numLevels; i++)
+        {
+            widths[i] = width;
+            heights[i] = height;
+            levelData[i] = this.compressLevel(pixels, width, height, format);
+
+            if (i < numLevels - 1)
+            {
+                pixels = downsample(pixels, width, height);
+                width = Math.max(width / 2, 1);
+                height = Math.max(height / 2, 1);
+            }
+        }
+
+        return new ETCTextureFile(format, widths, heights, levelData);
+    }
+
+    protected ByteBuffer compressLevel(int[] pixels, int width, int height, int format)
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ETCTextureFile.getCompressedSize(format, width, height));
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        int[] block = new int[16];
+        BlockETC1Compressor colorCompressor = new BlockETC1Compressor();
+        BlockEACAlphaCompressor alphaCompressor = format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC
+            ? new BlockEACAlphaCompressor() : null;
+
+        for (int j = 0; j < height; j += 4)
+        {
+            for (int i = 0; i < width; i += 4)
+            {
+                extractBlock(pixels, width, height, i, j, block);
+
+                // ETC2 RGBA8 blocks store the alpha block ahead of the color block.
+                if (alphaCompressor != null)
+                    buffer.putLong(alphaCompressor.compressBlock(block));
+                buffer.putLong(colorCompressor.compressBlock(block));
+            }
+        }
+
+        buffer.rewind();
+        return buffer;
+    }
+
+    /**
+     * Decompresses one level of ETC compressed data into ARGB pixels. Alpha is opaque for formats without alpha.
+     *
+     * @param format the GL compressed internal format.
+     * @param width  the level's width.
+     * @param height the level's height.
+     * @param data   the level's compressed blocks, in big endian byte order, starting at the buffer's position.
+     *
+     * @return the level's ARGB pixels in row-major order.
+     *
+     * @throws IllegalArgumentException if <code>data</code> is null or the format is not recognized.
+     */
+    public static int[] decompressLevel(int format, int width, int height, ByteBuffer data)
+    {
+        if (data == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (!ETCTextureFile.isETCFormat(format))
+        {
+            String message = Logging.getMessage("generic.FormatIsInvalid", format);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        data = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+        boolean alpha = format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC;
+
+        int[] pixels = new int[width * height];
+        int[] block = new int[16];
+        for (int j = 0; j < height; j += 4)
+        {
+            for (int i = 0; i < width; i += 4)
+            {
+                long alphaBlock = alpha ? data.getLong() : 0;
+                BlockETC1Compressor.decompressBlock(data.getLong(), block);
+                if (alpha)
+                    BlockEACAlphaCompressor.decompressBlock(alphaBlock, block);
+
+                for (int y = 0; y < 4 && j + y < height; y++)
+                {
+                    for (int x = 0; x < 4 && i + x < width; x++)
+                    {
+                        pixels[(j + y) * width + i + x] = block[4 * y + x];
+                    }
+                }
+            }
+        }
+
+        return pixels;
+    }
+
+    protected static void extractBlock(int[] pixels, int width, int height, int i, int j, int[] block)
+    {
+        // Blocks which extend past the image's edge repeat its last row and column.
+        for (int y = 0; y < 4; y++)
+        {
+            int row = Math.min(j + y, height - 1) * width;
+            for (int x = 0; x < 4; x++)
+            {
+                block[4 * y + x] = pixels[row + Math.min(i + x, width - 1)];
+            }
+        }
+    }
+
+    protected static boolean hasAlpha(int[] pixels, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if ((pixels[i] >>> 24) != 0xFF)
+                return true;
+        }
+
+        return false;
+    }
+
+    protected static int[] premultiplyAlpha(int[] pixels, int count)
+    {
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            int c = pixels[i];
+            int a = c >>> 24;
+            int r = ((c >> 16) & 0xFF) * a / 255;
+            int g = ((c >> 8) & 0xFF) * a / 255;
+            int b = (c & 0xFF) * a / 255;
+            result[i] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the next mipmap level of an image by averaging each 2x2 group of pixels. A dimension of one pixel is not
+     * reduced further.
+     *
+     * @param pixels the image's ARGB pixels in row-major order.
+     * @param width  the image's width.
+     * @param height the image's height.
+     *
+     * @return the ARGB pixels of the next mipmap level.
+     */
+    protected static int[] downsample(int[] pixels, int width, int height)
+    {
+        int newWidth = Math.max(width / 2, 1);
+        int newHeight = Math.max(height / 2, 1);
+        int[] result = new int[newWidth * newHeight];
+
+        for (int y = 0; y < newHeight; y++)
+        {
+            int y0 = Math.min(2 * y, height - 1) * width;
+            int y1 = Math.min(2 * y + 1, height - 1) * width;
+            for (int x = 0; x < newWidth; x++)
+            {
+                int x0 = Math.min(2 * x, width - 1);
+                int x1 = Math.min(2 * x + 1, width - 1);
+                int c0 = pixels[y0 + x0], c1 = pixels[y0 + x1], c2 = pixels[y1 + x0], c3 = pixels[y1 + x1];
+
+                int value = 0;
+                for (int shift = 0; shift < 32; shift += 8)
+                {
+                    int sum = ((c0 >>> shift) & 0xFF) + ((c1 >>> shift) & 0xFF) + ((c2 >>> shift) & 0xFF)
+                        + ((c3 >>> shift) & 0xFF);
+                    value |= ((sum + 2) >> 2) << shift;
+                }
+                result[y * newWidth + x] = value;
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+/**
+ * Documented constants for the ETC1 and ETC2 texture compression formats, and for the KTX and PKM files used to store
+ * them. See the OpenGL ES 3.0 Specification, appendix C.1, and http://www.khronos.org/opengles/sdk/tools/KTX/file_format_spec/.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCConstants
+{
+    // ETC compression internal formats. See http://www.khronos.org/registry/gles/extensions/OES/OES_compressed_ETC1_RGB8_texture.txt
+    // and the OpenGL ES 3.0 Specification, table 3.19.
+    public static final int GL_ETC1_RGB8_OES = 0x8D64;
+    public static final int GL_COMPRESSED_RGB8_ETC2 = 0x9274;
+    public static final int GL_COMPRESSED_RGBA8_ETC2_EAC = 0x9278;
+
+    // Base internal formats written to KTX files.
+    public static final int GL_RGB = 0x1907;
+    public static final int GL_RGBA = 0x1908;
+
+    /** Size in bytes of an ETC1 or ETC2 RGB block, and of an EAC alpha block. */
+    public static final int BLOCK_SIZE = 8;
+
+    public static final byte[] KTX_IDENTIFIER = {
+        (byte) 0xAB, 0x4B, 0x54, 0x58, 0x20, 0x31, 0x31, (byte) 0xBB, 0x0D, 0x0A, 0x1A, 0x0A};
+    public static final int KTX_ENDIANNESS = 0x04030201;
+    public static final int KTX_HEADER_SIZE = 64;
+
+    public static final byte[] PKM_MAGIC = {0x50, 0x4B, 0x4D, 0x20}; // "PKM "
+    public static final int PKM_HEADER_SIZE = 16;
+    // PKM data types. See the etcpack tool distributed by Ericsson.
+    public static final int PKM_ETC1_RGB = 0;
+    public static final int PKM_ETC2_RGB = 1;
+    public static final int PKM_ETC2_RGBA = 3;
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.util.dds;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.*;
+
+/**
+ * The contents of an ETC compressed texture file: the texture's compressed format, and the compressed data of each of
+ * its mipmap levels. ETCTextureFile writes KTX files, and reads both KTX files and the single level PKM files written
+ * by the etcpack tool. KTX files with formats other than ETC1 and ETC2 are not recognized.
+ * <p/>
+ * Documentation on the KTX file format is available at http://www.khronos.org/opengles/sdk/tools/KTX/file_format_spec/.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCTextureFile
+{
+    protected final int format;
+    protected final int[] widths;
+    protected final int[] heights;
+    protected final ByteBuffer[] levelData;
+
+    /**
+     * Creates a texture file from the compressed data of each mipmap level.
+     *
+     * @param format    the GL compressed internal format; one of the format constants in {@link ETCConstants}.
+     * @param widths    the width of each level in pixels.
+     * @param heights   the height of each level in pixels.
+     * @param levelData the compressed blocks of each level. Each buffer's remaining bytes are used.
+     *
+     * @throws IllegalArgumentException if the format is not recognized, if any array is null or empty, or if the
+     *                                  arrays' lengths differ.
+     */
+    public ETCTextureFile(int format, int[] widths, int[] heights, ByteBuffer[] levelData)
+    {
+        if (!isETCFormat(format))
+        {
+            String message = Logging.getMessage("generic.FormatIsInvalid", format);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (widths == null || heights == null || levelData == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (levelData.length == 0 || widths.length != levelData.length || heights.length != levelData.length)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", levelData.length);
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.format = format;
+        this.widths = widths;
+        this.heights = heights;
+        this.levelData = levelData;
+    }
+
+    /**
+     * Indicates whether a GL internal format is one of the ETC formats read and written by this class.
+     *
+     * @param format the GL internal format.
+     *
+     * @return true if the format is ETC1, ETC2 RGB8 or ETC2 RGBA8, and false otherwise.
+     */
+    public static boolean isETCFormat(int format)
+    {
+        return format == ETCConstants.GL_ETC1_RGB8_OES || format == ETCConstants.GL_COMPRESSED_RGB8_ETC2
+            || format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC;
+    }
+
+    /**
+     * Returns the number of bytes of compressed data in a level of the specified format and dimensions.
+     *
+     * @param format the GL compressed internal format.
+     * @param width  the level's width in pixels.
+     * @param height the level's height in pixels.
+     *
+     * @return the level's size in bytes.
+     */
+    public static int getCompressedSize(int format, int width, int height)
+    {
+        int blockSize = format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC ? 2 * ETCConstants.BLOCK_SIZE
+            : ETCConstants.BLOCK_SIZE;
+        return ((width + 3) / 4) * ((height + 3) / 4) * blockSize;
+    }
+
+    /**
+     * Indicates whether the specified bytes start with a KTX or PKM file signature.
+     *
+     * @param header at least the first 12 bytes of a file.
+     *
+     * @return true if the bytes look like a KTX or PKM file, and false otherwise.
+     */
+    public static boolean isETCTextureFile(byte[] header)
+    {
+        return startsWith(header, ETCConstants.KTX_IDENTIFIER) || startsWith(header, ETCConstants.PKM_MAGIC);
+    }
+
+    /**
+     * Reads a KTX or PKM file. The returned texture's level data are slices of the specified buffer.
+     *
+     * @param buffer the file's bytes, starting at the buffer's position.
+     *
+     * @return the texture, or null if the buffer does not contain an ETC compressed KTX or PKM file.
+     *
+     * @throws IllegalArgumentException if the buffer is null.
+     */
+    public static ETCTextureFile read(ByteBuffer buffer)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.error(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        buffer = buffer.slice();
+        try
+        {
+            byte[] header = new byte[ETCConstants.KTX_IDENTIFIER.length];
+            if (buffer.remaining() < header.length)
+                return null;
+            buffer.get(header);
+            buffer.rewind();
+
+            if (startsWith(header, ETCConstants.KTX_IDENTIFIER))
+                return readKTX(buffer);
+            else if (startsWith(header, ETCConstants.PKM_MAGIC))
+                return readPKM(buffer);
+        }
+        catch (BufferUnderflowException e)
+        {
+            // The file is truncated.
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            // The file is truncated.
+        }
+
+        return null;
+    }
+
+    protected static ETCTextureFile readKTX(ByteBuffer buffer)
+    {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(ETCConstants.KTX_IDENTIFIER.length);
+        if (buffer.getInt() != ETCConstants.KTX_ENDIANNESS)
+        {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            buffer.position(ETCConstants.KTX_IDENTIFIER.length);
+            if (buffer.getInt() != ETCConstants.KTX_ENDIANNESS)
+                return null;
+        }
+
+        buffer.getInt(); // glType
+        buffer.getInt(); // glTypeSize
+        buffer.getInt(); // glFormat
+        int format = buffer.getInt();
+        buffer.getInt(); // glBaseInternalFormat
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        buffer.getInt(); // pixelDepth
+        buffer.getInt(); // numberOfArrayElements
+        int numFaces = buffer.getInt();
+        int numLevels = Math.max(1, buffer.getInt());
+        int keyValueBytes = buffer.getInt();
+
+        if (!isETCFormat(format) || numFaces != 1 || width < 1 || height < 1)
+            return null;
+
+        buffer.position(buffer.position() + keyValueBytes);
+
+        int[] widths = new int[numLevels];
+        int[] heights = new int[numLevels];
+        ByteBuffer[] levelData = new ByteBuffer[numLevels];
+        for (int i = 0; i < numLevels; i++)
+        {
+            int size = buffer.getInt();
+            if (size != getCompressedSize(format, width, height))
+                return null;
+
+            widths[i] = width;
+            heights[i] = height;
+            levelData[i] = slice(buffer, size);
+            buffer.position(buffer.position() + ((size + 3) & ~3));
+
+            width = Math.max(width / 2, 1);
+            height = Math.max(height / 2, 1);
+        }
+
+        return new ETCTextureFile(format, widths, heights, levelData);
+    }
+
+    protected static ETCTextureFile readPKM(ByteBuffer buffer)
+    {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.position(ETCConstants.PKM_MAGIC.length + 2); // Skip the magic and the version.
+
+        int format;
+        switch (buffer.getShort())
+        {
+            case ETCConstants.PKM_ETC1_RGB:
+                format = ETCConstants.GL_ETC1_RGB8_OES;
+                break;
+            case ETCConstants.PKM_ETC2_RGB:
+                format = ETCConstants.GL_COMPRESSED_RGB8_ETC2;
+                break;
+            case ETCConstants.PKM_ETC2_RGBA:
+                format = ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC;
+                break;
+            default:
+                return null;
+        }
+
+        buffer.getShort(); // Width padded to a multiple of four.
+        buffer.getShort(); // Height padded to a multiple of four.
+        int width = buffer.getShort() & 0xFFFF;
+        int height = buffer.getShort() & 0xFFFF;
+        if (width < 1 || height < 1)
+            return null;
+
+        ByteBuffer data = slice(buffer, getCompressedSize(format, width, height));
+        return new ETCTextureFile(format, new int[] {width}, new int[] {height}, new ByteBuffer[] {data});
+    }
+
+    /**
+     * Returns the texture's GL compressed internal format.
+     *
+     * @return the texture's format; one of the format constants in {@link ETCConstants}.
+     */
+    public int getFormat()
+    {
+        return this.format;
+    }
+
+    public int getLevelCount()
+    {
+        return this.levelData.length;
+    }
+
+    public int getWidth(int level)
+    {
+        return this.widths[level];
+    }
+
+    public int getHeight(int level)
+    {
+        return this.heights[level];
+    }
+
+    /**
+     * Returns the compressed blocks of a mipmap level, in big endian byte order.
+     *
+     * @param level the mipmap level.
+     *
+     * @return a new view of the level's compressed blocks.
+     */
+    public ByteBuffer getLevelData(int level)
+    {
+        return this.levelData[level].duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Returns the total size of the compressed data of all mipmap levels.
+     *
+     * @return the size of the texture's compressed data in bytes.
+     */
+    public long getSizeInBytes()
+    {
+        long size = 0;
+        for (ByteBuffer buffer : this.levelData)
+        {
+            size += buffer.remaining();
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes the texture as a KTX file.
+     *
+     * @return a buffer containing the file's bytes, positioned at zero.
+     */
+    public ByteBuffer writeKTX()
+    {
+        int size = ETCConstants.KTX_HEADER_SIZE;
+        for (ByteBuffer data : this.levelData)
+        {
+            size += 4 + ((data.remaining() + 3) & ~3);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(ETCConstants.KTX_IDENTIFIER);
+        buffer.putInt(ETCConstants.KTX_ENDIANNESS);
+        buffer.putInt(0); // glType is zero for compressed textures.
+        buffer.putInt(1); // glTypeSize is one for compressed textures.
+        buffer.putInt(0); // glFormat is zero for compressed textures.
+        buffer.putInt(this.format);
+        buffer.putInt(this.format == ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC ? ETCConstants.GL_RGBA
+            : ETCConstants.GL_RGB);
+        buffer.putInt(this.widths[0]);
+        buffer.putInt(this.heights[0]);
+        buffer.putInt(0); // pixelDepth
+        buffer.putInt(0); // numberOfArrayElements
+        buffer.putInt(1); // numberOfFaces
+        buffer.putInt(this.levelData.length);
+        buffer.putInt(0); // bytesOfKeyValueData
+
+        for (ByteBuffer data : this.levelData)
+        {
+            int length = data.remaining();
+            buffer.putInt(length);
+            buffer.put(data.duplicate());
+            for (int i = length; i < ((length + 3) & ~3); i++)
+            {
+                buffer.put((byte) 0);
+            }
+        }
+
+        buffer.rewind();
+        return buffer;
+    }
+
+    protected static ByteBuffer slice(ByteBuffer buffer, int length)
+    {
+        if (buffer.remaining() < length)
+            throw new BufferUnderflowException();
+
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+        ByteBuffer slice = buffer.slice();
+        buffer.limit(limit);
+
+        return slice;
+    }
+
+    protected static boolean startsWith(byte[] bytes, byte[] prefix)
+    {
+        if (bytes == null || bytes.length < prefix.length)
+            return false;
+
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if (bytes[i] != prefix[i])
+                return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.util.dds;
+
+import gov.nasa.worldwind.render.GpuTextureData;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads ETC1 and ETC2 compressed textures from KTX and PKM files. See {@link ETCTextureFile}.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCTextureReader
+{
+    public ETCTextureReader()
+    {
+    }
+
+    public GpuTextureData read(InputStream stream)
+    {
+        if (stream == null)
+        {
+            String msg = Logging.getMessage("nullValue.InputStreamIsNull");
+            Logging.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        GpuTextureData data = null;
+        try
+        {
+            data = this.doRead(stream);
+        }
+        catch (Exception e)
+        {
+            // Intentionally left blank. ETCTextureReader just silently returns null, like DDSTextureReader.
+        }
+
+        return data;
+    }
+
+    protected GpuTextureData doRead(InputStream stream) throws IOException
+    {
+        // Read only the file signature before deciding whether to consume the rest of the stream, so that callers can
+        // reset the stream and try another reader.
+        byte[] header = new byte[ETCConstants.KTX_IDENTIFIER.length];
+        new DataInputStream(stream).readFully(header);
+        if (!ETCTextureFile.isETCTextureFile(header))
+            return null;
+
+        ByteBuffer rest = WWIO.readStreamToBuffer(stream);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(header.length + rest.remaining());
+        buffer.put(header);
+        buffer.put(rest);
+        buffer.rewind();
+
+        ETCTextureFile file = ETCTextureFile.read(buffer);
+        if (file == null)
+            return null;
+
+        GpuTextureData.MipmapData[] levelData = new GpuTextureData.MipmapData[file.getLevelCount()];
+        for (int i = 0; i < levelData.length; i++)
+        {
+            levelData[i] = new GpuTextureData.MipmapData(file.getWidth(i), file.getHeight(i), file.getLevelData(i));
+        }
+
+        return GpuTextureData.fromCompressedData(file.getFormat(), levelData, file.getSizeInBytes());
+    }
+}
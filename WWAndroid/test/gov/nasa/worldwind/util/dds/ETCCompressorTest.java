@@ -0,0 +1,165 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util.dds;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+/**
+ * Tests that images compressed by ETCCompressor decompress to within a bounded error of the original pixels.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCCompressorTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final int WIDTH = 32;
+        protected static final int HEIGHT = 32;
+        /** Largest root mean square error allowed in any channel, in the range [0, 255]. */
+        protected static final double MAX_RMS_ERROR = 8;
+        /** Largest error allowed in any channel of any pixel, in the range [0, 255]. */
+        protected static final int MAX_ERROR = 40;
+
+        public void testETC1RoundTrip()
+        {
+            int[] pixels = createImage(WIDTH, HEIGHT, false);
+            ETCTextureFile file = compress(pixels, ETCConstants.GL_ETC1_RGB8_OES);
+
+            assertEquals("Format", ETCConstants.GL_ETC1_RGB8_OES, file.getFormat());
+            assertEquals("Compressed size", WIDTH * HEIGHT / 2, file.getSizeInBytes());
+
+            int[] result = ETCCompressor.decompressLevel(file.getFormat(), WIDTH, HEIGHT, file.getLevelData(0));
+            assertError(pixels, result, new int[] {16, 8, 0});
+
+            for (int p : result)
+            {
+                assertEquals("Alpha", 0xFF, p >>> 24);
+            }
+        }
+
+        public void testETC2RoundTrip()
+        {
+            int[] pixels = createImage(WIDTH, HEIGHT, true);
+            ETCTextureFile file = compress(pixels, ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC);
+
+            assertEquals("Format", ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC, file.getFormat());
+            assertEquals("Compressed size", WIDTH * HEIGHT, file.getSizeInBytes());
+
+            int[] result = ETCCompressor.decompressLevel(file.getFormat(), WIDTH, HEIGHT, file.getLevelData(0));
+            assertError(pixels, result, new int[] {24, 16, 8, 0});
+        }
+
+        public void testSolidBlocksRoundTrip()
+        {
+            int[] colors = {0xFF000000, 0xFFFFFFFF, 0xFF808080, 0xFFC03010, 0x80204060, 0x00000000};
+            BlockETC1Compressor colorCompressor = new BlockETC1Compressor();
+            BlockEACAlphaCompressor alphaCompressor = new BlockEACAlphaCompressor();
+
+            for (int color : colors)
+            {
+                int[] block = new int[16];
+                java.util.Arrays.fill(block, color);
+
+                int[] result = new int[16];
+                BlockETC1Compressor.decompressBlock(colorCompressor.compressBlock(block), result);
+                BlockEACAlphaCompressor.decompressBlock(alphaCompressor.compressBlock(block), result);
+
+                for (int p : result)
+                {
+                    assertEquals("Alpha of " + Integer.toHexString(color), color >>> 24, p >>> 24);
+                    for (int shift = 0; shift < 24; shift += 8)
+                    {
+                        int error = Math.abs(((color >> shift) & 0xFF) - ((p >> shift) & 0xFF));
+                        assertTrue("Error of " + Integer.toHexString(color), error <= 8);
+                    }
+                }
+            }
+        }
+
+        public void testNonMultipleOfFourSize()
+        {
+            int width = 13;
+            int height = 7;
+            int[] pixels = createImage(width, height, false);
+
+            ETCCompressionAttributes attributes = new ETCCompressionAttributes();
+            attributes.setBuildMipmaps(false);
+            ETCTextureFile file = new ETCCompressor().createTextureFile(pixels, width, height, attributes);
+
+            assertEquals("Compressed size", 4 * 2 * ETCConstants.BLOCK_SIZE, file.getSizeInBytes());
+
+            int[] result = ETCCompressor.decompressLevel(file.getFormat(), width, height, file.getLevelData(0));
+            assertEquals("Pixel count", width * height, result.length);
+            assertError(pixels, result, new int[] {16, 8, 0});
+        }
+
+        protected static ETCTextureFile compress(int[] pixels, int format)
+        {
+            ETCCompressionAttributes attributes = new ETCCompressionAttributes();
+            attributes.setBuildMipmaps(false);
+            attributes.setPremultiplyAlpha(false);
+            attributes.setETCFormat(format);
+
+            return new ETCCompressor().createTextureFile(pixels, WIDTH, HEIGHT, attributes);
+        }
+
+        /**
+         * Creates an image of smooth gradients in each channel, with a sharp edge down its middle. The gradients step
+         * by eight per pixel regardless of the image's size.
+         *
+         * @param width  the image's width.
+         * @param height the image's height.
+         * @param alpha  true to vary alpha across the image, false to make the image opaque.
+         *
+         * @return the image's ARGB pixels.
+         */
+        protected static int[] createImage(int width, int height, boolean alpha)
+        {
+            int[] pixels = new int[width * height];
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    int a = alpha ? Math.min(8 * y, 255) : 255;
+                    int r = Math.min(8 * x, 255);
+                    int g = Math.min(8 * y, 255);
+                    int b = x < width / 2 ? 64 : 192;
+                    pixels[y * width + x] = (a << 24) | (r << 16) | (g << 8) | b;
+                }
+            }
+
+            return pixels;
+        }
+
+        protected static void assertError(int[] expected, int[] actual, int[] shifts)
+        {
+            assertEquals("Pixel count", expected.length, actual.length);
+
+            for (int shift : shifts)
+            {
+                double sumSquares = 0;
+                for (int i = 0; i < expected.length; i++)
+                {
+                    int error = Math.abs(((expected[i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF));
+                    assertTrue("Error at pixel " + i + " channel " + shift / 8 + ": " + error, error <= MAX_ERROR);
+                    sumSquares += error * error;
+                }
+
+                double rms = Math.sqrt(sumSquares / expected.length);
+                assertTrue("RMS error in channel " + shift / 8 + ": " + rms, rms <= MAX_RMS_ERROR);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
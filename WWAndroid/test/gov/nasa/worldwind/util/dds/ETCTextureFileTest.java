@@ -0,0 +1,102 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util.dds;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.nio.*;
+
+/**
+ * Tests that ETCTextureFile reads back the KTX files it writes.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ETCTextureFileTest
+{
+    public static class Tests extends TestCase
+    {
+        public void testKTXHeader()
+        {
+            ETCTextureFile file = createTextureFile(64, 32, ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC);
+            ByteBuffer buffer = file.writeKTX().order(ByteOrder.LITTLE_ENDIAN);
+
+            byte[] identifier = new byte[ETCConstants.KTX_IDENTIFIER.length];
+            buffer.get(identifier);
+            assertTrue("Identifier", java.util.Arrays.equals(ETCConstants.KTX_IDENTIFIER, identifier));
+            assertTrue("ETC texture file", ETCTextureFile.isETCTextureFile(identifier));
+
+            assertEquals("Endianness", ETCConstants.KTX_ENDIANNESS, buffer.getInt());
+            assertEquals("glType", 0, buffer.getInt());
+            assertEquals("glTypeSize", 1, buffer.getInt());
+            assertEquals("glFormat", 0, buffer.getInt());
+            assertEquals("glInternalFormat", ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC, buffer.getInt());
+            assertEquals("glBaseInternalFormat", ETCConstants.GL_RGBA, buffer.getInt());
+            assertEquals("pixelWidth", 64, buffer.getInt());
+            assertEquals("pixelHeight", 32, buffer.getInt());
+            assertEquals("pixelDepth", 0, buffer.getInt());
+            assertEquals("numberOfArrayElements", 0, buffer.getInt());
+            assertEquals("numberOfFaces", 1, buffer.getInt());
+            assertEquals("numberOfMipmapLevels", file.getLevelCount(), buffer.getInt());
+            assertEquals("bytesOfKeyValueData", 0, buffer.getInt());
+            assertEquals("Header size", ETCConstants.KTX_HEADER_SIZE, buffer.position());
+            assertEquals("imageSize", ETCTextureFile.getCompressedSize(file.getFormat(), 64, 32), buffer.getInt());
+        }
+
+        public void testKTXRoundTrip()
+        {
+            int[] formats = {ETCConstants.GL_ETC1_RGB8_OES, ETCConstants.GL_COMPRESSED_RGBA8_ETC2_EAC};
+
+            for (int format : formats)
+            {
+                ETCTextureFile expected = createTextureFile(16, 8, format);
+                ETCTextureFile actual = ETCTextureFile.read(expected.writeKTX());
+
+                assertNotNull("Texture file", actual);
+                assertEquals("Format", expected.getFormat(), actual.getFormat());
+                assertEquals("Level count", 5, actual.getLevelCount());
+                assertEquals("Size", expected.getSizeInBytes(), actual.getSizeInBytes());
+
+                for (int level = 0; level < expected.getLevelCount(); level++)
+                {
+                    assertEquals("Width of level " + level, expected.getWidth(level), actual.getWidth(level));
+                    assertEquals("Height of level " + level, expected.getHeight(level), actual.getHeight(level));
+                    assertEquals("Data of level " + level, expected.getLevelData(level), actual.getLevelData(level));
+                }
+            }
+        }
+
+        public void testTruncatedKTX()
+        {
+            ByteBuffer buffer = createTextureFile(16, 16, ETCConstants.GL_ETC1_RGB8_OES).writeKTX();
+            buffer.limit(buffer.limit() - 1);
+
+            assertNull("Truncated file", ETCTextureFile.read(buffer));
+        }
+
+        protected static ETCTextureFile createTextureFile(int width, int height, int format)
+        {
+            int[] pixels = new int[width * height];
+            for (int i = 0; i < pixels.length; i++)
+            {
+                pixels[i] = 0x80000000 | (i * 0x010305);
+            }
+
+            ETCCompressionAttributes attributes = new ETCCompressionAttributes();
+            attributes.setETCFormat(format);
+
+            return new ETCCompressor().createTextureFile(pixels, width, height, attributes);
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -5,10 +5,26 @@
 
 package gov.nasa.worldwind.servers.app;
 
+import gov.nasa.worldwind.servers.http.HTTPResponse;
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.WWUtil;
+
+import java.io.OutputStream;
 import java.net.Socket;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
+ * Executes client connections of a single server application on a fixed number of worker threads. The pool size is the
+ * application's concurrency quota.
+ * <p/>
+ * Admission is bounded: when the number of queued connections reaches the maximum queue size, a new connection is
+ * rejected right away with <code>503 Service Unavailable</code> and a <code>Retry-After</code> header, instead of
+ * waiting in the queue until the client gives up. A connection takes its place in the queue before its HTTP request
+ * line is read, so clients that are slow to send the request line count toward the maximum queue size. The request
+ * line is used to serve cheap requests (see {@link #getPriority(String)}) ahead of expensive map renders. Within the
+ * same priority the most recent connection is served first, as its client is the least likely to have timed out.
+ *
  * @author Lado Garakanidze
  * @version $
  */
@@ -16,35 +32,216 @@ import java.util.concurrent.*;
 public class ApplicationPool
 {
     protected static final int DEFAULT_THREAD_POOL_SIZE = 8;
+    protected static final int DEFAULT_QUEUE_SIZE_PER_THREAD = 16;
+    /** Maximum time to wait for a client to send the HTTP request line. */
+    protected static final int REQUEST_LINE_TIMEOUT = 2000; // 2 sec
+    protected static final int MIN_RETRY_AFTER = 1;  // sec
+    protected static final int MAX_RETRY_AFTER = 60; // sec
 
-    private ExecutorService threadPool = null;
+    /** Priority of requests that are cheap to serve, like GetCapabilities. */
+    public static final int PRIORITY_HIGH = 0;
+    /** Priority of regular map requests. */
+    public static final int PRIORITY_NORMAL = 1;
+    /** Priority of requests that are known to be expensive, like GetElevations over many locations. */
+    public static final int PRIORITY_LOW = 2;
 
-    public ApplicationPool(int size)
+    private ThreadPoolExecutor threadPool = null;
+    private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+    private int maxQueueSize = DEFAULT_THREAD_POOL_SIZE * DEFAULT_QUEUE_SIZE_PER_THREAD;
+    private final AtomicLong sequence = new AtomicLong();
+    /** Number of admitted connections that have not started executing. */
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    public ApplicationPool(int size, int maxQueueSize)
     {
+        this.setMaxQueueSize(maxQueueSize);
         this.setThreadPoolSize(size);
     }
 
+    public ApplicationPool(int size)
+    {
+        this(size, size * DEFAULT_QUEUE_SIZE_PER_THREAD);
+    }
+
+    public ApplicationPool()
+    {
+        this(DEFAULT_THREAD_POOL_SIZE);
+    }
+
     public void setThreadPoolSize(int size)
     {
         try
         {
-            if( this.threadPool != null )
+            if (this.threadPool != null)
                 this.threadPool.shutdown();
         }
         finally
         {
-            this.threadPool = new ThreadPoolExecutor( size, size, 0, TimeUnit.SECONDS, new LIFOBlockingDeque<Runnable>());
+            this.threadPoolSize = (size > 0) ? size : DEFAULT_THREAD_POOL_SIZE;
+            this.threadPool = new ThreadPoolExecutor(this.threadPoolSize, this.threadPoolSize, 0, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>())
+            {
+                @Override
+                protected void beforeExecute(Thread thread, Runnable runnable)
+                {
+                    super.beforeExecute(thread, runnable);
+                    queuedCount.decrementAndGet();
+                }
+            };
         }
     }
 
-    public ApplicationPool()
+    public int getThreadPoolSize()
     {
-        this(DEFAULT_THREAD_POOL_SIZE);
+        return this.threadPoolSize;
+    }
+
+    public int getMaxQueueSize()
+    {
+        return this.maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize)
+    {
+        this.maxQueueSize = (maxQueueSize > 0) ? maxQueueSize : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of connections admitted to this pool that have not started executing, including connections
+     * whose request line is being read.
+     *
+     * @return the number of queued connections.
+     */
+    public int getQueueSize()
+    {
+        return this.queuedCount.get();
     }
 
     public void execute(Socket socket, ServerApplication app)
     {
-        if (socket != null && socket.isConnected())
-            this.threadPool.execute(new ServerWorkerThread(socket, app));
+        if (socket == null || !socket.isConnected())
+            return;
+
+        if (!this.reserveQueueSlot())
+        {
+            this.reject(socket, app);
+            return;
+        }
+
+        int priority = PRIORITY_NORMAL;
+        try
+        {
+            PrefetchedSocket prefetched = PrefetchedSocket.prefetchRequestLine(socket, REQUEST_LINE_TIMEOUT);
+            priority = this.getPriority(prefetched.getRequestLine());
+            socket = prefetched;
+        }
+        catch (Exception e)
+        {
+            // The application will fail reading the request and report the problem; keep the default priority.
+            Logging.logger().finest(WWUtil.extractExceptionReason(e));
+        }
+
+        try
+        {
+            this.threadPool.execute(new ServerWorkerThread(socket, app, priority, this.sequence.incrementAndGet()));
+        }
+        catch (RuntimeException e)
+        {
+            this.queuedCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a place in the queue for a new connection, unless the queue is full. The place is released when the
+     * connection starts executing.
+     *
+     * @return true if the connection is admitted, false if the queue is full.
+     */
+    protected boolean reserveQueueSlot()
+    {
+        while (true)
+        {
+            int count = this.queuedCount.get();
+            if (count >= this.getMaxQueueSize())
+                return false;
+
+            if (this.queuedCount.compareAndSet(count, count + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Determines the scheduling priority of a request from its HTTP request line. Subclasses may override this to
+     * recognize other inexpensive requests, for example requests of map sources that only serve pre-rendered tiles.
+     *
+     * @param requestLine the HTTP request line, for example <code>GET /wms?REQUEST=GetMap&... HTTP/1.1</code>.
+     *
+     * @return one of {@link #PRIORITY_HIGH}, {@link #PRIORITY_NORMAL} or {@link #PRIORITY_LOW}.
+     */
+    protected int getPriority(String requestLine)
+    {
+        if (WWUtil.isEmpty(requestLine))
+            return PRIORITY_NORMAL;
+
+        String s = requestLine.toLowerCase();
+        if (s.contains("request=getcapabilities"))
+            return PRIORITY_HIGH;
+        if (s.contains("request=getelevations") || s.contains("request=getimagerylist"))
+            return PRIORITY_LOW;
+
+        return PRIORITY_NORMAL;
+    }
+
+    /**
+     * Estimates how many seconds a rejected client should wait before retrying, from the current queue length and the
+     * application's mean execution time.
+     *
+     * @param app the server application.
+     *
+     * @return seconds to wait, clamped to [1, 60].
+     */
+    protected int estimateRetryAfter(ServerApplication app)
+    {
+        double meanExecTime = ServerMetrics.getInstance().getApplicationMetrics(app.getName())
+            .getHistogram(ServerMetrics.EXECUTION_TIME).getMean();
+
+        double seconds = this.getQueueSize() * meanExecTime / (1000d * this.getThreadPoolSize());
+        return (int) Math.max(MIN_RETRY_AFTER, Math.min(MAX_RETRY_AFTER, Math.ceil(seconds)));
+    }
+
+    protected void reject(Socket socket, ServerApplication app)
+    {
+        ServerMetrics.getInstance().getApplicationMetrics(app.getName()).increment(ServerMetrics.REJECTED);
+        sendServiceUnavailable(socket, this.estimateRetryAfter(app));
+        ServerWorkerThread.shutdownSocket(socket);
+    }
+
+    /**
+     * Writes a <code>503 Service Unavailable</code> response with a <code>Retry-After</code> header to the client.
+     *
+     * @param socket     the client socket.
+     * @param retryAfter the number of seconds the client should wait before retrying.
+     */
+    protected static void sendServiceUnavailable(Socket socket, int retryAfter)
+    {
+        try
+        {
+            byte[] bytes = Logging.getMessage("WMS.Server.Busy").getBytes();
+
+            HTTPResponse resp = new HTTPResponse(socket);
+            resp.setStatus(HTTPResponse.SERVER_ERROR_SERVICE_UNAVAILABLE);
+            resp.setContentType("text/plain");
+            resp.setContentLength(bytes.length);
+            resp.addHeader("Retry-After", Integer.toString(retryAfter));
+
+            OutputStream out = resp.getOutputStream();
+            out.write(bytes);
+            resp.flushBuffer();
+        }
+        catch (Exception e)
+        {
+            Logging.logger().finest(WWUtil.extractExceptionReason(e));
+        }
     }
 }
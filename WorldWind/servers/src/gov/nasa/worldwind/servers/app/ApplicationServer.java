@@ -32,7 +32,10 @@ import java.net.BindException;
 import java.net.Socket;
 import java.util.Hashtable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -45,7 +48,11 @@ public class ApplicationServer
     private static final ApplicationServer instance = new ApplicationServer();
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
-    private static final ExecutorService clientSocketPool = Executors.newCachedThreadPool();
+    /** Maximum number of connections dispatched to their application pools at the same time. */
+    private static final int MAX_DISPATCH_THREADS = 256;
+
+    private static final ExecutorService clientSocketPool = new ThreadPoolExecutor(0, MAX_DISPATCH_THREADS,
+            60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
 
     private static final Hashtable<Integer, SocketListener> socketlisteners =
             new Hashtable<Integer, SocketListener>();
@@ -362,6 +369,12 @@ public class ApplicationServer
                     {
                         int size = Integer.parseInt("" + app.getValue(AVKey.SERVER_APPLICATION_POOL_SIZE));
                         pool = new ApplicationPool(size);
+
+                        if (app.hasKey(AVKey.SERVER_APPLICATION_POOL_QUEUE_SIZE))
+                        {
+                            pool.setMaxQueueSize(Integer.parseInt(
+                                "" + app.getValue(AVKey.SERVER_APPLICATION_POOL_QUEUE_SIZE)));
+                        }
                     }
                     catch (Exception e)
                     {
@@ -413,7 +426,17 @@ public class ApplicationServer
 
     public static void dispatch(Socket socket)
     {
-        clientSocketPool.execute(new ClientSocketTask(socket));
+        try
+        {
+            clientSocketPool.execute(new ClientSocketTask(socket));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Every dispatch thread is waiting for a client's request line; turn the connection away.
+            Logging.logger().finest(Logging.getMessage("WMS.Server.Busy"));
+            ApplicationPool.sendServiceUnavailable(socket, ApplicationPool.MIN_RETRY_AFTER);
+            ServerWorkerThread.shutdownSocket(socket);
+        }
     }
 
 
@@ -76,6 +76,9 @@ public class BasicHttpServerApplication extends BasicServerApplication
             {
                 resp.flushBuffer();
             }
+
+            ServerMetrics.getInstance().getApplicationMetrics(this.getName()).record(ServerMetrics.BYTES_OUT,
+                resp.getBytesWritten());
         }
         catch (AccessDeniedException denied)
         {
@@ -141,6 +144,8 @@ public class BasicHttpServerApplication extends BasicServerApplication
             return;
         }
 
+        ServerMetrics.getInstance().getApplicationMetrics(this.getName()).increment(ServerMetrics.ERRORS);
+
         try
         {
             byte[] msgBytes = ((null != msg) ? msg : "Unknown error").getBytes();
@@ -0,0 +1,296 @@
+/*
+Copyright (C) 2001, 2011 United States Government as represented by
+the Administrator of the National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.servers.app;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.io.*;
+import java.net.*;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A client socket whose first bytes have already been read by the application pool (to look at the HTTP request line
+ * before the connection is queued). The input stream of this socket replays the prefetched bytes before continuing
+ * with the remaining bytes of the wrapped socket; all other calls are delegated to the wrapped socket.
+ *
+ * @author Lado Garakanidze
+ * @version $Id$
+ */
+
+class PrefetchedSocket extends Socket
+{
+    protected static final int MAX_REQUEST_LINE_LENGTH = 8 * 1024;
+
+    protected final Socket socket;
+    protected final byte[] prefetched;
+    protected InputStream inputStream = null;
+
+    protected PrefetchedSocket(Socket socket, byte[] prefetched)
+    {
+        this.socket = socket;
+        this.prefetched = prefetched;
+    }
+
+    /**
+     * Reads the HTTP request line (up to and including the first LF) from the socket, and wraps the socket so the
+     * request line is not lost for the server application.
+     *
+     * @param socket  the connected client socket.
+     * @param timeout maximum time in milliseconds to wait for the request line, or 0 to wait indefinitely.
+     *
+     * @return the wrapped socket.
+     *
+     * @throws IOException if the request line cannot be read.
+     */
+    public static PrefetchedSocket prefetchRequestLine(Socket socket, int timeout) throws IOException
+    {
+        if (null == socket)
+        {
+            String message = Logging.getMessage("nullValue.SocketIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int oldTimeout = socket.getSoTimeout();
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+        try
+        {
+            socket.setSoTimeout(timeout);
+
+            InputStream is = socket.getInputStream();
+            int b;
+            while (line.size() < MAX_REQUEST_LINE_LENGTH && (b = is.read()) != -1)
+            {
+                line.write(b);
+                if (b == '\n')
+                    break;
+            }
+        }
+        finally
+        {
+            socket.setSoTimeout(oldTimeout);
+        }
+
+        return new PrefetchedSocket(socket, line.toByteArray());
+    }
+
+    /**
+     * Returns the prefetched request line without the trailing CR/LF.
+     *
+     * @return the request line, or an empty string if the client did not send anything.
+     */
+    public String getRequestLine()
+    {
+        int len = this.prefetched.length;
+        while (len > 0 && (this.prefetched[len - 1] == '\n' || this.prefetched[len - 1] == '\r'))
+        {
+            len--;
+        }
+
+        try
+        {
+            return new String(this.prefetched, 0, len, "ISO-8859-1");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            return new String(this.prefetched, 0, len);
+        }
+    }
+
+    public Socket getWrappedSocket()
+    {
+        return this.socket;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException
+    {
+        if (null == this.inputStream)
+        {
+            this.inputStream = new SequenceInputStream(new ByteArrayInputStream(this.prefetched),
+                this.socket.getInputStream());
+        }
+
+        return this.inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException
+    {
+        return this.socket.getOutputStream();
+    }
+
+    @Override
+    public SocketChannel getChannel()
+    {
+        // Reading from the channel would bypass the prefetched bytes.
+        return null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        this.socket.close();
+    }
+
+    @Override
+    public void shutdownInput() throws IOException
+    {
+        this.socket.shutdownInput();
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException
+    {
+        this.socket.shutdownOutput();
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return this.socket.isConnected();
+    }
+
+    @Override
+    public boolean isBound()
+    {
+        return this.socket.isBound();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return this.socket.isClosed();
+    }
+
+    @Override
+    public boolean isInputShutdown()
+    {
+        return this.socket.isInputShutdown();
+    }
+
+    @Override
+    public boolean isOutputShutdown()
+    {
+        return this.socket.isOutputShutdown();
+    }
+
+    @Override
+    public InetAddress getInetAddress()
+    {
+        return this.socket.getInetAddress();
+    }
+
+    @Override
+    public InetAddress getLocalAddress()
+    {
+        return this.socket.getLocalAddress();
+    }
+
+    @Override
+    public int getPort()
+    {
+        return this.socket.getPort();
+    }
+
+    @Override
+    public int getLocalPort()
+    {
+        return this.socket.getLocalPort();
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress()
+    {
+        return this.socket.getRemoteSocketAddress();
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress()
+    {
+        return this.socket.getLocalSocketAddress();
+    }
+
+    @Override
+    public synchronized void setSoTimeout(int timeout) throws SocketException
+    {
+        this.socket.setSoTimeout(timeout);
+    }
+
+    @Override
+    public synchronized int getSoTimeout() throws SocketException
+    {
+        return this.socket.getSoTimeout();
+    }
+
+    @Override
+    public synchronized void setSendBufferSize(int size) throws SocketException
+    {
+        this.socket.setSendBufferSize(size);
+    }
+
+    @Override
+    public synchronized int getSendBufferSize() throws SocketException
+    {
+        return this.socket.getSendBufferSize();
+    }
+
+    @Override
+    public synchronized void setReceiveBufferSize(int size) throws SocketException
+    {
+        this.socket.setReceiveBufferSize(size);
+    }
+
+    @Override
+    public synchronized int getReceiveBufferSize() throws SocketException
+    {
+        return this.socket.getReceiveBufferSize();
+    }
+
+    @Override
+    public void setTcpNoDelay(boolean on) throws SocketException
+    {
+        this.socket.setTcpNoDelay(on);
+    }
+
+    @Override
+    public boolean getTcpNoDelay() throws SocketException
+    {
+        return this.socket.getTcpNoDelay();
+    }
+
+    @Override
+    public void setKeepAlive(boolean on) throws SocketException
+    {
+        this.socket.setKeepAlive(on);
+    }
+
+    @Override
+    public boolean getKeepAlive() throws SocketException
+    {
+        return this.socket.getKeepAlive();
+    }
+
+    @Override
+    public void setSoLinger(boolean on, int linger) throws SocketException
+    {
+        this.socket.setSoLinger(on, linger);
+    }
+
+    @Override
+    public int getSoLinger() throws SocketException
+    {
+        return this.socket.getSoLinger();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.socket.toString();
+    }
+}
@@ -0,0 +1,308 @@
+/*
+Copyright (C) 2001, 2011 United States Government as represented by
+the Administrator of the National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.servers.app;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Process-wide registry of request timing and throughput metrics for the server applications. Metrics are grouped per
+ * <code>ServerApplication</code> and per <code>MapSource</code>; each group holds named histograms and counters.
+ * <p/>
+ * Recording a value is lock-free (a few atomic increments), so metrics are always collected, even under load. The
+ * current snapshot can be retrieved as plain text through {@link #toText()}, which is what {@link
+ * ServerMetricsApplication} serves over HTTP.
+ *
+ * @author Lado Garakanidze
+ * @version $Id$
+ */
+
+public class ServerMetrics
+{
+    /** Time (msec) a client connection spent in the application pool queue before a worker picked it up. */
+    public static final String QUEUE_WAIT_TIME = "QueueWaitTime";
+    /** Time (msec) a worker spent servicing a request, including the response transfer. */
+    public static final String EXECUTION_TIME = "ExecutionTime";
+    /** Time (msec) a map generator spent producing the map. */
+    public static final String GENERATOR_TIME = "GeneratorTime";
+    /** Time (msec) spent encoding the generated map into the requested format and sending it. */
+    public static final String ENCODE_TIME = "EncodeTime";
+    /** Number of bytes written to the client for a single request. */
+    public static final String BYTES_OUT = "BytesOut";
+
+    /** Number of requests accepted by an application or map source. */
+    public static final String REQUESTS = "Requests";
+    /** Number of requests rejected because the server was busy. */
+    public static final String REJECTED = "Rejected";
+    /** Number of requests that ended with an error. */
+    public static final String ERRORS = "Errors";
+
+    private static final ServerMetrics instance = new ServerMetrics();
+
+    protected final long startTime = System.currentTimeMillis();
+    protected final ConcurrentHashMap<String, Group> applications = new ConcurrentHashMap<String, Group>();
+    protected final ConcurrentHashMap<String, Group> mapSources = new ConcurrentHashMap<String, Group>();
+
+    protected ServerMetrics()
+    {
+    }
+
+    public static ServerMetrics getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Returns the metrics group of the named server application, creating it if necessary.
+     *
+     * @param appName the server application name. A <code>null</code> name maps to an "Unnamed" group.
+     *
+     * @return the application's metrics group.
+     */
+    public Group getApplicationMetrics(String appName)
+    {
+        return getOrCreate(this.applications, appName);
+    }
+
+    /**
+     * Returns the metrics group of the named map source, creating it if necessary.
+     *
+     * @param mapSourceName the map source name. A <code>null</code> name maps to an "Unnamed" group.
+     *
+     * @return the map source's metrics group.
+     */
+    public Group getMapSourceMetrics(String mapSourceName)
+    {
+        return getOrCreate(this.mapSources, mapSourceName);
+    }
+
+    /** Discards all collected metrics. */
+    public void reset()
+    {
+        this.applications.clear();
+        this.mapSources.clear();
+    }
+
+    protected static Group getOrCreate(ConcurrentHashMap<String, Group> groups, String name)
+    {
+        String key = (null != name) ? name : "Unnamed";
+
+        Group group = groups.get(key);
+        if (null == group)
+        {
+            Group newGroup = new Group(key);
+            group = groups.putIfAbsent(key, newGroup);
+            if (null == group)
+                group = newGroup;
+        }
+
+        return group;
+    }
+
+    /**
+     * Formats a snapshot of all metrics groups as plain text, one histogram or counter per line.
+     *
+     * @return the metrics snapshot.
+     */
+    public String toText()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# uptime=").append(System.currentTimeMillis() - this.startTime).append(" msec\n");
+
+        appendGroups(sb, "application", this.applications);
+        appendGroups(sb, "mapsource", this.mapSources);
+
+        return sb.toString();
+    }
+
+    protected static void appendGroups(StringBuilder sb, String scope, Map<String, Group> groups)
+    {
+        TreeMap<String, Group> sorted = new TreeMap<String, Group>(groups);
+        for (Group group : sorted.values())
+        {
+            group.appendTo(sb, scope);
+        }
+    }
+
+    /** A named set of histograms and counters. Histograms and counters are created on first use. */
+    public static class Group
+    {
+        protected final String name;
+        protected final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+        protected final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+
+        public Group(String name)
+        {
+            this.name = name;
+        }
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        public void record(String histogramName, long value)
+        {
+            this.getHistogram(histogramName).record(value);
+        }
+
+        public void increment(String counterName)
+        {
+            this.getCounter(counterName).incrementAndGet();
+        }
+
+        public Histogram getHistogram(String histogramName)
+        {
+            if (null == histogramName)
+            {
+                String message = Logging.getMessage("nullValue.NameIsNull");
+                Logging.logger().severe(message);
+                throw new IllegalArgumentException(message);
+            }
+
+            Histogram h = this.histograms.get(histogramName);
+            if (null == h)
+            {
+                Histogram newHistogram = new Histogram();
+                h = this.histograms.putIfAbsent(histogramName, newHistogram);
+                if (null == h)
+                    h = newHistogram;
+            }
+
+            return h;
+        }
+
+        public AtomicLong getCounter(String counterName)
+        {
+            if (null == counterName)
+            {
+                String message = Logging.getMessage("nullValue.NameIsNull");
+                Logging.logger().severe(message);
+                throw new IllegalArgumentException(message);
+            }
+
+            AtomicLong c = this.counters.get(counterName);
+            if (null == c)
+            {
+                AtomicLong newCounter = new AtomicLong();
+                c = this.counters.putIfAbsent(counterName, newCounter);
+                if (null == c)
+                    c = newCounter;
+            }
+
+            return c;
+        }
+
+        protected void appendTo(StringBuilder sb, String scope)
+        {
+            for (Map.Entry<String, AtomicLong> e : new TreeMap<String, AtomicLong>(this.counters).entrySet())
+            {
+                sb.append(scope).append("[").append(this.name).append("].").append(e.getKey());
+                sb.append(" ").append(e.getValue().get()).append("\n");
+            }
+
+            for (Map.Entry<String, Histogram> e : new TreeMap<String, Histogram>(this.histograms).entrySet())
+            {
+                sb.append(scope).append("[").append(this.name).append("].").append(e.getKey());
+                sb.append(" ");
+                e.getValue().appendTo(sb);
+                sb.append("\n");
+            }
+        }
+    }
+
+    /**
+     * A lock-free histogram with power-of-two buckets. Bucket <code>i</code> counts values in the range
+     * [2<sup>i-1</sup>, 2<sup>i</sup>); bucket 0 counts values less than 1. Percentiles are reported as the upper bound
+     * of the bucket they fall into, which is accurate to within a factor of two - plenty for capacity planning.
+     */
+    public static class Histogram
+    {
+        protected static final int NUM_BUCKETS = 64;
+
+        protected final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+        protected final AtomicLong count = new AtomicLong();
+        protected final AtomicLong sum = new AtomicLong();
+        protected final AtomicLong max = new AtomicLong();
+
+        public void record(long value)
+        {
+            if (value < 0)
+                value = 0;
+
+            this.buckets.incrementAndGet(NUM_BUCKETS - Long.numberOfLeadingZeros(value));
+            this.count.incrementAndGet();
+            this.sum.addAndGet(value);
+
+            long currentMax;
+            while (value > (currentMax = this.max.get()))
+            {
+                if (this.max.compareAndSet(currentMax, value))
+                    break;
+            }
+        }
+
+        public long getCount()
+        {
+            return this.count.get();
+        }
+
+        public long getSum()
+        {
+            return this.sum.get();
+        }
+
+        public long getMax()
+        {
+            return this.max.get();
+        }
+
+        public double getMean()
+        {
+            long n = this.count.get();
+            return (n > 0) ? (double) this.sum.get() / (double) n : 0d;
+        }
+
+        /**
+         * Estimates the value at the given percentile.
+         *
+         * @param percentile the percentile, in the range [0, 100].
+         *
+         * @return the upper bound of the bucket holding the percentile, or 0 if no values were recorded.
+         */
+        public long getPercentile(double percentile)
+        {
+            long n = this.count.get();
+            if (n <= 0)
+                return 0;
+
+            long rank = (long) Math.ceil(n * Math.max(0d, Math.min(100d, percentile)) / 100d);
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKETS; i++)
+            {
+                seen += this.buckets.get(i);
+                if (seen >= rank && seen > 0)
+                    return Math.min((i == 0) ? 0 : (1L << i) - 1, this.max.get());
+            }
+
+            return this.max.get();
+        }
+
+        protected void appendTo(StringBuilder sb)
+        {
+            sb.append("count=").append(this.getCount());
+            sb.append(" mean=").append(String.format("%.1f", this.getMean()));
+            sb.append(" p50=").append(this.getPercentile(50));
+            sb.append(" p90=").append(this.getPercentile(90));
+            sb.append(" p99=").append(this.getPercentile(99));
+            sb.append(" max=").append(this.getMax());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright (C) 2001, 2011 United States Government as represented by
+the Administrator of the National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.servers.app;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.servers.http.HTTPRequest;
+import gov.nasa.worldwind.servers.http.HTTPResponse;
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.WWUtil;
+
+import java.io.OutputStream;
+
+/**
+ * Serves the {@link ServerMetrics} snapshot as <code>text/plain</code>. Register it in the application server's
+ * configuration file on its own (preferably local-only) port, the same way as any other <code>ServerApplication</code>.
+ * A GET request with the parameter <code>reset=true</code> clears the collected metrics after they have been sent.
+ *
+ * @author Lado Garakanidze
+ * @version $Id$
+ */
+
+public class ServerMetricsApplication extends BasicHttpServerApplication
+{
+    public ServerMetricsApplication()
+    {
+        super();
+    }
+
+    public ServerMetricsApplication(AVList config)
+    {
+        super(config);
+    }
+
+    @Override
+    protected void doGet(HTTPRequest req, HTTPResponse resp)
+    {
+        try
+        {
+            byte[] bytes = ServerMetrics.getInstance().toText().getBytes("UTF-8");
+
+            resp.setStatus(HTTPResponse.OK);
+            resp.setContentType("text/plain; charset=UTF-8");
+            resp.setContentLength(bytes.length);
+            resp.addHeader("Cache-Control", "no-cache");
+
+            OutputStream out = resp.getOutputStream();
+            out.write(bytes);
+
+            if ("true".equalsIgnoreCase(req.getParameter("reset")))
+                ServerMetrics.getInstance().reset();
+        }
+        catch (Exception e)
+        {
+            String reason = WWUtil.extractExceptionReason(e);
+            Logging.logger().finest(reason);
+            this.sendExceptionToClient(resp, reason);
+        }
+    }
+}
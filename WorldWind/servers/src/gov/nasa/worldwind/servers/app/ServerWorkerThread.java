@@ -16,7 +16,7 @@ import java.net.Socket;
  * @version $
  */
 
-class ServerWorkerThread implements Runnable
+class ServerWorkerThread implements Runnable, Comparable<ServerWorkerThread>
 {
     // if the client connection is in the queue for 10 seconds, ignore it,
     // because WWJ client will disconnect after 10 seconds
@@ -24,10 +24,26 @@ class ServerWorkerThread implements Runnable
     protected Socket socket;
     protected ServerApplication app;
     protected long submitTime;
+    protected int priority;
+    protected long sequence;
 
     // TODO - Create a watchdog task
 
     public ServerWorkerThread(Socket socket, ServerApplication app)
+    {
+        this(socket, app, ApplicationPool.PRIORITY_NORMAL, 0L);
+    }
+
+    /**
+     * Creates a worker for a client connection.
+     *
+     * @param socket   the client socket.
+     * @param app      the server application that services the connection.
+     * @param priority the scheduling priority, lower values are served first.
+     * @param sequence the submission sequence number; within the same priority, higher (more recent) numbers are
+     *                 served first.
+     */
+    public ServerWorkerThread(Socket socket, ServerApplication app, int priority, long sequence)
     {
         if (null == app)
         {
@@ -45,10 +61,21 @@ class ServerWorkerThread implements Runnable
 
         this.socket = socket;
         this.app = app;
+        this.priority = priority;
+        this.sequence = sequence;
 
         this.submitTime = System.currentTimeMillis();
     }
 
+    public int compareTo(ServerWorkerThread that)
+    {
+        if (this.priority != that.priority)
+            return (this.priority < that.priority) ? -1 : 1;
+
+        // LIFO within the same priority
+        return (this.sequence > that.sequence) ? -1 : ((this.sequence < that.sequence) ? 1 : 0);
+    }
+
     /**
      * Calculates a time difference in milliseonds, checks that endTime is greater than startTime
      *
@@ -107,6 +134,9 @@ class ServerWorkerThread implements Runnable
 
         long waitingTime = this.calcTimeDiff(this.submitTime, execStartTime);
 
+        ServerMetrics.Group metrics = ServerMetrics.getInstance().getApplicationMetrics(this.app.getName());
+        metrics.record(ServerMetrics.QUEUE_WAIT_TIME, waitingTime);
+
         StringBuffer sb = new StringBuffer();
         sb.append("Thread [").append(Thread.currentThread().getId()).append("]: ");
 
@@ -120,15 +150,19 @@ class ServerWorkerThread implements Runnable
             }
             else if (waitingTime > this.getMaxWaitingTime())
             {
+                metrics.increment(ServerMetrics.REJECTED);
+                ApplicationPool.sendServiceUnavailable(this.socket, ApplicationPool.MIN_RETRY_AFTER);
+
                 String message = Logging.getMessage("WMS.Server.Busy");
                 Logging.logger().finest(message);
-                throw new RuntimeException(message);
             }
             else
             {
                 sb.append("Server App=").append(app.getName()).append(", ");
 
+                metrics.increment(ServerMetrics.REQUESTS);
                 this.app.service(this.socket);
+                metrics.record(ServerMetrics.EXECUTION_TIME, this.calcTimeDiff(execStartTime));
             }
         }
         catch (Throwable t)
@@ -151,15 +185,20 @@ class ServerWorkerThread implements Runnable
 
     protected void shutdownSocket()
     {
-        if (this.socket != null)
+        shutdownSocket(this.socket);
+    }
+
+    protected static void shutdownSocket(Socket socket)
+    {
+        if (socket != null)
         {
-            if (this.socket.isConnected())
+            if (socket.isConnected())
             {
-                if (!this.socket.isInputShutdown())
+                if (!socket.isInputShutdown())
                 {
                     try
                     {
-                        this.socket.shutdownInput();
+                        socket.shutdownInput();
                     }
                     catch (Throwable t)
                     {
@@ -167,11 +206,11 @@ class ServerWorkerThread implements Runnable
                     }
                 }
 
-                if (!this.socket.isOutputShutdown())
+                if (!socket.isOutputShutdown())
                 {
                     try
                     {
-                        this.socket.shutdownOutput();
+                        socket.shutdownOutput();
                     }
                     catch (Throwable t)
                     {
@@ -182,7 +221,7 @@ class ServerWorkerThread implements Runnable
 
             try
             {
-                this.socket.close();
+                socket.close();
             }
             catch (Throwable t)
             {
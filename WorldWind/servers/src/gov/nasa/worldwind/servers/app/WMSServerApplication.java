@@ -242,6 +242,8 @@ public class WMSServerApplication extends BasicHttpServerApplication
             return;
         }
 
+        ServerMetrics.getInstance().getApplicationMetrics(this.getName()).increment(ServerMetrics.ERRORS);
+
         try
         {
             Writer writer = new java.io.StringWriter();
@@ -77,6 +77,16 @@ public class HTTPResponse
         return null;
     }
 
+    /**
+     * Returns the number of body bytes written to the client so far, excluding the HTTP response head.
+     *
+     * @return number of bytes written.
+     */
+    public long getBytesWritten()
+    {
+        return this.theOutputStream.bytesWritten;
+    }
+
     public boolean isCommitted()
     {
         return this.committed;
@@ -226,6 +236,7 @@ public class HTTPResponse
                 writeHttpResponseHead();
             }
             this.out.write(b);
+            this.bytesWritten += b.length;
         }
 
         public void write(byte b[], int off, int len) throws IOException
@@ -235,6 +246,7 @@ public class HTTPResponse
                 writeHttpResponseHead();
             }
             this.out.write(b, off, len);
+            this.bytesWritten += len;
         }
 
         public void write(int b) throws IOException
@@ -244,6 +256,7 @@ public class HTTPResponse
                 writeHttpResponseHead();
             }
             this.out.write(b);
+            this.bytesWritten++;
         }
 
         public void flush() throws IOException
@@ -256,6 +269,7 @@ public class HTTPResponse
         }
 
         private OutputStream out;
+        private long bytesWritten = 0L;
     }
 
     private Socket theSocket = null;
@@ -40,6 +40,7 @@ public class Configuration
 
     private static final String AUTO_DISCOVERY_RUN = SERVER + "/auto-discovery/@run";
     private static final String AUTO_DISCOVERY_PERIOD = SERVER + "/auto-discovery/@period";
+    private static final String AUTO_DISCOVERY_MANIFEST = SERVER + "/auto-discovery/@manifest";
 
     private static final String XPATH_SECURITY = "//security";
 
@@ -70,6 +71,7 @@ public class Configuration
     private String dataFileStoreConfigFile;
     private boolean runAutoDiscoveryTask = false;
     private int repeatAutoDiscoveryTask = 0;
+    private String autoDiscoveryManifest = null;
 
     private Map<String, MapSource> mapSources = new ConcurrentHashMap<String, MapSource>();
 
@@ -143,6 +145,17 @@ public class Configuration
         return this.repeatAutoDiscoveryTask;
     }
 
+    /**
+     * Returns the path of the file where the Auto-Discovery task persists the directories it has already examined, or
+     * null if the path is not configured.
+     *
+     * @return the Auto-Discovery manifest path, or null.
+     */
+    public String getAutoDiscoveryManifest()
+    {
+        return this.autoDiscoveryManifest;
+    }
+
     public Collection<MapSource> getMapSources()
     {
         return this.mapSources.values();
@@ -174,6 +187,10 @@ public class Configuration
             Logging.logger().severe(msg);
             throw new Exception(msg);
         }
+
+        // optional
+        String manifest = xpath.evaluate(AUTO_DISCOVERY_MANIFEST, doc);
+        this.autoDiscoveryManifest = WWUtil.isEmpty(manifest) ? null : manifest;
     }
 
 
@@ -0,0 +1,369 @@
+/*
+Copyright (C) 2001, 2011 United States Government as represented by
+the Administrator of the National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.servers.wms;
+
+import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.cache.FileStoreFilter;
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.util.WWIO;
+import gov.nasa.worldwind.util.WWUtil;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Remembers the directories examined by the Auto-Discovery task, so that a rescan of the data file store only lists the
+ * directories that have changed since the previous scan.
+ * <p/>
+ * Adding, removing or renaming an entry of a directory updates the directory's last modified time. When a directory's
+ * last modified time has not changed since it was listed, the manifest reuses the configuration files and sub-directories
+ * found there last time, and descends into the sub-directories without calling <code>File.listFiles()</code> on the
+ * directory itself. Directories modified within {@link #MTIME_GRANULARITY} of the moment they were listed are always
+ * listed again, because a change made during that window may not have advanced the time stamp on file systems with
+ * coarse time stamps. Every directory is listed again at least once every {@link #MAX_ENTRY_AGE}.
+ * <p/>
+ * The results are the same as <code>FileStore.listTopFileNames(null, filter)</code>: the search of a branch stops at
+ * the first matching file. The manifest may be saved to a file and loaded on restart, so that a server restart does
+ * not walk the whole data file store.
+ *
+ * @author Lado Garakanidze
+ * @version $Id$
+ */
+
+public class WMSDataDiscoveryManifest
+{
+    /** Directories modified within this time (msec) before they were listed are not trusted. */
+    protected static final long MTIME_GRANULARITY = 2000L;
+    /** Maximum time (msec) a directory listing is reused. */
+    protected static final long MAX_ENTRY_AGE = 6L * 3600L * 1000L; // 6 hours
+
+    protected static final int MAGIC = 0x57574444; // "WWDD"
+    protected static final int VERSION = 1;
+
+    protected static class DirectoryEntry
+    {
+        protected final long lastModified;
+        protected final long listedAt;
+        /** Names of the matching files in this directory. */
+        protected final String[] matches;
+        /** Names of the sub-directories to descend into, empty if the branch ended with a match. */
+        protected final String[] subDirs;
+
+        public DirectoryEntry(long lastModified, long listedAt, String[] matches, String[] subDirs)
+        {
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+            this.matches = matches;
+            this.subDirs = subDirs;
+        }
+    }
+
+    protected final HashMap<String, DirectoryEntry> entries = new HashMap<String, DirectoryEntry>();
+    protected boolean modified = false;
+    protected int numListed = 0;
+    protected int numReused = 0;
+
+    public WMSDataDiscoveryManifest()
+    {
+    }
+
+    /**
+     * Returns the names of the top-most files in the file store's locations accepted by the filter.
+     *
+     * @param fileStore the file store to search.
+     * @param filter    the filter that selects the files.
+     *
+     * @return the file store names of the matching files. The array is empty if no file matches.
+     *
+     * @throws IllegalArgumentException if either the file store or the filter is null.
+     */
+    public synchronized String[] listTopFileNames(FileStore fileStore, FileStoreFilter filter)
+    {
+        if (null == fileStore)
+        {
+            String message = Logging.getMessage("nullValue.FileStoreIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (null == filter)
+        {
+            String message = Logging.getMessage("nullValue.FilterIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.numListed = 0;
+        this.numReused = 0;
+
+        ArrayList<String> names = new ArrayList<String>();
+        HashSet<String> visited = new HashSet<String>();
+        long now = System.currentTimeMillis();
+
+        for (File location : fileStore.getLocations())
+        {
+            if (null == location || !location.isDirectory())
+                continue;
+
+            this.listDirectory(fileStore, filter, location.getAbsoluteFile(), "", now, names, visited);
+        }
+
+        // Forget the directories that were removed, or that are no longer searched.
+        if (this.entries.keySet().retainAll(visited))
+            this.modified = true;
+
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Returns the number of directories listed from the file system during the most recent scan.
+     *
+     * @return the number of listed directories.
+     */
+    public synchronized int getNumListedDirectories()
+    {
+        return this.numListed;
+    }
+
+    /**
+     * Returns the number of directories whose previous listing was reused during the most recent scan.
+     *
+     * @return the number of reused directories.
+     */
+    public synchronized int getNumReusedDirectories()
+    {
+        return this.numReused;
+    }
+
+    /**
+     * Indicates whether the manifest changed since it was created, loaded or saved.
+     *
+     * @return true if the manifest has unsaved changes.
+     */
+    public synchronized boolean isModified()
+    {
+        return this.modified;
+    }
+
+    protected void listDirectory(FileStore fileStore, FileStoreFilter filter, File dir, String storePath, long now,
+        Collection<String> names, Set<String> visited)
+    {
+        String key = dir.getPath();
+        if (!visited.add(key))
+            return; // a location nested in another location, or a symbolic link loop
+
+        DirectoryEntry entry = this.entries.get(key);
+        long lastModified = dir.lastModified();
+
+        if (null == entry || !this.isValid(entry, lastModified, now))
+        {
+            entry = this.readDirectory(fileStore, filter, dir, storePath, lastModified, now);
+            if (null == entry)
+                return;
+
+            this.entries.put(key, entry);
+            this.modified = true;
+            this.numListed++;
+        }
+        else
+        {
+            this.numReused++;
+        }
+
+        for (String match : entry.matches)
+        {
+            names.add(makeStoreName(storePath, match));
+        }
+
+        for (String subDir : entry.subDirs)
+        {
+            this.listDirectory(fileStore, filter, new File(dir, subDir), makeStoreName(storePath, subDir), now, names,
+                visited);
+        }
+    }
+
+    protected boolean isValid(DirectoryEntry entry, long lastModified, long now)
+    {
+        return lastModified != 0L
+            && entry.lastModified == lastModified
+            && entry.listedAt - lastModified > MTIME_GRANULARITY
+            && now - entry.listedAt < MAX_ENTRY_AGE;
+    }
+
+    protected DirectoryEntry readDirectory(FileStore fileStore, FileStoreFilter filter, File dir, String storePath,
+        long lastModified, long now)
+    {
+        File[] children = dir.listFiles();
+        if (null == children)
+            return null;
+
+        ArrayList<String> subDirs = new ArrayList<String>();
+
+        // Same order of evaluation as AbstractFileStore: the files of a directory are considered before its
+        // sub-directories, and the first matching file ends the branch.
+        for (File child : children)
+        {
+            if (null == child)
+                continue;
+
+            if (child.isDirectory())
+            {
+                subDirs.add(child.getName());
+            }
+            else if (filter.accept(fileStore, makeStoreName(storePath, child.getName())))
+            {
+                return new DirectoryEntry(lastModified, now, new String[] {child.getName()}, new String[0]);
+            }
+        }
+
+        return new DirectoryEntry(lastModified, now, new String[0], subDirs.toArray(new String[subDirs.size()]));
+    }
+
+    protected static String makeStoreName(String storePath, String name)
+    {
+        return WWUtil.isEmpty(storePath) ? name : storePath + "/" + name;
+    }
+
+    /**
+     * Loads a manifest previously saved with {@link #save(java.io.File)}, replacing the current content. A missing,
+     * unreadable or incompatible file leaves the manifest empty, which only means the next scan lists every directory.
+     *
+     * @param file the manifest file.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     */
+    public synchronized void load(File file)
+    {
+        if (null == file)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.entries.clear();
+        this.modified = false;
+
+        if (!file.exists())
+            return;
+
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                Logging.logger().fine("Ignoring incompatible discovery manifest " + file.getPath());
+                return;
+            }
+
+            int numEntries = in.readInt();
+            for (int i = 0; i < numEntries; i++)
+            {
+                String path = in.readUTF();
+                long lastModified = in.readLong();
+                long listedAt = in.readLong();
+                String[] matches = readNames(in);
+                String[] subDirs = readNames(in);
+                this.entries.put(path, new DirectoryEntry(lastModified, listedAt, matches, subDirs));
+            }
+        }
+        catch (Exception e)
+        {
+            this.entries.clear();
+            Logging.logger().warning("Cannot read discovery manifest " + file.getPath() + ": "
+                + WWUtil.extractExceptionReason(e));
+        }
+        finally
+        {
+            WWIO.closeStream(in, file.getPath());
+        }
+    }
+
+    /**
+     * Saves the manifest. The manifest is written to a temporary file first, so a crash during the save does not leave
+     * a truncated manifest behind.
+     *
+     * @param file the manifest file.
+     *
+     * @return true if the manifest was saved.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     */
+    public synchronized boolean save(File file)
+    {
+        if (null == file)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try
+        {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (null != parent && !parent.exists())
+                parent.mkdirs();
+
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.entries.size());
+            for (Map.Entry<String, DirectoryEntry> e : this.entries.entrySet())
+            {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().lastModified);
+                out.writeLong(e.getValue().listedAt);
+                writeNames(out, e.getValue().matches);
+                writeNames(out, e.getValue().subDirs);
+            }
+            out.close();
+            out = null;
+
+            if (file.exists() && !file.delete())
+                return false;
+            if (!tmpFile.renameTo(file))
+                return false;
+
+            this.modified = false;
+            return true;
+        }
+        catch (Exception e)
+        {
+            Logging.logger().warning("Cannot save discovery manifest " + file.getPath() + ": "
+                + WWUtil.extractExceptionReason(e));
+            return false;
+        }
+        finally
+        {
+            WWIO.closeStream(out, tmpFile.getPath());
+            if (tmpFile.exists())
+                tmpFile.delete();
+        }
+    }
+
+    protected static String[] readNames(DataInputStream in) throws IOException
+    {
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    protected static void writeNames(DataOutputStream out, String[] names) throws IOException
+    {
+        out.writeInt(names.length);
+        for (String name : names)
+        {
+            out.writeUTF(name);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.cache.FileStore;
 import gov.nasa.worldwind.cache.FileStoreFilter;
 import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.servers.app.ApplicationServer;
 import gov.nasa.worldwind.servers.app.WMSServerApplication;
 import gov.nasa.worldwind.util.*;
 import org.w3c.dom.Document;
@@ -65,6 +66,8 @@ public class WMSDataDiscoveryThread extends Thread
     private FileStoreFilter fileStoreFilter = null;
     private final Map<String, LayerEntry> layers = Collections.synchronizedMap(new HashMap<String, LayerEntry>());
     private EventListenerList eventListeners = new EventListenerList();
+    private final WMSDataDiscoveryManifest manifest = new WMSDataDiscoveryManifest();
+    private File manifestFile = null;
 
     private WMSServerApplication app;
 
@@ -184,10 +187,17 @@ public class WMSDataDiscoveryThread extends Thread
                 throw new WWRuntimeException(msg);
             }
 
+            this.manifestFile = this.getManifestFile(config);
+            if (null != this.manifestFile)
+                this.manifest.load(this.manifestFile);
+
             while (!Thread.currentThread().isInterrupted())
             {
                 this.doRun();
 
+                if (null != this.manifestFile && this.manifest.isModified())
+                    this.manifest.save(this.manifestFile);
+
                 int wakeup_period = config.getAutoDiscoveryPeriod();
                 if (wakeup_period > 0)
                 {
@@ -309,9 +319,43 @@ public class WMSDataDiscoveryThread extends Thread
         }
     }
 
+    /**
+     * Lists the data configuration files of the file store. Only the directories that changed since the previous scan
+     * are listed from the file system, see {@link WMSDataDiscoveryManifest}.
+     *
+     * @param fileStore the data file store.
+     *
+     * @return the file store names of the data configuration files.
+     */
     protected String[] listConfigFileNames(FileStore fileStore)
     {
-        return fileStore.listTopFileNames(null, this.fileStoreFilter);
+        String[] names = this.manifest.listTopFileNames(fileStore, this.fileStoreFilter);
+
+        Logging.logger().fine(DISCOVERY_TASK + "Directories listed: " + this.manifest.getNumListedDirectories()
+            + ", unchanged: " + this.manifest.getNumReusedDirectories());
+
+        return names;
+    }
+
+    /**
+     * Returns the file where the discovery manifest is kept between server restarts. Uses the path configured by the
+     * <code>manifest</code> attribute of the <code>auto-discovery</code> element, or a file in the server's temporary
+     * directory named after the application.
+     *
+     * @param config the WMS configuration.
+     *
+     * @return the manifest file.
+     */
+    protected File getManifestFile(Configuration config)
+    {
+        String path = config.getAutoDiscoveryManifest();
+        if (!WWUtil.isEmpty(path))
+            return new File(path);
+
+        String name = WWUtil.isEmpty(this.app.getName()) ? "wms" : this.app.getName();
+        name = name.replaceAll("[^A-Za-z0-9_\\-]", "_");
+
+        return new File(ApplicationServer.getTempDirectory(), name + ".discovery.manifest");
     }
 
     protected Document openDataConfig(FileStore fileStore, String filename)
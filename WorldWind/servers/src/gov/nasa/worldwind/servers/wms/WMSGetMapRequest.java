@@ -5,6 +5,7 @@
 package gov.nasa.worldwind.servers.wms;
 
 import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.servers.app.ServerMetrics;
 import gov.nasa.worldwind.servers.http.HTTP;
 import gov.nasa.worldwind.servers.http.HTTPRequest;
 import gov.nasa.worldwind.servers.http.HTTPResponse;
@@ -465,7 +466,12 @@ public class WMSGetMapRequest extends WMSRequest implements IMapRequest
             throw new WMSServiceException("Failed to instantiate map-generator: " + ex.toString());
         }
 
-        req.addStats("serviceRequest", System.currentTimeMillis() - start);
+        long generatorTime = System.currentTimeMillis() - start;
+        req.addStats("serviceRequest", generatorTime);
+
+        ServerMetrics.Group metrics = ServerMetrics.getInstance().getMapSourceMetrics(map.getName());
+        metrics.increment(ServerMetrics.REQUESTS);
+        metrics.record(ServerMetrics.GENERATOR_TIME, generatorTime);
 
         resp.setStatus(HTTPResponse.OK);
         resp.setContentType(this.getFormat());
@@ -473,6 +479,9 @@ public class WMSGetMapRequest extends WMSRequest implements IMapRequest
 
         InputStream eis = null;
 
+        start = System.currentTimeMillis();
+        long bytesWritten = resp.getBytesWritten();
+
         try
         {
             InputStream is = image.getStreamFromMimeType(this.getFormat(), map.getProperties());
@@ -484,6 +493,9 @@ public class WMSGetMapRequest extends WMSRequest implements IMapRequest
         {
             WWIO.closeStream(eis, null);
             mapService.freeResources();
+
+            metrics.record(ServerMetrics.ENCODE_TIME, System.currentTimeMillis() - start);
+            metrics.record(ServerMetrics.BYTES_OUT, resp.getBytesWritten() - bytesWritten);
         }
     }
 }
@@ -145,29 +145,93 @@ abstract public class ImageFormatter
 
     private InputStream convertToImageIOType(BufferedImage image, String imageIOType) throws IOException
     {
-        ByteArrayOutputStream imageBytes = new ByteArrayOutputStream();
+        EncoderCache cache = encoderCache.get();
+        ByteArrayOutputStream imageBytes = cache.getBuffer();
         ImageOutputStream ios = new MemoryCacheImageOutputStream(imageBytes);
 
-        if("jpeg".equalsIgnoreCase(imageIOType))
+        ImageWriter writer = cache.getWriter(imageIOType);
+        try
         {
-            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
-            ImageWriteParam param = writer.getDefaultWriteParam();
-            param.setSourceBands( new int[] {0,1,2} );
-            ColorModel cm = new DirectColorModel(24, /*Red*/0x00ff0000, /*Green*/0x0000ff00, /*Blue*/ 0x000000ff,  /*Alpha*/0x0);
-            param.setDestinationType( new ImageTypeSpecifier( cm, cm.createCompatibleSampleModel(1,1)));
-
-            writer.setOutput( ios );
-            writer.write( null, new IIOImage(image,null,null),param);
-            writer.dispose();
+            if("jpeg".equalsIgnoreCase(imageIOType))
+            {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setSourceBands( new int[] {0,1,2} );
+                ColorModel cm = new DirectColorModel(24, /*Red*/0x00ff0000, /*Green*/0x0000ff00, /*Blue*/ 0x000000ff,  /*Alpha*/0x0);
+                param.setDestinationType( new ImageTypeSpecifier( cm, cm.createCompatibleSampleModel(1,1)));
+
+                writer.setOutput( ios );
+                writer.write( null, new IIOImage(image,null,null),param);
+            }
+            else if (null != writer && writer.getOriginatingProvider().canEncodeImage(image))
+            {
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), null);
+            }
+            else
+            {
+                ImageIO.write(image, imageIOType, ios);
+            }
+            ios.close();
         }
-        else
+        finally
         {
-            ImageIO.write(image, imageIOType, ios);
+            if (null != writer)
+                writer.reset();
         }
-        ios.close();
+
         return new ByteArrayInputStream( imageBytes.toByteArray() );
     }
 
+    // ----------------- Per-thread encoders ----------------------------
+
+    /** Encoded images larger than this are not kept in the per-thread output buffer after the request. */
+    protected static final int MAX_REUSED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Image writers and the output buffer of the current thread. Looking up an ImageIO writer goes through the service
+     * registry on every call, and the output buffer would otherwise grow from scratch for every image; server worker
+     * threads are long-lived, so both are kept per thread and reused across requests.
+     */
+    protected static class EncoderCache
+    {
+        protected final java.util.HashMap<String, ImageWriter> writers = new java.util.HashMap<String, ImageWriter>();
+        protected ByteArrayOutputStream buffer = null;
+
+        public ImageWriter getWriter(String imageIOType)
+        {
+            ImageWriter writer = this.writers.get(imageIOType);
+            if (null == writer)
+            {
+                java.util.Iterator<ImageWriter> iter = ImageIO.getImageWritersByFormatName(imageIOType);
+                if (iter.hasNext())
+                {
+                    writer = iter.next();
+                    this.writers.put(imageIOType, writer);
+                }
+            }
+            return writer;
+        }
+
+        public ByteArrayOutputStream getBuffer()
+        {
+            if (null == this.buffer || this.buffer.size() > MAX_REUSED_BUFFER_SIZE)
+                this.buffer = new ByteArrayOutputStream(64 * 1024);
+            else
+                this.buffer.reset();
+
+            return this.buffer;
+        }
+    }
+
+    private static final ThreadLocal<EncoderCache> encoderCache = new ThreadLocal<EncoderCache>()
+    {
+        @Override
+        protected EncoderCache initialValue()
+        {
+            return new EncoderCache();
+        }
+    };
+
     static public ImageFormatter getFormatterFromMimeType(String mimeType, File sourceFile)
     {
         if (SupportedFormats.IMAGE_PNG.equals(mimeType))
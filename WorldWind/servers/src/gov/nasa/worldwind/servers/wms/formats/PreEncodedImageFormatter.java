@@ -0,0 +1,86 @@
+/*
+Copyright (C) 2001, 2011 United States Government as represented by
+the Administrator of the National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.servers.wms.formats;
+
+import gov.nasa.worldwind.util.Logging;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URL;
+import java.util.Properties;
+
+/**
+ * Serves an image that is already encoded, such as a tile of a tile cache. If the requested format matches the
+ * format of the stored image, its bytes are sent as they are, without being decoded and encoded again. For any other
+ * format the image is decoded and converted like any other <code>ImageFormatter</code> would.
+ *
+ * @author Lado Garakanidze
+ * @version $Id$
+ */
+
+public class PreEncodedImageFormatter extends ImageFormatter
+{
+    protected final URL url;
+    protected final String mimeType;
+
+    /**
+     * Creates a formatter for an encoded image.
+     *
+     * @param url      the location of the encoded image.
+     * @param mimeType the format of the encoded image.
+     *
+     * @throws IllegalArgumentException if either the URL or the mime type is null.
+     */
+    public PreEncodedImageFormatter(URL url, String mimeType)
+    {
+        if (null == url)
+        {
+            String message = Logging.getMessage("nullValue.URLIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (null == mimeType)
+        {
+            String message = Logging.getMessage("nullValue.MimeTypeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.url = url;
+        this.mimeType = mimeType;
+    }
+
+    public URL getURL()
+    {
+        return this.url;
+    }
+
+    public String getMimeType()
+    {
+        return this.mimeType;
+    }
+
+    @Override
+    public InputStream getStreamFromMimeType(String mimeType, Properties properties) throws IOException
+    {
+        if (this.mimeType.equalsIgnoreCase(mimeType))
+            return new BufferedInputStream(this.url.openStream());
+
+        return super.getStreamFromMimeType(mimeType, properties);
+    }
+
+    public BufferedImage toIntermediateForm() throws IOException
+    {
+        BufferedImage image = ImageIO.read(this.url);
+        if (null == image)
+            throw new IOException("PreEncodedImageFormatter: cannot decode " + this.url);
+
+        return image;
+    }
+}
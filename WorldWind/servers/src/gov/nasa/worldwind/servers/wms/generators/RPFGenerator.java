@@ -313,10 +313,13 @@ public class RPFGenerator extends AbstractMapGenerator
                         if (res > debugMaxFrameRes)
                             debugMaxFrameRes = res;
 
-                        sourceImage = getImageFromWaveletEncoding(frame, res);
+                        // only reconstruct the part of the frame that falls within the request
+                        Rectangle window = getFrameWindow(frameSector, reqSector, res);
+                        sourceImage = getImageFromWaveletEncoding(frame, res, window);
                         if (sourceImage == null)
                             continue;
-                        drawImageIntoRequest(reqImage, reqSector, sourceImage, frameSector);
+                        drawImageIntoRequest(reqImage, reqSector, sourceImage,
+                            getWindowSector(frameSector, res, window));
                     }
 
                 }
@@ -422,7 +425,48 @@ public class RPFGenerator extends AbstractMapGenerator
         // Attempts to reconstruct the given FrameFile as a BufferedImage from a WaveletEncoding.
         // Returns null if encoding does not exist or on any other failure.
         //
-        private BufferedImage getImageFromWaveletEncoding(FrameFile frame, int resolution)
+        //
+        // Returns the pixels of a frame reconstructed at the given resolution that cover the request sector.
+        // The window is padded by a pixel on each side so resampling at the window's edges matches the full frame.
+        //
+        private Rectangle getFrameWindow(Sector frameSector, Sector reqSector, int resolution)
+        {
+            Sector overlap = frameSector.intersection(reqSector);
+            if (null == overlap)
+                return new Rectangle(0, 0, resolution, resolution);
+
+            double pixelsPerLon = resolution / frameSector.getDeltaLonDegrees();
+            double pixelsPerLat = resolution / frameSector.getDeltaLatDegrees();
+
+            int x0 = (int) Math.floor(
+                (overlap.getMinLongitude().degrees - frameSector.getMinLongitude().degrees) * pixelsPerLon) - 1;
+            int x1 = (int) Math.ceil(
+                (overlap.getMaxLongitude().degrees - frameSector.getMinLongitude().degrees) * pixelsPerLon) + 1;
+            int y0 = (int) Math.floor(
+                (frameSector.getMaxLatitude().degrees - overlap.getMaxLatitude().degrees) * pixelsPerLat) - 1;
+            int y1 = (int) Math.ceil(
+                (frameSector.getMaxLatitude().degrees - overlap.getMinLatitude().degrees) * pixelsPerLat) + 1;
+
+            Rectangle window = new Rectangle(x0, y0, x1 - x0, y1 - y0);
+            return window.intersection(new Rectangle(0, 0, resolution, resolution));
+        }
+
+        //
+        // Returns the sector covered by a window of a frame reconstructed at the given resolution.
+        //
+        private Sector getWindowSector(Sector frameSector, int resolution, Rectangle window)
+        {
+            double degreesPerPixelLon = frameSector.getDeltaLonDegrees() / resolution;
+            double degreesPerPixelLat = frameSector.getDeltaLatDegrees() / resolution;
+
+            double maxLat = frameSector.getMaxLatitude().degrees - window.y * degreesPerPixelLat;
+            double minLon = frameSector.getMinLongitude().degrees + window.x * degreesPerPixelLon;
+
+            return Sector.fromDegrees(maxLat - window.height * degreesPerPixelLat, maxLat,
+                minLon, minLon + window.width * degreesPerPixelLon);
+        }
+
+        private BufferedImage getImageFromWaveletEncoding(FrameFile frame, int resolution, Rectangle window)
         {
             WaveletCodec codec = null;
             BufferedImage sourceImage = null;
@@ -444,12 +488,12 @@ public class RPFGenerator extends AbstractMapGenerator
                     }
                 }
                 else
-                {   // read wavelet file...
-                    codec = WaveletCodec.loadPartially(getWaveletEncodingFile(frame), resolution);
+                {   // map the wavelet file; only the coefficients of the window are read
+                    codec = WaveletCodec.loadMapped(getWaveletEncodingFile(frame));
                 }
 
                 if (codec != null)
-                    sourceImage = codec.reconstruct(resolution);
+                    sourceImage = codec.reconstruct(resolution, window);
             }
             catch (Exception ex)
             {
@@ -6,7 +6,7 @@ package gov.nasa.worldwind.servers.wms.generators;
 
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.data.*;
-import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.servers.wms.*;
 import gov.nasa.worldwind.servers.wms.formats.*;
 import gov.nasa.worldwind.util.*;
@@ -235,6 +235,97 @@ public class WorldWindTiledLayer extends AbstractMapGenerator
         }
     }
 
+    /**
+     * Creates a formatter that sends a stored tile without decoding and re-encoding it, if the request covers exactly one
+     * tile of the tile cache at the tile's native size, and asks for the format the tile is stored in. Requests with a
+     * background color are always mosaiced, as the background must show through the tile's transparent pixels.
+     *
+     * @param req       the map request.
+     * @param reqParams the request parameters, see <code>BasicServiceInstance.getRequestParams</code>.
+     *
+     * @return a formatter for the stored tile, or null if the request must be mosaiced.
+     */
+    protected ImageFormatter createPreEncodedFormatter(IMapRequest req, AVList reqParams)
+    {
+        String format = req.getFormat();
+        if (WWUtil.isEmpty(format) || !WWUtil.isEmpty(req.getBGColor()))
+            return null;
+
+        Tile tile = this.findAlignedTile((Integer) reqParams.getValue(AVKey.WIDTH),
+            (Integer) reqParams.getValue(AVKey.HEIGHT), (Sector) reqParams.getValue(AVKey.SECTOR));
+        if (null == tile)
+            return null;
+
+        if (this.isElevationModelLayer())
+        {
+            // The stored elevations are sent as they are, so they must have the requested type and byte order.
+            if (!format.toLowerCase().contains("bil")
+                || !AVKey.LITTLE_ENDIAN.equals(this.params.getValue(AVKey.BYTE_ORDER))
+                || !reqParams.getValue(AVKey.DATA_TYPE).equals(this.params.getValue(AVKey.DATA_TYPE)))
+                return null;
+        }
+        else if (!format.equalsIgnoreCase(WWIO.makeMimeTypeForSuffix(tile.getFormatSuffix())))
+        {
+            return null;
+        }
+
+        java.net.URL url = this.ms.getFileStore().findFile(tile.getPath(), false);
+        if (null == url)
+            return null;
+
+        return new PreEncodedImageFormatter(url, format);
+    }
+
+    /**
+     * Finds the tile of the level set whose sector and size match the requested sector and size.
+     *
+     * @param width  the requested width in pixels.
+     * @param height the requested height in pixels.
+     * @param sector the requested sector.
+     *
+     * @return the matching tile, or null if the request is not aligned with the tile grid of any level.
+     */
+    protected Tile findAlignedTile(int width, int height, Sector sector)
+    {
+        if (null == this.levels || null == sector)
+            return null;
+
+        LatLon origin = this.levels.getTileOrigin();
+
+        for (Level level : this.levels.getLevels())
+        {
+            if (level.isEmpty() || level.getTileWidth() != width || level.getTileHeight() != height)
+                continue;
+
+            // Allow for the rounding of bounding box coordinates by the client: a thousandth of a pixel.
+            LatLon delta = level.getTileDelta();
+            double latTolerance = 1.0e-3 * delta.getLatitude().degrees / height;
+            double lonTolerance = 1.0e-3 * delta.getLongitude().degrees / width;
+
+            if (Math.abs(sector.getDeltaLatDegrees() - delta.getLatitude().degrees) > latTolerance
+                || Math.abs(sector.getDeltaLonDegrees() - delta.getLongitude().degrees) > lonTolerance)
+                continue;
+
+            LatLon centroid = sector.getCentroid();
+            int row = Tile.computeRow(delta.getLatitude(), centroid.getLatitude(), origin.getLatitude());
+            int col = Tile.computeColumn(delta.getLongitude(), centroid.getLongitude(), origin.getLongitude());
+
+            Angle minLat = Tile.computeRowLatitude(row, delta.getLatitude(), origin.getLatitude());
+            Angle minLon = Tile.computeColumnLongitude(col, delta.getLongitude(), origin.getLongitude());
+
+            if (Math.abs(sector.getMinLatitude().degrees - minLat.degrees) > latTolerance
+                || Math.abs(sector.getMinLongitude().degrees - minLon.degrees) > lonTolerance)
+                return null;
+
+            Sector tileSector = new Sector(minLat, minLat.add(delta.getLatitude()), minLon,
+                minLon.add(delta.getLongitude()));
+
+            return new Tile(tileSector, level, row, col);
+        }
+
+        return null;
+    }
+
     // --------------------------------------------
     // class BasicServiceInstance
     //
@@ -274,6 +365,12 @@ public class WorldWindTiledLayer extends AbstractMapGenerator
             int reqHeight = (Integer) reqParams.getValue(AVKey.HEIGHT);
             Sector reqSector = (Sector) reqParams.getValue(AVKey.SECTOR);
 
+            // A request for exactly one tile of the tile cache, in the format the tile is stored in, is answered with
+            // the stored tile as it is.
+            ImageFormatter preEncoded = WorldWindTiledLayer.this.createPreEncodedFormatter(req, reqParams);
+            if (null != preEncoded)
+                return preEncoded;
+
             DataRaster responseRaster =
                 WorldWindTiledLayer.this.createResponseRaster(reqWidth, reqHeight, reqSector, reqParams);
 
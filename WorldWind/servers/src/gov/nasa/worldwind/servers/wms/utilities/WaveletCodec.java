@@ -4,10 +4,17 @@
  */
 package gov.nasa.worldwind.servers.wms.utilities;
 
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.util.Logging;
+
 import java.awt.*;
 import java.awt.image.*;
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author brownrigg
@@ -20,8 +27,39 @@ public class WaveletCodec
     private int resolutionY;
     private EncodingType imageType;
     private byte[][] xform;
+    // coefficients of a memory-mapped encoding; null unless loaded with loadMapped()
+    private ByteBuffer[] mappedBands;
+
+    protected static final int HEADER_SIZE = 4 * (Integer.SIZE / Byte.SIZE);
+    /** Minimum number of rows of a region reconstructed by a single task. */
+    protected static final int MIN_ROWS_PER_TASK = 128;
+
+    /**
+     * Shared pool that encodes and reconstructs bands. Sized to the number of processors, so concurrent requests share
+     * the processors instead of each spawning threads of their own.
+     */
+    protected static final ExecutorService codecPool = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, "WaveletCodec-" + this.count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
 
 
+    /**
+     * Returns the coefficients of the given band held in memory. Returns <code>null</code> for memory-mapped encodings,
+     * see {@link #loadMapped(java.io.File)}.
+     *
+     * @param band the band index.
+     *
+     * @return the band coefficients, or <code>null</code>.
+     */
     public byte[] getBandData( int band )
     {
         if( null != this.xform && this.xform.length > band )
@@ -118,6 +156,65 @@ public class WaveletCodec
         }
     }
 
+    /**
+     * Memory-maps a previously persisted wavelet encoding. Nothing but the header is read up front; the coefficients
+     * needed by {@link #reconstruct(int, java.awt.Rectangle)} are paged in by the operating system on demand, and
+     * mapped pages are shared by all requests that decode the same file.
+     *
+     * @param file the wavelet encoding file.
+     *
+     * @return the mapped encoding.
+     *
+     * @throws IOException if the file cannot be read or is shorter than its header declares.
+     */
+    public static WaveletCodec loadMapped(File file) throws IOException
+    {
+        if (null == file)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        RandomAccessFile inp = null;
+        try
+        {
+            inp = new RandomAccessFile(file, "r");
+            FileChannel channel = inp.getChannel();
+
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            WaveletCodec codec = new WaveletCodec();
+            codec.resolutionX = buffer.getInt(0);
+            codec.resolutionY = buffer.getInt(4);
+            int imageType = buffer.getInt(8);
+            int numBands = buffer.getInt(12);
+            codec.imageType = (imageType == EncodingType.GRAY_SCALE.getTag())
+                ? EncodingType.GRAY_SCALE : EncodingType.COLOR_RGB;
+
+            int bandSize = codec.resolutionX * codec.resolutionY;
+            if (numBands <= 0 || HEADER_SIZE + (long) numBands * bandSize > buffer.capacity())
+                throw new IOException("WaveletCodec.loadMapped(): truncated wavelet encoding " + file.getPath());
+
+            codec.mappedBands = new ByteBuffer[numBands];
+            for (int k = 0; k < numBands; k++)
+            {
+                ByteBuffer band = buffer.duplicate();
+                band.position(HEADER_SIZE + k * bandSize);
+                band.limit(HEADER_SIZE + (k + 1) * bandSize);
+                codec.mappedBands[k] = band.slice();
+            }
+
+            return codec;
+        }
+        finally
+        {
+            if (inp != null)
+                inp.close();
+        }
+    }
+
     /**
      * Creates a wavelet encoding from the given BufferedImage. The image must have dimensions that are a power of 2. If
      * the incoming image has at least 3 bands, the first three are assumed to be RGB channels. If only one-band, it is
@@ -175,24 +272,13 @@ public class WaveletCodec
         codec.imageType = (numBands == 1) ? EncodingType.GRAY_SCALE : EncodingType.COLOR_RGB;
         codec.xform = new byte[numBands][bandSize];
 
-        Thread[] threads = new WaveletEncodingThread[numBands];
-
+        ArrayList<Runnable> tasks = new ArrayList<Runnable>(numBands);
         for (int i = 0; i < numBands; i++)
         {
-            threads[i] = new WaveletEncodingThread( codec, imageData[i], i, xRes, yRes );
-            threads[i].start();
+            tasks.add(new WaveletEncodingThread(codec, imageData[i], i, xRes, yRes));
         }
 
-        for (Thread t : threads)
-        {
-            try
-            {
-                t.join();
-            }
-            catch (InterruptedException ignore)
-            {
-            }
-        }
+        runAll(tasks);
 
         // Done!
         return codec;
@@ -213,47 +299,135 @@ public class WaveletCodec
      */
     public BufferedImage reconstruct(int resolution) throws IllegalArgumentException
     {
+        return this.reconstruct(resolution, new Rectangle(0, 0, resolution, resolution));
+    }
 
+    /**
+     * Reconstructs a rectangular region of the image at the given resolution. Only the coefficients that contribute to
+     * the region are read, so the cost is proportional to the region's size rather than the image's. This is what makes
+     * memory-mapped encodings (see {@link #loadMapped(java.io.File)}) cheap to serve partially covered frames from.
+     * <p/>
+     * Bands, and horizontal strips of large regions, are reconstructed in parallel on a shared pool. The result is
+     * identical to the corresponding region of {@link #reconstruct(int)}.
+     *
+     * @param resolution the image resolution, a power of two no greater than {@link #getMaxResolution()}.
+     * @param region     the region to reconstruct, in pixels of an image of the given resolution. It is clipped to the
+     *                   image bounds.
+     *
+     * @return the reconstructed region, or <code>null</code> if the region lies outside the image.
+     *
+     * @throws IllegalArgumentException if the resolution is not a power of two or exceeds the encoded resolution, or if
+     *                                  the region is null.
+     */
+    public BufferedImage reconstruct(int resolution, Rectangle region) throws IllegalArgumentException
+    {
         if (!isPowerOfTwo(resolution))
             throw new IllegalArgumentException("Image dimensions are not a power of 2");
 
+        if (resolution > this.getMaxResolution())
+            throw new IllegalArgumentException(
+                "WaveletCodec.reconstruct(): input resolution greater than encoded image");
 
-        // Allocate memory for the BufferedImage
-        int numBands = this.xform.length;
-        byte[][] imageBytes = new byte[numBands][this.resolutionX * this.resolutionY];
-
-        Thread[] threads = new ReconstructionThread[numBands];
-
-        for (int i = 0; i < numBands; i++)
+        if (null == region)
         {
-            threads[i] = new ReconstructionThread(xform[i], imageBytes[i], resolution);
-            threads[i].start();
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
         }
 
+        Rectangle window = region.intersection(new Rectangle(0, 0, resolution, resolution));
+        if (window.isEmpty())
+            return null;
+
+        int numBands = this.getNumBands();
+        byte[][] imageBytes = new byte[numBands][window.width * window.height];
 
-        for (Thread t : threads)
+        int numStrips = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+            window.height / MIN_ROWS_PER_TASK));
+        int rowsPerStrip = (window.height + numStrips - 1) / numStrips;
+
+        ArrayList<Runnable> tasks = new ArrayList<Runnable>(numBands * numStrips);
+        for (int k = 0; k < numBands; k++)
         {
-            try
-            {
-                t.join();
-            }
-            catch (InterruptedException ignore)
+            for (int y = 0; y < window.height; y += rowsPerStrip)
             {
+                int rows = Math.min(rowsPerStrip, window.height - y);
+                tasks.add(new RegionReconstructor(this.getCoefficients(k), resolution,
+                    window.x, window.y + y, window.width, rows, imageBytes[k], y * window.width));
             }
         }
 
+        runAll(tasks);
 
         // Finally, construct a BufferedImage...
-        BandedSampleModel sm = new BandedSampleModel(DataBuffer.TYPE_BYTE, resolution, resolution, numBands);
+        BandedSampleModel sm = new BandedSampleModel(DataBuffer.TYPE_BYTE, window.width, window.height, numBands);
         DataBufferByte dataBuff = new DataBufferByte(imageBytes, imageBytes[0].length);
         WritableRaster rast = Raster.createWritableRaster(sm, dataBuff, new Point(0, 0));
         int imageType = (numBands == 1) ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB;
-        BufferedImage image = new BufferedImage(resolution, resolution, imageType);
+        BufferedImage image = new BufferedImage(window.width, window.height, imageType);
         image.getRaster().setRect(rast);
 
         return image;
     }
 
+    /**
+     * Returns the highest resolution this encoding can be reconstructed at, which is lower than the encoded resolution
+     * for encodings loaded with {@link #loadPartially(java.io.File, int)}.
+     *
+     * @return the highest available resolution.
+     */
+    public int getMaxResolution()
+    {
+        int available = (null != this.xform) ? this.xform[0].length : this.mappedBands[0].capacity();
+        int resolution = Math.min(this.resolutionX, this.resolutionY);
+        while (resolution > 1 && (long) resolution * resolution > available)
+        {
+            resolution /= 2;
+        }
+
+        return resolution;
+    }
+
+    public int getNumBands()
+    {
+        return (null != this.xform) ? this.xform.length : this.mappedBands.length;
+    }
+
+    protected ByteBuffer getCoefficients(int band)
+    {
+        return (null != this.xform) ? ByteBuffer.wrap(this.xform[band]) : this.mappedBands[band];
+    }
+
+    protected static void runAll(java.util.List<Runnable> tasks)
+    {
+        ArrayList<Future<?>> futures = new ArrayList<Future<?>>(tasks.size());
+        for (Runnable task : tasks)
+        {
+            futures.add(codecPool.submit(task));
+        }
+
+        try
+        {
+            for (Future<?> f : futures)
+            {
+                f.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            for (Future<?> f : futures)
+            {
+                f.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new WWRuntimeException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new WWRuntimeException(e.getCause());
+        }
+    }
+
     /**
      * Saves this wavelet encoding to the given File.
      *
@@ -347,6 +521,116 @@ public class WaveletCodec
     }
 
 
+    /**
+     * Reconstructs one band of a rectangular region. Each level of the pyramid is computed only over the footprint of
+     * the region at that level; since every pixel depends on a single parent and three coefficients, the footprints
+     * nest and the region never needs pixels outside of it.
+     */
+    protected static class RegionReconstructor implements Runnable
+    {
+        protected final ByteBuffer coeffs;
+        protected final int resolution;
+        protected final int x0;
+        protected final int y0;
+        protected final int width;
+        protected final int height;
+        protected final byte[] dest;
+        protected final int destOffset;
+
+        public RegionReconstructor(ByteBuffer coeffs, int resolution, int x0, int y0, int width, int height,
+            byte[] dest, int destOffset)
+        {
+            this.coeffs = coeffs;
+            this.resolution = resolution;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.width = width;
+            this.height = height;
+            this.dest = dest;
+            this.destOffset = destOffset;
+        }
+
+        public void run()
+        {
+            int x1 = this.x0 + this.width;
+            int y1 = this.y0 + this.height;
+
+            int size = (this.width + 1) * (this.height + 1);
+            int[] current = new int[size];
+            int[] next = new int[size];
+
+            // The first byte of each channel is the average color, an unsigned value.
+            current[0] = 0x000000ff & this.coeffs.get(0);
+            int cx0 = 0, cy0 = 0, cw = 1;
+
+            for (int scale = 1; scale < this.resolution; scale *= 2)
+            {
+                // footprint of the region at the next level
+                int step = this.resolution / (2 * scale);
+                int nx0 = this.x0 / step;
+                int ny0 = this.y0 / step;
+                int nw = (x1 - 1) / step + 1 - nx0;
+                int nh = (y1 - 1) / step + 1 - ny0;
+
+                // offsets of the H, V and D coefficients of this level; levels below hold scale^2 values in total
+                int hOffset = scale * scale;
+                int vOffset = hOffset + scale * scale;
+                int dOffset = vOffset + scale * scale;
+
+                for (int j = 0; j < nh; j++)
+                {
+                    int y = ny0 + j;
+                    int py = y >> 1;
+                    boolean oddY = (y & 1) != 0;
+                    int rowA = (py - cy0) * cw - cx0;
+                    int rowCoeff = py * scale;
+
+                    for (int i = 0; i < nw; i++)
+                    {
+                        int x = nx0 + i;
+                        int px = x >> 1;
+                        int c = rowCoeff + px;
+
+                        int a = current[rowA + px];
+                        int h = this.coeffs.get(hOffset + c);
+                        int v = this.coeffs.get(vOffset + c);
+                        int d = this.coeffs.get(dOffset + c);
+
+                        if ((x & 1) != 0)
+                        {
+                            h = -h;
+                            d = -d;
+                        }
+                        if (oddY)
+                        {
+                            v = -v;
+                            d = -d;
+                        }
+
+                        next[j * nw + i] = a + h + v + d;
+                    }
+                }
+
+                int[] tmp = current;
+                current = next;
+                next = tmp;
+                cx0 = nx0;
+                cy0 = ny0;
+                cw = nw;
+            }
+
+            // The last level's footprint is the region itself. Copy to bytes and clamp to byte-range...
+            int n = this.width * this.height;
+            for (int i = 0; i < n; i++)
+            {
+                int v = current[i];
+                this.dest[this.destOffset + i] = (byte) ((v > 255) ? 255 : ((v < 0) ? 0 : v));
+            }
+        }
+    }
+
+    /** @deprecated Reconstruction runs on a shared pool, use {@link WaveletCodec#reconstruct(int)}. */
+    @Deprecated
     public class ReconstructionThread extends Thread
     {
         int resolution;
@@ -9,7 +9,7 @@ package gov.nasa.worldwind.servers.wms.utilities;
  * @version $Id$
  */
 
-class WaveletEncodingThread extends Thread
+class WaveletEncodingThread implements Runnable
 {
     protected WaveletCodec codec = null;
     protected float[] imageData = null;
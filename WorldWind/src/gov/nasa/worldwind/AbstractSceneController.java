@@ -9,11 +9,14 @@ package gov.nasa.worldwind;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.cache.GpuResourceCache;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.globes.ElevationModel;
 import gov.nasa.worldwind.layers.Layer;
 import gov.nasa.worldwind.pick.*;
 import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.retrieve.Prefetchable;
 import gov.nasa.worldwind.terrain.*;
 import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
 
 import javax.media.opengl.*;
 import java.awt.*;
@@ -77,10 +80,18 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
     protected Collection<SurfaceTile> surfaceObjectTiles = new ArrayList<SurfaceTile>();
     /** The display name for the surface object tile count performance statistic. */
     protected static final String SURFACE_OBJECT_TILE_COUNT_NAME = "Surface Object Tiles";
+    /** The default maximum number of prefetch requests issued per frame. */
+    protected static final int DEFAULT_PREFETCH_BUDGET = 8;
+    /** Predicts the view's motion, so that the data it's about to need can be prefetched. */
+    protected ViewMotionPredictor viewMotionPredictor = new ViewMotionPredictor();
+    protected boolean prefetchEnabled;
+    protected int prefetchBudget;
 
     public AbstractSceneController()
     {
         this.setVerticalExaggeration(Configuration.getDoubleValue(AVKey.VERTICAL_EXAGGERATION, 1d));
+        this.setPrefetchEnabled(Configuration.getBooleanValue(AVKey.TILE_PREFETCH_ENABLED, true));
+        this.setPrefetchBudget(Configuration.getIntegerValue(AVKey.TILE_PREFETCH_BUDGET, DEFAULT_PREFETCH_BUDGET));
     }
 
     public void reinitialize()
@@ -154,6 +165,7 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
 
         View oldView = this.view;
         this.view = view;
+        this.viewMotionPredictor.reset();
 
         this.firePropertyChange(AVKey.VIEW, oldView, view);
     }
@@ -170,6 +182,63 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
         return this.verticalExaggeration;
     }
 
+    /**
+     * Indicates whether data the view is predicted to need is requested while the view is moving. See {@link
+     * Prefetchable}.
+     *
+     * @return true if prefetching is enabled, otherwise false.
+     */
+    public boolean isPrefetchEnabled()
+    {
+        return this.prefetchEnabled;
+    }
+
+    /**
+     * Specifies whether data the view is predicted to need is requested while the view is moving. The default is
+     * specified by the configuration value {@link AVKey#TILE_PREFETCH_ENABLED}, and is true if not configured.
+     *
+     * @param prefetchEnabled true to enable prefetching, otherwise false.
+     */
+    public void setPrefetchEnabled(boolean prefetchEnabled)
+    {
+        this.prefetchEnabled = prefetchEnabled;
+    }
+
+    /**
+     * Indicates the maximum number of prefetch requests issued per frame.
+     *
+     * @return the prefetch budget.
+     */
+    public int getPrefetchBudget()
+    {
+        return this.prefetchBudget;
+    }
+
+    /**
+     * Specifies the maximum number of prefetch requests issued per frame. The default is specified by the configuration
+     * value {@link AVKey#TILE_PREFETCH_BUDGET}.
+     *
+     * @param prefetchBudget the prefetch budget.
+     *
+     * @throws IllegalArgumentException if the budget is negative.
+     */
+    public void setPrefetchBudget(int prefetchBudget)
+    {
+        if (prefetchBudget < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", prefetchBudget);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.prefetchBudget = prefetchBudget;
+    }
+
+    public ViewMotionPredictor getViewMotionPredictor()
+    {
+        return this.viewMotionPredictor;
+    }
+
     /** {@inheritDoc} */
     public void setPickPoint(Point pickPoint)
     {
@@ -303,6 +372,7 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
         this.glRuntimeCaps.initialize(GLContext.getCurrent());
         this.initializeDrawContext(this.dc);
         this.doRepaint(this.dc);
+        this.prefetch(this.dc);
 
         ++this.frame;
         long time = System.currentTimeMillis();
@@ -463,6 +533,61 @@ public abstract class AbstractSceneController extends WWObjectImpl implements Sc
         }
     }
 
+    /**
+     * Updates the view's motion prediction and, while the view is moving, requests the data it's predicted to need
+     * from the globe's elevation model and the model's enabled layers that are {@link Prefetchable}. The elevation model
+     * is given the first share of the prefetch budget. This is called after the frame is drawn, so that prefetch
+     * requests are queued behind the frame's own requests.
+     *
+     * @param dc the current draw context.
+     */
+    protected void prefetch(DrawContext dc)
+    {
+        if (!this.isPrefetchEnabled() || dc.getView() == null || dc.getGlobe() == null)
+            return;
+
+        this.viewMotionPredictor.update(dc.getView(), dc.getFrameTimeStamp());
+        if (!this.viewMotionPredictor.isMoving() || WorldWind.getTaskService().isFull())
+            return;
+
+        int budget = this.getPrefetchBudget();
+
+        ElevationModel elevationModel = dc.getGlobe().getElevationModel();
+        if (elevationModel instanceof Prefetchable)
+            budget -= this.prefetch(dc, (Prefetchable) elevationModel, budget);
+
+        if (dc.getLayers() == null)
+            return;
+
+        for (Layer layer : dc.getLayers())
+        {
+            if (budget <= 0)
+                break;
+
+            if (layer instanceof Prefetchable && layer.isEnabled())
+                budget -= this.prefetch(dc, (Prefetchable) layer, budget);
+        }
+    }
+
+    protected int prefetch(DrawContext dc, Prefetchable prefetchable, int budget)
+    {
+        if (budget <= 0)
+            return 0;
+
+        try
+        {
+            return prefetchable.prefetch(dc, this.viewMotionPredictor, budget);
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("SceneController.ExceptionWhilePrefetchingData",
+                prefetchable.getClass().getName());
+            Logging.logger().log(Level.SEVERE, message, e);
+            // Don't abort; prefetching is only an optimization.
+            return 0;
+        }
+    }
+
     protected void preRender(DrawContext dc)
     {
         try
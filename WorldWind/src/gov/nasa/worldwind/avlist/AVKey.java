@@ -401,6 +401,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String SERVER_APP_URL = "gov.nasa.worldwind.avkey.Server.Application.URL";
     final String SERVER_APPLICATION_POOL_CONNECTION_TIMEOUT
         = "gov.nasa.worldwind.avkey.Server.ApplicationPool.ConnectionTimeout";
+    final String SERVER_APPLICATION_POOL_QUEUE_SIZE = "gov.nasa.worldwind.avkey.Server.ApplicationPool.QueueSize";
     final String SERVER_APPLICATION_POOL_SIZE = "gov.nasa.worldwind.avkey.Server.ApplicationPool.Size";
     final String SERVER_APPLICATION_POOL_THREAD_TIMEOUT
         = "gov.nasa.worldwind.avkey.Server.ApplicationPool.ThreadTimeout";
@@ -444,6 +445,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String STEREO_TYPE_PARALLEL = "gov.nasa.worldwind.avkey.StereoModeParallel";
     final String STOP = "gov.nasa.worldwind.avkey.Stop";
     final String STYLE_NAMES = "gov.nasa.worldwind.avkey.StyleNames";
+    final String SURFACE_SHAPE_GEOMETRY_CACHE_SIZE = "gov.nasa.worldwind.avkey.SurfaceShapeGeometryCacheSize";
     final String SURFACE_TILE_DRAW_CONTEXT = "gov.nasa.worldwind.avkey.SurfaceTileDrawContext";
 
     final String TESSELLATOR_CLASS_NAME = "gov.nasa.worldwind.avkey.TessellatorClassName";
@@ -452,6 +454,7 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String TEXTURE_COORDINATES = "gov.nasa.worldwind.avkey.TextureCoordinates";
     final String TEXTURE_FORMAT = "gov.nasa.worldwind.avkey.TextureFormat";
     final String TEXTURE_IMAGE_CACHE_SIZE = "gov.nasa.worldwind.avkey.TextureTileCacheSize";
+    final String TACTICAL_SYMBOL_ICON_CACHE_SIZE = "gov.nasa.worldwind.avkey.TacticalSymbolIconCacheSize";
     final String TARGET = "gov.nasa.worldwind.avkey.Target";
     final String TASK_POOL_SIZE = "gov.nasa.worldwind.avkey.TaskPoolSize";
     final String TASK_QUEUE_SIZE = "gov.nasa.worldwind.avkey.TaskQueueSize";
@@ -463,6 +466,8 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String TILE_DELTA = "gov.nasa.worldwind.avkey.TileDeltaKey";
     final String TILE_HEIGHT = "gov.nasa.worldwind.avkey.TileHeightKey";
     final String TILE_ORIGIN = "gov.nasa.worldwind.avkey.TileOrigin";
+    final String TILE_PREFETCH_BUDGET = "gov.nasa.worldwind.avkey.TilePrefetchBudget";
+    final String TILE_PREFETCH_ENABLED = "gov.nasa.worldwind.avkey.TilePrefetchEnabled";
     final String TILE_RETRIEVER = "gov.nasa.worldwind.avkey.TileRetriever";
     final String TILE_URL_BUILDER = "gov.nasa.worldwind.avkey.TileURLBuilder";
     final String TILE_WIDTH = "gov.nasa.worldwind.avkey.TileWidthKey";
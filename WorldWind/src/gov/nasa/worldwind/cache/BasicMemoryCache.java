@@ -54,6 +54,9 @@ public class BasicMemoryCache implements MemoryCache
     protected AtomicLong currentUsedCapacity = new AtomicLong();
     protected Long lowWater;
     protected String name = "";
+    protected AtomicLong hitCount = new AtomicLong();
+    protected AtomicLong missCount = new AtomicLong();
+    protected AtomicLong evictionCount = new AtomicLong();
 
     protected final Object lock = new Object();
 
@@ -106,6 +109,36 @@ public class BasicMemoryCache implements MemoryCache
         return name;
     }
 
+    /** @return the number of calls to <code>getObject</code> that found an object since the cache was created. */
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /** @return the number of calls to <code>getObject</code> that found no object since the cache was created. */
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+     * @return the fraction of calls to <code>getObject</code> that found an object, from 0 to 1. Returns 0 if
+     *         <code>getObject</code> has not been called.
+     */
+    public double getHitRate()
+    {
+        long hits = this.hitCount.get();
+        long lookups = hits + this.missCount.get();
+
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    /** @return the number of objects removed to make space for new objects since the cache was created. */
+    public long getEvictionCount()
+    {
+        return this.evictionCount.get();
+    }
+
     /**
      * Adds a  cache listener, MemoryCache listeners are used to notify classes when an item is removed from the cache.
      *
@@ -322,7 +355,12 @@ public class BasicMemoryCache implements MemoryCache
             entry = this.entries.get(key);
 
             if (entry == null)
+            {
+                this.missCount.incrementAndGet();
                 return null;
+            }
+
+            this.hitCount.incrementAndGet();
 
             entry.lastUsed = System.nanoTime(); // nanoTime overflows once every 292 years
             // which will result in a slowing of the cache
@@ -392,6 +430,7 @@ public class BasicMemoryCache implements MemoryCache
             if (i < timeOrderedEntries.length)
             {
                 this.removeEntry(timeOrderedEntries[i++]);
+                this.evictionCount.incrementAndGet();
             }
         }
     }
@@ -79,6 +79,12 @@ public class BasicMemoryCacheSet implements MemoryCacheSet
         {
             stats.add(new PerformanceStatistic(PerformanceStatistic.MEMORY_CACHE, "Cache Size (Kb): " + cache.getName(),
                 cache.getUsedCapacity() / 1000));
+
+            if (cache instanceof BasicMemoryCache)
+            {
+                stats.add(new PerformanceStatistic(PerformanceStatistic.MEMORY_CACHE,
+                    "Cache Hit Rate (%): " + cache.getName(), (int) (100 * ((BasicMemoryCache) cache).getHitRate())));
+            }
         }
 
         return stats;
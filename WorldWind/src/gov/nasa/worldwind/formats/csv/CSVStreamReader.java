@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.csv;
+
+import gov.nasa.worldwind.tracks.*;
+import gov.nasa.worldwind.util.WWUtil;
+
+import java.io.*;
+
+/**
+ * An incremental reader of comma separated track points, in the layout read by {@link CSVReader}: time, latitude and
+ * longitude in degrees, and an optional elevation in meters. The time is either an integer number of milliseconds since
+ * the epoch or an ISO 8601 time; see {@link TrackStreamReader#parseTime(byte[], int, int)}. Lines whose latitude or
+ * longitude is not a number, such as header lines, are skipped. The reader parses the bytes of each line in place,
+ * without splitting it into strings.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class CSVStreamReader extends TrackStreamReader
+{
+    protected int[] fieldStarts = new int[4];
+    protected int[] fieldEnds = new int[4];
+
+    public CSVStreamReader(TrackPointListener listener)
+    {
+        super(listener);
+    }
+
+    public CSVStreamReader(TrackPointListener listener, int batchSize)
+    {
+        super(listener, batchSize);
+    }
+
+    @Override
+    protected void doRead(InputStream stream) throws IOException
+    {
+        this.readLines(stream);
+    }
+
+    @Override
+    protected void parseLine(byte[] line, int length)
+    {
+        int numFields = 0;
+        int fieldStart = 0;
+        for (int i = 0; i <= length && numFields < this.fieldStarts.length; i++)
+        {
+            if (i == length || line[i] == ',')
+            {
+                this.fieldStarts[numFields] = fieldStart;
+                this.fieldEnds[numFields] = i;
+                numFields++;
+                fieldStart = i + 1;
+            }
+        }
+
+        if (numFields < 3)
+            return;
+
+        double latitude = WWUtil.parseDouble(line, this.fieldStarts[1], this.fieldEnds[1]);
+        double longitude = WWUtil.parseDouble(line, this.fieldStarts[2], this.fieldEnds[2]);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude))
+            return;
+
+        double elevation = numFields > 3 ? WWUtil.parseDouble(line, this.fieldStarts[3], this.fieldEnds[3]) : 0;
+
+        long time = parseDigits(line, this.fieldStarts[0], this.fieldEnds[0]);
+        if (time < 0)
+            time = parseTime(line, this.fieldStarts[0], this.fieldEnds[0]);
+
+        this.addPoint(latitude, longitude, Double.isNaN(elevation) ? 0 : elevation, time);
+    }
+}
@@ -19,6 +19,7 @@ public interface GeoJSONConstants
     final String FIELD_GEOMETRY = "geometry";
     final String FIELD_PROPERTIES = "properties";
     final String FIELD_FEATURES = "features";
+    final String FIELD_ID = "id";
 
     final String TYPE_POINT = "Point";
     final String TYPE_MULTI_POINT = "MultiPoint";
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+/**
+ * Receives the features read by a {@link GeoJSONStreamReader}, one feature at a time.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public interface GeoJSONFeatureListener
+{
+    /**
+     * Called for each feature read. The feature's coordinates are held in the reader's shared coordinate buffer; see
+     * {@link GeoJSONStreamReader#getCoordinates()}.
+     *
+     * @param feature the feature read.
+     */
+    void featureRead(GeoJSONStreamFeature feature);
+}
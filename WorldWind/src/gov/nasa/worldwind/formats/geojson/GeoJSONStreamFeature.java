@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+
+/**
+ * A feature read by a {@link GeoJSONStreamReader}. The feature holds no coordinates of its own; its coordinates are a
+ * range of consecutive sub-buffers in the reader's shared {@link VecBufferSequence}, one sub-buffer for each point
+ * list, line or ring of the feature's geometry, in document order.
+ * <p/>
+ * The sub-buffers are grouped into parts, one part for each simple geometry: <ul> <li>Point, MultiPoint and LineString
+ * parts have one sub-buffer.</li> <li>MultiLineString parts have one sub-buffer for each line.</li> <li>Polygon parts
+ * have one sub-buffer for each ring, the outer boundary first.</li> </ul> A MultiPolygon contributes one Polygon part
+ * for each of its polygons, and a GeometryCollection contributes the parts of each of its geometries.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class GeoJSONStreamFeature
+{
+    protected Object id;
+    protected AVList properties;
+    protected String geometryType;
+    protected Sector sector;
+    protected VecBufferSequence buffer;
+    protected int firstSubBuffer;
+    protected int numSubBuffers;
+    protected int numParts;
+    protected String[] partTypes = new String[1];
+    protected int[] partFirstSubBuffers = new int[1];
+    protected int[] partNumSubBuffers = new int[1];
+
+    /**
+     * Creates a feature with no parts.
+     *
+     * @param id             the feature's identifier. May be null.
+     * @param properties     the feature's properties. May be null.
+     * @param geometryType   the type of the feature's geometry, one of the GeoJSONConstants TYPE_ values. May be null
+     *                       if the feature has no geometry.
+     * @param sector         the extent of the feature's coordinates. May be null if the feature has no coordinates.
+     * @param buffer         the buffer holding the feature's coordinates.
+     * @param firstSubBuffer the index in the buffer of the feature's first sub-buffer.
+     * @param numSubBuffers  the number of the feature's sub-buffers.
+     *
+     * @throws IllegalArgumentException if the buffer is null.
+     */
+    public GeoJSONStreamFeature(Object id, AVList properties, String geometryType, Sector sector,
+        VecBufferSequence buffer, int firstSubBuffer, int numSubBuffers)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.id = id;
+        this.properties = properties;
+        this.geometryType = geometryType;
+        this.sector = sector;
+        this.buffer = buffer;
+        this.firstSubBuffer = firstSubBuffer;
+        this.numSubBuffers = numSubBuffers;
+    }
+
+    public Object getId()
+    {
+        return this.id;
+    }
+
+    public AVList getProperties()
+    {
+        return this.properties;
+    }
+
+    public String getGeometryType()
+    {
+        return this.geometryType;
+    }
+
+    /**
+     * Returns the extent of the feature's coordinates.
+     *
+     * @return the feature's extent, or null if the feature has no coordinates.
+     */
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    /**
+     * Returns the shared buffer holding the feature's coordinates.
+     *
+     * @return the buffer holding the feature's coordinates.
+     */
+    public VecBufferSequence getBuffer()
+    {
+        return this.buffer;
+    }
+
+    public int getFirstSubBuffer()
+    {
+        return this.firstSubBuffer;
+    }
+
+    public int getNumSubBuffers()
+    {
+        return this.numSubBuffers;
+    }
+
+    /**
+     * Returns the feature's coordinates as a view of the shared buffer.
+     *
+     * @return the feature's sub-buffers.
+     */
+    public CompoundVecBuffer getCoordinates()
+    {
+        return this.slice(this.firstSubBuffer, this.numSubBuffers);
+    }
+
+    public int getNumParts()
+    {
+        return this.numParts;
+    }
+
+    /**
+     * Returns the type of a part.
+     *
+     * @param index the part's index.
+     *
+     * @return the part's type, one of the GeoJSONConstants TYPE_ values other than MultiPolygon and
+     *         GeometryCollection.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public String getPartType(int index)
+    {
+        return this.partTypes[this.validatePartIndex(index)];
+    }
+
+    /**
+     * Returns the coordinates of a part as a view of the shared buffer.
+     *
+     * @param index the part's index.
+     *
+     * @return the part's sub-buffers.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public CompoundVecBuffer getPartCoordinates(int index)
+    {
+        this.validatePartIndex(index);
+        return this.slice(this.partFirstSubBuffers[index], this.partNumSubBuffers[index]);
+    }
+
+    /**
+     * Adds a part to the feature.
+     *
+     * @param type           the part's type.
+     * @param firstSubBuffer the index in the shared buffer of the part's first sub-buffer.
+     * @param numSubBuffers  the number of the part's sub-buffers.
+     */
+    protected void addPart(String type, int firstSubBuffer, int numSubBuffers)
+    {
+        if (this.numParts == this.partTypes.length)
+        {
+            String[] newTypes = new String[2 * this.numParts];
+            System.arraycopy(this.partTypes, 0, newTypes, 0, this.numParts);
+            this.partTypes = newTypes;
+
+            int[] newFirsts = new int[2 * this.numParts];
+            System.arraycopy(this.partFirstSubBuffers, 0, newFirsts, 0, this.numParts);
+            this.partFirstSubBuffers = newFirsts;
+
+            int[] newCounts = new int[2 * this.numParts];
+            System.arraycopy(this.partNumSubBuffers, 0, newCounts, 0, this.numParts);
+            this.partNumSubBuffers = newCounts;
+        }
+
+        this.partTypes[this.numParts] = type;
+        this.partFirstSubBuffers[this.numParts] = firstSubBuffer;
+        this.partNumSubBuffers[this.numParts] = numSubBuffers;
+        this.numParts++;
+    }
+
+    protected int validatePartIndex(int index)
+    {
+        if (index < 0 || index >= this.numParts)
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", index);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return index;
+    }
+
+    protected CompoundVecBuffer slice(int first, int count)
+    {
+        if (count == 0)
+            return CompoundVecBuffer.emptyCompoundVecBuffer(this.buffer.getCoordsPerVec());
+
+        return this.buffer.slice(first, first + count - 1);
+    }
+}
@@ -0,0 +1,799 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+import org.codehaus.jackson.*;
+import org.codehaus.jackson.util.TokenBuffer;
+
+import java.io.*;
+import java.nio.DoubleBuffer;
+import java.util.*;
+
+/**
+ * Reads a GeoJSON document one feature at a time, delivering each feature to a {@link GeoJSONFeatureListener} as soon
+ * as it has been read. Unlike {@link GeoJSONDoc}, the reader holds only the feature being read, so it can read
+ * documents too large to hold in memory.
+ * <p/>
+ * The coordinates of all features are packed into one shared {@link VecBufferSequence} that grows as features are
+ * read, rather than into a buffer per geometry. Each position occupies two coordinates, longitude and latitude in
+ * degrees, or three when the reader is created with three coordinates per position, the third being the altitude in
+ * meters or 0 if the position has none. See {@link GeoJSONStreamFeature} for how a feature's geometry maps to the
+ * sub-buffers of the sequence. Applications that keep no feature past its callback may clear the sequence in the
+ * callback to keep its size bounded.
+ * <p/>
+ * When a sector is specified, features whose coordinates lie entirely outside it are skipped: their coordinates are
+ * never added to the shared sequence, their properties are never converted to objects, and they're not delivered. A
+ * feature whose <code>bbox</code> member precedes its geometry is skipped without reading the rest of the feature.
+ * Features without coordinates are skipped when a sector is specified.
+ * <p/>
+ * A document may be a FeatureCollection, a single Feature, or a single geometry. A single geometry is delivered as a
+ * feature with no properties.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class GeoJSONStreamReader implements Closeable
+{
+    protected static final int DEFAULT_SCRATCH_CAPACITY = 1024;
+    protected static final int DEFAULT_BUFFER_CAPACITY = 16384;
+
+    protected JsonParser jsonParser;
+    protected String displayName;
+    protected int coordsPerVec;
+    protected Sector sector;
+    protected VecBufferSequence coordinates;
+    protected GeoJSONFeatureListener listener;
+    protected long numFeatures;
+    protected long numSkippedFeatures;
+
+    // The feature being read. Its coordinates are gathered in the scratch buffer, and copied to the shared sequence
+    // only once the feature is known to be within the sector.
+    protected Object id;
+    protected AVList properties;
+    protected TokenBuffer deferredProperties;
+    protected String geometryType;
+    protected boolean hasGeometry;
+    protected DoubleBuffer scratch;
+    protected VecBuffer scratchVecs;
+    protected int numVecs;
+    protected double minLatitude;
+    protected double maxLatitude;
+    protected double minLongitude;
+    protected double maxLongitude;
+    protected double[] values = new double[6];
+    // The point lists, lines and rings of the feature, as offsets and lengths in the scratch buffer.
+    protected int numRings;
+    protected int[] ringOffsets = new int[16];
+    protected int[] ringLengths = new int[16];
+    // The number of rings read at the end of each polygon of a MultiPolygon.
+    protected int numGroups;
+    protected int[] groupEnds = new int[16];
+    protected int numParts;
+    protected String[] partTypes = new String[16];
+    protected int[] partFirstRings = new int[16];
+    protected int[] partNumRings = new int[16];
+
+    /**
+     * Creates a reader that reads two coordinates per position, longitude and latitude.
+     *
+     * @param source the document source, either a {@link File}, a {@link java.net.URL}, an {@link InputStream}, or a
+     *               path.
+     *
+     * @throws IllegalArgumentException if the source is null.
+     * @throws WWRuntimeException       if the source cannot be opened.
+     */
+    public GeoJSONStreamReader(Object source)
+    {
+        this(source, 2);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param source       the document source, either a {@link File}, a {@link java.net.URL}, an {@link InputStream},
+     *                     or a path.
+     * @param coordsPerVec the number of coordinates stored per position, 2 for longitude and latitude, or 3 for
+     *                     longitude, latitude and altitude.
+     *
+     * @throws IllegalArgumentException if the source is null, or the number of coordinates is neither 2 nor 3.
+     * @throws WWRuntimeException       if the source cannot be opened.
+     */
+    public GeoJSONStreamReader(Object source, int coordsPerVec)
+    {
+        if (WWUtil.isEmpty(source))
+        {
+            String message = Logging.getMessage("nullValue.SourceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (coordsPerVec != 2 && coordsPerVec != 3)
+        {
+            String message = Logging.getMessage("generic.InvalidTupleSize", coordsPerVec);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.coordsPerVec = coordsPerVec;
+        this.coordinates = new VecBufferSequence(new VecBuffer(coordsPerVec, new BufferWrapper.DoubleBufferWrapper(
+            WWBufferUtil.newDoubleBuffer(coordsPerVec * DEFAULT_BUFFER_CAPACITY, true))));
+        this.scratch = WWBufferUtil.newDoubleBuffer(coordsPerVec * DEFAULT_SCRATCH_CAPACITY, false);
+        this.scratchVecs = new VecBuffer(coordsPerVec, new BufferWrapper.DoubleBufferWrapper(this.scratch));
+
+        try
+        {
+            this.displayName = WWIO.getSourcePath(source);
+            this.jsonParser = new JsonFactory().createJsonParser(WWIO.openStream(source));
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("generic.ExceptionWhileReading", this.displayName);
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+
+    public int getCoordsPerVec()
+    {
+        return this.coordsPerVec;
+    }
+
+    /**
+     * Returns the sector outside of which features are skipped.
+     *
+     * @return the sector, or null if no features are skipped.
+     */
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    /**
+     * Specifies the sector outside of which features are skipped.
+     *
+     * @param sector the sector, or null to deliver every feature.
+     */
+    public void setSector(Sector sector)
+    {
+        this.sector = sector;
+    }
+
+    /**
+     * Returns the sequence holding the coordinates of the features delivered.
+     *
+     * @return the shared coordinate sequence.
+     */
+    public VecBufferSequence getCoordinates()
+    {
+        return this.coordinates;
+    }
+
+    /**
+     * Indicates the number of features delivered to the listener.
+     *
+     * @return the number of features delivered.
+     */
+    public long getNumFeatures()
+    {
+        return this.numFeatures;
+    }
+
+    /**
+     * Indicates the number of features skipped because they're outside the sector.
+     *
+     * @return the number of features skipped.
+     */
+    public long getNumSkippedFeatures()
+    {
+        return this.numSkippedFeatures;
+    }
+
+    /**
+     * Reads the document, delivering each feature to a listener as it's read.
+     *
+     * @param listener the listener to receive the features.
+     *
+     * @throws IllegalArgumentException if the listener is null.
+     * @throws IOException              if an exception occurs reading the document.
+     * @throws WWRuntimeException       if the document is not a JSON object.
+     */
+    public void read(GeoJSONFeatureListener listener) throws IOException
+    {
+        if (listener == null)
+        {
+            String message = Logging.getMessage("nullValue.ListenerIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (this.jsonParser == null)
+        {
+            Logging.logger().warning(Logging.getMessage("generic.ParserUninitialized", this.displayName));
+            return;
+        }
+
+        JsonToken token = this.jsonParser.nextToken();
+        if (token == null)
+            return;
+
+        if (token != JsonToken.START_OBJECT)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToReadGeoJSON", this.displayName);
+            Logging.logger().severe(message);
+            throw new WWRuntimeException(message);
+        }
+
+        this.listener = listener;
+        try
+        {
+            this.parseRoot(this.jsonParser);
+        }
+        finally
+        {
+            this.listener = null;
+        }
+    }
+
+    public void close()
+    {
+        if (this.jsonParser != null)
+        {
+            WWIO.closeStream(this.jsonParser, this.displayName);
+            this.jsonParser = null;
+        }
+    }
+
+    //**************************************************************//
+    //********************  Object Parsing  ************************//
+    //**************************************************************//
+
+    protected void parseRoot(JsonParser parser) throws IOException
+    {
+        // The root is read as a feature in case it's a Feature or a geometry. A FeatureCollection's features are each
+        // read as they're encountered.
+        this.beginFeature();
+
+        String type = null;
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken())
+        {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+
+            if (GeoJSONConstants.FIELD_TYPE.equals(name))
+            {
+                type = parser.getText();
+            }
+            else if (GeoJSONConstants.FIELD_FEATURES.equals(name) && token == JsonToken.START_ARRAY)
+            {
+                this.parseFeatures(parser);
+            }
+            else if (GeoJSONConstants.FIELD_COORDINATES.equals(name) && token == JsonToken.START_ARRAY)
+            {
+                this.parseCoordinates(parser);
+                this.hasGeometry = true;
+            }
+            else if (GeoJSONConstants.FIELD_GEOMETRIES.equals(name) && token == JsonToken.START_ARRAY)
+            {
+                this.parseGeometries(parser);
+                this.hasGeometry = true;
+            }
+            else if (!this.parseFeatureMember(parser, name, token))
+            {
+                this.skipToEndObject(parser);
+                this.numSkippedFeatures++;
+                return;
+            }
+        }
+
+        if (GeoJSONConstants.TYPE_FEATURE.equals(type))
+        {
+            this.endFeature();
+        }
+        else if (type != null && !GeoJSONConstants.TYPE_FEATURE_COLLECTION.equals(type))
+        {
+            this.endGeometry(type, 0, 0);
+            this.geometryType = type;
+            this.endFeature();
+        }
+    }
+
+    protected void parseFeatures(JsonParser parser) throws IOException
+    {
+        for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_ARRAY;
+            token = parser.nextToken())
+        {
+            if (token == JsonToken.START_OBJECT)
+                this.parseFeature(parser);
+            else
+                parser.skipChildren();
+        }
+    }
+
+    protected void parseFeature(JsonParser parser) throws IOException
+    {
+        this.beginFeature();
+
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken())
+        {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+
+            if (!this.parseFeatureMember(parser, name, token))
+            {
+                this.skipToEndObject(parser);
+                this.numSkippedFeatures++;
+                return;
+            }
+        }
+
+        this.endFeature();
+    }
+
+    /**
+     * Reads one member of a feature. The parser is positioned at the member's value.
+     *
+     * @param parser the parser.
+     * @param name   the member's name.
+     * @param token  the first token of the member's value.
+     *
+     * @return false if the feature is known to be outside the sector, otherwise true.
+     *
+     * @throws IOException if an exception occurs reading the member.
+     */
+    protected boolean parseFeatureMember(JsonParser parser, String name, JsonToken token) throws IOException
+    {
+        if (GeoJSONConstants.FIELD_GEOMETRY.equals(name) && token == JsonToken.START_OBJECT)
+        {
+            this.geometryType = this.parseGeometry(parser);
+            this.hasGeometry = true;
+        }
+        else if (GeoJSONConstants.FIELD_PROPERTIES.equals(name) && token == JsonToken.START_OBJECT)
+        {
+            // The feature's geometry is needed to decide whether the feature is skipped. Until it's read, properties
+            // are kept as tokens, which are converted to objects only if the feature is delivered.
+            if (this.sector != null && !this.hasGeometry)
+            {
+                this.deferredProperties = new TokenBuffer(null);
+                this.deferredProperties.copyCurrentStructure(parser);
+            }
+            else
+            {
+                this.properties = this.parseObject(parser);
+            }
+        }
+        else if (GeoJSONConstants.FIELD_ID.equals(name) && token.isScalarValue())
+        {
+            this.id = this.parseValue(parser);
+        }
+        else if (GeoJSONConstants.FIELD_BBOX.equals(name) && token == JsonToken.START_ARRAY)
+        {
+            return this.parseBoundingBox(parser);
+        }
+        else
+        {
+            parser.skipChildren();
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads a geometry object, adding its coordinates and parts to the feature being read.
+     *
+     * @param parser the parser, positioned at the start of the geometry object.
+     *
+     * @return the geometry's type, or null if the geometry has no type.
+     *
+     * @throws IOException if an exception occurs reading the geometry.
+     */
+    protected String parseGeometry(JsonParser parser) throws IOException
+    {
+        int firstRing = this.numRings;
+        int firstGroup = this.numGroups;
+        String type = null;
+
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken())
+        {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+
+            if (GeoJSONConstants.FIELD_TYPE.equals(name))
+                type = parser.getText();
+            else if (GeoJSONConstants.FIELD_COORDINATES.equals(name) && token == JsonToken.START_ARRAY)
+                this.parseCoordinates(parser);
+            else if (GeoJSONConstants.FIELD_GEOMETRIES.equals(name) && token == JsonToken.START_ARRAY)
+                this.parseGeometries(parser);
+            else
+                parser.skipChildren();
+        }
+
+        this.endGeometry(type, firstRing, firstGroup);
+
+        return type;
+    }
+
+    protected void parseGeometries(JsonParser parser) throws IOException
+    {
+        for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_ARRAY;
+            token = parser.nextToken())
+        {
+            if (token == JsonToken.START_OBJECT)
+                this.parseGeometry(parser);
+            else
+                parser.skipChildren();
+        }
+    }
+
+    /**
+     * Reads a bounding box of the form [west, south, east, north] or [west, south, min altitude, east, north, max
+     * altitude].
+     *
+     * @param parser the parser, positioned at the start of the array.
+     *
+     * @return false if the bounding box is outside the sector, otherwise true.
+     *
+     * @throws IOException if an exception occurs reading the bounding box.
+     */
+    protected boolean parseBoundingBox(JsonParser parser) throws IOException
+    {
+        int count = this.parseNumbers(parser);
+        if (this.sector == null || (count != 4 && count != 6))
+            return true;
+
+        double west = this.values[0];
+        double south = this.values[1];
+        double east = this.values[count / 2];
+        double north = this.values[count / 2 + 1];
+
+        // A box that crosses the antimeridian is not used to skip the feature.
+        return west > east || this.intersectsSector(south, north, west, east);
+    }
+
+    protected AVList parseObject(JsonParser parser) throws IOException
+    {
+        AVList fields = new AVListImpl();
+
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken())
+        {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            fields.setValue(name, this.parseValue(parser));
+        }
+
+        return fields;
+    }
+
+    /**
+     * Converts the value at the parser's position the way {@link gov.nasa.worldwind.formats.json.BasicJSONEventParser}
+     * does: objects become AVLists, arrays become Object arrays, and numbers become Doubles.
+     *
+     * @param parser the parser, positioned at the value.
+     *
+     * @return the value.
+     *
+     * @throws IOException if an exception occurs reading the value.
+     */
+    protected Object parseValue(JsonParser parser) throws IOException
+    {
+        JsonToken token = parser.getCurrentToken();
+
+        if (token == JsonToken.START_OBJECT)
+        {
+            return this.parseObject(parser);
+        }
+        else if (token == JsonToken.START_ARRAY)
+        {
+            ArrayList<Object> array = new ArrayList<Object>();
+            for (token = parser.nextToken(); token != null && token != JsonToken.END_ARRAY; token = parser.nextToken())
+            {
+                array.add(this.parseValue(parser));
+            }
+
+            return array.toArray(new Object[array.size()]);
+        }
+        else if (token == JsonToken.VALUE_STRING)
+        {
+            return parser.getText();
+        }
+        else if (token != null && token.isNumeric())
+        {
+            return parser.getDoubleValue();
+        }
+        else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE)
+        {
+            return parser.getBooleanValue();
+        }
+
+        return null;
+    }
+
+    /**
+     * Skips the remaining members of the object being read.
+     *
+     * @param parser the parser, positioned within the object.
+     *
+     * @throws IOException if an exception occurs reading the object.
+     */
+    protected void skipToEndObject(JsonParser parser) throws IOException
+    {
+        for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_OBJECT;
+            token = parser.nextToken())
+        {
+            parser.skipChildren();
+        }
+    }
+
+    //**************************************************************//
+    //********************  Coordinate Parsing  ********************//
+    //**************************************************************//
+
+    protected void parseCoordinates(JsonParser parser) throws IOException
+    {
+        int offset = this.numVecs;
+
+        // A Point's coordinates are a single position.
+        if (this.parseArray(parser) == 1)
+            this.addRing(offset, this.numVecs - offset);
+    }
+
+    /**
+     * Reads a position or a nested array of positions. Each innermost array of positions becomes a ring, and each
+     * array of polygons ends a group of rings.
+     *
+     * @param parser the parser, positioned at the start of the array.
+     *
+     * @return the array's depth: 1 for a position, 2 for an array of positions, 3 for an array of rings, and 4 for an
+     *         array of polygons.
+     *
+     * @throws IOException if an exception occurs reading the array.
+     */
+    protected int parseArray(JsonParser parser) throws IOException
+    {
+        JsonToken token = parser.nextToken();
+        if (token != null && token.isNumeric())
+        {
+            this.parsePosition(parser);
+            return 1;
+        }
+
+        int offset = this.numVecs;
+        int depth = 1;
+        for (; token != null && token != JsonToken.END_ARRAY; token = parser.nextToken())
+        {
+            if (token != JsonToken.START_ARRAY)
+            {
+                parser.skipChildren();
+                continue;
+            }
+
+            int childDepth = this.parseArray(parser);
+            depth = Math.max(depth, childDepth + 1);
+
+            if (childDepth == 3)
+                this.addGroup();
+        }
+
+        if (depth == 2)
+            this.addRing(offset, this.numVecs - offset);
+
+        return depth;
+    }
+
+    protected void parsePosition(JsonParser parser) throws IOException
+    {
+        int count = this.parseNumbers(parser);
+        if (count >= 2)
+            this.addPosition(this.values[0], this.values[1], count > 2 ? this.values[2] : 0);
+    }
+
+    /**
+     * Reads up to six numbers of an array into the values array.
+     *
+     * @param parser the parser, positioned at the start of the array or at its first element.
+     *
+     * @return the number of numbers read.
+     *
+     * @throws IOException if an exception occurs reading the array.
+     */
+    protected int parseNumbers(JsonParser parser) throws IOException
+    {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_ARRAY)
+            token = parser.nextToken();
+
+        int count = 0;
+        for (; token != null && token != JsonToken.END_ARRAY; token = parser.nextToken())
+        {
+            if (token.isNumeric() && count < this.values.length)
+                this.values[count++] = parser.getDoubleValue();
+            else
+                parser.skipChildren();
+        }
+
+        return count;
+    }
+
+    //**************************************************************//
+    //********************  Feature Assembly  **********************//
+    //**************************************************************//
+
+    protected void beginFeature()
+    {
+        this.id = null;
+        this.properties = null;
+        this.deferredProperties = null;
+        this.geometryType = null;
+        this.hasGeometry = false;
+        this.numVecs = 0;
+        this.numRings = 0;
+        this.numGroups = 0;
+        this.numParts = 0;
+        this.minLatitude = Double.MAX_VALUE;
+        this.maxLatitude = -Double.MAX_VALUE;
+        this.minLongitude = Double.MAX_VALUE;
+        this.maxLongitude = -Double.MAX_VALUE;
+    }
+
+    /**
+     * Delivers the feature being read to the listener, unless it's outside the sector. The feature's rings are copied
+     * from the scratch buffer to the shared sequence.
+     *
+     * @throws IOException if an exception occurs reading the feature's deferred properties.
+     */
+    protected void endFeature() throws IOException
+    {
+        if (this.sector != null && (this.numVecs == 0
+            || !this.intersectsSector(this.minLatitude, this.maxLatitude, this.minLongitude, this.maxLongitude)))
+        {
+            this.numSkippedFeatures++;
+            return;
+        }
+
+        if (this.deferredProperties != null)
+        {
+            JsonParser parser = this.deferredProperties.asParser();
+            parser.nextToken();
+            this.properties = this.parseObject(parser);
+        }
+
+        Sector featureSector = this.numVecs == 0 ? null
+            : Sector.fromDegrees(this.minLatitude, this.maxLatitude, this.minLongitude, this.maxLongitude);
+
+        int firstSubBuffer = this.coordinates.size();
+        for (int i = 0; i < this.numRings; i++)
+        {
+            this.coordinates.append(this.scratchVecs.getSubBuffer(this.ringOffsets[i], this.ringLengths[i]));
+        }
+
+        GeoJSONStreamFeature feature = new GeoJSONStreamFeature(this.id, this.properties, this.geometryType,
+            featureSector, this.coordinates, firstSubBuffer, this.numRings);
+        for (int i = 0; i < this.numParts; i++)
+        {
+            feature.addPart(this.partTypes[i], firstSubBuffer + this.partFirstRings[i], this.partNumRings[i]);
+        }
+
+        this.numFeatures++;
+        this.listener.featureRead(feature);
+    }
+
+    /**
+     * Groups the rings read for a geometry into parts. Rings of a geometry whose type is unrecognized are discarded.
+     *
+     * @param type       the geometry's type.
+     * @param firstRing  the index of the geometry's first ring.
+     * @param firstGroup the index of the geometry's first polygon, if the geometry is a MultiPolygon.
+     */
+    protected void endGeometry(String type, int firstRing, int firstGroup)
+    {
+        if (GeoJSONConstants.TYPE_POINT.equals(type)
+            || GeoJSONConstants.TYPE_MULTI_POINT.equals(type)
+            || GeoJSONConstants.TYPE_LINE_STRING.equals(type)
+            || GeoJSONConstants.TYPE_MULTI_LINE_STRING.equals(type)
+            || GeoJSONConstants.TYPE_POLYGON.equals(type))
+        {
+            if (this.numRings > firstRing)
+                this.addPart(type, firstRing, this.numRings - firstRing);
+        }
+        else if (GeoJSONConstants.TYPE_MULTI_POLYGON.equals(type))
+        {
+            int ring = firstRing;
+            for (int i = firstGroup; i < this.numGroups; i++)
+            {
+                if (this.groupEnds[i] > ring)
+                    this.addPart(GeoJSONConstants.TYPE_POLYGON, ring, this.groupEnds[i] - ring);
+
+                ring = this.groupEnds[i];
+            }
+        }
+        else if (!GeoJSONConstants.TYPE_GEOMETRY_COLLECTION.equals(type) && this.numRings > firstRing)
+        {
+            Logging.logger().warning(Logging.getMessage("generic.UnrecognizedGeometryType", type));
+            this.numVecs = this.ringOffsets[firstRing];
+            this.numRings = firstRing;
+        }
+    }
+
+    protected boolean intersectsSector(double minLatitude, double maxLatitude, double minLongitude,
+        double maxLongitude)
+    {
+        return maxLongitude >= this.sector.getMinLongitude().degrees
+            && minLongitude <= this.sector.getMaxLongitude().degrees
+            && maxLatitude >= this.sector.getMinLatitude().degrees
+            && minLatitude <= this.sector.getMaxLatitude().degrees;
+    }
+
+    protected void addPosition(double longitude, double latitude, double altitude)
+    {
+        if (this.numVecs == this.scratchVecs.getSize())
+            this.expandScratchCapacity();
+
+        int index = this.coordsPerVec * this.numVecs++;
+        this.scratch.put(index, longitude);
+        this.scratch.put(index + 1, latitude);
+        if (this.coordsPerVec > 2)
+            this.scratch.put(index + 2, altitude);
+
+        if (latitude < this.minLatitude)
+            this.minLatitude = latitude;
+        if (latitude > this.maxLatitude)
+            this.maxLatitude = latitude;
+        if (longitude < this.minLongitude)
+            this.minLongitude = longitude;
+        if (longitude > this.maxLongitude)
+            this.maxLongitude = longitude;
+    }
+
+    protected void addRing(int offset, int length)
+    {
+        if (length == 0)
+            return;
+
+        if (this.numRings == this.ringOffsets.length)
+        {
+            this.ringOffsets = Arrays.copyOf(this.ringOffsets, 2 * this.numRings);
+            this.ringLengths = Arrays.copyOf(this.ringLengths, 2 * this.numRings);
+        }
+
+        this.ringOffsets[this.numRings] = offset;
+        this.ringLengths[this.numRings] = length;
+        this.numRings++;
+    }
+
+    protected void addGroup()
+    {
+        if (this.numGroups == this.groupEnds.length)
+            this.groupEnds = Arrays.copyOf(this.groupEnds, 2 * this.numGroups);
+
+        this.groupEnds[this.numGroups++] = this.numRings;
+    }
+
+    protected void addPart(String type, int firstRing, int numRings)
+    {
+        if (this.numParts == this.partTypes.length)
+        {
+            String[] newTypes = new String[2 * this.numParts];
+            System.arraycopy(this.partTypes, 0, newTypes, 0, this.numParts);
+            this.partTypes = newTypes;
+            this.partFirstRings = Arrays.copyOf(this.partFirstRings, 2 * this.numParts);
+            this.partNumRings = Arrays.copyOf(this.partNumRings, 2 * this.numParts);
+        }
+
+        this.partTypes[this.numParts] = type;
+        this.partFirstRings[this.numParts] = firstRing;
+        this.partNumRings[this.numParts] = numRings;
+        this.numParts++;
+    }
+
+    protected void expandScratchCapacity()
+    {
+        this.scratch = WWBufferUtil.copyOf(this.scratch, 2 * this.scratch.capacity());
+        this.scratchVecs = new VecBuffer(this.coordsPerVec, new BufferWrapper.DoubleBufferWrapper(this.scratch));
+    }
+}
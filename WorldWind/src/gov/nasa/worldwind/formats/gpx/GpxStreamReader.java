@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.gpx;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.tracks.*;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+
+/**
+ * An incremental GPX reader. The points of each track segment and each route are delivered as a segment; waypoints are
+ * ignored. Unlike {@link GpxReader}, the reader creates no object per point, and delivers points while the document is
+ * still arriving, so it can follow a GPX log that is being written. See {@link TrackStreamReader}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class GpxStreamReader extends TrackStreamReader
+{
+    public GpxStreamReader(TrackPointListener listener)
+    {
+        super(listener);
+    }
+
+    public GpxStreamReader(TrackPointListener listener, int batchSize)
+    {
+        super(listener, batchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the document is not a GPX document.
+     * @throws WWRuntimeException       if the document cannot be parsed.
+     */
+    @Override
+    protected void doRead(InputStream stream) throws IOException
+    {
+        try
+        {
+            javax.xml.parsers.SAXParserFactory factory = javax.xml.parsers.SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.newSAXParser().parse(this.createFlushingStream(stream), new Handler());
+        }
+        catch (javax.xml.parsers.ParserConfigurationException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToParseXml", stream);
+            Logging.logger().severe(message);
+            throw new WWRuntimeException(message, e);
+        }
+        catch (org.xml.sax.SAXException e)
+        {
+            // A stopped reader ends the document early.
+            if (this.isStopped() || Thread.currentThread().isInterrupted())
+                return;
+
+            String message = Logging.getMessage("generic.ExceptionAttemptingToParseXml", stream);
+            Logging.logger().severe(message);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+
+    protected class Handler extends org.xml.sax.helpers.DefaultHandler
+    {
+        protected boolean firstElement = true;
+        protected boolean inPoint;
+        protected double latitude;
+        protected double longitude;
+        protected double elevation;
+        protected long time;
+        protected boolean collecting;
+        protected byte[] text = new byte[64];
+        protected int textLength;
+
+        @Override
+        public void startElement(String uri, String lname, String qname, org.xml.sax.Attributes attributes)
+        {
+            if (this.firstElement)
+            {
+                if (!lname.equalsIgnoreCase("gpx"))
+                    throw new IllegalArgumentException(Logging.getMessage("formats.notGPX", uri));
+
+                this.firstElement = false;
+            }
+
+            if (lname.equalsIgnoreCase("trkseg") || lname.equalsIgnoreCase("rte"))
+            {
+                startSegment();
+            }
+            else if (lname.equalsIgnoreCase("trkpt") || lname.equalsIgnoreCase("rtept"))
+            {
+                this.inPoint = true;
+                this.latitude = this.parseAttribute(attributes, "lat");
+                this.longitude = this.parseAttribute(attributes, "lon");
+                this.elevation = 0;
+                this.time = ColumnarTrackSegment.NO_TIME;
+            }
+            else if (this.inPoint && (lname.equalsIgnoreCase("ele") || lname.equalsIgnoreCase("time")))
+            {
+                this.collecting = true;
+                this.textLength = 0;
+            }
+        }
+
+        protected double parseAttribute(org.xml.sax.Attributes attributes, String name)
+        {
+            String value = attributes.getValue(name);
+            if (value == null)
+                return Double.NaN;
+
+            try
+            {
+                return Double.parseDouble(value);
+            }
+            catch (NumberFormatException e)
+            {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        public void characters(char[] data, int start, int length)
+        {
+            if (!this.collecting)
+                return;
+
+            if (this.textLength + length > this.text.length)
+            {
+                byte[] newText = new byte[Math.max(2 * this.text.length, this.textLength + length)];
+                System.arraycopy(this.text, 0, newText, 0, this.textLength);
+                this.text = newText;
+            }
+
+            for (int i = start; i < start + length; i++)
+            {
+                this.text[this.textLength++] = (byte) data[i];
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String lname, String qname)
+        {
+            if (this.collecting && lname.equalsIgnoreCase("ele"))
+            {
+                double value = WWUtil.parseDouble(this.text, 0, this.textLength);
+                this.elevation = Double.isNaN(value) ? 0 : value;
+                this.collecting = false;
+            }
+            else if (this.collecting && lname.equalsIgnoreCase("time"))
+            {
+                this.time = parseTime(this.text, 0, this.textLength);
+                this.collecting = false;
+            }
+            else if (this.inPoint && (lname.equalsIgnoreCase("trkpt") || lname.equalsIgnoreCase("rtept")))
+            {
+                this.inPoint = false;
+                if (!Double.isNaN(this.latitude) && !Double.isNaN(this.longitude))
+                    addPoint(this.latitude, this.longitude, this.elevation, this.time);
+            }
+        }
+    }
+}
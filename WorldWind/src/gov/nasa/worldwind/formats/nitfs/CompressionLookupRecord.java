@@ -39,6 +39,17 @@ class CompressionLookupRecord
         return this.bytesPerRecord;
     }
 
+    /**
+     * Returns the lookup table's values, <code>getBytesPerRecord()</code> values per record. The returned array is the
+     * table itself and must not be modified.
+     *
+     * @return the lookup table's values.
+     */
+    public byte[] getValues()
+    {
+        return this.lut;
+    }
+
     public byte[] copyValues(byte [] dest, int destOffset, int idx, int len)
     {
         if(len != this.bytesPerRecord)
@@ -9,6 +9,7 @@ import gov.nasa.worldwind.formats.rpf.*;
 import gov.nasa.worldwind.geom.LatLon;
 
 import java.nio.*;
+import java.util.Arrays;
 
 /**
  * @author Lado Garakanidze
@@ -98,6 +99,14 @@ public class NITFSImageSegment extends NITFSSegment
     private boolean hasTransparentPixels = false;
     private boolean hasMaskedSubframes = false;
 
+    // Marks the pixels of the expanded code book that are not drawn. No image type produces this value: the types
+    // with alpha have an opaque alpha byte, and the types without alpha have a zero high byte.
+    private static final int SKIPPED_PIXEL = 0x01000000;
+    private static final short MASKED_CODE = -1;
+
+    private short[] imageCodes;
+    private final int[][] expandedCodeBooks = new int[RPFImageType.values().length][];
+
     public static String[] getSupportedFormats()
     {
         return SupportedFormats;
@@ -147,140 +156,286 @@ public class NITFSImageSegment extends NITFSSegment
         buffer.position(saveOffset); // last line - restore buffer's position
     }
 
-    private void decompressBlock4x4(byte[][] block4x4, short code)
+    public int[] getImagePixelsAsArray(int[] pixels, RPFImageType imageType) throws NITFSRuntimeException {
+        this.decodeImagePixels(pixels, 0, this.numSignificantCols, imageType);
+        return pixels;
+    }
+
+    /**
+     * Decodes the image into a region of an array of packed pixels. Each image code is expanded straight from the
+     * code book into the destination, without an intermediate image. Transparent pixels, pixels of masked subframes,
+     * and pixels with application-reserved color codes are not written, leaving the destination's values unchanged.
+     *
+     * @param dest         the destination pixels.
+     * @param destOffset   the index of the destination pixel receiving the image's upper left pixel.
+     * @param destScanline the number of destination pixels per row.
+     * @param imageType    the pixel format of the destination.
+     *
+     * @throws NITFSRuntimeException if the image data cannot be decoded.
+     */
+    public void decodeImagePixels(int[] dest, int destOffset, int destScanline, RPFImageType imageType)
+        throws NITFSRuntimeException
     {
-        this.compressionLUTS[0].copyValues(block4x4[0], 0, code, 4);
-        this.compressionLUTS[1].copyValues(block4x4[1], 0, code, 4);
-        this.compressionLUTS[2].copyValues(block4x4[2], 0, code, 4);
-        this.compressionLUTS[3].copyValues(block4x4[3], 0, code, 4);
+        int[] codeBook = this.getExpandedCodeBook(imageType);
+        short[] codes = this.getImageCodes();
+        int codeCols = this.getNumCodeColumns();
+        int codeRows = codes.length / codeCols;
+
+        for (int cr = 0; cr < codeRows && 4 * cr < this.numSignificantRows; cr++)
+        {
+            int y = 4 * cr;
+            int numRows = Math.min(4, this.numSignificantRows - y);
+
+            for (int cc = 0; cc < codeCols && 4 * cc < this.numSignificantCols; cc++)
+            {
+                int code = codes[cr * codeCols + cc];
+                if (code < 0) // masked subframe or transparent kernel
+                    continue;
+
+                int x = 4 * cc;
+                int numCols = Math.min(4, this.numSignificantCols - x);
+
+                for (int h = 0; h < numRows; h++)
+                {
+                    int src = 16 * code + 4 * h;
+                    int dst = destOffset + (y + h) * destScanline + x;
+                    for (int w = 0; w < numCols; w++)
+                    {
+                        int pixel = codeBook[src + w];
+                        if (pixel != SKIPPED_PIXEL)
+                            dest[dst + w] = pixel;
+                    }
+                }
+            }
+        }
     }
 
-    private void decompressBlock16(byte[] block16, short code)
+    /**
+     * Resamples the image into a region of an array of packed pixels using nearest neighbor sampling, expanding image
+     * codes straight from the code book into the destination. The image pixel sampled for destination pixel (i, j) of
+     * the region is the one containing the image coordinates (srcX + (i + 0.5) * srcDx, srcY + (j + 0.5) * srcDy),
+     * where image coordinates run from (0, 0) at the image's upper left corner to (numSignificantCols,
+     * numSignificantRows) at its lower right corner. Destination pixels that map outside the image, and pixels that
+     * {@link #decodeImagePixels(int[], int, int, gov.nasa.worldwind.formats.rpf.RPFImageType)} would not write, are
+     * left unchanged.
+     *
+     * @param dest         the destination pixels.
+     * @param destOffset   the index of the region's upper left destination pixel.
+     * @param destScanline the number of destination pixels per row.
+     * @param width        the region's width, in pixels.
+     * @param height       the region's height, in pixels.
+     * @param srcX         the image x coordinate of the region's left edge.
+     * @param srcY         the image y coordinate of the region's top edge.
+     * @param srcDx        the width of a destination pixel, in image pixels.
+     * @param srcDy        the height of a destination pixel, in image pixels.
+     * @param imageType    the pixel format of the destination.
+     *
+     * @throws NITFSRuntimeException if the image data cannot be decoded.
+     */
+    public void sampleImagePixels(int[] dest, int destOffset, int destScanline, int width, int height,
+        double srcX, double srcY, double srcDx, double srcDy, RPFImageType imageType) throws NITFSRuntimeException
     {
-        this.compressionLUTS[0].copyValues(block16,  0, code, 4);
-        this.compressionLUTS[1].copyValues(block16,  4, code, 4);
-        this.compressionLUTS[2].copyValues(block16,  8, code, 4);
-        this.compressionLUTS[3].copyValues(block16, 12, code, 4);
+        int[] codeBook = this.getExpandedCodeBook(imageType);
+        short[] codes = this.getImageCodes();
+        int codeCols = this.getNumCodeColumns();
+        int maxX = Math.min(this.numSignificantCols, 4 * codeCols);
+        int maxY = Math.min(this.numSignificantRows, 4 * (codes.length / codeCols));
+
+        // The image column sampled by each destination column, or -1 if it's outside the image.
+        int[] columns = new int[width];
+        for (int i = 0; i < width; i++)
+        {
+            int x = (int) Math.floor(srcX + (i + 0.5) * srcDx);
+            columns[i] = (x >= 0 && x < maxX) ? x : -1;
+        }
+
+        for (int j = 0; j < height; j++)
+        {
+            int y = (int) Math.floor(srcY + (j + 0.5) * srcDy);
+            if (y < 0 || y >= maxY)
+                continue;
+
+            int codeRow = (y >> 2) * codeCols;
+            int bookRow = 4 * (y & 3);
+            int dst = destOffset + j * destScanline;
+
+            for (int i = 0; i < width; i++)
+            {
+                int x = columns[i];
+                if (x < 0)
+                    continue;
+
+                int code = codes[codeRow + (x >> 2)];
+                if (code < 0)
+                    continue;
+
+                int pixel = codeBook[16 * code + bookRow + (x & 3)];
+                if (pixel != SKIPPED_PIXEL)
+                    dest[dst + i] = pixel;
+            }
+        }
     }
 
-    public int[] getImagePixelsAsArray(int[] pixels, RPFImageType imageType) throws NITFSRuntimeException {
+    private int getNumCodeColumns()
+    {
+        return this.numOfBlocksPerRow * (int) this.numOfImageCodesPerRow;
+    }
+
+    /**
+     * Returns the image codes of all subframes as a single grid, one code per 4x4 pixel kernel, in row major order.
+     * Kernels of masked subframes and transparent kernels have the code -1. The grid is decoded on first use and
+     * retained.
+     *
+     * @return the image codes.
+     *
+     * @throws NITFSRuntimeException if an image code is out of range of the code book.
+     */
+    private synchronized short[] getImageCodes() throws NITFSRuntimeException
+    {
+        if (this.imageCodes != null)
+            return this.imageCodes;
+
         RPFFrameFileComponents rpfComponents = this.getRPFFrameFileComponents();
-        RPFLocationSection componentLocationTable = rpfComponents.componentLocationTable;
+        int spatialDataSubsectionLocation = rpfComponents.componentLocationTable.getSpatialDataSubsectionLocation();
 
-        int spatialDataSubsectionLocation = componentLocationTable.getSpatialDataSubsectionLocation();
-        super.buffer.position( spatialDataSubsectionLocation );
+        // Read from a duplicate so that decoding neither depends on nor disturbs the shared buffer's position.
+        ByteBuffer buffer = super.buffer.duplicate();
+        buffer.position(spatialDataSubsectionLocation);
 
-        int band = 0; // for(int band = 0; band < rpfComponents.numOfSpectralBandTables;  band++)
-        NITFSImageBand imageBand = this.imageBands[band];
+        int codesPerRow = (int) this.numOfImageCodesPerRow;
+        int rowsPerSubframe = (int) this.numOfImageRows;
+        int codeCols = this.getNumCodeColumns();
+        int numRecords = this.compressionLUTS[0].getNumOfRecords();
 
-        int rgbColor, colorCode;
-        short aa, ab, bb;
-        short[] codes = new short[(int) this.numOfImageCodesPerRow];
-        byte[][] block4x4 = new byte[4][4];
-        int rowSize = (short) ((this.numOfImageCodesPerRow * this.imageCodeBitLength) / 8L);
+        short[] codes = new short[codeCols * rowsPerSubframe * this.numOfBlocksPerCol];
+        Arrays.fill(codes, MASKED_CODE);
+
+        int rowSize = (codesPerRow * this.imageCodeBitLength) / 8;
         byte[] rowBytes = new byte[rowSize];
-        int subFrameOffset;
-        short subFrameIdx = 0;
+        int subFrameIdx = 0;
 
         for (int subFrameH = 0; subFrameH < this.numOfBlocksPerCol; subFrameH++)
         {
-            for (int subFrameW = 0; subFrameW < this.numOfBlocksPerRow; subFrameW++, subFrameIdx++ )
+            for (int subFrameW = 0; subFrameW < this.numOfBlocksPerRow; subFrameW++, subFrameIdx++)
             {
-                int blockY = (int) (subFrameH * rpfComponents.numOfOutputRowsPerSubframe);
-                int blockX = (int) (subFrameW * rpfComponents.numOfOutputColumnsPerSubframe);
+                if (this.hasMaskedSubframes)
+                {
+                    int subFrameOffset = this.subFrameOffsets[subFrameIdx];
+                    if (-1 == subFrameOffset)
+                        continue; // this is a masked / empty subframe
 
-                if(hasMaskedSubframes)
+                    buffer.position(spatialDataSubsectionLocation + subFrameOffset);
+                }
+
+                for (int row = 0; row < rowsPerSubframe; row++)
                 {
-                    subFrameOffset = this.subFrameOffsets[subFrameIdx];
-                    if( -1 == subFrameOffset)
-                    {   // this is a masked / empty subframe
-                        continue;
-                    }
-                    else
+                    buffer.get(rowBytes, 0, rowSize);
+
+                    int idx = (subFrameH * rowsPerSubframe + row) * codeCols + subFrameW * codesPerRow;
+                    // Two 12-bit codes are packed in each three bytes.
+                    for (int i = 0, bidx = 0; i < codesPerRow / 2; i++)
                     {
-                        super.buffer.position( spatialDataSubsectionLocation + subFrameOffset );
+                        int aa = 0x00FF & rowBytes[bidx++];
+                        int ab = 0x00FF & rowBytes[bidx++];
+                        int bb = 0x00FF & rowBytes[bidx++];
+
+                        this.putImageCode(codes, idx++, (aa << 4) | (ab >> 4), numRecords);
+                        this.putImageCode(codes, idx++, ((ab & 0x0F) << 8) | bb, numRecords);
                     }
                 }
+            }
+        }
 
-                for (int row = 0; row < this.numOfImageRows; row++)
-                {
-                    int qy = blockY + row * 4;
+        this.imageCodes = codes;
+        return codes;
+    }
 
-                    super.buffer.get(rowBytes, 0, rowSize);
+    private void putImageCode(short[] codes, int index, int code, int numRecords) throws NITFSRuntimeException
+    {
+        if (this.hasTransparentPixels && 4095 == code)
+            return; // this is a transparent kernel
 
-                    // short[] codes = new short[(int) this.numOfImageCodesPerRow];
-                    for (int i = 0, cidx = 0, bidx = 0; i < (int) this.numOfImageCodesPerRow / 2; i++)
-                    {
-                        aa = (short) ((0x00FF & (short) rowBytes[bidx++]) << 4);
-                        ab = (short) (0x00FF & (short)  rowBytes[bidx++]);
-                        bb = (short) (0x00FF & (short)  rowBytes[bidx++]);
+        if (code >= numRecords)
+            throw new NITFSRuntimeException("NITFSReader.AttemptToCopyOutOfBoundsAtSource");
 
-                        codes[cidx++] = (short) (aa | ((0x00F0 & ab) >> 4));
-                        codes[cidx++] = (short) (bb | ((0x000F & ab) << 8));
-                    }
+        codes[index] = (short) code;
+    }
 
-                    for (int col = 0; col < this.numOfImageCodesPerRow; col++)
-                    {
-                        if (hasTransparentPixels)
-                        {
-                            if (4095 == codes[col])
-                            {   // this is a transparent kernel
-                                continue;                          
-                            }
-                        }
-
-                        this.decompressBlock4x4( block4x4, codes[col] );
-
-                        int qx = blockX + col * 4;
-
-                        for (int h = 0; h < 4; h++)
-                        {
-                            for (int w = 0; w < 4; w++)
-                            {
-                                colorCode = 0x00FF & block4x4[h][w];
-
-                                if (hasTransparentPixels)
-                                {
-                                    if (this.transparentOutputPixelCode == colorCode)
-                                    {   // this is a transparent pixel
-                                        continue;
-                                    }
-                                }
-
-                                if (imageBand.isReservedApplicationCode(colorCode))
-                                {
-                                    // This is a reserved color code used to define an application-specific overlay. We
-                                    // don't know the meaning of application overlay codes, therefore we treat them as
-                                    // transparent or background pixels.
-                                    continue;
-                                }
-
-                                rgbColor = imageBand.lookupRGB(colorCode);
-                                switch (imageType)
-                                {
-                                    case IMAGE_TYPE_ALPHA_RGB:
-                                        rgbColor = 0xFF000000 + rgbColor;
-                                        break;
-                                  //case IMAGE_TYPE_GRAY:
-                                  //    break;
-                                  //case IMAGE_TYPE_RGB:
-                                  //    break;
-                                    case IMAGE_TYPE_GRAY_ALPHA:
-                                        rgbColor = (rgbColor << 8) + 0xFF;
-                                        break;
-                                    case IMAGE_TYPE_RGB_ALPHA:
-                                        rgbColor = (rgbColor << 8) + 0xFF;
-                                        break;
-                                }
-                                pixels[(qy + h) * this.numSignificantCols + (qx + w)] = rgbColor;
-                            }
-                        }
-                    } // end of column loop
-                } // end of row loop
-            } // end of subFrameW loop
-        } // end of subFrameH loop
+    /**
+     * Returns the code book with its color codes replaced by pixels of the specified type: 16 pixels per code, the 4x4
+     * kernel in row major order. Transparent and application-reserved color codes are replaced by {@link
+     * #SKIPPED_PIXEL}. The code book is built on first use for each image type and retained.
+     *
+     * @param imageType the pixel format.
+     *
+     * @return the expanded code book.
+     *
+     * @throws NITFSRuntimeException if the compression lookup tables do not describe 4x4 kernels of 8-bit codes.
+     */
+    private synchronized int[] getExpandedCodeBook(RPFImageType imageType) throws NITFSRuntimeException
+    {
+        int[] codeBook = this.expandedCodeBooks[imageType.ordinal()];
+        if (codeBook != null)
+            return codeBook;
 
-        return pixels;
+        if (this.compressionLUTS.length < 4)
+            throw new NITFSRuntimeException("NITFSReader.AttemptToCopyWithInvalidSizeOfRecord");
+
+        int band = 0; // for(int band = 0; band < rpfComponents.numOfSpectralBandTables;  band++)
+        NITFSImageBand imageBand = this.imageBands[band];
+
+        int[] colors = new int[256];
+        for (int colorCode = 0; colorCode < colors.length; colorCode++)
+        {
+            if (this.hasTransparentPixels && this.transparentOutputPixelCode == colorCode)
+            {   // this is a transparent pixel
+                colors[colorCode] = SKIPPED_PIXEL;
+            }
+            else if (imageBand.isReservedApplicationCode(colorCode))
+            {
+                // This is a reserved color code used to define an application-specific overlay. We don't know the
+                // meaning of application overlay codes, therefore we treat them as transparent or background pixels.
+                colors[colorCode] = SKIPPED_PIXEL;
+            }
+            else
+            {
+                int rgbColor = imageBand.lookupRGB(colorCode);
+                switch (imageType)
+                {
+                    case IMAGE_TYPE_ALPHA_RGB:
+                        rgbColor = 0xFF000000 + rgbColor;
+                        break;
+                    case IMAGE_TYPE_GRAY_ALPHA:
+                        rgbColor = (rgbColor << 8) + 0xFF;
+                        break;
+                    case IMAGE_TYPE_RGB_ALPHA:
+                        rgbColor = (rgbColor << 8) + 0xFF;
+                        break;
+                }
+                colors[colorCode] = rgbColor;
+            }
+        }
+
+        int numRecords = this.compressionLUTS[0].getNumOfRecords();
+        codeBook = new int[16 * numRecords];
+        for (int h = 0; h < 4; h++)
+        {
+            CompressionLookupRecord lut = this.compressionLUTS[h];
+            if (lut.getBytesPerRecord() != 4 || lut.getNumOfRecords() < numRecords)
+                throw new NITFSRuntimeException("NITFSReader.AttemptToCopyWithInvalidSizeOfRecord");
+
+            byte[] values = lut.getValues();
+            for (int code = 0; code < numRecords; code++)
+            {
+                for (int w = 0; w < 4; w++)
+                {
+                    codeBook[16 * code + 4 * h + w] = colors[0x00FF & values[4 * code + w]];
+                }
+            }
+        }
+
+        this.expandedCodeBooks[imageType.ordinal()] = codeBook;
+        return codeBook;
     }
 
     private void validateImage() throws NITFSRuntimeException {
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.nmea;
+
+import gov.nasa.worldwind.tracks.*;
+import gov.nasa.worldwind.util.WWUtil;
+
+import java.io.*;
+
+/**
+ * An incremental NMEA 0183 reader. Each GGA sentence with a position fix becomes a track point, whose elevation is the
+ * sum of the sentence's altitude and geoid height, as for {@link NmeaTrackPoint}. Sentences from any talker are
+ * accepted, and sentences whose checksum does not match are skipped. The reader parses the bytes of each sentence in
+ * place, without splitting it into strings. See {@link TrackStreamReader}.
+ * <p/>
+ * GGA sentences give only the time of day. The date is taken from RMC sentences; until an RMC sentence is read, times
+ * are relative to 1970-01-01, and the date advances when the time of day wraps past midnight.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class NmeaStreamReader extends TrackStreamReader
+{
+    protected static final long HALF_DAY = MILLIS_PER_DAY / 2;
+
+    protected int[] fieldStarts = new int[32];
+    protected int[] fieldEnds = new int[32];
+    protected int numFields;
+    protected long numInvalidSentences;
+    protected long dayTime;
+    protected long lastTimeOfDay = -1;
+
+    public NmeaStreamReader(TrackPointListener listener)
+    {
+        super(listener);
+    }
+
+    public NmeaStreamReader(TrackPointListener listener, int batchSize)
+    {
+        super(listener, batchSize);
+    }
+
+    /**
+     * Indicates the number of sentences skipped because their checksum did not match.
+     *
+     * @return the number of invalid sentences.
+     */
+    public long getNumInvalidSentences()
+    {
+        return this.numInvalidSentences;
+    }
+
+    @Override
+    protected void doRead(InputStream stream) throws IOException
+    {
+        this.readLines(stream);
+    }
+
+    @Override
+    protected void parseLine(byte[] line, int length)
+    {
+        int start = indexOf(line, 0, length, (byte) '$');
+        if (start < 0)
+            return;
+
+        int end = indexOf(line, start, length, (byte) '*');
+        if (end < 0)
+        {
+            end = length;
+        }
+        else if (!this.isChecksumValid(line, start + 1, end, length))
+        {
+            this.numInvalidSentences++;
+            return;
+        }
+
+        this.splitFields(line, start + 1, end);
+
+        // The sentence identifier is a two character talker followed by the sentence type.
+        if (this.fieldEnds[0] - this.fieldStarts[0] != 5)
+            return;
+
+        int type = this.fieldStarts[0] + 2;
+        if (line[type] == 'G' && line[type + 1] == 'G' && line[type + 2] == 'A')
+            this.parseGGA(line);
+        else if (line[type] == 'R' && line[type + 1] == 'M' && line[type + 2] == 'C')
+            this.parseRMC(line);
+    }
+
+    protected boolean isChecksumValid(byte[] line, int start, int end, int length)
+    {
+        if (end + 3 > length)
+            return false;
+
+        int checksum = 0;
+        for (int i = start; i < end; i++)
+        {
+            checksum ^= line[i];
+        }
+
+        int expected = (hexValue(line[end + 1]) << 4) | hexValue(line[end + 2]);
+        return checksum == expected;
+    }
+
+    protected static int hexValue(byte b)
+    {
+        if (b >= '0' && b <= '9')
+            return b - '0';
+        if (b >= 'A' && b <= 'F')
+            return b - 'A' + 10;
+        if (b >= 'a' && b <= 'f')
+            return b - 'a' + 10;
+
+        return -256; // Makes the checksum comparison fail.
+    }
+
+    protected void splitFields(byte[] line, int start, int end)
+    {
+        this.numFields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && this.numFields < this.fieldStarts.length; i++)
+        {
+            if (i == end || line[i] == ',')
+            {
+                this.fieldStarts[this.numFields] = fieldStart;
+                this.fieldEnds[this.numFields] = i;
+                this.numFields++;
+                fieldStart = i + 1;
+            }
+        }
+    }
+
+    protected boolean isFieldEmpty(int field)
+    {
+        return field >= this.numFields || this.fieldStarts[field] == this.fieldEnds[field];
+    }
+
+    protected double parseField(byte[] line, int field)
+    {
+        return this.isFieldEmpty(field) ? Double.NaN
+            : WWUtil.parseDouble(line, this.fieldStarts[field], this.fieldEnds[field]);
+    }
+
+    /**
+     * Parses an angle of the form dddmm.mmmm and its hemisphere.
+     *
+     * @param line  the sentence.
+     * @param field the field containing the angle. The following field contains the hemisphere.
+     *
+     * @return the angle in degrees, or NaN if the field is empty or invalid.
+     */
+    protected double parseAngle(byte[] line, int field)
+    {
+        double value = this.parseField(line, field);
+        if (Double.isNaN(value))
+            return value;
+
+        double degrees = Math.floor(value / 100);
+        double angle = degrees + (value - degrees * 100) / 60;
+
+        byte hemisphere = this.isFieldEmpty(field + 1) ? (byte) 0 : line[this.fieldStarts[field + 1]];
+        return hemisphere == 'S' || hemisphere == 's' || hemisphere == 'W' || hemisphere == 'w' ? -angle : angle;
+    }
+
+    /**
+     * Parses a UTC time of day of the form hhmmss.sss.
+     *
+     * @param line  the sentence.
+     * @param field the field containing the time.
+     *
+     * @return the time of day in milliseconds, or -1 if the field is empty or invalid.
+     */
+    protected long parseTimeOfDay(byte[] line, int field)
+    {
+        if (this.isFieldEmpty(field) || this.fieldEnds[field] - this.fieldStarts[field] < 6)
+            return -1;
+
+        int start = this.fieldStarts[field];
+        long hours = parseDigits(line, start, start + 2);
+        long minutes = parseDigits(line, start + 2, start + 4);
+        double seconds = WWUtil.parseDouble(line, start + 4, this.fieldEnds[field]);
+        if (hours < 0 || minutes < 0 || Double.isNaN(seconds))
+            return -1;
+
+        return hours * 3600000 + minutes * 60000 + Math.round(seconds * 1000);
+    }
+
+    protected void parseGGA(byte[] line)
+    {
+        // $--GGA,time,lat,N/S,lon,E/W,quality,satellites,hdop,altitude,M,geoid height,M,...
+        double latitude = this.parseAngle(line, 2);
+        double longitude = this.parseAngle(line, 4);
+        double quality = this.parseField(line, 6);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || quality == 0)
+            return; // There's no position fix.
+
+        double altitude = this.parseField(line, 9);
+        double geoidHeight = this.parseField(line, 11);
+        double elevation = (Double.isNaN(altitude) ? 0 : altitude) + (Double.isNaN(geoidHeight) ? 0 : geoidHeight);
+
+        long time = ColumnarTrackSegment.NO_TIME;
+        long timeOfDay = this.parseTimeOfDay(line, 1);
+        if (timeOfDay >= 0)
+        {
+            if (this.lastTimeOfDay >= 0 && timeOfDay < this.lastTimeOfDay - HALF_DAY)
+                this.dayTime += MILLIS_PER_DAY;
+
+            this.lastTimeOfDay = timeOfDay;
+            time = this.dayTime + timeOfDay;
+        }
+
+        this.addPoint(latitude, longitude, elevation, time);
+    }
+
+    protected void parseRMC(byte[] line)
+    {
+        // $--RMC,time,status,lat,N/S,lon,E/W,speed,course,date,...
+        if (this.isFieldEmpty(9) || this.fieldEnds[9] - this.fieldStarts[9] != 6)
+            return;
+
+        int start = this.fieldStarts[9];
+        long day = parseDigits(line, start, start + 2);
+        long month = parseDigits(line, start + 2, start + 4);
+        long year = parseDigits(line, start + 4, start + 6);
+        if (day < 1 || month < 1 || month > 12 || year < 0)
+            return;
+
+        this.dayTime = daysFromCivil(year < 80 ? 2000 + year : 1900 + year, month, day) * MILLIS_PER_DAY;
+        this.lastTimeOfDay = this.parseTimeOfDay(line, 1);
+    }
+}
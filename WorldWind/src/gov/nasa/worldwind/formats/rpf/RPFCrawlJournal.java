@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.rpf;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Records the progress of an {@link RPFCrawler} crawl in a text file, so that an interrupted crawl can resume. The file
+ * starts with a header identifying the crawl's root directory and search type, followed by one block of lines per
+ * crawled directory: the files found in it, the subdirectories it adds to the crawl, and finally the directory itself.
+ * A block is only considered when its final line is present, so a block cut short by a crash is ignored and its
+ * directory crawled again.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+class RPFCrawlJournal
+{
+    protected static final String HEADER = "RPFCrawlJournal 1";
+    protected static final String FOUND = "F";
+    protected static final String PENDING = "P";
+    protected static final String CRAWLED = "C";
+
+    protected final File file;
+    protected final File root;
+    protected final boolean tocFileSearch;
+    protected Writer writer;
+
+    public RPFCrawlJournal(File file, File root, boolean tocFileSearch)
+    {
+        this.file = file;
+        this.root = root;
+        this.tocFileSearch = tocFileSearch;
+    }
+
+    /**
+     * Opens the journal for writing. If the journal file records an earlier crawl of the same root directory and search
+     * type, the files that crawl found are reported to the listener, and the directories it did not crawl are
+     * returned. Otherwise the journal file is started over and the root directory is returned.
+     *
+     * @param listener the listener to report previously found files to.
+     *
+     * @return the directories remaining to crawl.
+     */
+    public Collection<File> open(RPFCrawler.RPFCrawlerListener listener)
+    {
+        Collection<File> remaining = null;
+        if (this.file.exists())
+            remaining = this.replay(listener);
+
+        try
+        {
+            if (remaining == null)
+            {
+                this.writer = this.openWriter(false);
+                this.writer.write(HEADER + "\n" + this.makeRootLine() + "\n");
+                this.writer.write(PENDING + "\t" + this.root.getPath() + "\n");
+                this.writer.flush();
+                remaining = Arrays.asList(this.root);
+            }
+            else
+            {
+                this.writer = this.openWriter(true);
+            }
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToWriteTo", this.file);
+            Logging.logger().log(Level.SEVERE, message, e);
+            this.closeWriter();
+        }
+
+        return remaining != null ? remaining : Arrays.asList(this.root);
+    }
+
+    /**
+     * Records a crawled directory.
+     *
+     * @param directory      the crawled directory.
+     * @param files          the files found in the directory.
+     * @param subdirectories the subdirectories to crawl.
+     */
+    public void directoryDone(File directory, Collection<File> files, Collection<File> subdirectories)
+    {
+        if (this.writer == null)
+            return;
+
+        StringBuilder sb = new StringBuilder();
+        for (File f : files)
+        {
+            sb.append(FOUND).append('\t').append(f.getPath()).append('\n');
+        }
+        for (File f : subdirectories)
+        {
+            sb.append(PENDING).append('\t').append(f.getPath()).append('\n');
+        }
+        sb.append(CRAWLED).append('\t').append(directory.getPath()).append('\n');
+
+        try
+        {
+            this.writer.write(sb.toString());
+            this.writer.flush();
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToWriteTo", this.file);
+            Logging.logger().log(Level.SEVERE, message, e);
+            this.closeWriter();
+        }
+    }
+
+    /**
+     * Closes the journal.
+     *
+     * @param complete true if the crawl completed, in which case the journal file is deleted.
+     */
+    public void close(boolean complete)
+    {
+        this.closeWriter();
+
+        if (complete && this.file.exists() && !this.file.delete())
+            Logging.logger().warning(Logging.getMessage("generic.CannotDeleteFile", this.file));
+    }
+
+    protected Collection<File> replay(RPFCrawler.RPFCrawlerListener listener)
+    {
+        LinkedHashSet<String> found = new LinkedHashSet<String>();
+        LinkedHashSet<String> pending = new LinkedHashSet<String>();
+
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), "UTF-8"));
+            if (!HEADER.equals(reader.readLine()) || !this.makeRootLine().equals(reader.readLine()))
+                return null;
+
+            ArrayList<String> blockFound = new ArrayList<String>();
+            ArrayList<String> blockPending = new ArrayList<String>();
+            boolean anyBlock = false;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                int tab = line.indexOf('\t');
+                if (tab < 0)
+                    continue;
+
+                String tag = line.substring(0, tab);
+                String path = line.substring(tab + 1);
+                if (FOUND.equals(tag))
+                {
+                    blockFound.add(path);
+                }
+                else if (PENDING.equals(tag))
+                {
+                    blockPending.add(path);
+                }
+                else if (CRAWLED.equals(tag))
+                {
+                    // The block is complete: commit it.
+                    found.addAll(blockFound);
+                    pending.addAll(blockPending);
+                    pending.remove(path);
+                    blockFound.clear();
+                    blockPending.clear();
+                    anyBlock = true;
+                }
+            }
+
+            // The root directory is recorded as pending ahead of the first block. If no block is complete, the crawl
+            // starts over from the root.
+            if (!anyBlock)
+                pending.add(this.root.getPath());
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToReadFile", this.file);
+            Logging.logger().log(Level.SEVERE, message, e);
+            return null;
+        }
+        finally
+        {
+            WWIO.closeStream(reader, this.file.getPath());
+        }
+
+        for (String path : found)
+        {
+            listener.fileFound(new File(path), this.tocFileSearch);
+        }
+
+        ArrayList<File> remaining = new ArrayList<File>(pending.size());
+        for (String path : pending)
+        {
+            remaining.add(new File(path));
+        }
+
+        return remaining;
+    }
+
+    protected String makeRootLine()
+    {
+        return this.root.getAbsolutePath() + "\t" + (this.tocFileSearch ? "TOC" : "RPF");
+    }
+
+    protected Writer openWriter(boolean append) throws IOException
+    {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.file, append), "UTF-8"));
+    }
+
+    protected void closeWriter()
+    {
+        if (this.writer != null)
+        {
+            WWIO.closeStream(this.writer, this.file.getPath());
+            this.writer = null;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import gov.nasa.worldwind.util.Logging;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.locks.*;
 import static java.util.logging.Level.FINE;
 
@@ -160,14 +161,223 @@ public class RPFCrawler
         }
     }
 
+    /**
+     * The state of one crawl. Directories are crawled as independent tasks: each task lists one directory, reports the
+     * files found there, and submits a task for each subdirectory to search. Listener callbacks are serialized, so
+     * listeners need not be thread safe, and each directory's results are reported together with the directory's
+     * journal entries.
+     */
+    private class Crawl
+    {
+        private final RPFCrawlerListener listener;
+        private final boolean tocFileSearch;
+        private final boolean inOwnThread;
+        private final RPFCrawlJournal journal;
+        private final ExecutorService executor;
+        private final Object lock = new Object();
+        private final Object reportLock = new Object();
+        private int numPending;
+
+        public Crawl(RPFCrawlerListener listener, boolean tocFileSearch, boolean inOwnThread, RPFCrawlJournal journal,
+            int numThreads)
+        {
+            this.listener = listener;
+            this.tocFileSearch = tocFileSearch;
+            this.inOwnThread = inOwnThread;
+            this.journal = journal;
+            this.executor = numThreads > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+        }
+
+        public void run(Collection<File> directories)
+        {
+            if (this.executor == null)
+            {
+                // Crawl on the calling thread, depth first.
+                LinkedList<File> stack = new LinkedList<File>(directories);
+                while (!stack.isEmpty() && !this.isStopped())
+                {
+                    List<File> subdirectories = this.processDirectory(stack.removeFirst());
+                    for (int i = subdirectories.size() - 1; i >= 0; i--)
+                    {
+                        stack.addFirst(subdirectories.get(i));
+                    }
+                }
+                return;
+            }
+
+            try
+            {
+                for (File directory : directories)
+                {
+                    this.submit(directory);
+                }
+
+                synchronized (this.lock)
+                {
+                    while (this.numPending > 0)
+                    {
+                        this.lock.wait();
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                this.executor.shutdownNow();
+            }
+        }
+
+        private void submit(final File directory)
+        {
+            synchronized (this.lock)
+            {
+                this.numPending++;
+            }
+
+            this.executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        if (!isStopped())
+                        {
+                            for (File subdirectory : processDirectory(directory))
+                            {
+                                submit(subdirectory);
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        synchronized (lock)
+                        {
+                            if (--numPending == 0)
+                                lock.notifyAll();
+                        }
+                    }
+                }
+            });
+        }
+
+        private boolean isStopped()
+        {
+            return this.inOwnThread && thread == deadThread;
+        }
+
+        /**
+         * Lists a directory and reports the files found in it.
+         *
+         * @param directory the directory to search.
+         *
+         * @return the subdirectories to search.
+         */
+        private List<File> processDirectory(File directory)
+        {
+            ArrayList<File> files = new ArrayList<File>();
+            ArrayList<File> subdirectories = new ArrayList<File>();
+
+            File[] children = directory.listFiles();
+            if (children != null)
+            {
+                boolean searchForTOC = this.tocFileSearch && isRPFDirectory(directory);
+                for (File file : children)
+                {
+                    if (searchForTOC)
+                    {
+                        if (isTOCFile(file))
+                            files.add(file);
+                    }
+                    else if (!this.tocFileSearch && isRPFFile(file))
+                    {
+                        files.add(file);
+                    }
+                    else if (file.isDirectory())
+                    {
+                        subdirectories.add(file);
+                    }
+                }
+            }
+
+            synchronized (this.reportLock)
+            {
+                if (this.isStopped())
+                    return Collections.emptyList();
+
+                for (File file : files)
+                {
+                    this.listener.fileFound(file, this.tocFileSearch);
+                }
+
+                if (this.journal != null)
+                    this.journal.directoryDone(directory, files, subdirectories);
+            }
+
+            return subdirectories;
+        }
+    }
+
     private final Thread deadThread = new Thread();
     private final Lock threadLock = new ReentrantLock();
     private volatile Thread thread = null;
+    private int threadPoolSize = 1;
+    private File progressFile;
 
     public RPFCrawler()
     {
     }
 
+    /**
+     * Returns the number of threads that list directories concurrently.
+     *
+     * @return the number of crawler threads.
+     */
+    public int getThreadPoolSize()
+    {
+        return this.threadPoolSize;
+    }
+
+    /**
+     * Specifies the number of threads that list directories concurrently. Listing directories is dominated by file
+     * system latency, so network file systems in particular benefit from several threads. Listener callbacks are
+     * serialized regardless of the number of threads. A size less than 2 crawls on a single thread. The default is 1.
+     *
+     * @param size the number of crawler threads.
+     */
+    public void setThreadPoolSize(int size)
+    {
+        this.threadPoolSize = size;
+    }
+
+    /**
+     * Returns the file recording the progress of a crawl.
+     *
+     * @return the progress file, or null if progress is not recorded.
+     *
+     * @see #setProgressFile(java.io.File)
+     */
+    public File getProgressFile()
+    {
+        return this.progressFile;
+    }
+
+    /**
+     * Specifies a file in which to record the progress of a crawl, so that a stopped or interrupted crawl can resume
+     * where it left off. The file records the directories crawled, the directories still to crawl, and the files found.
+     * When a crawl of the same directory and search type starts and the file exists, the files already found are
+     * reported to the listener without listing their directories again, and only the remaining directories are
+     * crawled. The file is deleted when a crawl completes. If null, the default, progress is not recorded.
+     *
+     * @param file the progress file. May be null.
+     */
+    public void setProgressFile(File file)
+    {
+        this.progressFile = file;
+    }
+
     private static String createAbsolutePath(String... pathElem)
     {
         StringBuilder sb = new StringBuilder();
@@ -244,86 +454,27 @@ public class RPFCrawler
             this.threadLock.unlock();
         }
 
-        File[] children = file.listFiles();
-        if (tocFileSearch)
+        RPFCrawlJournal journal = null;
+        Collection<File> directories = Arrays.asList(file);
+        if (this.progressFile != null)
         {
-            if (children == null)
-                return;
-            if (isRPFDirectory(file))
-                this.searchForTOC(children, listener, inOwnThread);
-            else
-                this.searchForDirectory(children, listener, true, inOwnThread);
+            journal = new RPFCrawlJournal(this.progressFile, file, tocFileSearch);
+            directories = journal.open(listener);
         }
-        else
+        else if (!tocFileSearch && RPFFrameFilename.isFilename(file.getName().toUpperCase()))
         {
-            if (RPFFrameFilename.isFilename(file.getName().toUpperCase()))
-                listener.fileFound(file, false);
-            if (children == null)
-                return;
-            this.searchForRPF(children, listener, inOwnThread);
+            listener.fileFound(file, false);
         }
-    }
 
-    private void searchForTOC(File[] contents, RPFCrawlerListener listener, boolean inOwnThread)
-    {
-        for (File file : contents)
-        {
-            this.threadLock.lock();
-            try
-            {
-                if (inOwnThread && this.thread == deadThread)
-                    return;
-            }
-            finally
-            {
-                this.threadLock.unlock();
-            }
-
-            if (isTOCFile(file))
-                listener.fileFound(file, true);
-        }
-    }
-
-    private void searchForDirectory(File[] contents, RPFCrawlerListener listener, boolean tocFileSearch,
-        boolean inOwnThread)
-    {
-        for (File file : contents)
+        Crawl crawl = new Crawl(listener, tocFileSearch, inOwnThread, journal, this.threadPoolSize);
+        try
         {
-            this.threadLock.lock();
-            try
-            {
-                if (inOwnThread && this.thread == deadThread)
-                    return;
-            }
-            finally
-            {
-                this.threadLock.unlock();
-            }
-
-            if (file.isDirectory())
-                this.process(file, listener, tocFileSearch, inOwnThread);
+            crawl.run(directories);
         }
-    }
-
-    private void searchForRPF(File[] contents, RPFCrawlerListener listener, boolean inOwnThread)
-    {
-        for (File file : contents)
+        finally
         {
-            this.threadLock.lock();
-            try
-            {
-                if (inOwnThread && this.thread == deadThread)
-                    return;
-            }
-            finally
-            {
-                this.threadLock.unlock();
-            }
-
-            if (isRPFFile(file))
-                listener.fileFound(file, false);
-            else if (file.isDirectory())
-                this.process(file, listener, false, inOwnThread);
+            if (journal != null)
+                journal.close(!crawl.isStopped() && !Thread.currentThread().isInterrupted());
         }
     }
 
@@ -72,6 +72,15 @@ public abstract class RPFFrameTransform
 
     public abstract RPFImage[] deproject(int frameNumber, BufferedImage frame);
 
+    /**
+     * Indicates whether frame images must be deprojected before they're drawn. Frames that need no deprojection map
+     * linearly onto their coverage sector, and their pixels can be sampled directly by geographic position.
+     *
+     * @return true if {@link #deproject(int, java.awt.image.BufferedImage)} transforms frame images, false if it returns
+     *         them unchanged.
+     */
+    public abstract boolean isDeprojectionRequired();
+
     /* [Section 30.6, MIL-C-89038] */
     /* [Section A.3.6, MIL-PRF-89041A] */
     static int frameNumber(int row, int column, int columnFrames)
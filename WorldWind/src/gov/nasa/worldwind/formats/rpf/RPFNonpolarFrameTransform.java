@@ -151,6 +151,11 @@ class RPFNonpolarFrameTransform extends RPFFrameTransform
         return Sector.fromDegrees(s, n, w, e);
     }
 
+    public boolean isDeprojectionRequired()
+    {
+        return false;
+    }
+
     public RPFImage[] deproject(int frameNumber, BufferedImage frame) {
         // Effectively a no-op for non-polar frames.
         RPFImage[] image = new RPFImage[1];
@@ -200,6 +200,11 @@ class RPFPolarFrameTransform extends RPFFrameTransform
         return Sector.fromDegrees(bounds.minLat, bounds.maxLat, bounds.minLon, bounds.maxLon);
     }
 
+    public boolean isDeprojectionRequired()
+    {
+        return true;
+    }
+
     public RPFImage[] deproject(int frameNumber, BufferedImage frame)
     {
         if (frame == null)
@@ -19,6 +19,7 @@ public class VPFBasicFeatureFactory implements VPFFeatureFactory
 {
     private VPFTile tile;
     private VPFPrimitiveData primitiveData;
+    private boolean memoryMappedTables;
 
     /**
      * Constructs an instance of a VPFBasicFeatureFactory which will construct feature data for the specified {@link
@@ -45,6 +46,29 @@ public class VPFBasicFeatureFactory implements VPFFeatureFactory
         return this.primitiveData;
     }
 
+    /**
+     * Indicates whether feature and join tables are memory-mapped. See {@link #setMemoryMappedTables(boolean)}.
+     *
+     * @return true if feature and join tables are memory-mapped, otherwise false.
+     */
+    public boolean isMemoryMappedTables()
+    {
+        return this.memoryMappedTables;
+    }
+
+    /**
+     * Specifies whether feature and join tables are memory-mapped and their rows decoded only when accessed, rather
+     * than read into memory in full. Feature tables span every tile of a coverage, so when this factory constructs the
+     * features of one tile, only the tile id column and the rows of features in that tile are decoded. See {@link
+     * VPFTableReader#setMemoryMapped(boolean)}.
+     *
+     * @param memoryMappedTables true to memory-map feature and join tables, otherwise false.
+     */
+    public void setMemoryMappedTables(boolean memoryMappedTables)
+    {
+        this.memoryMappedTables = memoryMappedTables;
+    }
+
     public Collection<? extends VPFFeature> createPointFeatures(VPFFeatureClass featureClass)
     {
         if (featureClass == null)
@@ -306,7 +330,7 @@ public class VPFBasicFeatureFactory implements VPFFeatureFactory
         sb.append(File.separator);
         sb.append(featureClass.getFeatureTableName());
 
-        return VPFUtils.readTable(new File(sb.toString()));
+        return VPFUtils.readTable(new File(sb.toString()), this.memoryMappedTables);
     }
 
     protected VPFBufferedRecordData createJoinTable(VPFFeatureClass featureClass)
@@ -318,7 +342,7 @@ public class VPFBasicFeatureFactory implements VPFFeatureFactory
         sb.append(File.separator);
         sb.append(featureClass.getJoinTableName());
 
-        return VPFUtils.readTable(new File(sb.toString()));
+        return VPFUtils.readTable(new File(sb.toString()), this.memoryMappedTables);
     }
 
     protected VPFRelation getFeatureToPrimitiveRelation(VPFFeatureClass featureClass)
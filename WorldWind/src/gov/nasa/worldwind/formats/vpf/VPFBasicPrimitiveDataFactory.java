@@ -17,6 +17,7 @@ import java.util.ArrayList;
 public class VPFBasicPrimitiveDataFactory implements VPFPrimitiveDataFactory
 {
     private VPFTile tile;
+    private boolean memoryMappedTables;
 
     /**
      * Constructs an instance of a VPFBasicPrimitiveDataFactory which will construct primiitve data for the specified
@@ -34,6 +35,32 @@ public class VPFBasicPrimitiveDataFactory implements VPFPrimitiveDataFactory
         return this.tile;
     }
 
+    /**
+     * Indicates whether primitive tables are memory-mapped. See {@link #setMemoryMappedTables(boolean)}.
+     *
+     * @return true if primitive tables are memory-mapped, otherwise false.
+     */
+    public boolean isMemoryMappedTables()
+    {
+        return this.memoryMappedTables;
+    }
+
+    /**
+     * Specifies whether primitive tables are memory-mapped and their rows decoded only when accessed, rather than read
+     * into memory in full. See {@link VPFTableReader#setMemoryMapped(boolean)}.
+     * <p/>
+     * The coordinates of node, edge and text primitives, and the strings of text primitives, are still decoded in full
+     * when a tile's primitive data is created. The primitive data hands them to symbols as single sequences, which
+     * surface lines and areas slice and draw from directly, so they can't be decoded row by row. Memory-mapping saves
+     * the heap used by the other columns of these tables, and by tables whose rows are only partly accessed.
+     *
+     * @param memoryMappedTables true to memory-map primitive tables, otherwise false.
+     */
+    public void setMemoryMappedTables(boolean memoryMappedTables)
+    {
+        this.memoryMappedTables = memoryMappedTables;
+    }
+
     public VPFPrimitiveData createPrimitiveData(VPFCoverage coverage)
     {
         if (coverage == null)
@@ -276,7 +303,7 @@ public class VPFBasicPrimitiveDataFactory implements VPFPrimitiveDataFactory
         if (!file.exists())
             return null;
 
-        return VPFUtils.readTable(file);
+        return VPFUtils.readTable(file, this.memoryMappedTables);
     }
 
     protected static String getPrimitiveTablePath(VPFCoverage coverage, VPFTile tile, String tableName)
@@ -41,6 +41,18 @@ public class VPFBasicSymbolFactory implements VPFSymbolFactory
         this.symbolSupport = symbolSupport;
     }
 
+    /**
+     * Specifies whether the feature and join tables read by this factory's feature factory are memory-mapped. See
+     * {@link VPFBasicFeatureFactory#setMemoryMappedTables(boolean)}.
+     *
+     * @param memoryMappedTables true to memory-map feature and join tables, otherwise false.
+     */
+    public void setMemoryMappedTables(boolean memoryMappedTables)
+    {
+        if (this.featureFactory instanceof VPFBasicFeatureFactory)
+            ((VPFBasicFeatureFactory) this.featureFactory).setMemoryMappedTables(memoryMappedTables);
+    }
+
     /**
      * @param featureClass
      *
@@ -7,6 +7,7 @@ package gov.nasa.worldwind.formats.vpf;
 
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.AbstractLayer;
 import gov.nasa.worldwind.render.*;
@@ -15,6 +16,7 @@ import gov.nasa.worldwind.util.*;
 import java.beans.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * Renders elements from a VPF database.
@@ -35,6 +37,7 @@ public class VPFLayer extends AbstractLayer
     protected double drawDistance = 1e6;
     protected int maxTilesToDraw = 4;
     protected boolean drawTileExtents = false;
+    protected boolean memoryMappedTables = false;
     protected ArrayList<VPFSymbol> symbols = new ArrayList<VPFSymbol>();
     protected ArrayList<GeographicText> textObjects = new ArrayList<GeographicText>();
     protected ArrayList<Renderable> renderableObjects = new ArrayList<Renderable>();
@@ -44,7 +47,15 @@ public class VPFLayer extends AbstractLayer
     protected VPFSymbolSupport symbolSupport = new VPFSymbolSupport(GeoSymConstants.GEOSYM, "image/png");
 
     // Threaded requests
-    protected Queue<Runnable> requestQ = new PriorityBlockingQueue<Runnable>(4);
+    protected static final long DEFAULT_SYMBOL_CACHE_CAPACITY = 64L * 1024 * 1024;
+    protected static final int DEFAULT_LOADER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    protected MemoryCache symbolCache;
+    protected ThreadPoolExecutor loader;
+    protected final ConcurrentHashMap<String, TileLoad> pendingLoads = new ConcurrentHashMap<String, TileLoad>();
+    protected final AbsentResourceList failedLoads = new AbsentResourceList();
+    protected final AtomicLong taskSequence = new AtomicLong();
+    protected volatile long frameNumber;
+    protected volatile boolean disposed;
     protected Queue<Disposable> disposalQ = new ConcurrentLinkedQueue<Disposable>();
 
     // --- Inner classes ----------------------------------------------------------------------
@@ -170,23 +181,12 @@ public class VPFLayer extends AbstractLayer
         protected boolean enabled = false;
         protected VPFLayer layer;
         protected VPFCoverage coverage;
-        protected Map<VPFTile, VPFSymbolCollection> tileCache;
+        protected VPFFeatureClass[] featureClasses;
 
         public VPFCoverageRenderable(VPFLayer layer, VPFCoverage coverage)
         {
             this.layer = layer;
             this.coverage = coverage;
-            this.tileCache = Collections.synchronizedMap(new BoundedHashMap<VPFTile, VPFSymbolCollection>(6, true)
-            {
-                protected boolean removeEldestEntry(Map.Entry<VPFTile, VPFSymbolCollection> eldest)
-                {
-                    if (!super.removeEldestEntry(eldest))
-                        return false;
-
-                    dispose(eldest.getValue());
-                    return true;
-                }
-            });
         }
 
         public void assembleSymbols(Iterable<? extends VPFTile> tiles)
@@ -208,33 +208,72 @@ public class VPFLayer extends AbstractLayer
 
         protected void doAssembleSymbols(VPFTile tile)
         {
-            VPFSymbolCollection symbolCollection = this.tileCache.get(tile);
+            String key = this.getCacheKey(tile);
+            VPFSymbolCollection symbolCollection = (VPFSymbolCollection) this.layer.symbolCache.getObject(key);
             if (symbolCollection != null)
             {
                 this.layer.symbols.addAll(symbolCollection.getSymbols());
             }
             else
             {
-                this.layer.requestQ.add(new RequestTask(this, tile));
+                this.layer.requestTileSymbols(this, tile, key);
             }
         }
 
-        protected void dispose(VPFSymbolCollection renderInfo)
+        protected String getCacheKey(VPFTile tile)
         {
-            this.layer.disposalQ.add(renderInfo);
+            return this.coverage.getFilePath() + "#" + tile.getId();
+        }
+
+        /**
+         * Returns the coverage's feature classes. The feature classes are read once, and shared by the loads of every
+         * tile.
+         *
+         * @return the coverage's feature classes.
+         */
+        protected synchronized VPFFeatureClass[] getFeatureClasses()
+        {
+            if (this.featureClasses == null)
+                this.featureClasses = VPFUtils.readFeatureClasses(this.coverage, new VPFFeatureTableFilter());
+
+            return this.featureClasses;
         }
     }
 
-    protected static class VPFSymbolCollection implements Disposable
+    protected static class VPFSymbolCollection implements Disposable, Cacheable
     {
         public static final VPFSymbolCollection EMPTY_SYMBOL_COLLECTION = new VPFSymbolCollection(null);
+        /** Estimated size of one symbol and its renderable, excluding the primitive coordinates it references. */
+        protected static final long SYMBOL_SIZE_ESTIMATE = 512;
 
         protected final ArrayList<VPFSymbol> symbols = new ArrayList<VPFSymbol>();
+        protected final long sizeInBytes;
 
         public VPFSymbolCollection(Collection<? extends VPFSymbol> symbols)
+        {
+            this(symbols, null);
+        }
+
+        /**
+         * Constructs a symbol collection whose size accounts for the primitive data its symbols were built from.
+         *
+         * @param symbols       the symbols. May be null.
+         * @param primitiveData the primitive data referenced by the symbols. May be null.
+         */
+        public VPFSymbolCollection(Collection<? extends VPFSymbol> symbols, VPFPrimitiveData primitiveData)
         {
             if (symbols != null)
                 this.symbols.addAll(symbols);
+
+            long size = SYMBOL_SIZE_ESTIMATE * (1 + this.symbols.size());
+            if (primitiveData != null)
+                size += primitiveData.getSizeInBytes();
+            this.sizeInBytes = size;
+        }
+
+        public long getSizeInBytes()
+        {
+            return this.sizeInBytes;
         }
 
         public Collection<VPFSymbol> getSymbols()
@@ -259,64 +298,311 @@ public class VPFLayer extends AbstractLayer
         }
     }
 
-    protected VPFSymbolCollection loadTileSymbols(VPFCoverage coverage, VPFTile tile)
+    protected VPFPrimitiveData loadPrimitiveData(VPFCoverage coverage, VPFTile tile)
     {
-        VPFPrimitiveDataFactory primitiveDataFactory = new VPFBasicPrimitiveDataFactory(tile);
-        VPFPrimitiveData primitiveData = primitiveDataFactory.createPrimitiveData(coverage);
+        VPFBasicPrimitiveDataFactory primitiveDataFactory = new VPFBasicPrimitiveDataFactory(tile);
+        primitiveDataFactory.setMemoryMappedTables(this.memoryMappedTables);
+        return primitiveDataFactory.createPrimitiveData(coverage);
+    }
 
-        // The PrimitiveDataFactory returns null when there are no primitive data tables for this coverage tile. We
-        // return the constant EMPTY_SYMBOL_COLLECTION to indicate that we have successfully loaded nothing the empty
-        // contents of this coverage tile.
-        if (primitiveData == null)
+    protected Collection<? extends VPFSymbol> loadFeatureClassSymbols(VPFFeatureClass featureClass, VPFTile tile,
+        VPFPrimitiveData primitiveData)
+    {
+        // Each feature class gets its own factory, so that feature classes of the same tile can load concurrently.
+        VPFBasicSymbolFactory symbolFactory = new VPFBasicSymbolFactory(tile, primitiveData);
+        symbolFactory.setStyleSupport(this.symbolSupport);
+        symbolFactory.setMemoryMappedTables(this.memoryMappedTables);
+
+        return featureClass.createFeatureSymbols(symbolFactory);
+    }
+
+    //**************************************************************//
+    //********************  Symbol Loading Pipeline  ***************//
+    //**************************************************************//
+
+    /**
+     * Requests that the symbols of a coverage tile be loaded in the background, unless the tile is already loading. A
+     * tile's symbols are loaded in two stages. The first stage reads the tile's primitive data. The second stage runs
+     * once for each of the coverage's feature classes: it builds the features, applies their GeoSym styles and creates
+     * their renderables. Second stage tasks run ahead of first stage tasks, so tiles that are partly loaded finish
+     * first, and tasks of recently requested tiles run ahead of tasks of tiles requested earlier. A tile that is
+     * requested again while its first stage task is waiting has that task replaced by one with the newer priority.
+     * Tasks of tiles that are no longer requested are dropped. Tiles whose load failed are not requested again until
+     * the layer's list of failed loads allows another attempt.
+     *
+     * @param coverageRenderable the coverage to load.
+     * @param tile               the tile to load.
+     * @param key                the tile's symbol cache key.
+     */
+    protected void requestTileSymbols(VPFCoverageRenderable coverageRenderable, VPFTile tile, String key)
+    {
+        TileLoad load = this.pendingLoads.get(key);
+        if (load != null)
         {
-            return VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION;
+            load.requestFrame = this.frameNumber;
+            this.reprioritizeLoad(load);
+            return;
         }
 
-        VPFBasicSymbolFactory symbolFactory = new VPFBasicSymbolFactory(tile, primitiveData);
-        symbolFactory.setStyleSupport(this.symbolSupport);
+        if (this.failedLoads.isResourceAbsent(key))
+            return;
+
+        load = new TileLoad(coverageRenderable, tile, key, this.frameNumber);
+        if (this.pendingLoads.putIfAbsent(key, load) == null)
+            this.submitPrimitiveTask(load);
+    }
+
+    /**
+     * Replaces the waiting first stage task of a tile load with a task having the load's current request frame. The
+     * loader's queue orders tasks by their priority when they're queued, so a queued task's priority can't change in
+     * place. Nothing is done if the task has already started.
+     *
+     * @param load the tile load.
+     */
+    protected void reprioritizeLoad(TileLoad load)
+    {
+        LoadTask task = load.primitiveTask;
+        if (task == null || task.priorityFrame >= load.requestFrame)
+            return;
+
+        ThreadPoolExecutor loader = this.getLoader();
+        if (loader != null && loader.remove(task))
+            this.submitPrimitiveTask(load);
+    }
+
+    protected void submitPrimitiveTask(TileLoad load)
+    {
+        PrimitiveTask task = new PrimitiveTask(load);
+        load.primitiveTask = task;
 
-        ArrayList<VPFSymbol> list = new ArrayList<VPFSymbol>();
+        if (!this.submitTask(task))
+            this.cancelLoad(load);
+    }
+
+    /**
+     * Submits a task to the loader.
+     *
+     * @param task the task to submit.
+     *
+     * @return true if the task was submitted, false if the layer has been disposed.
+     */
+    protected boolean submitTask(LoadTask task)
+    {
+        ThreadPoolExecutor loader = this.getLoader();
+        if (loader == null)
+            return false;
 
-        // Create coverage renderables for one tile - if tile is null gets all coverage
-        VPFFeatureClass[] array = VPFUtils.readFeatureClasses(coverage, new VPFFeatureTableFilter());
-        for (VPFFeatureClass cls : array)
+        try
         {
-            Collection<? extends VPFSymbol> symbols = cls.createFeatureSymbols(symbolFactory);
-            if (symbols != null)
-                list.addAll(symbols);
+            loader.execute(task);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The loader was shut down by a concurrent call to dispose.
+            return false;
         }
+    }
 
-        return new VPFSymbolCollection(list);
+    /**
+     * Returns the thread pool loading tile symbols, creating it if necessary.
+     *
+     * @return the loader, or null if the layer has been disposed.
+     */
+    protected synchronized ThreadPoolExecutor getLoader()
+    {
+        if (this.disposed)
+            return null;
+
+        if (this.loader == null)
+        {
+            this.loader = new ThreadPoolExecutor(DEFAULT_LOADER_THREADS, DEFAULT_LOADER_THREADS, 30L, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "VPF symbol loader");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            this.loader.allowCoreThreadTimeOut(true);
+        }
+
+        return this.loader;
+    }
+
+    /**
+     * Indicates whether a tile load is no longer requested. Tiles leaving the view are no longer requested, and their
+     * remaining tasks are dropped rather than loading symbols that won't be drawn. A tile is considered requested for
+     * one frame beyond the last frame that requested it, since the frame number advances before the frame's tiles are
+     * requested.
+     *
+     * @param load the tile load.
+     *
+     * @return true if the load is stale, otherwise false.
+     */
+    protected boolean isStale(TileLoad load)
+    {
+        return load.requestFrame < this.frameNumber - 1;
     }
 
-    protected static class RequestTask implements Runnable, Comparable<RequestTask>
+    /**
+     * Abandons a tile load without caching a result. A load that has already completed is not affected.
+     *
+     * @param load the tile load.
+     *
+     * @return true if the load was cancelled, false if it had already completed or been cancelled.
+     */
+    protected boolean cancelLoad(TileLoad load)
     {
-        protected VPFCoverageRenderable coverageRenderable;
-        protected VPFTile tile;
+        boolean cancelled = load.state.compareAndSet(TileLoad.LOADING, TileLoad.CANCELLED);
+        this.pendingLoads.remove(load.key, load);
+        return cancelled;
+    }
+
+    /**
+     * Abandons a tile load that failed without caching a result, and marks the tile as failed so that it's retried only
+     * after the intervals specified by the list of failed loads.
+     *
+     * @param load the tile load.
+     */
+    protected void failLoad(TileLoad load)
+    {
+        this.failedLoads.markResourceAbsent(load.key);
+        this.cancelLoad(load);
+    }
+
+    /**
+     * Places a tile's symbols in the symbol cache, unless the load has been cancelled or the layer disposed. The load's
+     * state changes from loading to completed atomically, so a load cancelled concurrently either is cancelled before
+     * its symbols are cached, or isn't cancelled at all. The symbols are cached while holding the lock that {@link
+     * #dispose()} holds while clearing the cache, so symbols are never cached after the layer is disposed.
+     *
+     * @param load    the tile load.
+     * @param symbols the tile's symbols.
+     */
+    protected void completeLoad(TileLoad load, VPFSymbolCollection symbols)
+    {
+        if (!load.state.compareAndSet(TileLoad.LOADING, TileLoad.COMPLETED))
+            return;
+
+        synchronized (this)
+        {
+            if (this.disposed)
+            {
+                this.pendingLoads.remove(load.key, load);
+                return;
+            }
+
+            this.symbolCache.add(load.key, symbols);
+        }
+
+        this.failedLoads.unmarkResourceAbsent(load.key);
+        this.pendingLoads.remove(load.key, load);
+        this.firePropertyChange(AVKey.LAYER, null, this);
+    }
 
-        protected RequestTask(VPFCoverageRenderable coverageRenderable, VPFTile tile)
+    protected static class TileLoad
+    {
+        protected static final int LOADING = 0;
+        protected static final int CANCELLED = 1;
+        protected static final int COMPLETED = 2;
+
+        protected final VPFCoverageRenderable coverageRenderable;
+        protected final VPFTile tile;
+        protected final String key;
+        protected volatile long requestFrame;
+        /** Changes once, from LOADING to either CANCELLED or COMPLETED. */
+        protected final AtomicInteger state = new AtomicInteger(LOADING);
+        protected volatile LoadTask primitiveTask;
+        protected VPFPrimitiveData primitiveData;
+        protected AtomicReferenceArray<Collection<? extends VPFSymbol>> classSymbols;
+        protected AtomicInteger remainingClasses;
+
+        public TileLoad(VPFCoverageRenderable coverageRenderable, VPFTile tile, String key, long requestFrame)
         {
             this.coverageRenderable = coverageRenderable;
             this.tile = tile;
+            this.key = key;
+            this.requestFrame = requestFrame;
+        }
+
+        public VPFLayer getLayer()
+        {
+            return this.coverageRenderable.layer;
+        }
+
+        public boolean isCancelled()
+        {
+            return this.state.get() == CANCELLED;
+        }
+
+        public VPFTile getLoadTile()
+        {
+            return (this.tile != NULL_TILE) ? this.tile : null;
+        }
+
+        public VPFSymbolCollection assembleSymbols()
+        {
+            ArrayList<VPFSymbol> list = new ArrayList<VPFSymbol>();
+            for (int i = 0; i < this.classSymbols.length(); i++)
+            {
+                Collection<? extends VPFSymbol> symbols = this.classSymbols.get(i);
+                if (symbols != null)
+                    list.addAll(symbols);
+            }
+
+            return new VPFSymbolCollection(list, this.primitiveData);
+        }
+    }
+
+    protected abstract static class LoadTask implements Runnable, Comparable<LoadTask>
+    {
+        protected final TileLoad load;
+        /** The load's request frame when this task was created. The loader's queue requires it not to change. */
+        protected final long priorityFrame;
+        protected final long sequence;
+
+        protected LoadTask(TileLoad load)
+        {
+            this.load = load;
+            this.priorityFrame = load.requestFrame;
+            this.sequence = load.getLayer().taskSequence.getAndIncrement();
         }
 
+        /** @return the task's pipeline stage. Tasks of later stages run first. */
+        protected abstract int getStage();
+
+        protected abstract void doRun();
+
         public void run()
         {
-            VPFSymbolCollection symbols = this.coverageRenderable.layer.loadTileSymbols(
-                this.coverageRenderable.coverage, (this.tile != NULL_TILE) ? this.tile : null);
+            VPFLayer layer = this.load.getLayer();
 
-            this.coverageRenderable.tileCache.put(this.tile, symbols);
-            this.coverageRenderable.layer.firePropertyChange(AVKey.LAYER, null, this.coverageRenderable.layer);
+            if (this.load.isCancelled())
+                return;
+
+            if (layer.isStale(this.load))
+            {
+                layer.cancelLoad(this.load);
+                return;
+            }
+
+            try
+            {
+                this.doRun();
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("generic.ExceptionWhileReading", this.load.key);
+                Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+                layer.failLoad(this.load);
+            }
         }
 
-        /**
-         * @param that the task to compare
-         *
-         * @return -1 if <code>this</code> less than <code>that</code>, 1 if greater than, 0 if equal
-         *
-         * @throws IllegalArgumentException if <code>that</code> is null
-         */
-        public int compareTo(RequestTask that)
+        public int compareTo(LoadTask that)
         {
             if (that == null)
             {
@@ -325,41 +611,98 @@ public class VPFLayer extends AbstractLayer
                 throw new IllegalArgumentException(msg);
             }
 
+            if (this.getStage() != that.getStage())
+                return this.getStage() > that.getStage() ? -1 : 1;
+
+            if (this.priorityFrame != that.priorityFrame)
+                return this.priorityFrame > that.priorityFrame ? -1 : 1;
+
+            return this.sequence < that.sequence ? -1 : (this.sequence > that.sequence ? 1 : 0);
+        }
+
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("coverage=").append(this.load.coverageRenderable.coverage.getName());
+            sb.append(", tile=").append(this.load.tile);
+            sb.append(", stage=").append(this.getStage());
+            return sb.toString();
+        }
+    }
+
+    /** Reads the primitive data of a tile, then schedules one {@link SymbolTask} for each feature class. */
+    protected static class PrimitiveTask extends LoadTask
+    {
+        public PrimitiveTask(TileLoad load)
+        {
+            super(load);
+        }
+
+        protected int getStage()
+        {
             return 0;
         }
 
-        public boolean equals(Object o)
+        protected void doRun()
         {
-            if (this == o)
-                return true;
-            if (o == null || getClass() != o.getClass())
-                return false;
+            VPFLayer layer = this.load.getLayer();
+            this.load.primitiveTask = null;
+            this.load.primitiveData = layer.loadPrimitiveData(this.load.coverageRenderable.coverage,
+                this.load.getLoadTile());
 
-            RequestTask that = (RequestTask) o;
+            // The PrimitiveDataFactory returns null when there are no primitive data tables for this coverage tile. We
+            // cache the constant EMPTY_SYMBOL_COLLECTION to indicate that we have successfully loaded the empty
+            // contents of this coverage tile.
+            VPFFeatureClass[] featureClasses = this.load.coverageRenderable.getFeatureClasses();
+            if (this.load.primitiveData == null || featureClasses.length == 0)
+            {
+                layer.completeLoad(this.load, VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION);
+                return;
+            }
 
-            if (coverageRenderable != null ? !coverageRenderable.equals(that.coverageRenderable)
-                : that.coverageRenderable != null)
-                return false;
-            //noinspection RedundantIfStatement
-            if (tile != null ? !tile.equals(that.tile) : that.tile != null)
-                return false;
+            this.load.classSymbols = new AtomicReferenceArray<Collection<? extends VPFSymbol>>(featureClasses.length);
+            this.load.remainingClasses = new AtomicInteger(featureClasses.length);
 
-            return true;
+            for (int i = 0; i < featureClasses.length; i++)
+            {
+                if (!layer.submitTask(new SymbolTask(this.load, featureClasses[i], i)))
+                {
+                    layer.cancelLoad(this.load);
+                    return;
+                }
+            }
         }
+    }
 
-        public int hashCode()
+    /**
+     * Builds the features of one feature class in a tile, applies their styles and creates their renderables. The last
+     * task of a tile to finish places the tile's symbols in the symbol cache.
+     */
+    protected static class SymbolTask extends LoadTask
+    {
+        protected final VPFFeatureClass featureClass;
+        protected final int index;
+
+        public SymbolTask(TileLoad load, VPFFeatureClass featureClass, int index)
         {
-            int result = coverageRenderable != null ? coverageRenderable.hashCode() : 0;
-            result = 31 * result + (tile != null ? tile.hashCode() : 0);
-            return result;
+            super(load);
+            this.featureClass = featureClass;
+            this.index = index;
         }
 
-        public String toString()
+        protected int getStage()
         {
-            StringBuilder sb = new StringBuilder();
-            sb.append("coverageRenderable=").append(this.coverageRenderable.coverage.getName());
-            sb.append(", tile=").append(this.tile);
-            return sb.toString();
+            return 1;
+        }
+
+        protected void doRun()
+        {
+            VPFLayer layer = this.load.getLayer();
+            this.load.classSymbols.set(this.index, layer.loadFeatureClassSymbols(this.featureClass,
+                this.load.getLoadTile(), this.load.primitiveData));
+
+            if (this.load.remainingClasses.decrementAndGet() == 0 && !this.load.isCancelled())
+                layer.completeLoad(this.load, this.load.assembleSymbols());
         }
     }
 
@@ -374,6 +717,7 @@ public class VPFLayer extends AbstractLayer
     {
         this.setName("VPF Layer");
         this.setPickEnabled(false);
+        this.symbolCache = this.createSymbolCache(DEFAULT_SYMBOL_CACHE_CAPACITY);
         if (db != null)
             this.setVPFDatabase(db);
 
@@ -411,6 +755,105 @@ public class VPFLayer extends AbstractLayer
         });
     }
 
+    /**
+     * Indicates whether this layer memory-maps the VPF tables it loads. See {@link #setMemoryMappedTables(boolean)}.
+     *
+     * @return true if tables are memory-mapped, otherwise false.
+     */
+    public boolean isMemoryMappedTables()
+    {
+        return this.memoryMappedTables;
+    }
+
+    /**
+     * Specifies whether this layer memory-maps the primitive, feature and join tables it loads, decoding only the rows
+     * referenced by the tiles it loads. When false, the default, each table is read into memory in full. The coordinate
+     * and string columns of the edge and text primitive tables are decoded in full either way; see {@link
+     * VPFBasicPrimitiveDataFactory#setMemoryMappedTables(boolean)}.
+     *
+     * @param memoryMappedTables true to memory-map tables, otherwise false.
+     */
+    public void setMemoryMappedTables(boolean memoryMappedTables)
+    {
+        this.memoryMappedTables = memoryMappedTables;
+    }
+
+    /**
+     * Returns the capacity of the cache of loaded tile symbols, in bytes.
+     *
+     * @return the symbol cache capacity.
+     */
+    public long getSymbolCacheCapacity()
+    {
+        return this.symbolCache.getCapacity();
+    }
+
+    /**
+     * Specifies the capacity of the cache of loaded tile symbols, in bytes. The cache holds the symbols of every
+     * coverage, and the symbols of the least recently drawn tiles are disposed when the cache is full.
+     *
+     * @param capacity the symbol cache capacity.
+     *
+     * @throws IllegalArgumentException if the capacity is less than 1.
+     */
+    public void setSymbolCacheCapacity(long capacity)
+    {
+        if (capacity < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "capacity < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.symbolCache.setLowWater((long) (0.8 * capacity));
+        this.symbolCache.setCapacity(capacity);
+    }
+
+    protected MemoryCache createSymbolCache(long capacity)
+    {
+        MemoryCache cache = new BasicMemoryCache((long) (0.8 * capacity), capacity);
+        cache.setName("VPF Symbol Cache");
+        cache.addCacheListener(new MemoryCache.CacheListener()
+        {
+            public void entryRemoved(Object key, Object clientObject)
+            {
+                // Dispose of evicted symbols on the rendering thread.
+                if (clientObject instanceof Disposable)
+                    disposalQ.add((Disposable) clientObject);
+            }
+
+            public void removalException(Throwable exception, Object key, Object clientObject)
+            {
+                String message = Logging.getMessage("BasicMemoryCache.ExceptionFromRemovalListener",
+                    exception.getMessage());
+                Logging.logger().log(java.util.logging.Level.INFO, message);
+            }
+        });
+
+        return cache;
+    }
+
+    @Override
+    public void dispose()
+    {
+        synchronized (this)
+        {
+            this.disposed = true;
+
+            if (this.loader != null)
+            {
+                this.loader.shutdownNow();
+                this.loader = null;
+            }
+
+            // Cleared while holding the lock, so that a load completing concurrently can't cache symbols afterward.
+            this.symbolCache.clear();
+        }
+
+        this.pendingLoads.clear();
+        this.handleDisposal();
+    }
+
     protected void initialize()
     {
         this.libraries = new ArrayList<VPFLibraryRenderable>();
@@ -488,6 +931,7 @@ public class VPFLayer extends AbstractLayer
 
     protected void assembleRenderables(DrawContext dc)
     {
+        this.frameNumber++;
         this.symbols.clear();
         this.textObjects.clear();
         this.renderableObjects.clear();
@@ -507,9 +951,6 @@ public class VPFLayer extends AbstractLayer
             else if (symbol.getMapObject() instanceof Renderable)
                 this.renderableObjects.add((Renderable) symbol.getMapObject());
         }
-
-        this.sendRequests();
-        this.requestQ.clear();
     }
 
     protected void sortSymbols(List<VPFSymbol> list)
@@ -525,16 +966,4 @@ public class VPFLayer extends AbstractLayer
             disposable.dispose();
         }
     }
-
-    protected void sendRequests()
-    {
-        Runnable task;
-        while ((task = this.requestQ.poll()) != null)
-        {
-            if (!WorldWind.getTaskService().isFull())
-            {
-                WorldWind.getTaskService().addTask(task);
-            }
-        }
-    }
 }
@@ -0,0 +1,501 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.*;
+import java.util.ArrayList;
+
+/**
+ * A read-only {@link VPFDataBuffer} which decodes one column of a memory-mapped VPF table on demand. Rows are located
+ * through the table's {@link VPFTableReader.RecordIndex}, so only the rows that are actually accessed are decoded.
+ * Fixed-length numeric columns are decoded in a single pass into a primitive array the first time any of their values
+ * is accessed. Other columns are decoded in blocks of rows around each accessed row, and are only decoded in full when
+ * their backing data is requested.
+ * <p/>
+ * The mapped table itself is never modified. Rows read into this buffer with {@link #read(java.nio.ByteBuffer)} or
+ * {@link #read(java.nio.ByteBuffer, int)} are copied to the heap and follow the rows of the mapped table, just as rows
+ * read into the basic data buffers follow the rows already read.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class VPFMappedDataBuffer implements VPFDataBuffer
+{
+    /** The number of rows decoded together when a row of a non-numeric column is accessed. */
+    protected static final int BLOCK_SIZE = 64;
+
+    protected final ByteBuffer buffer;
+    protected final VPFTableReader.RecordIndex recordIndex;
+    protected final VPFTableReader.Column[] columns;
+    protected final int column;
+    protected final VPFDataType type;
+    protected final boolean scalar;
+    // Offset of the column within each row, or -1 if a preceding column has variable length.
+    protected final int fieldOffset;
+
+    // Fields of the rows appended by read, and their element counts.
+    protected ArrayList<ByteBuffer> appendedFields = new ArrayList<ByteBuffer>();
+    protected ArrayList<Integer> appendedLengths = new ArrayList<Integer>();
+
+    protected int[] intValues;
+    protected double[] doubleValues;
+    protected VPFDataBuffer[] blocks;
+    protected VPFDataBuffer dataBuffer;
+
+    /**
+     * Constructs a data buffer for one column of a memory-mapped table.
+     *
+     * @param buffer      the table's bytes. The buffer's byte order must match the table header. The buffer's position
+     *                    and limit are not modified.
+     * @param recordIndex the table's record index.
+     * @param columns     the table's columns.
+     * @param column      the index of the column this buffer decodes.
+     *
+     * @throws IllegalArgumentException if any argument is null, or if the column index is out of range.
+     */
+    public VPFMappedDataBuffer(ByteBuffer buffer, VPFTableReader.RecordIndex recordIndex,
+        VPFTableReader.Column[] columns, int column)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (recordIndex == null || columns == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (column < 0 || column >= columns.length)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "column=" + column);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.buffer = buffer.duplicate();
+        this.buffer.order(buffer.order()); // Duplicated buffers always start with big endian byte order.
+        this.recordIndex = recordIndex;
+        this.columns = columns;
+        this.column = column;
+        this.type = VPFDataType.fromTypeName(columns[column].dataType);
+        this.scalar = !columns[column].isVariableLengthField() && isScalarType(this.type);
+        this.fieldOffset = computeFieldOffset(columns, column);
+    }
+
+    public synchronized int getNumRecords()
+    {
+        return this.recordIndex.numEntries + this.appendedFields.size();
+    }
+
+    /**
+     * Returns the value of a numeric column at a specified row, without boxing it.
+     *
+     * @param index the row id.
+     *
+     * @return the row's value.
+     *
+     * @throws IllegalStateException if this buffer's column is not a fixed-length integer column.
+     */
+    public int getInt(int index)
+    {
+        if (this.type != VPFDataType.SHORT_INT && this.type != VPFDataType.LONG_INT || !this.scalar)
+        {
+            String message = Logging.getMessage("generic.UnrecognizedDataType", this.type);
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        return this.getIntValues()[index];
+    }
+
+    /**
+     * Returns the value of a numeric column at a specified row, without boxing it.
+     *
+     * @param index the row id.
+     *
+     * @return the row's value.
+     *
+     * @throws IllegalStateException if this buffer's column is not a fixed-length numeric column.
+     */
+    public double getDouble(int index)
+    {
+        if (!this.scalar)
+        {
+            String message = Logging.getMessage("generic.UnrecognizedDataType", this.type);
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        if (this.type == VPFDataType.SHORT_INT || this.type == VPFDataType.LONG_INT)
+            return this.getIntValues()[index];
+        else
+            return this.getDoubleValues()[index];
+    }
+
+    public Object get(int index)
+    {
+        VPFDataBuffer db = this.getLoadedDataBuffer();
+        if (db != null)
+            return db.get(index);
+
+        if (this.scalar)
+        {
+            if (this.type == VPFDataType.SHORT_INT || this.type == VPFDataType.LONG_INT)
+                return this.getIntValues()[index];
+            else
+                return this.getDoubleValues()[index];
+        }
+
+        return this.getBlock(index).get(blockRow(index));
+    }
+
+    /**
+     * Returns the backing data of the complete column. This decodes every row of the column into the heap, and so
+     * gives up the benefit of decoding rows on demand. Callers which only need some rows should use {@link #get(int)}
+     * instead.
+     *
+     * @return the backing data of the complete column.
+     */
+    public Object getBackingData()
+    {
+        return this.getDataBuffer().getBackingData();
+    }
+
+    public boolean hasValue(int index)
+    {
+        VPFDataBuffer db = this.getLoadedDataBuffer();
+        if (db != null)
+            return db.hasValue(index);
+
+        // Numeric values are compared against the same "no value" patterns as the basic scalar data buffers.
+        if (this.scalar)
+        {
+            if (this.type == VPFDataType.SHORT_INT || this.type == VPFDataType.LONG_INT)
+                return !VPFBasicDataBufferFactory.isNoValueInt(this.getIntValues()[index]);
+            else
+                return !VPFBasicDataBufferFactory.isNoValueDouble(this.getDoubleValues()[index]);
+        }
+
+        return this.getBlock(index).hasValue(blockRow(index));
+    }
+
+    /**
+     * Reads one variable-length field from the specified buffer, and appends it as a row following the rows of the
+     * mapped table. The field starts with its element count. See MIL-STD-2407, section 5.4.1.3.
+     *
+     * @param byteBuffer the buffer to read from. The buffer's position is advanced past the field.
+     *
+     * @throws IllegalArgumentException if the buffer is null.
+     */
+    public void read(ByteBuffer byteBuffer)
+    {
+        if (byteBuffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int length = byteBuffer.getInt();
+        this.read(byteBuffer, length);
+    }
+
+    /**
+     * Reads a field of the specified number of elements from the specified buffer, and appends it as a row following
+     * the rows of the mapped table. The field's bytes are copied, so the buffer may be reused once this returns.
+     *
+     * @param byteBuffer the buffer to read from. The buffer's position is advanced past the field.
+     * @param length     the number of elements in the field.
+     *
+     * @throws IllegalArgumentException if the buffer is null, or if the length is negative.
+     */
+    public void read(ByteBuffer byteBuffer, int length)
+    {
+        if (byteBuffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (length < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "length=" + length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // The leading type byte of a triplet id determines its length, regardless of the element count.
+        int size;
+        if (this.type == VPFDataType.TRIPLET_ID)
+            size = getFieldLength(byteBuffer, byteBuffer.position(), this.columns[this.column]);
+        else
+            size = length * this.type.getFieldLength();
+
+        ByteBuffer field = ByteBuffer.allocate(size);
+        field.order(byteBuffer.order());
+        int limit = byteBuffer.limit();
+        byteBuffer.limit(byteBuffer.position() + size);
+        field.put(byteBuffer);
+        byteBuffer.limit(limit);
+        field.flip();
+
+        synchronized (this)
+        {
+            this.appendedFields.add(field);
+            this.appendedLengths.add(length);
+
+            // The decoded values are sized to the previous number of rows.
+            this.intValues = null;
+            this.doubleValues = null;
+            this.blocks = null;
+            this.dataBuffer = null;
+        }
+    }
+
+    //**************************************************************//
+    //********************  Decoding  ******************************//
+    //**************************************************************//
+
+    protected synchronized VPFDataBuffer getLoadedDataBuffer()
+    {
+        return this.dataBuffer;
+    }
+
+    protected synchronized VPFDataBuffer getDataBuffer()
+    {
+        if (this.dataBuffer == null)
+        {
+            this.dataBuffer = this.decodeRows(1, this.getNumRecords());
+            // The decoded blocks are redundant with the complete column.
+            this.blocks = null;
+        }
+
+        return this.dataBuffer;
+    }
+
+    protected synchronized VPFDataBuffer getBlock(int index)
+    {
+        if (index < 1 || index > this.getNumRecords())
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", index);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (this.blocks == null)
+            this.blocks = new VPFDataBuffer[(this.getNumRecords() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+
+        int block = (index - 1) / BLOCK_SIZE;
+        if (this.blocks[block] == null)
+        {
+            int first = 1 + block * BLOCK_SIZE;
+            this.blocks[block] = this.decodeRows(first, Math.min(BLOCK_SIZE, this.getNumRecords() - first + 1));
+        }
+
+        return this.blocks[block];
+    }
+
+    protected static int blockRow(int index)
+    {
+        return 1 + (index - 1) % BLOCK_SIZE;
+    }
+
+    protected VPFDataBuffer decodeRows(int firstIndex, int numRows)
+    {
+        VPFTableReader.Column col = this.columns[this.column];
+        VPFDataBuffer db = this.type.createDataBuffer(numRows, col.numElements);
+        boolean variableLength = col.isVariableLengthField();
+        int numMappedRows = Math.max(0, Math.min(numRows, this.recordIndex.numEntries - firstIndex + 1));
+
+        // Copy the fields to a heap buffer. Vector data buffers keep references to the bytes they read, and replace
+        // null coordinates in place, so they cannot read from the read-only mapped table.
+        int[] positions = new int[numMappedRows];
+        int[] lengths = new int[numMappedRows];
+        int size = 0;
+        for (int i = 0; i < numMappedRows; i++)
+        {
+            positions[i] = this.getFieldPosition(firstIndex + i);
+            lengths[i] = getFieldLength(this.buffer, positions[i], col);
+            size += lengths[i];
+        }
+
+        ByteBuffer fields = ByteBuffer.allocate(size);
+        fields.order(this.buffer.order());
+        int limit = this.buffer.limit();
+        for (int i = 0; i < numMappedRows; i++)
+        {
+            this.buffer.limit(positions[i] + lengths[i]);
+            this.buffer.position(positions[i]);
+            fields.put(this.buffer);
+            this.buffer.limit(limit);
+        }
+        fields.flip();
+
+        for (int i = 0; i < numMappedRows; i++)
+        {
+            if (variableLength)
+                db.read(fields);
+            else
+                db.read(fields, col.numElements);
+        }
+
+        // Rows appended by read follow the rows of the mapped table. Each is copied again for the same reason.
+        for (int i = numMappedRows; i < numRows; i++)
+        {
+            int appended = firstIndex + i - this.recordIndex.numEntries - 1;
+            ByteBuffer field = this.appendedFields.get(appended);
+            ByteBuffer copy = ByteBuffer.allocate(field.remaining());
+            copy.put(field.duplicate()).flip();
+            copy.order(field.order());
+            db.read(copy, this.appendedLengths.get(appended));
+        }
+
+        return db;
+    }
+
+    protected synchronized int[] getIntValues()
+    {
+        if (this.intValues == null)
+        {
+            int[] values = new int[1 + this.getNumRecords()];
+            for (int index = 1; index < values.length; index++)
+            {
+                ByteBuffer fieldBuffer = this.getFieldBuffer(index);
+                int pos = (fieldBuffer == this.buffer) ? this.getFieldPosition(index) : 0;
+                values[index] = (this.type == VPFDataType.SHORT_INT) ? fieldBuffer.getShort(pos)
+                    : fieldBuffer.getInt(pos);
+            }
+
+            this.intValues = values;
+        }
+
+        return this.intValues;
+    }
+
+    protected synchronized double[] getDoubleValues()
+    {
+        if (this.doubleValues == null)
+        {
+            double[] values = new double[1 + this.getNumRecords()];
+            for (int index = 1; index < values.length; index++)
+            {
+                ByteBuffer fieldBuffer = this.getFieldBuffer(index);
+                int pos = (fieldBuffer == this.buffer) ? this.getFieldPosition(index) : 0;
+                values[index] = (this.type == VPFDataType.SHORT_FLOAT) ? fieldBuffer.getFloat(pos)
+                    : fieldBuffer.getDouble(pos);
+            }
+
+            this.doubleValues = values;
+        }
+
+        return this.doubleValues;
+    }
+
+    /**
+     * Returns the buffer holding the field of a specified row: the mapped table for rows of the table, or the copied
+     * field for rows appended by read.
+     *
+     * @param index the row id.
+     *
+     * @return the buffer holding the row's field.
+     */
+    protected ByteBuffer getFieldBuffer(int index)
+    {
+        if (index <= this.recordIndex.numEntries)
+            return this.buffer;
+
+        return this.appendedFields.get(index - this.recordIndex.numEntries - 1);
+    }
+
+    protected int getFieldPosition(int index)
+    {
+        int pos = this.recordIndex.entries[index - 1].offset;
+        if (this.fieldOffset >= 0)
+            return pos + this.fieldOffset;
+
+        // A preceding column has variable length: step over the preceding fields of this row.
+        for (int i = 0; i < this.column; i++)
+        {
+            pos += getFieldLength(this.buffer, pos, this.columns[i]);
+        }
+
+        return pos;
+    }
+
+    protected static boolean isScalarType(VPFDataType type)
+    {
+        return type == VPFDataType.SHORT_INT || type == VPFDataType.LONG_INT
+            || type == VPFDataType.SHORT_FLOAT || type == VPFDataType.LONG_FLOAT;
+    }
+
+    protected static int computeFieldOffset(VPFTableReader.Column[] columns, int column)
+    {
+        int offset = 0;
+        for (int i = 0; i < column; i++)
+        {
+            if (columns[i].isVariableLengthField())
+                return -1;
+
+            offset += columns[i].getFieldLength();
+        }
+
+        return offset;
+    }
+
+    /**
+     * Returns the number of bytes occupied by a column's field, starting at the specified position. See MIL-STD-2407,
+     * section 5.4.1.1 and 5.4.1.3.
+     *
+     * @param buffer the table's bytes.
+     * @param pos    the field's position.
+     * @param column the field's column.
+     *
+     * @return the field's length in bytes.
+     */
+    protected static int getFieldLength(ByteBuffer buffer, int pos, VPFTableReader.Column column)
+    {
+        VPFDataType type = VPFDataType.fromTypeName(column.dataType);
+
+        if (type == VPFDataType.TRIPLET_ID)
+        {
+            // The leading type byte holds the bit count of the three ids.
+            int bits = buffer.get(pos);
+            return 1 + getIdLength(bits >> 6) + getIdLength(bits >> 4) + getIdLength(bits >> 2);
+        }
+        else if (column.numElements < 0)
+        {
+            // Variable length fields start with their element count.
+            return 4 + buffer.getInt(pos) * type.getFieldLength();
+        }
+        else
+        {
+            return column.numElements * type.getFieldLength();
+        }
+    }
+
+    protected static int getIdLength(int bitCount)
+    {
+        switch (bitCount & 3)
+        {
+            case 1:
+                return 1;
+            case 2:
+                return 2;
+            case 3:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+}
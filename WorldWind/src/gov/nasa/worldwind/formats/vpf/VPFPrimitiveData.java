@@ -199,4 +199,35 @@ public class VPFPrimitiveData
     {
         this.primitiveStrings.put(name, strings);
     }
+
+    /**
+     * Returns an estimate of the memory used by this primitive data, in bytes.
+     *
+     * @return the estimated size of this primitive data.
+     */
+    public long getSizeInBytes()
+    {
+        long size = 0;
+
+        for (PrimitiveInfo[] info : this.primitiveInfo.values())
+        {
+            // Estimate the size of each info object as its bounding box plus the edge or face references.
+            size += (info != null) ? 64L * info.length : 0;
+        }
+
+        for (VecBufferSequence coords : this.primitiveCoords.values())
+        {
+            size += (coords != null) ? coords.getVecBuffer().getBufferWrapper().getSizeInBytes() : 0;
+        }
+
+        for (CompoundStringBuilder strings : this.primitiveStrings.values())
+        {
+            for (int i = 0; strings != null && i < strings.size(); i++)
+            {
+                size += 2L * strings.substringLength(i);
+            }
+        }
+
+        return size;
+    }
 }
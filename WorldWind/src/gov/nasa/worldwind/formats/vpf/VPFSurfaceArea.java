@@ -12,7 +12,6 @@ import gov.nasa.worldwind.render.*;
 import gov.nasa.worldwind.util.*;
 
 import javax.media.opengl.GL;
-import javax.media.opengl.glu.*;
 import java.nio.IntBuffer;
 import java.util.*;
 
@@ -215,42 +214,44 @@ public class VPFSurfaceArea extends SurfacePolygon // TODO: consolidate with Sur
     //********************  Interior Tessellation  *****************//
     //**************************************************************//
 
-    protected Integer tessellateInteriorVertices(GLU glu, GLUtessellator tess)
+    protected Integer tessellateInteriorVertices(GL gl, PolygonTriangulator triangulator)
     {
-        // Setup the winding order to correctly tessellate the outer and inner rings. The outer ring is specified
-        // with a clockwise winding order, while inner rings are specified with a counter-clockwise order. Inner
-        // rings are subtracted from the outer ring, producing an area with holes.
-        glu.gluTessProperty(tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_NEGATIVE);
-        glu.gluTessBeginPolygon(tess, null);
+        // The outer ring is specified with a clockwise winding order, while inner rings are specified with a
+        // counter-clockwise order. The triangulator identifies inner rings by their nesting rather than their winding
+        // order, and subtracts them from the outer ring, producing an area with holes. Rings of adjacent faces share
+        // edges, and are recognized as separate areas.
+        triangulator.beginPolygon();
 
         int numBytes = 0; // approximate size of the display list
         String primitiveName = this.feature.getFeatureClass().getPrimitiveTableName();
+        double[] coords = new double[2];
 
         for (int id : this.feature.getPrimitiveIds())
         {
             VPFPrimitiveData.FaceInfo faceInfo = (VPFPrimitiveData.FaceInfo) primitiveData.getPrimitiveInfo(
                 primitiveName, id);
 
-            Integer nb = this.tessellateRing(glu, tess, faceInfo.getOuterRing());
+            Integer nb = this.tessellateRing(triangulator, faceInfo.getOuterRing(), coords);
             if (nb != null)
                 numBytes += nb;
 
             for (VPFPrimitiveData.Ring ring : faceInfo.getInnerRings())
             {
-                nb = this.tessellateRing(glu, tess, ring);
+                nb = this.tessellateRing(triangulator, ring, coords);
                 if (nb != null)
                     numBytes += nb;
             }
         }
 
-        glu.gluTessEndPolygon(tess);
+        triangulator.endPolygon();
+        this.drawInteriorTriangles(gl, triangulator);
 
         return numBytes;
     }
 
-    protected Integer tessellateRing(GLU glu, GLUtessellator tess, VPFPrimitiveData.Ring ring)
+    protected Integer tessellateRing(PolygonTriangulator triangulator, VPFPrimitiveData.Ring ring, double[] coords)
     {
-        glu.gluTessBeginContour(tess);
+        triangulator.beginContour();
 
         CompoundVecBuffer buffer = this.primitiveData.getPrimitiveCoords(VPFConstants.EDGE_PRIMITIVE_TABLE);
         int numEdges = ring.getNumEdges();
@@ -259,17 +260,18 @@ public class VPFSurfaceArea extends SurfacePolygon // TODO: consolidate with Sur
         for (int i = 0; i < numEdges; i++)
         {
             VecBuffer vecBuffer = buffer.subBuffer(ring.getEdgeId(i));
-            Iterable<double[]> iterable = (ring.getEdgeOrientation(i) < 0) ?
-                vecBuffer.getReverseCoords(3) : vecBuffer.getCoords(3);
+            int size = vecBuffer.getSize();
+            boolean reverse = ring.getEdgeOrientation(i) < 0;
 
-            for (double[] coords : iterable)
+            for (int j = 0; j < size; j++)
             {
-                glu.gluTessVertex(tess, coords, 0, coords);
+                vecBuffer.get(reverse ? size - 1 - j : j, coords);
+                triangulator.addVertex(coords[0], coords[1]);
                 numBytes += 3 * 4; // 3 float coords
             }
         }
 
-        glu.gluTessEndContour(tess);
+        triangulator.endContour();
 
         return numBytes;
     }
@@ -20,10 +20,36 @@ import java.util.ArrayList;
  */
 public class VPFTableReader
 {
+    protected boolean memoryMapped;
+
     public VPFTableReader()
     {
     }
 
+    /**
+     * Indicates whether tables are memory-mapped and decoded lazily. See {@link #setMemoryMapped(boolean)}.
+     *
+     * @return true if tables are memory-mapped, otherwise false.
+     */
+    public boolean isMemoryMapped()
+    {
+        return this.memoryMapped;
+    }
+
+    /**
+     * Specifies whether tables are memory-mapped and decoded lazily. When true, the table file is mapped rather than
+     * read into memory, and each column is backed by a {@link VPFMappedDataBuffer} which decodes only the rows that are
+     * accessed. This keeps the columns of large tables, such as the feature and join tables of VMap1 and DNC libraries,
+     * out of the heap until their values are needed. A column whose backing data is requested is decoded in full. When
+     * false, the default, the table is read and decoded in full.
+     *
+     * @param memoryMapped true to memory-map tables, otherwise false.
+     */
+    public void setMemoryMapped(boolean memoryMapped)
+    {
+        this.memoryMapped = memoryMapped;
+    }
+
     public VPFBufferedRecordData read(File file)
     {
         if (file == null)
@@ -35,7 +61,7 @@ public class VPFTableReader
 
         try
         {
-            ByteBuffer buffer = this.readFileToBuffer(file);
+            ByteBuffer buffer = this.memoryMapped ? this.mapFileToBuffer(file) : this.readFileToBuffer(file);
             return this.doRead(file, buffer);
         }
         catch (Exception e)
@@ -53,6 +79,13 @@ public class VPFTableReader
         return buffer;
     }
 
+    protected ByteBuffer mapFileToBuffer(File file) throws IOException
+    {
+        ByteBuffer buffer = WWIO.mapFile(file);
+        buffer.order(ByteOrder.LITTLE_ENDIAN); // Default to least significant byte first order.
+        return buffer;
+    }
+
     protected VPFBufferedRecordData doRead(File file, ByteBuffer buffer)
     {
         // Read the table header.
@@ -78,8 +111,11 @@ public class VPFTableReader
             throw new WWRuntimeException(message);
         }
 
-        // Read the table record data.
-        return this.readRecordData(buffer, header.columns, recordIndex);
+        // Read the table record data, or defer reading it until it's accessed.
+        if (this.memoryMapped)
+            return this.createMappedRecordData(buffer, header.columns, recordIndex);
+        else
+            return this.readRecordData(buffer, header.columns, recordIndex);
     }
 
     //**************************************************************//
@@ -358,6 +394,21 @@ public class VPFTableReader
         return recordData;
     }
 
+    protected VPFBufferedRecordData createMappedRecordData(ByteBuffer byteBuffer, Column[] columns,
+        RecordIndex recordIndex)
+    {
+        VPFBufferedRecordData recordData = new VPFBufferedRecordData();
+        recordData.setNumRecords(recordIndex.numEntries);
+
+        for (int col = 0; col < columns.length; col++)
+        {
+            recordData.setRecordData(columns[col].name,
+                new VPFMappedDataBuffer(byteBuffer, recordIndex, columns, col));
+        }
+
+        return recordData;
+    }
+
     //**************************************************************//
     //********************  Record Index  **************************//
     //**************************************************************//
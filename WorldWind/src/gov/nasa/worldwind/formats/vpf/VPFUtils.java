@@ -19,6 +19,22 @@ import java.nio.ByteBuffer;
 public class VPFUtils
 {
     public static VPFBufferedRecordData readTable(File file)
+    {
+        return readTable(file, false);
+    }
+
+    /**
+     * Reads a VPF table, optionally memory-mapping it so that its rows are decoded only when accessed. See {@link
+     * VPFTableReader#setMemoryMapped(boolean)}.
+     *
+     * @param file         the table file.
+     * @param memoryMapped true to memory-map the table, otherwise false.
+     *
+     * @return the table's record data, or null if the file does not exist or cannot be read.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     */
+    public static VPFBufferedRecordData readTable(File file, boolean memoryMapped)
     {
         if (file == null)
         {
@@ -35,6 +51,7 @@ public class VPFUtils
         try
         {
             VPFTableReader tableReader = new VPFTableReader();
+            tableReader.setMemoryMapped(memoryMapped);
             return tableReader.read(file);
         }
         catch (WWRuntimeException e)
@@ -207,13 +207,49 @@ public class Triangle
             throw new IllegalArgumentException(msg);
         }
 
+        Vec4 origin = line.getOrigin();
+        Vec4 dir = line.getDirection();
+
+        double t = intersectDistance(origin.x, origin.y, origin.z, dir.x, dir.y, dir.z,
+            vax, vay, vaz, vbx, vby, vbz, vcx, vcy, vcz);
+        if (t < 0)
+            return null;
+
+        return new Intersection(line.getPointAt(t), t, false);
+    }
+
+    /**
+     * Determines the distance along a line at which it intersects a triangle, without allocating any objects. The line
+     * and triangle are specified by individual coordinates. This is equivalent to {@link #intersect(Line, double,
+     * double, double, double, double, double, double, double, double)}, and is intended for callers that test many
+     * triangles.
+     *
+     * @param ox  the X coordinate of the line's origin.
+     * @param oy  the Y coordinate of the line's origin.
+     * @param oz  the Z coordinate of the line's origin.
+     * @param dx  the X coordinate of the line's direction.
+     * @param dy  the Y coordinate of the line's direction.
+     * @param dz  the Z coordinate of the line's direction.
+     * @param vax the X coordinate of the first vertex of the triangle.
+     * @param vay the Y coordinate of the first vertex of the triangle.
+     * @param vaz the Z coordinate of the first vertex of the triangle.
+     * @param vbx the X coordinate of the second vertex of the triangle.
+     * @param vby the Y coordinate of the second vertex of the triangle.
+     * @param vbz the Z coordinate of the second vertex of the triangle.
+     * @param vcx the X coordinate of the third vertex of the triangle.
+     * @param vcy the Y coordinate of the third vertex of the triangle.
+     * @param vcz the Z coordinate of the third vertex of the triangle.
+     *
+     * @return the intersection's distance from the line's origin, in multiples of the line's direction, or -1 if the
+     *         line does not intersect the triangle.
+     */
+    public static double intersectDistance(double ox, double oy, double oz, double dx, double dy, double dz,
+        double vax, double vay, double vaz, double vbx, double vby, double vbz, double vcx, double vcy, double vcz)
+    {
         // taken from Moller and Trumbore
         // http://www.cs.virginia.edu/~gfx/Courses/2003/ImageSynthesis/papers/Acceleration/
         // Fast%20MinimumStorage%20RayTriangle%20Intersection.pdf
 
-        Vec4 origin = line.getOrigin();
-        Vec4 dir = line.getDirection();
-
         // find vectors for two edges sharing Point a: vb - va and vc - va
         double edge1x = vbx - vax;
         double edge1y = vby - vay;
@@ -224,27 +260,27 @@ public class Triangle
         double edge2z = vcz - vaz;
 
         // Start calculating determinant. Compute cross product of line direction and edge2.
-        double pvecx = (dir.y * edge2z) - (dir.z * edge2y);
-        double pvecy = (dir.z * edge2x) - (dir.x * edge2z);
-        double pvecz = (dir.x * edge2y) - (dir.y * edge2x);
+        double pvecx = (dy * edge2z) - (dz * edge2y);
+        double pvecy = (dz * edge2x) - (dx * edge2z);
+        double pvecz = (dx * edge2y) - (dy * edge2x);
 
         // Get determinant.
         double det = edge1x * pvecx + edge1y * pvecy + edge1z * pvecz; // edge1 dot pvec
 
         if (det > -EPSILON && det < EPSILON) // If det is near zero, then ray lies on plane of triangle
-            return null;
+            return -1;
 
         double detInv = 1d / det;
 
         // Distance from vertA to ray origin: origin - va
-        double tvecx = origin.x - vax;
-        double tvecy = origin.y - vay;
-        double tvecz = origin.z - vaz;
+        double tvecx = ox - vax;
+        double tvecy = oy - vay;
+        double tvecz = oz - vaz;
 
         // Calculate u parameter and test bounds: 1/det * tvec dot pvec
         double u = detInv * (tvecx * pvecx + tvecy * pvecy + tvecz * pvecz);
         if (u < 0 || u > 1)
-            return null;
+            return -1;
 
         // Prepare to test v parameter: tvec cross edge1
         double qvecx = (tvecy * edge1z) - (tvecz * edge1y);
@@ -252,16 +288,13 @@ public class Triangle
         double qvecz = (tvecx * edge1y) - (tvecy * edge1x);
 
         // Calculate v parameter and test bounds: 1/det * dir dot qvec
-        double v = detInv * (dir.x * qvecx + dir.y * qvecy + dir.z * qvecz);
+        double v = detInv * (dx * qvecx + dy * qvecy + dz * qvecz);
         if (v < 0 || u + v > 1)
-            return null;
+            return -1;
 
         // Calculate the point of intersection on the line: t = 1/det * edge2 dot qvec;
         double t = detInv * (edge2x * qvecx + edge2y * qvecy + edge2z * qvecz);
-        if (t < 0)
-            return null;
-
-        return new Intersection(line.getPointAt(t), t, false);
+        return t >= 0 ? t : -1;
     }
 
     /**
@@ -241,6 +241,12 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         return new RequestTask(tile, this);
     }
 
+    @Override
+    protected Runnable createPrefetchTask(TextureTile tile)
+    {
+        return this.createRequestTask(tile);
+    }
+
     protected static class RequestTask implements Runnable, Comparable<RequestTask>
     {
         protected final BasicTiledImageLayer layer;
@@ -534,9 +540,25 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         if (!WorldWind.getLocalRetrievalService().isAvailable())
             return;
 
+        Retriever retriever = this.createLocalTextureRetriever(tile, postProcessor);
+        if (retriever != null)
+            WorldWind.getLocalRetrievalService().runRetriever(retriever, tile.getPriority());
+    }
+
+    /**
+     * Creates a retriever that reads a tile's texture from this layer's local retriever factory, {@link
+     * AVKey#RETRIEVER_FACTORY_LOCAL}, and passes them to a post-processor. The retriever is not started.
+     *
+     * @param tile          the tile to retrieve.
+     * @param postProcessor the post-processor to pass the retrieved texture to.
+     *
+     * @return the new retriever, or null if this layer has no local retriever factory.
+     */
+    protected Retriever createLocalTextureRetriever(TextureTile tile, DownloadPostProcessor postProcessor)
+    {
         RetrieverFactory retrieverFactory = (RetrieverFactory) this.getValue(AVKey.RETRIEVER_FACTORY_LOCAL);
         if (retrieverFactory == null)
-            return;
+            return null;
 
         AVListImpl avList = new AVListImpl();
         avList.setValue(AVKey.SECTOR, tile.getSector());
@@ -544,40 +566,56 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         avList.setValue(AVKey.HEIGHT, tile.getHeight());
         avList.setValue(AVKey.FILE_NAME, tile.getPath());
 
-        Retriever retriever = retrieverFactory.createRetriever(avList, postProcessor);
-
-        WorldWind.getLocalRetrievalService().runRetriever(retriever, tile.getPriority());
+        return retrieverFactory.createRetriever(avList, postProcessor);
     }
 
     protected void retrieveRemoteTexture(TextureTile tile, DownloadPostProcessor postProcessor)
+    {
+        if (!WorldWind.getRetrievalService().isAvailable())
+            return;
+
+        Retriever retriever = this.createRemoteTextureRetriever(tile, postProcessor);
+        if (retriever != null)
+            WorldWind.getRetrievalService().runRetriever(retriever, tile.getPriority());
+    }
+
+    /**
+     * Creates a retriever that downloads a tile's texture from this layer's remote source and passes it to a
+     * post-processor. The retriever is not started. This marks the tile absent if network retrieval is disabled or the
+     * tile's host is unavailable.
+     *
+     * @param tile          the tile to retrieve.
+     * @param postProcessor the post-processor to pass the retrieved texture to. If null, this creates one by calling
+     *                      {@link #createDownloadPostProcessor(TextureTile)}.
+     *
+     * @return the new retriever, or null if the tile cannot be retrieved.
+     */
+    protected Retriever createRemoteTextureRetriever(TextureTile tile, DownloadPostProcessor postProcessor)
     {
         if (!this.isNetworkRetrievalEnabled())
         {
             this.getLevels().markResourceAbsent(tile);
-            return;
+            return null;
         }
 
-        if (!WorldWind.getRetrievalService().isAvailable())
-            return;
-
         java.net.URL url;
         try
         {
             url = tile.getResourceURL();
             if (url == null)
-                return;
+                return null;
 
             if (WorldWind.getNetworkStatus().isHostUnavailable(url))
             {
                 this.getLevels().markResourceAbsent(tile);
-                return;
+                return null;
             }
         }
         catch (java.net.MalformedURLException e)
         {
             Logging.logger().log(java.util.logging.Level.SEVERE,
                 Logging.getMessage("layers.TextureLayer.ExceptionCreatingTextureUrl", tile), e);
-            return;
+            return null;
         }
 
         Retriever retriever;
@@ -589,7 +627,7 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         {
             Logging.logger().severe(
                 Logging.getMessage("layers.TextureLayer.UnknownRetrievalProtocol", url.toString()));
-            return;
+            return null;
         }
         retriever.setValue(URLRetriever.EXTRACT_ZIP_ENTRY, "true"); // supports legacy layers
 
@@ -604,7 +642,7 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         if (srl != null && srl > 0)
             retriever.setStaleRequestLimit(srl);
 
-        WorldWind.getRetrievalService().runRetriever(retriever, tile.getPriority());
+        return retriever;
     }
 
     protected DownloadPostProcessor createDownloadPostProcessor(TextureTile tile)
@@ -6,7 +6,6 @@
 
 package gov.nasa.worldwind.layers;
 
-import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.cache.FileStore;
 import gov.nasa.worldwind.event.*;
@@ -16,7 +15,6 @@ import gov.nasa.worldwind.util.*;
 
 import java.io.*;
 import java.net.URL;
-import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -30,12 +28,10 @@ import java.util.*;
  */
 public class BasicTiledImageLayerBulkDownloader extends BulkRetrievalThread
 {
-    protected final static int MAX_TILE_COUNT_PER_REGION = 200;
     protected final static long DEFAULT_AVERAGE_FILE_SIZE = 350000L;
 
     protected final BasicTiledImageLayer layer;
     protected final int level;
-    protected ArrayList<TextureTile> missingTiles;
 
     /**
      * Constructs a downloader to retrieve imagery not currently available in the World Wind file cache.
@@ -91,34 +87,18 @@ public class BasicTiledImageLayerBulkDownloader extends BulkRetrievalThread
             this.progress.setTotalCount(this.estimateMissingTilesCount(20));
             this.progress.setTotalSize(this.progress.getTotalCount() * estimateAverageTileSize());
 
-            // Determine and request missing tiles by level/region
-            for (int levelNumber = 0; levelNumber <= this.level; levelNumber++)
-            {
-                if (this.layer.getLevels().isLevelEmpty(levelNumber))
-                    continue;
+            // Determine and retrieve missing tiles by level and row
+            BulkTileSeeder seeder = this.createSeeder();
+            seeder.seed();
 
-                int div = this.computeRegionDivisions(this.sector, levelNumber, MAX_TILE_COUNT_PER_REGION);
-                Iterator<Sector> regionsIterator = this.getRegionIterator(this.sector, div);
-                
-                Sector region;
-                while (regionsIterator.hasNext())
-                {
-                    region = regionsIterator.next();
-                    // Determine missing tiles
-                    this.missingTiles = getMissingTilesInSector(region, levelNumber);
-
-                    // Submit missing tiles requests at intervals
-                    while (this.missingTiles.size() > 0)
-                    {
-                        submitMissingTilesRequests();
-                        if (this.missingTiles.size() > 0)
-                            Thread.sleep(RETRIEVAL_SERVICE_POLL_DELAY);
-                    }
-                }
-            }
             // Set progress to 100%
             this.progress.setTotalCount(this.progress.getCurrentCount());
             this.progress.setTotalSize(this.progress.getCurrentSize());
+
+            Logging.logger().info(Logging.getMessage("generic.BulkRetrievalCompleted", this.layer.getName(),
+                seeder.getNumRetrievedTiles(), seeder.getNumBytes(), seeder.getElapsedTime() / 1000d,
+                seeder.getTilesPerSecond(), seeder.getBytesPerSecond(), seeder.getNumLocalTiles(),
+                seeder.getNumAbsentTiles(), seeder.getNumFailedTiles()));
         }
         catch (InterruptedException e)
         {
@@ -133,95 +113,86 @@ public class BasicTiledImageLayerBulkDownloader extends BulkRetrievalThread
         }
     }
 
-//    protected int countMissingTiles() throws InterruptedException
-//    {
-//        int count = 0;
-//        for (int levelNumber = 0; levelNumber <= this.level; levelNumber++)
-//        {
-//            if (this.layer.getLevels().isLevelEmpty(levelNumber))
-//                continue;
-//
-//            count += getMissingTilesInSector(this.sector, levelNumber).size();
-//        }
-//
-//        return count;
-//    }
-
-    protected synchronized void submitMissingTilesRequests() throws InterruptedException
+    protected BulkTileSeeder createSeeder()
     {
-        RetrievalService rs = WorldWind.getRetrievalService();
-        int i = 0;
-        while (this.missingTiles.size() > i && rs.isAvailable())
-        {
-            Thread.sleep(1); // generates InterruptedException if thread has been interrupted
+        return new Seeder(this.sector, this.level, this.fileStore);
+    }
 
-            TextureTile tile = this.missingTiles.get(i);
+    /** Seeds this downloader's file store with the layer's tiles, and reports each tile's outcome to the downloader. */
+    protected class Seeder extends BulkTileSeeder
+    {
+        public Seeder(Sector sector, int maxLevel, FileStore fileStore)
+        {
+            super(layer.getLevels(), sector, maxLevel, fileStore);
+        }
 
-            if (this.layer.getLevels().isResourceAbsent(tile))
-            {
-                removeAbsentTile(tile);  // tile is absent, count it off.
-                continue;
-            }
+        @Override
+        protected Tile createTile(Sector sector, Level level, int row, int column)
+        {
+            return new TextureTile(sector, level, row, column);
+        }
 
-            URL url = this.fileStore.findFile(tile.getPath(), false);
-            if (url != null)
-            {
-                // tile has been retrieved and is local now, count it as retrieved.
-                removeRetrievedTile(tile);
-                continue;
-            }
+        @Override
+        protected Retriever createRetriever(Tile tile)
+        {
+            BasicTiledImageLayer.DownloadPostProcessor postProcessor =
+                createBulkDownloadPostProcessor((TextureTile) tile);
 
-            this.layer.retrieveRemoteTexture(tile, createBulkDownloadPostProcessor(tile));
-            i++;
+            if (layer.getValue(AVKey.RETRIEVER_FACTORY_LOCAL) != null)
+                return layer.createLocalTextureRetriever((TextureTile) tile, postProcessor);
+            else
+                return layer.createRemoteTextureRetriever((TextureTile) tile, postProcessor);
         }
-    }
 
-    protected BasicTiledImageLayer.DownloadPostProcessor createBulkDownloadPostProcessor(TextureTile tile)
-    {
-        return new BulkDownloadPostProcessor(tile, this.layer, this.fileStore);
-    }
-
-    protected class BulkDownloadPostProcessor extends BasicTiledImageLayer.DownloadPostProcessor
-    {
-        public BulkDownloadPostProcessor(TextureTile tile, BasicTiledImageLayer layer, FileStore fileStore)
+        @Override
+        protected void tileRetrieved(Tile tile, Retriever retriever, long size)
         {
-            super(tile, layer, fileStore);
+            removeRetrievedTile((TextureTile) tile, size);
+
+            if (hasRetrievalListeners())
+                callRetrievalListeners(retriever, (TextureTile) tile);
         }
 
-        public ByteBuffer run(Retriever retriever)
+        @Override
+        protected void tileAbsent(Tile tile, Retriever retriever)
         {
-            ByteBuffer buffer = super.run(retriever);
+            removeAbsentTile((TextureTile) tile);
 
-            if (retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
-                removeRetrievedTile(this.tile);
+            if (retriever != null && hasRetrievalListeners())
+                callRetrievalListeners(retriever, (TextureTile) tile);
+        }
 
+        @Override
+        protected void tileFailed(Tile tile, Retriever retriever)
+        {
             if (hasRetrievalListeners())
-                callRetrievalListeners(retriever, this.tile);
-
-            return buffer;
+                callRetrievalListeners(retriever, (TextureTile) tile);
         }
     }
 
+    protected BasicTiledImageLayer.DownloadPostProcessor createBulkDownloadPostProcessor(TextureTile tile)
+    {
+        return new BasicTiledImageLayer.DownloadPostProcessor(tile, this.layer, this.fileStore);
+    }
+
     protected void callRetrievalListeners(Retriever retriever, TextureTile tile)
     {
-        String eventType = (retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
+        String eventType = (retriever != null && retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
             ? BulkRetrievalEvent.RETRIEVAL_SUCCEEDED : BulkRetrievalEvent.RETRIEVAL_FAILED;
         super.callRetrievalListeners(new BulkRetrievalEvent(this.layer, eventType, tile.getPath()));
     }
 
-    protected synchronized void removeRetrievedTile(TextureTile tile)
+    protected synchronized void removeRetrievedTile(TextureTile tile, long size)
     {
-        this.missingTiles.remove(tile);
         // Update progress
         this.progress.setCurrentCount(this.progress.getCurrentCount() + 1);
-        this.progress.setCurrentSize(this.progress.getCurrentSize() + estimateAverageTileSize());
+        this.progress.setCurrentSize(this.progress.getCurrentSize() + size);
         this.progress.setLastUpdateTime(System.currentTimeMillis());
         this.normalizeProgress();
     }
 
     protected synchronized void removeAbsentTile(TextureTile tile)
     {
-        this.missingTiles.remove(tile);
         // Decrease progress expected total count and size
         this.progress.setTotalCount(this.progress.getTotalCount() - 1);
         this.progress.setTotalSize(this.progress.getTotalSize() - estimateAverageTileSize());
@@ -385,10 +356,11 @@ public class BasicTiledImageLayerBulkDownloader extends BulkRetrievalThread
         TextureTile[][] tileArray = this.layer.getTilesInSector(sector, levelNumber);
         for (TextureTile[] row : tileArray)
         {
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedException();
+
             for (TextureTile tile : row)
             {
-                Thread.sleep(1); // generates InterruptedException if thread has been interrupted
-
                 if (tile == null)
                     continue;
 
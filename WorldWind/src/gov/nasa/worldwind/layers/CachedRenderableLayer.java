@@ -13,7 +13,7 @@ import gov.nasa.worldwind.render.*;
 import gov.nasa.worldwind.util.*;
 
 import javax.media.opengl.GL;
-import java.util.Collection;
+import java.util.*;
 
 /**
  * Holds a collection of Renderables and manages local caching of them. Provides searching for Renderables by sector,
@@ -30,6 +30,9 @@ public class CachedRenderableLayer extends AbstractLayer
 
     protected BasicQuadTree<Renderable> extentTree; // this is used until we work out the caching and retrieval scheme
     protected PickSupport pickSupport = new PickSupport();
+    /** The Renderables intersecting the visible terrain of the current frame. Reused every frame. */
+    protected Set<Renderable> visibleRenderables = new LinkedHashSet<Renderable>();
+    protected long visibleRenderablesFrameTime = -1;
 
     /**
      * Constructs a layer instance.
@@ -229,21 +232,47 @@ public class CachedRenderableLayer extends AbstractLayer
         }
 
         this.extentTree.clear();
+        this.visibleRenderables.clear();
+        this.visibleRenderablesFrameTime = -1;
+    }
+
+    /**
+     * Returns the Renderables intersecting the visible terrain of the current frame, as found by the layer's extent
+     * tree. Each Renderable is returned once, even if it spans several cells of the tree.
+     *
+     * @param dc the current draw context.
+     *
+     * @return the visible Renderables.
+     */
+    protected Iterable<? extends Renderable> getVisibleRenderables(DrawContext dc)
+    {
+        if (dc.getSurfaceGeometry() == null)
+            return this.getAllRenderables();
+
+        // Pre-rendering, picking and rendering of the same frame visit the same renderables.
+        if (this.visibleRenderablesFrameTime != dc.getFrameTimeStamp())
+        {
+            this.visibleRenderables.clear();
+            this.extentTree.getItemsInRegions(dc.getSurfaceGeometry(), this.visibleRenderables);
+            this.visibleRenderablesFrameTime = dc.getFrameTimeStamp();
+        }
+
+        return this.visibleRenderables;
     }
 
     protected void doPreRender(DrawContext dc)
     {
-        this.doPreRender(dc, this.getAllRenderables());
+        this.doPreRender(dc, this.getVisibleRenderables(dc));
     }
 
     protected void doPick(DrawContext dc, java.awt.Point pickPoint)
     {
-        this.doPick(dc, this.getAllRenderables(), pickPoint);
+        this.doPick(dc, this.getVisibleRenderables(dc), pickPoint);
     }
 
     protected void doRender(DrawContext dc)
     {
-        this.doRender(dc, this.getAllRenderables());
+        this.doRender(dc, this.getVisibleRenderables(dc));
     }
 
     protected void doPreRender(DrawContext dc, Iterable<? extends Renderable> renderables)
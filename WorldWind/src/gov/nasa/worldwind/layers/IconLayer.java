@@ -415,6 +415,32 @@ public class IconLayer extends AbstractLayer
         this.iconRenderer.setAllowBatchPicking(allowBatchPicking);
     }
 
+    /**
+     * Indicates whether icons are picked from the screen rectangles they occupied in the previous frame rather than by
+     * drawing them in unique pick colors.
+     *
+     * @return true if screen picking is enabled, otherwise false.
+     *
+     * @see #setScreenPickingEnabled(boolean)
+     */
+    public boolean isScreenPickingEnabled()
+    {
+        return this.iconRenderer.isScreenPickingEnabled();
+    }
+
+    /**
+     * Specifies whether icons are picked from the screen rectangles they occupied in the previous frame rather than by
+     * drawing them in unique pick colors. Screen picking is much faster for layers with many icons, but does not
+     * consider transparent parts of icon images or terrain occluding icons. See {@link
+     * gov.nasa.worldwind.render.IconRenderer#setScreenPickingEnabled(boolean)}. The default value is false.
+     *
+     * @param screenPickingEnabled true if screen picking is enabled, otherwise false.
+     */
+    public void setScreenPickingEnabled(boolean screenPickingEnabled)
+    {
+        this.iconRenderer.setScreenPickingEnabled(screenPickingEnabled);
+    }
+
     @Override
     protected void doPick(DrawContext dc, java.awt.Point pickPoint)
     {
@@ -8,12 +8,14 @@ package gov.nasa.worldwind.layers;
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVList;
 import gov.nasa.worldwind.event.*;
+import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.pick.PickSupport;
 import gov.nasa.worldwind.render.*;
-import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.terrain.*;
+import gov.nasa.worldwind.util.*;
 
-import java.util.Collection;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * The <code>RenderableLayer</code> class manages a collection of {@link gov.nasa.worldwind.render.Renderable} objects
@@ -28,6 +30,14 @@ public class RenderableLayer extends AbstractLayer
     protected Collection<Renderable> renderables = new ConcurrentLinkedQueue<Renderable>();
     protected Iterable<Renderable> renderablesOverride;
     protected PickSupport pickSupport = new PickSupport();
+    /** Spatial index of the internal renderables, or null if visibility culling is disabled. */
+    protected SectorGridIndex<Renderable> spatialIndex;
+    /** Renderables whose extent must be computed, or computed again, before the next frame is drawn. */
+    protected Set<Renderable> renderablesToLocate =
+        Collections.newSetFromMap(new ConcurrentHashMap<Renderable, Boolean>());
+    /** The renderables intersecting the visible terrain of the current frame. Reused every frame. */
+    protected ArrayList<Renderable> visibleRenderables = new ArrayList<Renderable>();
+    protected long visibleRenderablesFrameTime = -1;
 
     /** Creates a new <code>RenderableLayer</code> with a null <code>delegateOwner</code> */
     public RenderableLayer()
@@ -65,6 +75,7 @@ public class RenderableLayer extends AbstractLayer
         }
 
         this.renderables.add(renderable);
+        this.addToSpatialIndex(renderable);
 
         // Attach the layer as a property change listener of the renderable. This forwards property change events from
         // the renderable to the SceneController.
@@ -107,7 +118,10 @@ public class RenderableLayer extends AbstractLayer
         {
             // Internal list of renderables does not accept null values.
             if (renderable != null)
+            {
                 this.renderables.add(renderable);
+                this.addToSpatialIndex(renderable);
+            }
 
             // Attach the layer as a property change listener of the renderable. This forwards property change events
             // from the renderable to the SceneController.
@@ -148,6 +162,8 @@ public class RenderableLayer extends AbstractLayer
         }
 
         this.renderables.remove(renderable);
+        if (this.spatialIndex != null)
+            this.spatialIndex.remove(renderable);
 
         // Remove the layer as a property change listener of the renderable. This prevents the renderable from keeping a
         // dangling reference to the layer.
@@ -192,6 +208,12 @@ public class RenderableLayer extends AbstractLayer
 
             this.renderables.clear();
         }
+
+        if (this.spatialIndex != null)
+            this.spatialIndex.clear();
+        this.renderablesToLocate.clear();
+        this.visibleRenderables.clear();
+        this.visibleRenderablesFrameTime = -1;
     }
 
     public int getNumRenderables()
@@ -277,6 +299,234 @@ public class RenderableLayer extends AbstractLayer
         this.clearRenderables();
     }
 
+    /**
+     * Indicates whether the layer only visits the renderables whose extent intersects the visible terrain. See {@link
+     * #setVisibilityCullingEnabled(boolean)}.
+     *
+     * @return true if the layer culls renderables that are not visible, otherwise false.
+     */
+    public boolean isVisibilityCullingEnabled()
+    {
+        return this.spatialIndex != null;
+    }
+
+    /**
+     * Specifies whether the layer only visits the renderables whose extent intersects the visible terrain. When
+     * enabled, the layer keeps its internal renderables in a spatial index and queries it with the sectors of the
+     * frame's terrain geometry, so the cost of a frame is proportional to the number of visible renderables rather than
+     * to the number of renderables in the layer. This is intended for layers holding many renderables, most of which
+     * are off screen.
+     * <p/>
+     * The extent of a renderable is its sector if it implements {@link GeographicExtent} or {@link SurfaceObject}, or
+     * its position if it implements {@link Locatable}. Other renderables are always visited, and the renderables are
+     * always visited in the order they were added. The extent is computed when the renderable is added, and again
+     * before the next frame whenever the renderable sends the layer a property change event. Many renderables do not
+     * send an event when they move or change shape; such a renderable stays indexed at its former extent, and may be
+     * culled at its new one, until {@link #updateRenderable(gov.nasa.worldwind.render.Renderable)} is called for it.
+     * Renderables that are visible above the horizon although the terrain beneath them is not, such as tall shapes or placemarks at high
+     * altitude, may be culled too early; leave culling disabled for layers of such renderables.
+     * <p/>
+     * Visibility culling has no effect while the layer uses a custom Iterable specified by {@link
+     * #setRenderables(Iterable)}. It is disabled by default.
+     *
+     * @param enabled true to cull renderables that are not visible, otherwise false.
+     */
+    public void setVisibilityCullingEnabled(boolean enabled)
+    {
+        if (enabled == this.isVisibilityCullingEnabled())
+            return;
+
+        this.renderablesToLocate.clear();
+        this.visibleRenderables.clear();
+        this.visibleRenderablesFrameTime = -1;
+
+        if (enabled)
+        {
+            this.spatialIndex = new SectorGridIndex<Renderable>();
+            for (Renderable renderable : this.renderables)
+            {
+                this.addToSpatialIndex(renderable);
+            }
+        }
+        else
+        {
+            this.spatialIndex = null;
+        }
+    }
+
+    /**
+     * Indicates that the location or shape of one of this layer's renderables has changed. When visibility culling is
+     * enabled, the renderable's extent is computed again before the next frame. Otherwise this method does nothing.
+     *
+     * @param renderable the renderable that changed.
+     *
+     * @throws IllegalArgumentException If <code>renderable</code> is null.
+     */
+    public void updateRenderable(Renderable renderable)
+    {
+        if (renderable == null)
+        {
+            String msg = Logging.getMessage("nullValue.RenderableIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (this.spatialIndex != null)
+            this.renderablesToLocate.add(renderable);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * When visibility culling is enabled, an event sent by one of this layer's renderables also causes the
+     * renderable's extent to be computed again before the next frame, as if {@link
+     * #updateRenderable(gov.nasa.worldwind.render.Renderable)} had been called.
+     */
+    @Override
+    public void propertyChange(java.beans.PropertyChangeEvent propertyChangeEvent)
+    {
+        SectorGridIndex<Renderable> index = this.spatialIndex;
+        if (index != null && propertyChangeEvent != null && propertyChangeEvent.getSource() instanceof Renderable)
+        {
+            Renderable renderable = (Renderable) propertyChangeEvent.getSource();
+            if (index.contains(renderable))
+                this.renderablesToLocate.add(renderable);
+        }
+
+        super.propertyChange(propertyChangeEvent);
+    }
+
+    protected void addToSpatialIndex(Renderable renderable)
+    {
+        SectorGridIndex<Renderable> index = this.spatialIndex;
+        if (index == null)
+            return;
+
+        // Index the renderable at its extent right away when that needs no draw context, so adding many renderables
+        // doesn't leave them all to be moved out of the index's unlocated list on the next frame. Other extents are
+        // computed before the next frame; until then the renderable is visited every frame.
+        Sector sector = null;
+        try
+        {
+            sector = this.computeRenderableSector(null, renderable);
+        }
+        catch (Exception e)
+        {
+            Logging.logger().log(java.util.logging.Level.FINE, e.getMessage(), e);
+        }
+
+        index.add(renderable, sector);
+        if (sector == null && isLocatable(renderable))
+            this.renderablesToLocate.add(renderable);
+    }
+
+    /**
+     * Returns the renderables to visit in the current frame. If visibility culling is enabled, these are the renderables
+     * intersecting the visible terrain. Otherwise these are all active renderables.
+     *
+     * @param dc the current draw context.
+     *
+     * @return the renderables to visit, in the order they were added to the layer.
+     */
+    protected Iterable<? extends Renderable> getVisibleRenderables(DrawContext dc)
+    {
+        SectorGeometryList sgl = dc.getSurfaceGeometry();
+        if (this.spatialIndex == null || this.renderablesOverride != null || sgl == null)
+            return this.getActiveRenderables();
+
+        // Pre-rendering, picking and rendering of the same frame visit the same renderables.
+        if (this.visibleRenderablesFrameTime == dc.getFrameTimeStamp())
+            return this.visibleRenderables;
+
+        this.locateRenderables(dc);
+
+        ArrayList<Sector> sectors = new ArrayList<Sector>(sgl.size());
+        for (SectorGeometry sg : sgl)
+        {
+            sectors.add(sg.getSector());
+        }
+
+        this.visibleRenderables.clear();
+        this.spatialIndex.getItemsInRegions(sectors, this.visibleRenderables);
+        this.visibleRenderablesFrameTime = dc.getFrameTimeStamp();
+
+        return this.visibleRenderables;
+    }
+
+    protected void locateRenderables(DrawContext dc)
+    {
+        ArrayList<Renderable> retry = null;
+
+        for (Iterator<Renderable> iter = this.renderablesToLocate.iterator(); iter.hasNext(); )
+        {
+            Renderable renderable = iter.next();
+            iter.remove();
+
+            Sector sector = null;
+            try
+            {
+                sector = this.computeRenderableSector(dc, renderable);
+            }
+            catch (Exception e)
+            {
+                Logging.logger().log(java.util.logging.Level.FINE, e.getMessage(), e);
+            }
+
+            if (!this.spatialIndex.update(renderable, sector))
+                continue; // removed from the layer
+
+            // A shape may not know its extent until it has been rendered once; try again next frame.
+            if (sector == null && isLocatable(renderable))
+            {
+                if (retry == null)
+                    retry = new ArrayList<Renderable>();
+                retry.add(renderable);
+            }
+        }
+
+        if (retry != null)
+            this.renderablesToLocate.addAll(retry);
+    }
+
+    protected static boolean isLocatable(Renderable renderable)
+    {
+        return renderable instanceof GeographicExtent || renderable instanceof SurfaceObject
+            || renderable instanceof Locatable;
+    }
+
+    /**
+     * Computes the geographic extent of a renderable for the spatial index.
+     *
+     * @param dc         the current draw context, or null if there is none. Without a draw context the extent of a
+     *                   {@link SurfaceObject} is not known.
+     * @param renderable the renderable.
+     *
+     * @return the renderable's extent, or null if it is not known.
+     */
+    protected Sector computeRenderableSector(DrawContext dc, Renderable renderable)
+    {
+        if (renderable instanceof GeographicExtent)
+            return ((GeographicExtent) renderable).getSector();
+
+        if (renderable instanceof SurfaceObject)
+        {
+            if (dc == null)
+                return null;
+
+            List<Sector> sectors = ((SurfaceObject) renderable).getSectors(dc);
+            return (sectors != null && sectors.size() > 0) ? Sector.union(sectors) : null;
+        }
+
+        if (renderable instanceof Locatable)
+        {
+            Position position = ((Locatable) renderable).getPosition();
+            return position != null ? new Sector(position.getLatitude(), position.getLatitude(),
+                position.getLongitude(), position.getLongitude()) : null;
+        }
+
+        return null;
+    }
+
     /**
      * Opacity is not applied to layers of this type because each renderable typically has its own opacity control.
      *
@@ -353,17 +603,17 @@ public class RenderableLayer extends AbstractLayer
 
     protected void doPreRender(DrawContext dc)
     {
-        this.doPreRender(dc, this.getActiveRenderables());
+        this.doPreRender(dc, this.getVisibleRenderables(dc));
     }
 
     protected void doPick(DrawContext dc, java.awt.Point pickPoint)
     {
-        this.doPick(dc, this.getActiveRenderables(), pickPoint);
+        this.doPick(dc, this.getVisibleRenderables(dc), pickPoint);
     }
 
     protected void doRender(DrawContext dc)
     {
-        this.doRender(dc, this.getActiveRenderables());
+        this.doRender(dc, this.getVisibleRenderables(dc));
     }
 
     protected void doPreRender(DrawContext dc, Iterable<? extends Renderable> renderables)
@@ -14,6 +14,7 @@ import gov.nasa.worldwind.globes.Earth;
 import gov.nasa.worldwind.render.*;
 import gov.nasa.worldwind.retrieve.*;
 import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
 import org.w3c.dom.*;
 
 import javax.imageio.ImageIO;
@@ -29,7 +30,7 @@ import java.util.concurrent.PriorityBlockingQueue;
  * @author tag
  * @version $Id$
  */
-public abstract class TiledImageLayer extends AbstractLayer
+public abstract class TiledImageLayer extends AbstractLayer implements Prefetchable
 {
     // Infrastructure
     protected static final LevelComparer levelComparer = new LevelComparer();
@@ -486,17 +487,21 @@ public abstract class TiledImageLayer extends AbstractLayer
     }
 
     protected boolean needToSplit(DrawContext dc, Sector sector, Level level)
+    {
+        return this.needToSplit(dc, sector, level, dc.getView().getEyePoint());
+    }
+
+    protected boolean needToSplit(DrawContext dc, Sector sector, Level level, Vec4 eyePoint)
     {
         Vec4[] corners = sector.computeCornerPoints(dc.getGlobe(), dc.getVerticalExaggeration());
         Vec4 centerPoint = sector.computeCenterPoint(dc.getGlobe(), dc.getVerticalExaggeration());
 
         // Get the eye distance for each of the sector's corners and its center.
-        View view = dc.getView();
-        double d1 = view.getEyePoint().distanceTo3(corners[0]);
-        double d2 = view.getEyePoint().distanceTo3(corners[1]);
-        double d3 = view.getEyePoint().distanceTo3(corners[2]);
-        double d4 = view.getEyePoint().distanceTo3(corners[3]);
-        double d5 = view.getEyePoint().distanceTo3(centerPoint);
+        double d1 = eyePoint.distanceTo3(corners[0]);
+        double d2 = eyePoint.distanceTo3(corners[1]);
+        double d3 = eyePoint.distanceTo3(corners[2]);
+        double d4 = eyePoint.distanceTo3(corners[3]);
+        double d5 = eyePoint.distanceTo3(centerPoint);
 
         // Find the minimum eye distance. Compute cell height at the corresponding point.
         double minDistance = d1;
@@ -587,6 +592,101 @@ public abstract class TiledImageLayer extends AbstractLayer
         return this.needToSplit(dc, centerSector, nextToLast);
     }
 
+    // ============== Prefetching ======================= //
+    // ============== Prefetching ======================= //
+    // ============== Prefetching ======================= //
+
+    /**
+     * Requests the textures of the tiles this layer would draw from the view's predicted eye point, within the region
+     * the view is predicted to show. Tiles nearest the predicted eye point are requested first. Layers that don't
+     * provide a prefetch task, see {@link #createPrefetchTask(TextureTile)}, request nothing.
+     *
+     * @param dc          the current draw context.
+     * @param predictor   the view's motion predictor.
+     * @param maxRequests the maximum number of requests to issue.
+     *
+     * @return the number of requests issued.
+     */
+    public int prefetch(DrawContext dc, ViewMotionPredictor predictor, int maxRequests)
+    {
+        if (maxRequests <= 0 || !this.isEnabled())
+            return 0;
+
+        final Vec4 eyePoint = predictor.getPredictedEyePoint();
+        Sector region = predictor.getPredictedSector(dc.getGlobe());
+        if (eyePoint == null || region == null || !region.intersects(this.levels.getSector()))
+            return 0;
+
+        List<TextureTile> tiles = new ArrayList<TextureTile>();
+        for (TextureTile tile : this.getTopLevels())
+        {
+            if (tile.getSector().intersects(region))
+                this.addPrefetchTiles(dc, tile, eyePoint, region, tiles);
+        }
+
+        for (TextureTile tile : tiles)
+        {
+            tile.setPriority(tile.getCentroidPoint(dc.getGlobe()).distanceTo3(eyePoint));
+        }
+        Collections.sort(tiles, new Comparator<TextureTile>()
+        {
+            public int compare(TextureTile ta, TextureTile tb)
+            {
+                return Double.compare(ta.getPriority(), tb.getPriority());
+            }
+        });
+
+        int numRequests = 0;
+        for (TextureTile tile : tiles)
+        {
+            if (numRequests >= maxRequests || WorldWind.getTaskService().isFull())
+                break;
+
+            Runnable task = this.createPrefetchTask(tile);
+            if (task == null)
+                break;
+
+            WorldWind.getTaskService().addTask(new PrefetchTask(task, predictor));
+            numRequests++;
+        }
+
+        return numRequests;
+    }
+
+    protected void addPrefetchTiles(DrawContext dc, TextureTile tile, Vec4 eyePoint, Sector region,
+        List<TextureTile> tiles)
+    {
+        if (this.levels.isFinalLevel(tile.getLevelNumber())
+            || !this.needToSplit(dc, tile.getSector(), tile.getLevel(), eyePoint))
+        {
+            if (!tile.getLevel().isEmpty() && !this.levels.isResourceAbsent(tile)
+                && !tile.isTextureInMemory(dc.getTextureCache()))
+                tiles.add(tile);
+            return;
+        }
+
+        TextureTile[] subTiles = tile.createSubTiles(this.levels.getLevel(tile.getLevelNumber() + 1));
+        for (TextureTile child : subTiles)
+        {
+            if (this.levels.getSector().intersects(child.getSector()) && region.intersects(child.getSector()))
+                this.addPrefetchTiles(dc, child, eyePoint, region, tiles);
+        }
+    }
+
+    /**
+     * Creates the task that loads or retrieves a tile's texture when the tile is prefetched. The task is run only if
+     * the view's motion hasn't changed by the time it's dequeued. This implementation returns null, which disables
+     * prefetching for this layer.
+     *
+     * @param tile the tile to prefetch.
+     *
+     * @return the prefetch task, or null if this layer does not prefetch tiles.
+     */
+    protected Runnable createPrefetchTask(TextureTile tile)
+    {
+        return null;
+    }
+
     // ============== Rendering ======================= //
     // ============== Rendering ======================= //
     // ============== Rendering ======================= //
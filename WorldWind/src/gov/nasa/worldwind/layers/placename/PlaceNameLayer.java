@@ -9,6 +9,7 @@ import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.event.BulkRetrievalListener;
+import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.AbstractLayer;
 import gov.nasa.worldwind.render.*;
@@ -32,6 +33,7 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
     protected Vec4 referencePoint;
     protected final Object fileLock = new Object();
     protected boolean cullNames = false;
+    protected boolean compactCacheEnabled = true;
 
     protected static final double LEVEL_A = 0x1 << 25;
     protected static final double LEVEL_B = 0x1 << 24;
@@ -108,6 +110,30 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         placeNameRenderer.setCullTextEnabled(cullNames);
     }
 
+    /**
+     * Indicates whether place name tiles are saved in a compact binary form after they are first parsed. See {@link
+     * #setCompactCacheEnabled(boolean)}.
+     *
+     * @return true if the compact cache is enabled, otherwise false.
+     */
+    public boolean isCompactCacheEnabled()
+    {
+        return this.compactCacheEnabled;
+    }
+
+    /**
+     * Specifies whether place name tiles are saved in a compact binary form after they are first parsed. When enabled,
+     * each downloaded GML tile is parsed once, and later loads of the tile read its packed coordinates and text from
+     * the compact file instead. The compact file is kept beside the downloaded tile in the file store, and is ignored if
+     * the tile has been downloaded again since it was written. The default is true.
+     *
+     * @param compactCacheEnabled true to enable the compact cache, otherwise false.
+     */
+    public void setCompactCacheEnabled(boolean compactCacheEnabled)
+    {
+        this.compactCacheEnabled = compactCacheEnabled;
+    }
+
     public final PlaceNameServiceSet getPlaceNameServiceSet()
     {
         return this.placeNameServiceSet;
@@ -444,6 +470,9 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
 
     protected static class PlaceNameChunk implements Cacheable
     {
+        protected static final int COMPACT_MAGIC = 0x504E4331; // "PNC1"
+        protected static final int COMPACT_HEADER_SIZE = 3 * (Integer.SIZE / 8);
+
         protected final PlaceNameService placeNameService;
         protected final CharBuffer textArray;
         protected final int[] textIndexArray;
@@ -462,6 +491,70 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
             this.estimatedMemorySize = this.computeEstimatedMemorySize();
         }
 
+        /**
+         * Returns this chunk's entries in the compact binary form read by {@link #fromCompactBuffer(PlaceNameService,
+         * ByteBuffer)}. The form consists of a magic number, the entry and character counts, each entry's text index,
+         * each entry's latitude and longitude in degrees, and finally the entries' text.
+         *
+         * @return a buffer holding the compact form of this chunk, positioned at zero.
+         */
+        protected ByteBuffer toCompactBuffer()
+        {
+            int numChars = this.textArray.limit();
+            ByteBuffer buffer = ByteBuffer.allocate(COMPACT_HEADER_SIZE
+                + (Integer.SIZE / 8) * this.numEntries
+                + (Double.SIZE / 8) * 2 * this.numEntries
+                + (Character.SIZE / 8) * numChars);
+
+            buffer.putInt(COMPACT_MAGIC);
+            buffer.putInt(this.numEntries);
+            buffer.putInt(numChars);
+            buffer.asIntBuffer().put(this.textIndexArray, 0, this.numEntries);
+            buffer.position(buffer.position() + (Integer.SIZE / 8) * this.numEntries);
+            buffer.asDoubleBuffer().put(this.latlonArray, 0, 2 * this.numEntries);
+            buffer.position(buffer.position() + (Double.SIZE / 8) * 2 * this.numEntries);
+            CharBuffer text = this.textArray.duplicate();
+            text.position(0);
+            buffer.asCharBuffer().put(text);
+
+            buffer.rewind();
+            return buffer;
+        }
+
+        /**
+         * Creates a chunk from its compact binary form. See {@link #toCompactBuffer()}.
+         *
+         * @param service the chunk's place name service.
+         * @param buffer  the compact form of the chunk.
+         *
+         * @return a new chunk, or null if the buffer does not hold a valid compact chunk.
+         */
+        protected static PlaceNameChunk fromCompactBuffer(PlaceNameService service, ByteBuffer buffer)
+        {
+            if (buffer.remaining() < COMPACT_HEADER_SIZE || buffer.getInt() != COMPACT_MAGIC)
+                return null;
+
+            int numEntries = buffer.getInt();
+            int numChars = buffer.getInt();
+            if (numEntries < 0 || numChars < 0 || buffer.remaining() != (Integer.SIZE / 8) * numEntries
+                + (Double.SIZE / 8) * 2 * numEntries + (Character.SIZE / 8) * numChars)
+                return null;
+
+            int[] textIndices = new int[numEntries];
+            buffer.asIntBuffer().get(textIndices);
+            buffer.position(buffer.position() + (Integer.SIZE / 8) * numEntries);
+
+            double[] positions = new double[2 * numEntries];
+            buffer.asDoubleBuffer().get(positions);
+            buffer.position(buffer.position() + (Double.SIZE / 8) * 2 * numEntries);
+
+            CharBuffer text = newCharBuffer(numChars);
+            text.put(buffer.asCharBuffer());
+            text.rewind();
+
+            return new PlaceNameChunk(service, text, textIndices, positions, numEntries);
+        }
+
         protected long computeEstimatedMemorySize()
         {
             long result = 0;
@@ -802,6 +895,7 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         {
             // The file has expired. Delete it then request download of newer.
             this.getDataFileStore().removeFile(url);
+            this.removeCompactTileData(tile);
             String message = Logging.getMessage("generic.DataFileExpired", url);
             Logging.logger().fine(message);
             return false;
@@ -810,13 +904,20 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         PlaceNameChunk tileData;
         synchronized (this.fileLock)
         {
-            tileData = readTileData(tile, url);
+            tileData = this.isCompactCacheEnabled() ? this.readCompactTileData(tile, url) : null;
+            if (tileData == null)
+            {
+                tileData = readTileData(tile, url);
+                if (tileData != null && this.isCompactCacheEnabled())
+                    this.writeCompactTileData(tile, tileData);
+            }
         }
 
         if (tileData == null)
         {
             // Assume that something's wrong with the file and delete it.
             this.getDataFileStore().removeFile(url);
+            this.removeCompactTileData(tile);
             tile.getPlaceNameService().markResourceAbsent(tile.getPlaceNameService().getTileNumber(tile.row,
                 tile.column));
             String message = Logging.getMessage("generic.DeletedCorruptDataFile", url);
@@ -829,6 +930,75 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         return true;
     }
 
+    protected static String getCompactFileCachePath(Tile tile)
+    {
+        String path = tile.getFileCachePath();
+        if (path.endsWith(GML_FILE_SUFFIX))
+            path = path.substring(0, path.length() - GML_FILE_SUFFIX.length());
+
+        return path + COMPACT_FILE_SUFFIX;
+    }
+
+    /**
+     * Reads a tile's compact binary form, if it was written after the tile's GML file was last downloaded.
+     *
+     * @param tile the tile to read.
+     * @param url  the location of the tile's GML file.
+     *
+     * @return the tile's data, or null if the tile has no current compact form.
+     */
+    protected PlaceNameChunk readCompactTileData(Tile tile, java.net.URL url)
+    {
+        java.net.URL compactURL = this.getDataFileStore().findFile(getCompactFileCachePath(tile), false);
+        if (compactURL == null)
+            return null;
+
+        File compactFile = WWIO.convertURLToFile(compactURL);
+        File file = WWIO.convertURLToFile(url);
+        if (compactFile == null || file == null || compactFile.lastModified() < file.lastModified())
+            return null;
+
+        try
+        {
+            ByteBuffer buffer = WWIO.readFileToBuffer(compactFile);
+            PlaceNameChunk chunk = PlaceNameChunk.fromCompactBuffer(tile.getPlaceNameService(), buffer);
+            if (chunk != null)
+                return chunk;
+        }
+        catch (Exception e)
+        {
+            Logging.logger().log(Level.FINE,
+                Logging.getMessage("layers.PlaceNameLayer.ExceptionAttemptingToReadFile", compactURL.toString()), e);
+        }
+
+        // The compact file is unreadable. Delete it, so it's written again from the GML file.
+        this.getDataFileStore().removeFile(compactURL);
+        return null;
+    }
+
+    protected void writeCompactTileData(Tile tile, PlaceNameChunk chunk)
+    {
+        File file = this.getDataFileStore().newFile(getCompactFileCachePath(tile));
+        if (file == null)
+            return;
+
+        try
+        {
+            WWIO.saveBuffer(chunk.toCompactBuffer(), file);
+        }
+        catch (Exception e)
+        {
+            Logging.logger().log(Level.FINE, Logging.getMessage("generic.ExceptionAttemptingToWriteTo", file), e);
+        }
+    }
+
+    protected void removeCompactTileData(Tile tile)
+    {
+        java.net.URL compactURL = this.getDataFileStore().findFile(getCompactFileCachePath(tile), false);
+        if (compactURL != null)
+            this.getDataFileStore().removeFile(compactURL);
+    }
+
     protected static PlaceNameChunk readTileData(Tile tile, java.net.URL url)
     {
         java.io.InputStream is = null;
@@ -842,9 +1012,20 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
             java.io.BufferedInputStream buf = new java.io.BufferedInputStream(fis);
             is = new java.util.zip.GZIPInputStream(buf);
 
-            GMLPlaceNameSAXHandler handler = new GMLPlaceNameSAXHandler();
-            javax.xml.parsers.SAXParserFactory.newInstance().newSAXParser().parse(is, handler);
-            return handler.createPlaceNameChunk(tile.getPlaceNameService());
+            // Parsers and handlers are reused by each loading thread. The handler keeps its scratch arrays between
+            // tiles, and the chunk receives copies trimmed to size.
+            javax.xml.parsers.SAXParser parser = saxParsers.get();
+            GMLPlaceNameSAXHandler handler = saxHandlers.get();
+            handler.reset();
+            try
+            {
+                parser.parse(is, handler);
+                return handler.createPlaceNameChunk(tile.getPlaceNameService());
+            }
+            finally
+            {
+                parser.reset();
+            }
         }
         catch (Exception e)
         {
@@ -869,6 +1050,35 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         return null;
     }
 
+    protected static final ThreadLocal<javax.xml.parsers.SAXParser> saxParsers =
+        new ThreadLocal<javax.xml.parsers.SAXParser>()
+        {
+            @Override
+            protected javax.xml.parsers.SAXParser initialValue()
+            {
+                try
+                {
+                    return javax.xml.parsers.SAXParserFactory.newInstance().newSAXParser();
+                }
+                catch (Exception e)
+                {
+                    throw new WWRuntimeException(e);
+                }
+            }
+        };
+
+    protected static final ThreadLocal<GMLPlaceNameSAXHandler> saxHandlers = new ThreadLocal<GMLPlaceNameSAXHandler>()
+    {
+        @Override
+        protected GMLPlaceNameSAXHandler initialValue()
+        {
+            return new GMLPlaceNameSAXHandler();
+        }
+    };
+
+    protected static final String GML_FILE_SUFFIX = ".xml.gz";
+    protected static final String COMPACT_FILE_SUFFIX = ".pnc";
+
     protected static CharBuffer newCharBuffer(int numElements)
     {
         ByteBuffer bb = ByteBuffer.allocateDirect((Character.SIZE / 8) * numElements);
@@ -896,13 +1106,29 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
         {
         }
 
+        protected void reset()
+        {
+            this.internedQNameStack.clear();
+            this.inBeginEndPair = false;
+            this.latBuffer.setLength(0);
+            this.lonBuffer.setLength(0);
+            this.textArray.setLength(0);
+            this.numEntries = 0;
+        }
+
         protected PlaceNameChunk createPlaceNameChunk(PlaceNameService service)
         {
             int numChars = this.textArray.length();
             CharBuffer textBuffer = newCharBuffer(numChars);
-            textBuffer.put(this.textArray.toString());
+            textBuffer.append(this.textArray);
             textBuffer.rewind();
-            return new PlaceNameChunk(service, textBuffer, this.textIndexArray, this.latlonArray, this.numEntries);
+
+            int[] textIndices = new int[this.numEntries];
+            System.arraycopy(this.textIndexArray, 0, textIndices, 0, this.numEntries);
+            double[] positions = new double[2 * this.numEntries];
+            System.arraycopy(this.latlonArray, 0, positions, 0, 2 * this.numEntries);
+
+            return new PlaceNameChunk(service, textBuffer, textIndices, positions, this.numEntries);
         }
 
         protected void beginEntry()
@@ -929,15 +1155,12 @@ public class PlaceNameLayer extends AbstractLayer implements BulkRetrievable
 
         protected double parseDouble(StringBuilder sb)
         {
-            double value = 0;
-            try
-            {
-                value = Double.parseDouble(sb.toString());
-            }
-            catch (NumberFormatException e)
+            double value = WWUtil.parseDouble(sb);
+            if (Double.isNaN(value))
             {
                 Logging.logger().log(Level.FINE,
-                    Logging.getMessage("layers.PlaceNameLayer.ExceptionAttemptingToReadFile", ""), e);
+                    Logging.getMessage("layers.PlaceNameLayer.ExceptionAttemptingToReadFile", sb));
+                return 0;
             }
             return value;
         }
@@ -6,6 +6,7 @@
 package gov.nasa.worldwind.layers.rpf;
 
 import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.formats.nitfs.NITFSImageSegment;
 import gov.nasa.worldwind.formats.rpf.*;
 import gov.nasa.worldwind.formats.wvt.*;
 import gov.nasa.worldwind.geom.*;
@@ -219,7 +220,8 @@ class RPFGenerator
                 int reqWidth = (Integer) params.getValue(WIDTH);
                 int reqHeight = (Integer) params.getValue(HEIGHT);
 
-                BufferedImage reqImage = new BufferedImage(reqWidth, reqHeight, BufferedImage.TYPE_4BYTE_ABGR);
+                // Use packed int pixels so that frames can be decoded straight into the request image.
+                BufferedImage reqImage = new BufferedImage(reqWidth, reqHeight, BufferedImage.TYPE_INT_ARGB);
                 int numFramesInRequest = 0;
 
                 for (FrameFile frame : RPFGenerator.this.frameFiles)
@@ -254,7 +256,14 @@ class RPFGenerator
                     // Depending upon footprint, either get image from it RPF framefile, or reconstruct
                     // it from a wavelet encoding.
                     BufferedImage sourceImage;
-                    if (footprintX > smallImageSize || footprintY > smallImageSize)
+                    if ((footprintX > smallImageSize || footprintY > smallImageSize)
+                        && !isDeprojectionRequired(frame))
+                    {
+                        // The frame maps linearly onto its sector; sample its image codes directly.
+                        if (!drawFrameIntoRequest(reqImage, reqSector, frame))
+                            continue;
+                    }
+                    else if (footprintX > smallImageSize || footprintY > smallImageSize)
                     {
                         RPFFrameTransform.RPFImage[] images = getImageFromRPFSource(frame);
                          if (images == null)
@@ -430,6 +439,55 @@ class RPFGenerator
             return params;
         }
 
+        private boolean isDeprojectionRequired(FrameFile frame)
+        {
+            try
+            {
+                return frame.getFrameTransform().isDeprojectionRequired();
+            }
+            catch (Exception e)
+            {
+                // Let the deprojecting path report the failure.
+                return true;
+            }
+        }
+
+        //
+        // Attempts to draw the specified FrameFile into the request image by expanding its image codes directly into
+        // the request's pixels, without decoding the frame into an intermediate image. Only valid for frames that need
+        // no deprojection. Returns false on failure.
+        //
+        private boolean drawFrameIntoRequest(BufferedImage reqImage, Sector reqSector, FrameFile frame)
+        {
+            try
+            {
+                RPFImageFile sourceFile = RPFImageFile.load(frame.rpfFile);
+                NITFSImageSegment segment = sourceFile.getImageSegment();
+                Sector srcSector = frame.getFrameTransform().computeFrameCoverage(frame.getFrameNumber());
+
+                int width = reqImage.getWidth();
+                int height = reqImage.getHeight();
+                double pixelsPerLon = segment.numSignificantCols / srcSector.getDeltaLonDegrees();
+                double pixelsPerLat = segment.numSignificantRows / srcSector.getDeltaLatDegrees();
+                double srcX = (reqSector.getMinLongitude().degrees - srcSector.getMinLongitude().degrees) * pixelsPerLon;
+                double srcY = (srcSector.getMaxLatitude().degrees - reqSector.getMaxLatitude().degrees) * pixelsPerLat;
+                double srcDx = (reqSector.getDeltaLonDegrees() / width) * pixelsPerLon;
+                double srcDy = (reqSector.getDeltaLatDegrees() / height) * pixelsPerLat;
+
+                int[] pixels = ((DataBufferInt) reqImage.getRaster().getDataBuffer()).getData();
+                segment.sampleImagePixels(pixels, 0, width, width, height, srcX, srcY, srcDx, srcDy,
+                    RPFImageType.IMAGE_TYPE_ALPHA_RGB);
+                return true;
+            }
+            catch (Exception e)
+            {
+                String message = "Exception while reading frame file: " + frame.rpfFile;
+                Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+                RPFGenerator.this.markFrameFileAbsent(frame);
+                return false;
+            }
+        }
+
         //
         // Attempts to return the specified FrameFile as a BufferedImage. Returns null on failure.
         //
@@ -36,6 +36,8 @@ public class RPFTiledImageProcessor
     private volatile boolean doStop = false;
 
     private static final int DEFAULT_WAVELET_SIZE = 256;
+    // Estimated peak memory of one task: a decoded 1536x1536 frame, its deprojection, and the scaled wavelet source.
+    private static final long TASK_MEMORY_ESTIMATE = 32L * 1024L * 1024L;
 
     public static final String BEGIN_SUB_TASK = "BeginSubTask";
     public static final String END_SUB_TASK = "EndSubTask";
@@ -53,6 +55,13 @@ public class RPFTiledImageProcessor
         return this.numThreads;
     }
 
+    /**
+     * Specifies the number of threads that decode frames and create tiles concurrently. A size less than 2 processes
+     * frames and tiles on the calling thread. The number of threads actually used is limited so that the tasks in
+     * progress fit in half of the maximum heap size.
+     *
+     * @param size the number of threads.
+     */
     public void setThreadPoolSize(int size)
     {
         this.numThreads = size;
@@ -614,7 +623,11 @@ public class RPFTiledImageProcessor
         {
             if (taskIterable != null)
             {
-                ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize);
+                // Bound the number of tasks in progress by the available memory, and the number of tasks waiting by
+                // the pool size. When the queue is full, the submitting thread runs the task itself.
+                int poolSize = this.computeThreadPoolSize(threadPoolSize);
+                ExecutorService executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(2 * poolSize), new ThreadPoolExecutor.CallerRunsPolicy());
 
                 for (Runnable task : taskIterable)
                 {
@@ -641,6 +654,12 @@ public class RPFTiledImageProcessor
         }
     }
 
+    private int computeThreadPoolSize(int requestedSize)
+    {
+        long maxTasks = Runtime.getRuntime().maxMemory() / 2 / TASK_MEMORY_ESTIMATE;
+        return (int) Math.max(1, Math.min(requestedSize, maxTasks));
+    }
+
     public void addPropertyChangeListener(PropertyChangeListener listener)
     {
         this.propertyChangeSupport.addPropertyChangeListener(listener);
@@ -41,7 +41,7 @@ public class PreprocessPanelDescriptor extends DefaultPanelDescriptor
     public static final String THREAD_POOL_SIZE = "gov.nasa.worldwind.rpf.wizard.ThreadPoolSize";
     public static final String STEPS_NEEDED_FOR_ESTIMATE = "gov.nasa.worldwind.rpf.wizard.StepsNeededForEstimate";
 
-    private static final int DEFAULT_THREAD_POOL_SIZE = 3;
+    private static final int DEFAULT_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
     private static final int DEFAULT_STEPS_NEEDED_FOR_ESTIMATE = 20;
 
     public PreprocessPanelDescriptor()
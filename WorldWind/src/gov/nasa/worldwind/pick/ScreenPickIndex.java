@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.pick;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.layers.Layer;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.*;
+import java.util.*;
+
+/**
+ * Resolves picks against the screen rectangles items occupied when they were last drawn, without rendering a pick pass
+ * or reading pixels back from the frame buffer. This is an alternative to {@link PickSupport} for renderers of many
+ * small screen-aligned items, such as icons and placemarks, whose screen bounds are known when they are drawn.
+ * <p/>
+ * During the render pass, a renderer registers each item it draws with {@link #add(gov.nasa.worldwind.render.DrawContext,
+ * Object, gov.nasa.worldwind.geom.Position, java.awt.Rectangle, gov.nasa.worldwind.layers.Layer)}, in drawing order.
+ * The first item registered in a new frame discards the items of the previous frame. During the pick pass, which
+ * precedes the render pass of the next frame, the renderer calls {@link #resolvePick(gov.nasa.worldwind.render.DrawContext,
+ * java.awt.Point, gov.nasa.worldwind.layers.Layer)} instead of drawing the items in pick colors. The item drawn last
+ * at the pick point is the top object, as it would be with color picking.
+ * <p/>
+ * Unlike color picking, this does not account for the parts of the item's rectangle that are transparent, or for
+ * terrain occluding the item. The results reflect the positions of the previous frame.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ScreenPickIndex
+{
+    /** Cell size of the grid used to find the items at a point, in pixels. */
+    protected static final int CELL_SIZE = 64;
+
+    protected static class Entry
+    {
+        protected final Object object;
+        protected final Position position;
+        protected final Rectangle rect; // GL screen coordinates, origin at the lower left corner
+        protected final Layer layer;
+
+        public Entry(Object object, Position position, Rectangle rect, Layer layer)
+        {
+            this.object = object;
+            this.position = position;
+            this.rect = rect;
+            this.layer = layer;
+        }
+    }
+
+    protected ArrayList<Entry> entries = new ArrayList<Entry>();
+    protected long frameTimeStamp = -1;
+    protected Rectangle viewport = new Rectangle();
+    /** Entry indices per grid cell, built on the first query of a frame. */
+    protected int[][] cells;
+    protected int[] cellSizes;
+    protected int numCols;
+    protected int numRows;
+
+    public ScreenPickIndex()
+    {
+    }
+
+    /**
+     * Indicates whether a frame has been recorded, and picks can therefore be resolved. A recorded frame may contain no
+     * items, in which case nothing is picked.
+     *
+     * @return true if the index holds the items of a frame.
+     */
+    public synchronized boolean hasFrame()
+    {
+        return this.frameTimeStamp != -1;
+    }
+
+    /** Removes all items and forgets the recorded frame. */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.cells = null;
+        this.frameTimeStamp = -1;
+    }
+
+    /**
+     * Starts recording the current frame, discarding the items of the previous frame. Renderers call this before
+     * registering items, even if they have none to register, so that items no longer drawn are not picked. Calling
+     * this more than once per frame has no effect.
+     *
+     * @param dc the current draw context.
+     *
+     * @throws IllegalArgumentException if the draw context is null.
+     */
+    public synchronized void beginFrame(DrawContext dc)
+    {
+        if (dc == null)
+        {
+            String msg = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.beginFrame(dc.getFrameTimeStamp(), dc.getView().getViewport());
+    }
+
+    /**
+     * Registers an item drawn in the current frame. Items must be registered in the order they are drawn.
+     *
+     * @param dc       the current draw context.
+     * @param object   the item, which becomes the user object of the picked object.
+     * @param position the item's geographic position. May be null.
+     * @param rect     the screen rectangle the item occupies, in OpenGL screen coordinates.
+     * @param layer    the layer the item belongs to. May be null.
+     *
+     * @throws IllegalArgumentException if the draw context, object or rectangle is null.
+     */
+    public synchronized void add(DrawContext dc, Object object, Position position, Rectangle rect, Layer layer)
+    {
+        if (dc == null)
+        {
+            String msg = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (object == null)
+        {
+            String msg = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (rect == null)
+        {
+            String msg = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.beginFrame(dc.getFrameTimeStamp(), dc.getView().getViewport());
+        this.entries.add(new Entry(object, position, new Rectangle(rect), layer));
+        this.cells = null;
+    }
+
+    protected void beginFrame(long frameTimeStamp, Rectangle viewport)
+    {
+        if (frameTimeStamp == this.frameTimeStamp)
+            return;
+
+        this.entries.clear();
+        this.cells = null;
+        this.frameTimeStamp = frameTimeStamp;
+        this.viewport = new Rectangle(viewport);
+    }
+
+    /**
+     * Resolves a pick the same way as {@link PickSupport#resolvePick(gov.nasa.worldwind.render.DrawContext,
+     * java.awt.Point, gov.nasa.worldwind.layers.Layer)}: adds the top item at the pick point to the draw context's
+     * picked objects, and the items intersecting the draw context's pick rectangle, if any, to its objects in the pick
+     * rectangle.
+     *
+     * @param dc        the current draw context.
+     * @param pickPoint the pick point in AWT screen coordinates. May be null.
+     * @param layer     the layer to associate with the picked objects. If null, the picked objects are associated with
+     *                  the layer their item was registered with.
+     *
+     * @return the picked object added to the draw context, or null if no item is at the pick point.
+     *
+     * @throws IllegalArgumentException if the draw context is null.
+     */
+    public synchronized PickedObject resolvePick(DrawContext dc, Point pickPoint, Layer layer)
+    {
+        if (dc == null)
+        {
+            String msg = Logging.getMessage("nullValue.DrawContextIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        PickedObject top = null;
+
+        if (pickPoint != null)
+        {
+            int i = this.findTopEntry(pickPoint, null);
+            if (i >= 0)
+            {
+                top = this.createPickedObject(i);
+                if (layer != null)
+                    top.setParentLayer(layer);
+                dc.addPickedObject(top);
+            }
+        }
+
+        Rectangle pickRect = dc.getPickRectangle();
+        if (pickRect != null && !pickRect.isEmpty())
+        {
+            for (PickedObject po : this.pick(pickRect, null))
+            {
+                if (layer != null)
+                    po.setParentLayer(layer);
+                dc.addObjectInPickRectangle(po);
+            }
+        }
+
+        return top;
+    }
+
+    /**
+     * Returns the items drawn at a point, top item first.
+     *
+     * @param point the point in AWT screen coordinates.
+     * @param layer the layer whose items are considered, or null to consider all items.
+     *
+     * @return the items at the point. The list is empty if there are none.
+     *
+     * @throws IllegalArgumentException if the point is null.
+     */
+    public synchronized PickedObjectList pick(Point point, Layer layer)
+    {
+        if (point == null)
+        {
+            String msg = Logging.getMessage("nullValue.PointIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        PickedObjectList list = new PickedObjectList();
+
+        int x = point.x;
+        int y = this.toGLY(point.y);
+        int[] cell = this.getCell(x, y);
+        if (cell == null)
+            return list;
+
+        int count = this.cellSizes[this.cellIndex(x, y)];
+        for (int k = count - 1; k >= 0; k--) // most recently drawn first
+        {
+            Entry e = this.entries.get(cell[k]);
+            if ((layer == null || e.layer == layer) && e.rect.contains(x, y))
+            {
+                PickedObject po = this.createPickedObject(cell[k]);
+                if (list.isEmpty())
+                    po.setOnTop();
+                list.add(po);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns the items intersecting a rectangle, in the order they were drawn.
+     *
+     * @param rect  the rectangle in AWT screen coordinates.
+     * @param layer the layer whose items are considered, or null to consider all items.
+     *
+     * @return the items intersecting the rectangle. The list is empty if there are none.
+     *
+     * @throws IllegalArgumentException if the rectangle is null.
+     */
+    public synchronized PickedObjectList pick(Rectangle rect, Layer layer)
+    {
+        if (rect == null)
+        {
+            String msg = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        // Convert the AWT rectangle to GL screen coordinates.
+        Rectangle glRect = new Rectangle(rect.x, this.toGLY(rect.y + rect.height - 1), rect.width, rect.height);
+
+        PickedObjectList list = new PickedObjectList();
+        for (int i = 0; i < this.entries.size(); i++)
+        {
+            Entry e = this.entries.get(i);
+            if ((layer == null || e.layer == layer) && e.rect.intersects(glRect))
+                list.add(this.createPickedObject(i));
+        }
+
+        return list;
+    }
+
+    protected int findTopEntry(Point point, Layer layer)
+    {
+        int x = point.x;
+        int y = this.toGLY(point.y);
+        int[] cell = this.getCell(x, y);
+        if (cell == null)
+            return -1;
+
+        for (int k = this.cellSizes[this.cellIndex(x, y)] - 1; k >= 0; k--)
+        {
+            Entry e = this.entries.get(cell[k]);
+            if ((layer == null || e.layer == layer) && e.rect.contains(x, y))
+                return cell[k];
+        }
+
+        return -1;
+    }
+
+    protected PickedObject createPickedObject(int index)
+    {
+        Entry e = this.entries.get(index);
+
+        // There is no pick color; the entry index serves as a color code that is unique within the frame.
+        PickedObject po = new PickedObject(index + 1, e.object, e.position, false);
+        if (e.layer != null)
+            po.setParentLayer(e.layer);
+
+        return po;
+    }
+
+    protected int toGLY(int awtY)
+    {
+        return this.viewport.height - awtY - 1;
+    }
+
+    protected int[] getCell(int x, int y)
+    {
+        if (this.entries.isEmpty())
+            return null;
+
+        if (this.cells == null)
+            this.buildCells();
+
+        if (x < this.viewport.x || y < this.viewport.y)
+            return null;
+
+        int col = (x - this.viewport.x) / CELL_SIZE;
+        int row = (y - this.viewport.y) / CELL_SIZE;
+        if (col >= this.numCols || row >= this.numRows)
+            return null;
+
+        return this.cells[row * this.numCols + col];
+    }
+
+    protected int cellIndex(int x, int y)
+    {
+        return ((y - this.viewport.y) / CELL_SIZE) * this.numCols + (x - this.viewport.x) / CELL_SIZE;
+    }
+
+    /** Registers each entry in the grid cells its rectangle overlaps, in drawing order. */
+    protected void buildCells()
+    {
+        this.numCols = Math.max(1, (this.viewport.width + CELL_SIZE - 1) / CELL_SIZE);
+        this.numRows = Math.max(1, (this.viewport.height + CELL_SIZE - 1) / CELL_SIZE);
+        this.cells = new int[this.numCols * this.numRows][];
+        this.cellSizes = new int[this.numCols * this.numRows];
+
+        for (int i = 0; i < this.entries.size(); i++)
+        {
+            Rectangle r = this.entries.get(i).rect;
+
+            int col0 = Math.max(0, (r.x - this.viewport.x) / CELL_SIZE);
+            int col1 = Math.min(this.numCols - 1, (r.x + r.width - this.viewport.x) / CELL_SIZE);
+            int row0 = Math.max(0, (r.y - this.viewport.y) / CELL_SIZE);
+            int row1 = Math.min(this.numRows - 1, (r.y + r.height - this.viewport.y) / CELL_SIZE);
+
+            for (int row = row0; row <= row1; row++)
+            {
+                for (int col = col0; col <= col1; col++)
+                {
+                    int c = row * this.numCols + col;
+                    if (this.cells[c] == null)
+                        this.cells[c] = new int[4];
+                    else if (this.cellSizes[c] == this.cells[c].length)
+                        this.cells[c] = Arrays.copyOf(this.cells[c], 2 * this.cellSizes[c]);
+
+                    this.cells[c][this.cellSizes[c]++] = i;
+                }
+            }
+        }
+    }
+}
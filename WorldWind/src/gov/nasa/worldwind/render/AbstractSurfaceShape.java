@@ -8,6 +8,7 @@ package gov.nasa.worldwind.render;
 import com.sun.opengl.util.BufferUtil;
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.globes.Globe;
@@ -16,7 +17,6 @@ import gov.nasa.worldwind.util.*;
 import gov.nasa.worldwind.util.measure.AreaMeasurer;
 
 import javax.media.opengl.GL;
-import javax.media.opengl.glu.*;
 import javax.xml.stream.XMLStreamException;
 import java.awt.*;
 import java.io.IOException;
@@ -55,6 +55,12 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
     protected static final int DEFAULT_MIN_EDGE_INTERVALS = 0;
     /** The default maximum number of shape edge intervals. */
     protected static final int DEFAULT_MAX_EDGE_INTERVALS = 100;
+    /** The name of the memory cache holding the sectors and geometry of all surface shapes. */
+    protected static final String GEOMETRY_CACHE_NAME = "Surface Shape Geometry";
+    /** The key of the memory cache holding the sectors and geometry of all surface shapes. */
+    protected static final String GEOMETRY_CACHE_KEY = ShapeGeometry.class.getName();
+    /** The default size of the surface shape geometry cache, in bytes. */
+    protected static final long DEFAULT_GEOMETRY_CACHE_SIZE = 32000000L;
     /** The attributes used if attributes are not specified. */
     protected static final ShapeAttributes defaultAttrs;
 
@@ -75,10 +81,13 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
     protected int minEdgeIntervals = DEFAULT_MIN_EDGE_INTERVALS;
     protected int maxEdgeIntervals = DEFAULT_MAX_EDGE_INTERVALS;
     // Rendering properties.
-    protected List<List<LatLon>> activeGeometry = new ArrayList<List<LatLon>>(); // re-determined each frame
+    protected ShapeGeometry activeGeometry = new ShapeGeometry(); // re-determined each frame
     protected WWTexture texture; // An optional texture.    
-    protected Map<Object, CacheEntry> sectorCache = new HashMap<Object, CacheEntry>();
-    protected Map<Object, CacheEntry> geometryCache = new HashMap<Object, CacheEntry>();
+    /**
+     * Identifies the shape's current entries in the shared geometry cache. Incremented when the shape changes, which
+     * leaves the previous entries unreferenced until the cache evicts them.
+     */
+    protected long cacheVersion;
     protected OGLStackHandler stackHandler = new OGLStackHandler();
     protected static FloatBuffer vertexBuffer;
     // Measurement properties.
@@ -228,16 +237,28 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
             throw new IllegalArgumentException(message);
         }
 
-        CacheEntry entry = this.sectorCache.get(dc.getGlobe());
+        MemoryCache cache = this.getGeometryCache();
+        Object key = new SectorKey(this.getUniqueId(), this.cacheVersion, dc.getGlobe());
+        CacheEntry entry = (CacheEntry) cache.getObject(key);
         if (entry != null && entry.isValid(dc))
         {
             return (List<Sector>) entry.object;
         }
         else
         {
-            entry = new CacheEntry(this.computeSectors(dc), dc);
-            this.sectorCache.put(dc.getGlobe(), entry);
-            return (List<Sector>) entry.object;
+            List<Sector> sectors = this.computeSectors(dc);
+
+            long size = 32; // the entry and its references
+            if (sectors != null)
+            {
+                for (Sector sector : sectors)
+                {
+                    size += sector.getSizeInBytes();
+                }
+            }
+
+            cache.add(key, new CacheEntry(sectors, dc), size);
+            return sectors;
         }
     }
 
@@ -531,8 +552,31 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
     protected void clearCaches()
     {
         super.clearCaches();
-        this.sectorCache.clear();
-        this.geometryCache.clear();
+        this.cacheVersion++;
+    }
+
+    /**
+     * Returns the memory cache shared by all surface shapes to hold their sectors and geometry, creating it if
+     * necessary. The cache's capacity is specified by the configuration property {@link
+     * AVKey#SURFACE_SHAPE_GEOMETRY_CACHE_SIZE}.
+     *
+     * @return the surface shape geometry cache.
+     */
+    protected MemoryCache getGeometryCache()
+    {
+        synchronized (AbstractSurfaceShape.class)
+        {
+            if (!WorldWind.getMemoryCacheSet().containsCache(GEOMETRY_CACHE_KEY))
+            {
+                long size = Configuration.getLongValue(AVKey.SURFACE_SHAPE_GEOMETRY_CACHE_SIZE,
+                    DEFAULT_GEOMETRY_CACHE_SIZE);
+                MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+                cache.setName(GEOMETRY_CACHE_NAME);
+                WorldWind.getMemoryCacheSet().addCache(GEOMETRY_CACHE_KEY, cache);
+            }
+        }
+
+        return WorldWind.getMemoryCache(GEOMETRY_CACHE_KEY);
     }
 
     //**************************************************************//
@@ -708,13 +752,20 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
     {
         this.activeGeometry.clear();
 
-        List<List<LatLon>> geom = this.getCachedGeometry(dc, sdc);
+        ShapeGeometry geom = this.getCachedGeometry(dc, sdc);
         if (geom == null)
             return;
 
-        for (List<LatLon> locations : geom)
+        for (int contour = 0; contour < geom.getNumContours(); contour++)
         {
-            List<LatLon> drawLocations = new ArrayList<LatLon>(locations);
+            // Most contours neither cross the dateline nor enclose a pole, and are copied without creating locations.
+            if (!geom.crossesDateLine(contour))
+            {
+                this.activeGeometry.addContour(geom, contour);
+                continue;
+            }
+
+            List<LatLon> drawLocations = geom.getContour(contour);
 
             String pole = this.containsPole(drawLocations);
             if (pole != null)
@@ -745,7 +796,7 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
                 }
             }
 
-            this.activeGeometry.add(drawLocations);
+            this.activeGeometry.addContour(drawLocations);
         }
     }
 
@@ -916,7 +967,7 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
         return new LatLon(intersectionPos.getLatitude(), meridian);
     }
 
-    protected List<List<LatLon>> getActiveGeometry()
+    protected ShapeGeometry getActiveGeometry()
     {
         return this.activeGeometry;
     }
@@ -949,21 +1000,29 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
 
         this.applyOutlineState(dc, this.getActiveAttributes());
 
-        for (List<LatLon> drawLocations : this.getActiveGeometry())
+        ShapeGeometry geom = this.getActiveGeometry();
+        double[] coords = geom.getCoords();
+        double refLat = refPos.getLatitude().degrees;
+        double refLon = refPos.getLongitude().degrees;
+
+        for (int i = 0; i < geom.getNumContours(); i++)
         {
-            if (vertexBuffer == null || vertexBuffer.capacity() < 2 * drawLocations.size())
-                vertexBuffer = BufferUtil.newFloatBuffer(2 * drawLocations.size());
+            int start = geom.getContourStart(i);
+            int count = geom.getContourEnd(i) - start;
+
+            if (vertexBuffer == null || vertexBuffer.capacity() < 2 * count)
+                vertexBuffer = BufferUtil.newFloatBuffer(2 * count);
             vertexBuffer.clear();
 
-            for (LatLon ll : drawLocations)
+            for (int j = 2 * start; j < 2 * (start + count); j += 2)
             {
-                vertexBuffer.put((float) (ll.getLongitude().degrees - refPos.getLongitude().degrees));
-                vertexBuffer.put((float) (ll.getLatitude().degrees - refPos.getLatitude().degrees));
+                vertexBuffer.put((float) (coords[j + 1] - refLon));
+                vertexBuffer.put((float) (coords[j] - refLat));
             }
             vertexBuffer.flip();
 
             gl.glVertexPointer(2, GL.GL_FLOAT, 0, vertexBuffer);
-            gl.glDrawArrays(GL.GL_LINE_STRIP, 0, drawLocations.size());
+            gl.glDrawArrays(GL.GL_LINE_STRIP, 0, count);
         }
     }
 
@@ -982,8 +1041,7 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
         return this.texture;
     }
 
-    @SuppressWarnings({"unchecked"})
-    protected List<List<LatLon>> getCachedGeometry(DrawContext dc, SurfaceTileDrawContext sdc)
+    protected ShapeGeometry getCachedGeometry(DrawContext dc, SurfaceTileDrawContext sdc)
     {
         if (dc == null)
         {
@@ -992,17 +1050,19 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
             throw new IllegalArgumentException(message);
         }
 
+        MemoryCache cache = this.getGeometryCache();
         Object key = this.createGeometryKey(dc, sdc);
-        CacheEntry entry = this.geometryCache.get(key);
+        CacheEntry entry = (CacheEntry) cache.getObject(key);
         if (entry != null && entry.isValid(dc))
         {
-            return (List<List<LatLon>>) entry.object;
+            return (ShapeGeometry) entry.object;
         }
         else
         {
-            entry = new CacheEntry(this.createGeometry(dc.getGlobe(), sdc), dc);
-            this.geometryCache.put(key, entry);
-            return (List<List<LatLon>>) entry.object;
+            List<List<LatLon>> locations = this.createGeometry(dc.getGlobe(), sdc);
+            ShapeGeometry geom = locations != null ? new ShapeGeometry(locations) : null;
+            cache.add(key, new CacheEntry(geom, dc), 32 + (geom != null ? geom.getSizeInBytes() : 0));
+            return geom;
         }
     }
 
@@ -1010,7 +1070,8 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
 
     protected Object createGeometryKey(DrawContext dc, SurfaceTileDrawContext sdc)
     {
-        return new GeometryKey(dc, this.computeEdgeIntervalsPerDegree(sdc));
+        return new GeometryKey(this.getUniqueId(), this.cacheVersion, dc.getGlobe(),
+            this.computeEdgeIntervalsPerDegree(sdc));
     }
 
     protected double computeEdgeIntervalsPerDegree(SurfaceTileDrawContext sdc)
@@ -1288,27 +1349,13 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
 
     protected Integer doTessellateInterior(DrawContext dc)
     {
-        GLU glu = dc.getGLU();
-        GLUtessellatorCallback cb = GLUTessellatorSupport.createOGLDrawPrimitivesCallback(dc.getGL());
-
-        // Create a tessellator with the default winding rule: GLU_TESS_WINDING_ODD. This winding rule produces the
-        // expected tessellation when the shape's contours all have a counter-clockwise winding.
-        GLUTessellatorSupport glts = new GLUTessellatorSupport();
-        glts.beginTessellation(glu, cb, new Vec4(0, 0, 1));
-        try
-        {
-            return this.tessellateInteriorVertices(glu, glts.getGLUtessellator());
-        }
-        finally
-        {
-            // Free any heap memory used for tessellation immediately. If tessellation has consumed all available heap
-            // memory, we must free memory used by tessellation immediately or subsequent operations such as message
-            // logging will fail.
-            glts.endTessellation(glu);
-        }
+        // Triangulate the interior using the odd winding rule. This produces the expected tessellation when the shape's
+        // contours all have a counter-clockwise winding. The triangulator is independent of the GL context, and is
+        // reused by each tessellation on this thread.
+        return this.tessellateInteriorVertices(dc.getGL(), PolygonTriangulator.getThreadLocalTriangulator());
     }
 
-    protected Integer tessellateInteriorVertices(GLU glu, GLUtessellator tess)
+    protected Integer tessellateInteriorVertices(GL gl, PolygonTriangulator triangulator)
     {
         if (this.getActiveGeometry().isEmpty())
             return null;
@@ -1317,28 +1364,57 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
         if (referencePos == null)
             return null;
 
+        ShapeGeometry geom = this.getActiveGeometry();
+        double[] coords = geom.getCoords();
+        double refLat = referencePos.getLatitude().degrees;
+        double refLon = referencePos.getLongitude().degrees;
+
         int numBytes = 0;
-        glu.gluTessBeginPolygon(tess, null);
+        triangulator.beginPolygon();
 
-        for (List<LatLon> drawLocations : this.getActiveGeometry())
+        for (int i = 0; i < geom.getNumContours(); i++)
         {
-            glu.gluTessBeginContour(tess);
-            for (LatLon ll : drawLocations)
+            triangulator.beginContour();
+            for (int j = 2 * geom.getContourStart(i); j < 2 * geom.getContourEnd(i); j += 2)
             {
-                double[] vertex = new double[3];
-                vertex[0] = ll.getLongitude().degrees - referencePos.getLongitude().degrees;
-                vertex[1] = ll.getLatitude().degrees - referencePos.getLatitude().degrees;
-                glu.gluTessVertex(tess, vertex, 0, vertex);
+                triangulator.addVertex(coords[j + 1] - refLon, coords[j] - refLat);
                 numBytes += 3 * 8; // 3 coords of 8 bytes each
             }
-            glu.gluTessEndContour(tess);
+            triangulator.endContour();
         }
 
-        glu.gluTessEndPolygon(tess);
+        triangulator.endPolygon();
+        this.drawInteriorTriangles(gl, triangulator);
 
         return numBytes;
     }
 
+    /**
+     * Draws the triangles produced by the most recent polygon specified to a triangulator, using the triangulator's two
+     * dimensional vertex coordinates. This issues OpenGL immediate mode commands, and is typically called while
+     * compiling a display list.
+     *
+     * @param gl           the current OpenGL context.
+     * @param triangulator the triangulator containing the triangles to draw.
+     */
+    protected void drawInteriorTriangles(GL gl, PolygonTriangulator triangulator)
+    {
+        int numIndices = triangulator.getIndexCount();
+        if (numIndices == 0)
+            return;
+
+        int[] indices = triangulator.getIndices();
+        double[] coords = triangulator.getCoords();
+
+        gl.glBegin(GL.GL_TRIANGLES);
+        for (int i = 0; i < numIndices; i++)
+        {
+            int index = 2 * indices[i];
+            gl.glVertex3f((float) coords[index], (float) coords[index + 1], 0f);
+        }
+        gl.glEnd();
+    }
+
     protected void handleUnsuccessfulInteriorTessellation(DrawContext dc)
     {
     }
@@ -1666,14 +1742,59 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
     //********************  Cache Key, Cache Entry  ****************//
     //**************************************************************//
 
+    /**
+     * Identifies a shape's bounding sectors in the shared geometry cache. The key refers to the shape by its unique ID
+     * rather than by reference, so cached entries do not prevent the shape from being garbage collected.
+     */
+    protected static class SectorKey
+    {
+        protected final long uniqueId;
+        protected final long cacheVersion;
+        protected final Globe globe;
+
+        public SectorKey(long uniqueId, long cacheVersion, Globe globe)
+        {
+            this.uniqueId = uniqueId;
+            this.cacheVersion = cacheVersion;
+            this.globe = globe;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+                return true;
+            if (o == null || this.getClass() != o.getClass())
+                return false;
+
+            SectorKey that = (SectorKey) o;
+            return this.uniqueId == that.uniqueId && this.cacheVersion == that.cacheVersion
+                && this.globe.equals(that.globe);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = (int) (this.uniqueId ^ (this.uniqueId >>> 32));
+            result = 31 * result + (int) (this.cacheVersion ^ (this.cacheVersion >>> 32));
+            result = 31 * result + this.globe.hashCode();
+            return result;
+        }
+    }
+
+    /** Identifies a shape's geometry at one edge interval density in the shared geometry cache. */
     protected static class GeometryKey
     {
-        protected Globe globe;
-        protected double edgeIntervalsPerDegree;
+        protected final long uniqueId;
+        protected final long cacheVersion;
+        protected final Globe globe;
+        protected final double edgeIntervalsPerDegree;
 
-        public GeometryKey(DrawContext dc, double edgeIntervalsPerDegree)
+        public GeometryKey(long uniqueId, long cacheVersion, Globe globe, double edgeIntervalsPerDegree)
         {
-            this.globe = dc.getGlobe();
+            this.uniqueId = uniqueId;
+            this.cacheVersion = cacheVersion;
+            this.globe = globe;
             this.edgeIntervalsPerDegree = edgeIntervalsPerDegree;
         }
 
@@ -1686,16 +1807,220 @@ public abstract class AbstractSurfaceShape extends AbstractSurfaceObject impleme
                 return false;
 
             GeometryKey that = (GeometryKey) o;
-            return this.globe.equals(that.globe) && this.edgeIntervalsPerDegree == that.edgeIntervalsPerDegree;
+            return this.uniqueId == that.uniqueId && this.cacheVersion == that.cacheVersion
+                && this.globe.equals(that.globe) && this.edgeIntervalsPerDegree == that.edgeIntervalsPerDegree;
         }
 
         @Override
         public int hashCode()
         {
-            int hash = this.globe.hashCode();
+            int result = (int) (this.uniqueId ^ (this.uniqueId >>> 32));
+            result = 31 * result + (int) (this.cacheVersion ^ (this.cacheVersion >>> 32));
+            result = 31 * result + this.globe.hashCode();
             long temp = this.edgeIntervalsPerDegree != +0.0d ? Double.doubleToLongBits(this.edgeIntervalsPerDegree)
                 : 0L;
-            return 31 * hash + (int) (temp ^ (temp >>> 32));
+            return 31 * result + (int) (temp ^ (temp >>> 32));
+        }
+    }
+
+    /**
+     * Holds a shape's geometry as one or more contours of locations. The locations of all contours are packed into a
+     * single array of latitude and longitude pairs, in degrees, which occupies a fraction of the memory of a list of
+     * {@link LatLon} objects and is read directly when drawing. A ShapeGeometry may also be cleared and refilled, which
+     * enables a shape to reuse the same instance for its active geometry each frame.
+     */
+    protected static class ShapeGeometry
+    {
+        protected double[] coords;
+        protected int numLocations;
+        /** The index of each contour's first location. */
+        protected int[] contourStarts;
+        protected int numContours;
+
+        /** Constructs an empty geometry that grows as contours are added. */
+        public ShapeGeometry()
+        {
+            this.coords = new double[64];
+            this.contourStarts = new int[4];
+        }
+
+        /**
+         * Constructs a geometry containing the specified contours, with arrays sized to fit them exactly.
+         *
+         * @param contours the contours' locations.
+         */
+        public ShapeGeometry(List<? extends List<? extends LatLon>> contours)
+        {
+            int count = 0;
+            for (List<? extends LatLon> contour : contours)
+            {
+                count += contour.size();
+            }
+
+            this.coords = new double[2 * count];
+            this.contourStarts = new int[contours.size()];
+
+            for (List<? extends LatLon> contour : contours)
+            {
+                this.addContour(contour);
+            }
+        }
+
+        public double[] getCoords()
+        {
+            return this.coords;
+        }
+
+        public int getNumLocations()
+        {
+            return this.numLocations;
+        }
+
+        public int getNumContours()
+        {
+            return this.numContours;
+        }
+
+        public boolean isEmpty()
+        {
+            return this.numContours == 0;
+        }
+
+        public int getContourStart(int contour)
+        {
+            return this.contourStarts[contour];
+        }
+
+        /**
+         * Returns the index following a contour's last location.
+         *
+         * @param contour the contour's index.
+         *
+         * @return the index following the contour's last location.
+         */
+        public int getContourEnd(int contour)
+        {
+            return contour < this.numContours - 1 ? this.contourStarts[contour + 1] : this.numLocations;
+        }
+
+        /**
+         * Creates a list of a contour's locations.
+         *
+         * @param contour the contour's index.
+         *
+         * @return a new list of the contour's locations.
+         */
+        public List<LatLon> getContour(int contour)
+        {
+            int start = this.getContourStart(contour);
+            int end = this.getContourEnd(contour);
+
+            List<LatLon> locations = new ArrayList<LatLon>(end - start);
+            for (int i = start; i < end; i++)
+            {
+                locations.add(LatLon.fromDegrees(this.coords[2 * i], this.coords[2 * i + 1]));
+            }
+
+            return locations;
+        }
+
+        public void clear()
+        {
+            this.numLocations = 0;
+            this.numContours = 0;
+        }
+
+        public void addContour(Iterable<? extends LatLon> locations)
+        {
+            this.beginContour();
+            for (LatLon ll : locations)
+            {
+                this.addLocation(ll.getLatitude().degrees, ll.getLongitude().degrees);
+            }
+        }
+
+        /**
+         * Appends a contour of another geometry to this geometry.
+         *
+         * @param geom    the geometry containing the contour.
+         * @param contour the contour's index.
+         */
+        public void addContour(ShapeGeometry geom, int contour)
+        {
+            int start = geom.getContourStart(contour);
+            int count = geom.getContourEnd(contour) - start;
+
+            this.beginContour();
+            this.ensureCapacity(count);
+            System.arraycopy(geom.coords, 2 * start, this.coords, 2 * this.numLocations, 2 * count);
+            this.numLocations += count;
+        }
+
+        /** Starts a new contour. Subsequent locations are added to this contour. */
+        public void beginContour()
+        {
+            if (this.numContours == this.contourStarts.length)
+            {
+                int[] newStarts = new int[2 * this.contourStarts.length + 1];
+                System.arraycopy(this.contourStarts, 0, newStarts, 0, this.numContours);
+                this.contourStarts = newStarts;
+            }
+
+            this.contourStarts[this.numContours++] = this.numLocations;
+        }
+
+        public void addLocation(double latitudeDegrees, double longitudeDegrees)
+        {
+            this.ensureCapacity(1);
+            this.coords[2 * this.numLocations] = latitudeDegrees;
+            this.coords[2 * this.numLocations + 1] = longitudeDegrees;
+            this.numLocations++;
+        }
+
+        protected void ensureCapacity(int numNewLocations)
+        {
+            int required = 2 * (this.numLocations + numNewLocations);
+            if (required <= this.coords.length)
+                return;
+
+            double[] newCoords = new double[Math.max(required, 2 * this.coords.length)];
+            System.arraycopy(this.coords, 0, newCoords, 0, 2 * this.numLocations);
+            this.coords = newCoords;
+        }
+
+        /**
+         * Indicates whether any segment of a contour, including the segment that closes the contour, crosses the
+         * dateline. See {@link LatLon#locationsCrossDateline(LatLon, LatLon)}.
+         *
+         * @param contour the contour's index.
+         *
+         * @return true if the contour crosses the dateline, otherwise false.
+         */
+        public boolean crossesDateLine(int contour)
+        {
+            int start = this.getContourStart(contour);
+            int end = this.getContourEnd(contour);
+            if (end - start < 2)
+                return false;
+
+            for (int i = start, prev = end - 1; i < end; prev = i++)
+            {
+                double lon1 = this.coords[2 * prev + 1];
+                double lon2 = this.coords[2 * i + 1];
+                if (Math.signum(lon1) != Math.signum(lon2))
+                {
+                    double delta = Math.abs(lon1 - lon2);
+                    if (delta > 180 && delta < 360)
+                        return true;
+                }
+            }
+
+            return false;
+        }
+
+        public long getSizeInBytes()
+        {
+            return 8 * this.coords.length + 4 * this.contourStarts.length + 48; // arrays, counts and references
         }
     }
 
@@ -19,7 +19,6 @@ import gov.nasa.worldwind.terrain.Terrain;
 import gov.nasa.worldwind.util.*;
 
 import javax.media.opengl.GL;
-import javax.media.opengl.glu.GLU;
 import javax.xml.stream.*;
 import java.io.*;
 import java.nio.*;
@@ -100,14 +99,14 @@ public class ExtrudedPolygon extends AbstractShape
         protected FloatBuffer sideTextureCoordsBuffer;
 
         // Tessellation fields
-        /** This shape's tessellation. */
-        protected GLUTessellatorSupport.CollectIndexListsCallback cb;
+        /** This shape's tessellation indices, three per triangle. */
+        protected IntBuffer tessellationIndices;
         /**
          * The indices identifying the cap vertices in a shape data's vertex buffer. Determined when this shape is
          * tessellated, which occurs only once unless the shape's boundaries are re-specified.
          */
         protected IntBuffer capFillIndices;
-        /** Slices of <code>capFillIndices</code>, one per boundary. */
+        /** Slices of <code>capFillIndices</code>, each containing triangle indices. */
         protected List<IntBuffer> capFillIndexBuffers;
         /** Indicates whether a tessellation error occurred. No more attempts to tessellate will be made if set to true. */
         protected boolean tessellationError = false;
@@ -1424,10 +1423,9 @@ public class ExtrudedPolygon extends AbstractShape
 
         gl.glVertexPointer(3, GL.GL_FLOAT, 0, shapeData.capVertexBuffer.rewind());
 
-        for (int i = 0; i < shapeData.cb.getPrimTypes().size(); i++)
+        for (IntBuffer ib : shapeData.capFillIndexBuffers)
         {
-            IntBuffer ib = shapeData.capFillIndexBuffers.get(i);
-            gl.glDrawElements(shapeData.cb.getPrimTypes().get(i), ib.limit(), GL.GL_UNSIGNED_INT, ib.rewind());
+            gl.glDrawElements(GL.GL_TRIANGLES, ib.limit(), GL.GL_UNSIGNED_INT, ib.rewind());
         }
     }
 
@@ -1773,7 +1771,7 @@ public class ExtrudedPolygon extends AbstractShape
                 shapeData.capVertexBuffer.position() + boundary.capVertexBuffer.limit());
         }
 
-        if (shapeData.cb == null) // need to tessellate only once
+        if (shapeData.tessellationIndices == null) // need to tessellate only once
             this.createTessllationGeometry(dc, shapeData);
 
         this.generateCapInteriorIndices(shapeData);
@@ -2107,43 +2105,23 @@ public class ExtrudedPolygon extends AbstractShape
      */
     protected void tessellatePolygon(ShapeData shapeData, Vec4 normal)
     {
-        GLU glu = new GLU();
+        PolygonTriangulator triangulator = PolygonTriangulator.getThreadLocalTriangulator();
+        triangulator.beginPolygon(normal);
 
-        GLUTessellatorSupport glts = new GLUTessellatorSupport();
-        shapeData.cb = new GLUTessellatorSupport.CollectIndexListsCallback();
-
-        glts.beginTessellation(glu, shapeData.cb, normal);
-        try
+        for (ExtrudedBoundaryInfo boundary : shapeData)
         {
-            double[] coords = new double[3];
-
-            glu.gluTessBeginPolygon(glts.getGLUtessellator(), null);
-
-            int k = 0;
-            for (ExtrudedBoundaryInfo boundary : shapeData)
+            triangulator.beginContour();
+            FloatBuffer vBuf = boundary.capVertexBuffer;
+            for (int i = 0; i < boundary.locations.size(); i++)
             {
-                glu.gluTessBeginContour(glts.getGLUtessellator());
-                FloatBuffer vBuf = boundary.capVertexBuffer;
-                for (int i = 0; i < boundary.locations.size(); i++)
-                {
-                    coords[0] = vBuf.get(i * 3);
-                    coords[1] = vBuf.get(i * 3 + 1);
-                    coords[2] = vBuf.get(i * 3 + 2);
-
-                    glu.gluTessVertex(glts.getGLUtessellator(), coords, 0, k++);
-                }
-                glu.gluTessEndContour(glts.getGLUtessellator());
+                triangulator.addVertex(vBuf.get(i * 3), vBuf.get(i * 3 + 1), vBuf.get(i * 3 + 2));
             }
-
-            glu.gluTessEndPolygon(glts.getGLUtessellator());
-        }
-        finally
-        {
-            // Free any heap memory used for tessellation immediately. If tessellation has consumed all available
-            // heap memory, we must free memory used by tessellation immediately or subsequent operations such as
-            // message logging will fail.
-            glts.endTessellation(glu);
+            triangulator.endContour();
         }
+
+        int numIndices = triangulator.endPolygon(false);
+        shapeData.tessellationIndices = IntBuffer.allocate(numIndices);
+        shapeData.tessellationIndices.put(triangulator.getIndices(), 0, numIndices).flip();
     }
 
     /**
@@ -2153,29 +2131,25 @@ public class ExtrudedPolygon extends AbstractShape
      */
     protected void generateCapInteriorIndices(ShapeData shapeData)
     {
-        GLUTessellatorSupport.CollectIndexListsCallback cb = shapeData.cb;
-
-        if (shapeData.capFillIndices == null || shapeData.capFillIndices.capacity() < cb.getNumIndices())
-            shapeData.capFillIndices = BufferUtil.newIntBuffer(cb.getNumIndices());
+        if (shapeData.capFillIndexBuffers == null)
+            shapeData.capFillIndexBuffers = new ArrayList<IntBuffer>(1);
         else
-            shapeData.capFillIndices.clear();
+            shapeData.capFillIndexBuffers.clear();
+
+        if (shapeData.tessellationIndices == null)
+            return;
+
+        int size = shapeData.tessellationIndices.limit();
 
-        if (shapeData.capFillIndexBuffers == null || shapeData.capFillIndexBuffers.size() < cb.getPrimTypes().size())
-            shapeData.capFillIndexBuffers = new ArrayList<IntBuffer>(cb.getPrimTypes().size());
+        if (shapeData.capFillIndices == null || shapeData.capFillIndices.capacity() < size)
+            shapeData.capFillIndices = BufferUtil.newIntBuffer(size);
         else
-            shapeData.capFillIndexBuffers.clear();
+            shapeData.capFillIndices.clear();
 
-        for (List<Integer> prim : cb.getPrims())
-        {
-            IntBuffer ib = shapeData.capFillIndices.slice();
-            for (Integer i : prim)
-            {
-                ib.put(i);
-            }
-            ib.flip();
-            shapeData.capFillIndexBuffers.add(ib);
-            shapeData.capFillIndices.position(shapeData.capFillIndices.position() + ib.limit());
-        }
+        shapeData.tessellationIndices.rewind();
+        shapeData.capFillIndices.put(shapeData.tessellationIndices);
+        shapeData.capFillIndices.flip();
+        shapeData.capFillIndexBuffers.add(shapeData.capFillIndices);
     }
 
     protected boolean isSameAsPreviousTerrain(Terrain terrain)
@@ -2334,15 +2308,14 @@ public class ExtrudedPolygon extends AbstractShape
     protected void intersectCap(Line line, ShapeData shapeData, List<Intersection> intersections)
         throws InterruptedException
     {
-        if (shapeData.cb.getPrimTypes() == null)
+        if (shapeData.capFillIndexBuffers == null)
             return;
 
-        for (int i = 0; i < shapeData.cb.getPrimTypes().size(); i++)
+        for (IntBuffer ib : shapeData.capFillIndexBuffers)
         {
-            IntBuffer ib = shapeData.capFillIndexBuffers.get(i);
             ib.rewind();
             List<Intersection> ti = Triangle.intersectTriangleTypes(line, shapeData.capVertexBuffer, ib,
-                shapeData.cb.getPrimTypes().get(i));
+                GL.GL_TRIANGLES);
 
             if (ti != null && ti.size() > 0)
                 intersections.addAll(ti);
@@ -33,6 +33,8 @@ public class GeographicTextRenderer
     private static final Color DEFAULT_COLOR = Color.white;
     private boolean cullText = false;
     private int cullTextMargin = 0;
+    /** Occupied screen regions used to cull overlapping text. Reused every frame. */
+    protected final DeclutterGrid declutterGrid = new DeclutterGrid();
     private String effect = AVKey.TEXT_EFFECT_SHADOW;
 
     // Distance scaling and fading
@@ -391,7 +393,10 @@ public class GeographicTextRenderer
 
                     Collections.sort(textList); // sort for rendering priority then front to back
 
-                    ArrayList<Rectangle2D> textBounds = new ArrayList<Rectangle2D>();
+                    // Screen regions of the text drawn so far, indexed by a grid so each text is only tested against
+                    // the text drawn near it.
+                    DeclutterGrid grid = GeographicTextRenderer.this.declutterGrid;
+                    grid.reset(dc.getView().getViewport());
                     for (OrderedText ot : textList)
                     {
                         double[] scaleAndOpacity = GeographicTextRenderer.this.computeDistanceScaleAndOpacity(dc, ot);
@@ -400,19 +405,9 @@ public class GeographicTextRenderer
                         if (newBounds == null)
                             continue;
 
-                        boolean overlap = false;
                         newBounds = GeographicTextRenderer.this.computeExpandedBounds(newBounds, cullTextMargin);
-                        for (Rectangle2D rect : textBounds)
-                        {
-                            if (rect.intersects(newBounds))
-                                overlap = true;
-                        }
-
-                        if (!overlap)
-                        {
-                            textBounds.add(newBounds);
+                        if (grid.addIfFree(newBounds))
                             GeographicTextRenderer.this.drawText(dc, ot, scaleAndOpacity[0], scaleAndOpacity[1]);
-                        }
                     }
                 }
                 else //just draw each label
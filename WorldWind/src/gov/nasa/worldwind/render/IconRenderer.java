@@ -11,7 +11,7 @@ import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.Layer;
-import gov.nasa.worldwind.pick.PickSupport;
+import gov.nasa.worldwind.pick.*;
 import gov.nasa.worldwind.terrain.SectorGeometryList;
 import gov.nasa.worldwind.util.*;
 
@@ -47,8 +47,10 @@ public class IconRenderer
     protected boolean alwaysUseAbsoluteElevation = false;
     protected OGLStackHandler oglStackHandler = new OGLStackHandler();
     protected boolean allowBatchPicking = true;
+    protected boolean screenPickingEnabled = false;
 
     protected PickSupport pickSupport = new PickSupport();
+    protected ScreenPickIndex screenPickIndex = new ScreenPickIndex();
 
     public IconRenderer()
     {
@@ -205,15 +207,58 @@ public class IconRenderer
         this.allowBatchPicking = allowBatchPicking;
     }
 
+    /**
+     * Indicates whether icons are picked from the screen rectangles they occupied in the previous frame rather than by
+     * drawing them in unique pick colors.
+     *
+     * @return true if screen picking is enabled, otherwise false.
+     *
+     * @see #setScreenPickingEnabled(boolean)
+     */
+    public boolean isScreenPickingEnabled()
+    {
+        return this.screenPickingEnabled;
+    }
+
+    /**
+     * Specifies whether icons are picked from the screen rectangles they occupied in the previous frame rather than by
+     * drawing them in unique pick colors. Screen picking neither draws the icons nor reads the frame buffer, and its
+     * cost does not grow with the number of icons drawn, so it suits layers with many icons. Unlike color picking, it
+     * picks an icon anywhere within its rectangle, including transparent parts of its image, and does not consider
+     * terrain occluding the icon. Picks are resolved as for batch picking: at most one icon per layer is reported at
+     * the pick point. The default value is false.
+     *
+     * @param screenPickingEnabled true if screen picking is enabled, otherwise false.
+     *
+     * @see gov.nasa.worldwind.pick.ScreenPickIndex
+     */
+    public void setScreenPickingEnabled(boolean screenPickingEnabled)
+    {
+        this.screenPickingEnabled = screenPickingEnabled;
+        this.screenPickIndex.clear();
+    }
+
     @SuppressWarnings( {"UnusedDeclaration"})
     public void pick(DrawContext dc, Iterable<? extends WWIcon> icons, java.awt.Point pickPoint, Layer layer)
     {
+        // Resolve the pick from the previous frame's icon rectangles if they've been recorded. Otherwise fall back to
+        // color picking, for instance before the first frame is drawn.
+        if (this.isScreenPickingEnabled() && this.screenPickIndex.hasFrame())
+        {
+            this.screenPickIndex.resolvePick(dc, pickPoint, layer);
+            return;
+        }
+
         this.drawMany(dc, icons, layer);
     }
 
     public void render(DrawContext dc, Iterable<? extends WWIcon> icons)
     {
-        this.drawMany(dc, icons, null);
+        // Start a new frame even if no icons are drawn, so that icons drawn in the previous frame are not picked.
+        if (this.isScreenPickingEnabled() && dc != null)
+            this.screenPickIndex.beginFrame(dc);
+
+        this.drawMany(dc, icons, dc != null ? dc.getCurrentLayer() : null);
     }
 
     protected void drawMany(DrawContext dc, Iterable<? extends WWIcon> icons, Layer layer)
@@ -695,6 +740,10 @@ public class IconRenderer
                 gl.glColor3ub((byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue());
             }
         }
+        else if (this.isScreenPickingEnabled())
+        {
+            this.screenPickIndex.add(dc, icon, uIcon.getPosition(), rect, uIcon.layer);
+        }
 
         if (icon.getBackgroundTexture() != null)
             this.applyBackground(dc, icon, screenPoint, width, height, pedestalSpacing, pedestalScale);
@@ -19,7 +19,6 @@ import gov.nasa.worldwind.terrain.Terrain;
 import gov.nasa.worldwind.util.*;
 
 import javax.media.opengl.GL;
-import javax.media.opengl.glu.GLU;
 import javax.xml.stream.*;
 import java.io.*;
 import java.nio.*;
@@ -61,8 +60,8 @@ public class Polygon extends AbstractShape
         protected FloatBuffer normalBuffer;
         /** The index of the first normal in the <code>coordBuffer</code>. */
         protected int normalBufferPosition;
-        /** This shape's tessellation indices. */
-        protected GLUTessellatorSupport.CollectIndexListsCallback cb; // the tessellated polygon indices
+        /** This shape's tessellation indices, three per triangle. */
+        protected IntBuffer tessellationIndices; // the tessellated polygon indices
         /**
          * The indices identifying the cap vertices in a shape data's vertex buffer. Determined when this shape is
          * tessellated, which occurs only once unless the shape's boundaries are re-specified.
@@ -973,7 +972,7 @@ public class Polygon extends AbstractShape
             shapeData.coordBuffer.position(shapeData.coordBuffer.position() + boundary.vertexBuffer.limit());
         }
 
-        if (shapeData.cb == null && !shapeData.tessellationError)
+        if (shapeData.tessellationIndices == null && !shapeData.tessellationError)
             this.createTessllationGeometry(dc, shapeData);
 
         if (shapeData.refillIndexBuffer)
@@ -1168,73 +1167,39 @@ public class Polygon extends AbstractShape
      */
     protected void tessellatePolygon(ShapeData shapeData, Vec4 normal)
     {
-        GLU glu = new GLU();
+        PolygonTriangulator triangulator = PolygonTriangulator.getThreadLocalTriangulator();
+        triangulator.beginPolygon(normal);
 
-        GLUTessellatorSupport glts = new GLUTessellatorSupport();
-        shapeData.cb = new GLUTessellatorSupport.CollectIndexListsCallback();
-
-        glts.beginTessellation(glu, shapeData.cb, normal);
-        try
+        for (BoundaryInfo boundary : shapeData)
         {
-            double[] coords = new double[3];
-
-            glu.gluTessBeginPolygon(glts.getGLUtessellator(), null);
-
-            int k = 0;
-            for (BoundaryInfo boundary : shapeData)
+            triangulator.beginContour();
+            FloatBuffer vBuf = boundary.vertexBuffer;
+            for (int i = 0; i < boundary.positions.size(); i++)
             {
-                glu.gluTessBeginContour(glts.getGLUtessellator());
-                FloatBuffer vBuf = boundary.vertexBuffer;
-                for (int i = 0; i < boundary.positions.size(); i++)
-                {
-                    coords[0] = vBuf.get(i * 3);
-                    coords[1] = vBuf.get(i * 3 + 1);
-                    coords[2] = vBuf.get(i * 3 + 2);
-
-                    glu.gluTessVertex(glts.getGLUtessellator(), coords, 0, k++);
-                }
-                glu.gluTessEndContour(glts.getGLUtessellator());
+                triangulator.addVertex(vBuf.get(i * 3), vBuf.get(i * 3 + 1), vBuf.get(i * 3 + 2));
             }
-
-            glu.gluTessEndPolygon(glts.getGLUtessellator());
-        }
-        finally
-        {
-            // Free any heap memory used for tessellation immediately. If tessellation has consumed all available
-            // heap memory, we must free memory used by tessellation immediately or subsequent operations such as
-            // message logging will fail.
-            glts.endTessellation(glu);
+            triangulator.endContour();
         }
+
+        int numIndices = triangulator.endPolygon(false);
+        shapeData.tessellationIndices = IntBuffer.allocate(numIndices);
+        shapeData.tessellationIndices.put(triangulator.getIndices(), 0, numIndices).flip();
     }
 
     protected void generateInteriorIndices(ShapeData shapeData)
     {
-        GLUTessellatorSupport.CollectIndexListsCallback cb = shapeData.cb;
-        int size = this.countTriangleVertices(cb.getPrims(), cb.getPrimTypes());
+        if (shapeData.tessellationIndices == null)
+            return;
+
+        int size = shapeData.tessellationIndices.limit();
 
         if (shapeData.interiorIndicesBuffer == null || shapeData.interiorIndicesBuffer.capacity() < size)
             shapeData.interiorIndicesBuffer = BufferUtil.newIntBuffer(size);
         else
             shapeData.interiorIndicesBuffer.clear();
 
-        for (int i = 0; i < cb.getPrims().size(); i++)
-        {
-            switch (cb.getPrimTypes().get(i))
-            {
-                case GL.GL_TRIANGLES:
-                    Triangle.expandTriangles(cb.getPrims().get(i), shapeData.interiorIndicesBuffer);
-                    break;
-
-                case GL.GL_TRIANGLE_FAN:
-                    Triangle.expandTriangleFan(cb.getPrims().get(i), shapeData.interiorIndicesBuffer);
-                    break;
-
-                case GL.GL_TRIANGLE_STRIP:
-                    Triangle.expandTriangleStrip(cb.getPrims().get(i), shapeData.interiorIndicesBuffer);
-                    break;
-            }
-        }
-
+        shapeData.tessellationIndices.rewind();
+        shapeData.interiorIndicesBuffer.put(shapeData.tessellationIndices);
         shapeData.interiorIndicesBuffer.flip();
         shapeData.refillIndexBuffer = false;
         shapeData.refillIndexVBO = true;
@@ -1349,7 +1314,7 @@ public class Polygon extends AbstractShape
     protected void intersect(Line line, ShapeData shapeData, List<Intersection> intersections)
         throws InterruptedException
     {
-        if (shapeData.cb.getPrims() == null)
+        if (shapeData.tessellationIndices == null)
             return;
 
         IntBuffer ib = shapeData.interiorIndicesBuffer;
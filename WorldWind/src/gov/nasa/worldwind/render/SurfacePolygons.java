@@ -12,7 +12,6 @@ import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.util.*;
 
 import javax.media.opengl.GL;
-import javax.media.opengl.glu.*;
 import java.util.*;
 import java.util.logging.Level;
 
@@ -204,18 +203,14 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
     protected int[] doTessellateInterior(DrawContext dc, LatLon referenceLocation)
     {
         GL gl = dc.getGL();
-        GLU glu = dc.getGLU();
-        GLUtessellatorCallback cb = GLUTessellatorSupport.createOGLDrawPrimitivesCallback(dc.getGL());
+        PolygonTriangulator triangulator = PolygonTriangulator.getThreadLocalTriangulator();
 
         int[] dlResource = new int[] {dc.getGL().glGenLists(1), 1};
-        GLUTessellatorSupport glts = new GLUTessellatorSupport();
 
         try
         {
-            glts.beginTessellation(glu, cb, new Vec4(0, 0, 1));
             dc.getGL().glNewList(dlResource[0], GL.GL_COMPILE);
-            int numBytes = this.tessellateInteriorVertices(glu, glts.getGLUtessellator(), referenceLocation);
-            glts.endTessellation(glu);
+            int numBytes = this.tessellateInteriorVertices(gl, triangulator, referenceLocation);
             gl.glEndList();
             this.needsInteriorTessellation = false;
 
@@ -226,11 +221,7 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
         }
         catch (Throwable e)
         {
-            // Free any heap memory used for tessellation immediately. If tessellation has consumed all available heap
-            // memory, we must free memory used by tessellation immediately or subsequent operations such as message
-            // logging will fail.
             gl.glEndList();
-            glts.endTessellation(glu);
             dc.getGL().glDeleteLists(dlResource[0], dlResource[1]);
 
             String message = Logging.getMessage("generic.ExceptionWhileTessellating", this);
@@ -258,11 +249,11 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
         this.onGeometryChanged();
     }
 
-    protected int tessellateInteriorVertices(GLU glu, GLUtessellator tess, LatLon referenceLocation)
+    protected int tessellateInteriorVertices(GL gl, PolygonTriangulator triangulator, LatLon referenceLocation)
     {
-        // Setup the winding order to correctly tessellate the outer and inner rings.
-        glu.gluTessProperty(tess, GLU.GLU_TESS_WINDING_RULE, this.windingRule.equals(AVKey.CLOCKWISE) ?
-            GLU.GLU_TESS_WINDING_NEGATIVE : GLU.GLU_TESS_WINDING_POSITIVE);
+        // The triangulator distinguishes outer and inner rings by their nesting rather than their winding order. For
+        // well formed rings, where inner rings have the opposite winding of their outer ring, this produces the same
+        // result as tessellating with the negative or positive winding rule that matches this shape's winding rule.
 
         this.crossesDateLine = false;
 
@@ -271,6 +262,7 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
         if (this.polygonRingGroups == null)
         {
             boolean inBeginPolygon = false;
+            triangulator.beginPolygon(); // Discard any rings preceding the first outer ring.
 
             // Polygon rings are drawn following the sub buffers order. If the winding rule is CW all clockwise
             // rings are considered an outer ring possibly followed by counter clock wise inner rings.
@@ -283,18 +275,18 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
                 if (WWMath.computeWindingOrderOfLocations(vecBuffer.getLocations()).equals(this.getWindingRule()))
                 {
                     if (inBeginPolygon)
-                        glu.gluTessEndPolygon(tess);
+                        this.endInteriorPolygon(gl, triangulator);
 
-                    glu.gluTessBeginPolygon(tess, null);
+                    triangulator.beginPolygon();
                     inBeginPolygon = true;
                 }
 
-                if (tessellateRing(glu, tess, vecBuffer, referenceLocation))
+                if (tessellateRing(triangulator, vecBuffer, referenceLocation))
                     this.crossesDateLine = true;
             }
 
             if (inBeginPolygon)
-                glu.gluTessEndPolygon(tess);
+                this.endInteriorPolygon(gl, triangulator);
         }
         else
         {
@@ -306,29 +298,35 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
                 int groupLength = (group == numGroups - 1) ? numRings - groupStart
                     : this.polygonRingGroups[group + 1] - groupStart;
 
-                glu.gluTessBeginPolygon(tess, null);
+                triangulator.beginPolygon();
                 for (int i = 0; i < groupLength; i++)
                 {
                     VecBuffer subBuffer = this.buffer.subBuffer(groupStart + i);
                     numBytes += subBuffer.getSize() * 3 * 4; // 3 float coords per vertex
-                    if (tessellateRing(glu, tess, subBuffer, referenceLocation))
+                    if (tessellateRing(triangulator, subBuffer, referenceLocation))
                         this.crossesDateLine = true;
                 }
-                glu.gluTessEndPolygon(tess);
+                this.endInteriorPolygon(gl, triangulator);
             }
         }
 
         return numBytes;
     }
 
-    protected boolean tessellateRing(GLU glu, GLUtessellator tess, VecBuffer vecBuffer, LatLon referenceLocation)
+    protected void endInteriorPolygon(GL gl, PolygonTriangulator triangulator)
+    {
+        triangulator.endPolygon();
+        this.drawInteriorTriangles(gl, triangulator);
+    }
+
+    protected boolean tessellateRing(PolygonTriangulator triangulator, VecBuffer vecBuffer, LatLon referenceLocation)
     {
         // Check for pole wrapping shape
         List<double[]> dateLineCrossingPoints = this.computeDateLineCrossingPoints(vecBuffer);
         int pole = this.computePole(dateLineCrossingPoints);
         double[] poleWrappingPoint = this.computePoleWrappingPoint(pole, dateLineCrossingPoints);
 
-        glu.gluTessBeginContour(tess);
+        triangulator.beginContour();
         Iterable<double[]> iterable = vecBuffer.getCoords(3);
         boolean dateLineCrossed = false;
         int sign = 0;
@@ -349,15 +347,15 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
                 polePoint2[0] *= -1;
 
                 // Move to date line then to pole
-                tessVertex(glu, tess, dateLinePoint1, referenceLocation);
-                tessVertex(glu, tess, polePoint1, referenceLocation);
+                tessVertex(triangulator, dateLinePoint1, referenceLocation);
+                tessVertex(triangulator, polePoint1, referenceLocation);
 
                 // Move to the other side of the date line
-                tessVertex(glu, tess, polePoint2, referenceLocation);
-                tessVertex(glu, tess, dateLinePoint2, referenceLocation);
+                tessVertex(triangulator, polePoint2, referenceLocation);
+                tessVertex(triangulator, dateLinePoint2, referenceLocation);
 
                 // Finally, draw current point past the date line
-                tessVertex(glu, tess, coords, referenceLocation);
+                tessVertex(triangulator, coords, referenceLocation);
 
                 dateLineCrossed = true;
             }
@@ -373,20 +371,18 @@ public class SurfacePolygons extends SurfacePolylines // TODO: Review
                 previousPoint = coords.clone();
 
                 coords[0] += sign * 360;   // apply hemisphere offset
-                tessVertex(glu, tess, coords, referenceLocation);
+                tessVertex(triangulator, coords, referenceLocation);
             }
         }
-        glu.gluTessEndContour(tess);
+        triangulator.endContour();
 
         return dateLineCrossed;
     }
 
-    private static void tessVertex(GLU glu, GLUtessellator tess, double[] coords, LatLon referenceLocation)
+    private static void tessVertex(PolygonTriangulator triangulator, double[] coords, LatLon referenceLocation)
     {
-        double[] vertex = new double[3];
-        vertex[0] = coords[0] - referenceLocation.getLongitude().degrees;
-        vertex[1] = coords[1] - referenceLocation.getLatitude().degrees;
-        glu.gluTessVertex(tess, vertex, 0, vertex);
+        triangulator.addVertex(coords[0] - referenceLocation.getLongitude().degrees,
+            coords[1] - referenceLocation.getLatitude().degrees);
     }
 
     // --- Pole wrapping shapes handling ---
@@ -150,8 +150,9 @@ public class TrackRenderer implements Disposable
                 {
                     java.awt.Color color = dc.getUniquePickColor();
                     int colorCode = color.getRGB();
+                    Position pos = tp.getPosition();
                     PickedObject po = new PickedObject(colorCode,
-                        this.getClient() != null ? this.getClient() : tp.getPosition(), tp.getPosition(), false);
+                        this.getClient() != null ? this.getClient() : pos, pos, false);
                     po.setValue(AVKey.PICKED_OBJECT_ID, index);
                     this.pickSupport.addPickableObject(po);
                     dc.getGL().glColor3ub((byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue());
@@ -253,18 +254,21 @@ public class TrackRenderer implements Disposable
 
     protected Vec4 computeSurfacePoint(DrawContext dc, TrackPoint tp)
     {
-        Position pos = tp.getPosition();
+        // Read the point's coordinates rather than its position, which track points backed by columnar storage
+        // create on each call.
+        Angle lat = Angle.fromDegrees(tp.getLatitude());
+        Angle lon = Angle.fromDegrees(tp.getLongitude());
 
         if (!this.overrideMarkerElevation)
-            return dc.getGlobe().computePointFromPosition(pos);
+            return dc.getGlobe().computePointFromPosition(lat, lon, tp.getElevation());
 
         // Compute points that are at the track-specified elevation
-        Vec4 point = dc.getSurfaceGeometry().getSurfacePoint(pos.getLatitude(), pos.getLongitude(), this.elevation);
+        Vec4 point = dc.getSurfaceGeometry().getSurfacePoint(lat, lon, this.elevation);
         if (point != null)
             return point;
 
         // Point is outside the current sector geometry, so compute it from the globe.
-        return dc.getGlobe().computePointFromPosition(pos.getLatitude(), pos.getLongitude(), this.elevation);
+        return dc.getGlobe().computePointFromPosition(lat, lon, this.elevation);
     }
 
     protected void begin(DrawContext dc)
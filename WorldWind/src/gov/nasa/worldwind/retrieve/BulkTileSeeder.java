@@ -0,0 +1,700 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.retrieve;
+
+import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Seeds a {@link FileStore} with the tiles of a {@link LevelSet} that intersect a sector, from the first level through
+ * a specified level. Subclasses define how tiles are created and retrieved for a particular layer or elevation model.
+ * <p/>
+ * Missing tiles are found by listing each tile row's directory in the file store once, rather than by looking up each
+ * tile individually. Missing tiles are retrieved by a fixed number of worker threads, each of which fetches a tile,
+ * verifies and writes it using the retriever's post-processor, and then checks that the tile's file exists. The
+ * enumeration of subsequent rows continues while earlier tiles are retrieved, but the number of tiles waiting for a
+ * worker is bounded.
+ * <p/>
+ * Rows whose tiles are all local are recorded in a manifest file in the file store. If seeding is interrupted, a
+ * subsequent seeder for the same level set, sector and level skips those rows. The manifest is deleted when seeding
+ * completes without any failed or absent tiles.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public abstract class BulkTileSeeder
+{
+    /** The default number of tiles retrieved concurrently. */
+    public static final int DEFAULT_NUM_THREADS = 4;
+    /** The suffix of manifest file names. */
+    protected static final String MANIFEST_SUFFIX = ".manifest";
+
+    protected final LevelSet levels;
+    protected final Sector sector;
+    protected final int maxLevel;
+    protected final FileStore fileStore;
+    protected int numThreads = DEFAULT_NUM_THREADS;
+    protected File manifestFile;
+    protected Writer manifestWriter;
+
+    protected final AtomicLong numLocal = new AtomicLong();
+    protected final AtomicLong numAbsent = new AtomicLong();
+    protected final AtomicLong numRetrieved = new AtomicLong();
+    protected final AtomicLong numFailed = new AtomicLong();
+    protected final AtomicLong numBytes = new AtomicLong();
+    protected volatile long startTime;
+    protected volatile long endTime;
+
+    /** The number of outstanding tiles in a row, and whether any of them could not be made local. */
+    protected class RowState
+    {
+        protected final String key;
+        protected final AtomicInteger pending = new AtomicInteger(1); // released once the row has been enumerated
+        protected volatile boolean incomplete;
+
+        public RowState(String key)
+        {
+            this.key = key;
+        }
+
+        public void tileStarted()
+        {
+            this.pending.incrementAndGet();
+        }
+
+        public void tileDone(boolean isLocal)
+        {
+            if (!isLocal)
+                this.incomplete = true;
+
+            if (this.pending.decrementAndGet() == 0 && !this.incomplete)
+                rowCompleted(this.key);
+        }
+    }
+
+    /**
+     * Constructs a seeder for the tiles of a level set within a sector, from the first level through a specified
+     * level.
+     *
+     * @param levels    the level set defining the tiles.
+     * @param sector    the sector to seed.
+     * @param maxLevel  the number of the last level to seed.
+     * @param fileStore the file store to seed.
+     *
+     * @throws IllegalArgumentException if the level set, sector or file store is null.
+     */
+    public BulkTileSeeder(LevelSet levels, Sector sector, int maxLevel, FileStore fileStore)
+    {
+        if (levels == null)
+        {
+            String msg = Logging.getMessage("nullValue.LevelSetIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (sector == null)
+        {
+            String msg = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (fileStore == null)
+        {
+            String msg = Logging.getMessage("nullValue.FileStoreIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.levels = levels;
+        this.sector = sector;
+        this.maxLevel = Math.min(maxLevel, levels.getLastLevel().getLevelNumber());
+        this.fileStore = fileStore;
+    }
+
+    /**
+     * Creates the tile at a specified row and column of a level.
+     *
+     * @param sector the tile's sector.
+     * @param level  the tile's level.
+     * @param row    the tile's row.
+     * @param column the tile's column.
+     *
+     * @return the new tile.
+     */
+    protected abstract Tile createTile(Sector sector, Level level, int row, int column);
+
+    /**
+     * Creates a retriever that fetches a tile and writes it to this seeder's file store when called. The retriever is
+     * called on one of this seeder's worker threads.
+     *
+     * @param tile the tile to retrieve.
+     *
+     * @return the new retriever, or null if the tile cannot be retrieved.
+     */
+    protected abstract Retriever createRetriever(Tile tile);
+
+    /**
+     * Called on a worker thread when a tile has been retrieved and written to the file store. The default
+     * implementation does nothing.
+     *
+     * @param tile      the retrieved tile.
+     * @param retriever the tile's retriever.
+     * @param size      the size in bytes of the tile's file.
+     */
+    protected void tileRetrieved(Tile tile, Retriever retriever, long size)
+    {
+    }
+
+    /**
+     * Called when a tile is found to be absent, either during enumeration or after retrieval. The default
+     * implementation does nothing.
+     *
+     * @param tile      the absent tile.
+     * @param retriever the tile's retriever, or null if the tile was absent before retrieval.
+     */
+    protected void tileAbsent(Tile tile, Retriever retriever)
+    {
+    }
+
+    /**
+     * Called on a worker thread when a tile could not be retrieved. The default implementation does nothing.
+     *
+     * @param tile      the tile.
+     * @param retriever the tile's retriever, or null if no retriever could be created.
+     */
+    protected void tileFailed(Tile tile, Retriever retriever)
+    {
+    }
+
+    public LevelSet getLevels()
+    {
+        return this.levels;
+    }
+
+    public Sector getSector()
+    {
+        return this.sector;
+    }
+
+    public int getMaxLevel()
+    {
+        return this.maxLevel;
+    }
+
+    public FileStore getFileStore()
+    {
+        return this.fileStore;
+    }
+
+    /**
+     * Indicates the number of tiles retrieved concurrently.
+     *
+     * @return the number of worker threads.
+     */
+    public int getNumThreads()
+    {
+        return this.numThreads;
+    }
+
+    /**
+     * Specifies the number of tiles retrieved concurrently.
+     *
+     * @param numThreads the number of worker threads.
+     *
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setNumThreads(int numThreads)
+    {
+        if (numThreads < 1)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", numThreads);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Indicates the file recording the rows that have been completely seeded. Unless specified by {@link
+     * #setManifestFile(java.io.File)}, the manifest is in the level set's cache directory of the file store's write
+     * location, and its name identifies this seeder's sector and last level.
+     *
+     * @return the manifest file.
+     */
+    public File getManifestFile()
+    {
+        if (this.manifestFile == null)
+        {
+            String name = "BulkSeed_" + this.maxLevel + "_" + Integer.toHexString(this.sector.hashCode())
+                + MANIFEST_SUFFIX;
+            this.manifestFile = new File(this.fileStore.getWriteLocation(),
+                this.levels.getFirstLevel().getCacheName() + File.separator + name);
+        }
+
+        return this.manifestFile;
+    }
+
+    public void setManifestFile(File file)
+    {
+        this.manifestFile = file;
+    }
+
+    /** @return the number of tiles that were already in the file store. */
+    public long getNumLocalTiles()
+    {
+        return this.numLocal.get();
+    }
+
+    /** @return the number of tiles marked absent in the level set. */
+    public long getNumAbsentTiles()
+    {
+        return this.numAbsent.get();
+    }
+
+    /** @return the number of tiles retrieved and written to the file store. */
+    public long getNumRetrievedTiles()
+    {
+        return this.numRetrieved.get();
+    }
+
+    /** @return the number of tiles that could not be retrieved. */
+    public long getNumFailedTiles()
+    {
+        return this.numFailed.get();
+    }
+
+    /** @return the number of bytes written to the file store. */
+    public long getNumBytes()
+    {
+        return this.numBytes.get();
+    }
+
+    /**
+     * Indicates the time spent seeding, either so far or in total if seeding has finished.
+     *
+     * @return the elapsed time in milliseconds, or 0 if seeding has not started.
+     */
+    public long getElapsedTime()
+    {
+        if (this.startTime == 0)
+            return 0;
+
+        return (this.endTime != 0 ? this.endTime : System.currentTimeMillis()) - this.startTime;
+    }
+
+    /** @return the number of tiles retrieved per second. */
+    public double getTilesPerSecond()
+    {
+        long time = this.getElapsedTime();
+        return time > 0 ? 1000d * this.numRetrieved.get() / time : 0;
+    }
+
+    /** @return the number of bytes retrieved per second. */
+    public double getBytesPerSecond()
+    {
+        long time = this.getElapsedTime();
+        return time > 0 ? 1000d * this.numBytes.get() / time : 0;
+    }
+
+    /**
+     * Computes the number of tiles in this seeder's sector, from the first level through the last level, excluding
+     * empty levels.
+     *
+     * @return the number of tiles.
+     */
+    public long countTiles()
+    {
+        long count = 0;
+        for (int levelNumber = 0; levelNumber <= this.maxLevel; levelNumber++)
+        {
+            if (this.levels.isLevelEmpty(levelNumber))
+                continue;
+
+            int[] range = this.computeTileRange(this.levels.getLevel(levelNumber));
+            count += (long) (range[1] - range[0] + 1) * (range[3] - range[2] + 1);
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves all tiles in this seeder's sector and levels that are not in the file store. This blocks until all
+     * tiles have been either retrieved or found to be absent or unavailable.
+     *
+     * @throws InterruptedException if the calling thread is interrupted. Outstanding retrievals are cancelled.
+     */
+    public void seed() throws InterruptedException
+    {
+        this.startTime = System.currentTimeMillis();
+        this.endTime = 0;
+
+        Set<String> completedRows = this.readManifest();
+        this.openManifest();
+
+        ExecutorService executor = this.createExecutor();
+        // Limit the number of enumerated tiles waiting for a worker thread.
+        Semaphore permits = new Semaphore(2 * this.numThreads);
+        boolean finished = false;
+
+        try
+        {
+            for (int levelNumber = 0; levelNumber <= this.maxLevel; levelNumber++)
+            {
+                if (this.levels.isLevelEmpty(levelNumber))
+                    continue;
+
+                Level level = this.levels.getLevel(levelNumber);
+                int[] range = this.computeTileRange(level);
+
+                for (int row = range[0]; row <= range[1]; row++)
+                {
+                    if (Thread.currentThread().isInterrupted())
+                        throw new InterruptedException();
+
+                    String rowKey = levelNumber + "/" + row;
+                    if (completedRows.contains(rowKey))
+                    {
+                        this.numLocal.addAndGet(range[3] - range[2] + 1);
+                        continue;
+                    }
+
+                    this.seedRow(level, row, range[2], range[3], rowKey, executor, permits);
+                }
+            }
+
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS))
+            {
+                // Wait for the outstanding retrievals.
+            }
+
+            finished = true;
+        }
+        finally
+        {
+            if (!finished)
+                executor.shutdownNow();
+
+            this.endTime = System.currentTimeMillis();
+            this.closeManifest();
+
+            if (finished && this.numFailed.get() == 0 && this.numAbsent.get() == 0)
+                this.getManifestFile().delete();
+        }
+    }
+
+    protected void seedRow(Level level, int row, int minColumn, int maxColumn, String rowKey,
+        ExecutorService executor, Semaphore permits) throws InterruptedException
+    {
+        Set<String> names = this.listRow(level, row);
+        RowState rowState = new RowState(rowKey);
+        boolean enumerated = false;
+
+        try
+        {
+            for (int column = minColumn; column <= maxColumn; column++)
+            {
+                TileKey key = new TileKey(level.getLevelNumber(), row, column, level.getCacheName());
+                Tile tile = this.createTile(this.levels.computeSectorForKey(key), level, row, column);
+
+                if (this.levels.isResourceAbsent(tile))
+                {
+                    this.numAbsent.incrementAndGet();
+                    rowState.incomplete = true;
+                    this.tileAbsent(tile, null);
+                    continue;
+                }
+
+                if (this.isTileLocal(tile, names))
+                {
+                    this.numLocal.incrementAndGet();
+                    continue;
+                }
+
+                permits.acquire();
+                rowState.tileStarted();
+                try
+                {
+                    executor.execute(this.createSeedTask(tile, rowState, permits));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    permits.release();
+                    rowState.tileDone(false);
+                    throw e;
+                }
+            }
+
+            enumerated = true;
+        }
+        finally
+        {
+            // A row that was not completely enumerated must not be recorded in the manifest.
+            rowState.tileDone(enumerated);
+        }
+    }
+
+    protected Runnable createSeedTask(final Tile tile, final RowState rowState, final Semaphore permits)
+    {
+        return new Runnable()
+        {
+            public void run()
+            {
+                boolean isLocal = false;
+                try
+                {
+                    isLocal = retrieveTile(tile);
+                }
+                finally
+                {
+                    permits.release();
+                    rowState.tileDone(isLocal);
+                }
+            }
+        };
+    }
+
+    /**
+     * Fetches, verifies and writes a tile, and updates this seeder's counts.
+     *
+     * @param tile the tile to retrieve.
+     *
+     * @return true if the tile was written to the file store, otherwise false.
+     */
+    protected boolean retrieveTile(Tile tile)
+    {
+        if (Thread.currentThread().isInterrupted())
+            return false;
+
+        Retriever retriever = null;
+        try
+        {
+            retriever = this.createRetriever(tile);
+            if (retriever != null)
+                retriever.call(); // fetches the tile, then verifies and writes it in the retriever's post-processor
+        }
+        catch (Exception e)
+        {
+            Logging.logger().log(java.util.logging.Level.FINE,
+                Logging.getMessage("generic.BulkRetrievalOfTileFailed", tile.getPath()), e);
+        }
+
+        if (this.levels.isResourceAbsent(tile))
+        {
+            this.numAbsent.incrementAndGet();
+            this.tileAbsent(tile, retriever);
+            return false;
+        }
+
+        File file = new File(this.fileStore.getWriteLocation(), tile.getPath());
+        if (retriever != null && Retriever.RETRIEVER_STATE_SUCCESSFUL.equals(retriever.getState()) && file.exists())
+        {
+            long size = file.length();
+            this.numRetrieved.incrementAndGet();
+            this.numBytes.addAndGet(size);
+            this.tileRetrieved(tile, retriever, size);
+            return true;
+        }
+
+        this.numFailed.incrementAndGet();
+        this.tileFailed(tile, retriever);
+        return false;
+    }
+
+    /**
+     * Computes the range of rows and columns of the tiles in a level that intersect this seeder's sector.
+     *
+     * @param level the level.
+     *
+     * @return an array containing the minimum row, maximum row, minimum column and maximum column, in that order.
+     */
+    protected int[] computeTileRange(Level level)
+    {
+        LatLon delta = level.getTileDelta();
+        LatLon origin = this.levels.getTileOrigin();
+
+        return new int[] {
+            Tile.computeRow(delta.getLatitude(), this.sector.getMinLatitude(), origin.getLatitude()),
+            Tile.computeRow(delta.getLatitude(), this.sector.getMaxLatitude(), origin.getLatitude()),
+            Tile.computeColumn(delta.getLongitude(), this.sector.getMinLongitude(), origin.getLongitude()),
+            Tile.computeColumn(delta.getLongitude(), this.sector.getMaxLongitude(), origin.getLongitude())};
+    }
+
+    /**
+     * Lists the names of the files in a tile row's directory, in all of the file store's locations.
+     *
+     * @param level the row's level.
+     * @param row   the row.
+     *
+     * @return the file names in the row, which is empty if the row's directory does not exist.
+     */
+    protected Set<String> listRow(Level level, int row)
+    {
+        Set<String> names = new HashSet<String>();
+        String rowPath = level.getPath() + File.separator + row;
+
+        for (File location : this.fileStore.getLocations())
+        {
+            String[] list = new File(location, rowPath).list();
+            if (list != null)
+                names.addAll(Arrays.asList(list));
+        }
+
+        return names;
+    }
+
+    /**
+     * Indicates whether a tile is in the file store and has not expired. Expired tiles are removed from the file
+     * store.
+     *
+     * @param tile  the tile.
+     * @param names the file names in the tile's row. See {@link #listRow(gov.nasa.worldwind.util.Level, int)}.
+     *
+     * @return true if the tile is local, otherwise false.
+     */
+    protected boolean isTileLocal(Tile tile, Set<String> names)
+    {
+        String path = tile.getPath();
+        if (!names.contains(path.substring(path.lastIndexOf('/') + 1)))
+            return false;
+
+        long expiryTime = tile.getLevel().getExpiryTime();
+        if (expiryTime <= 0)
+            return true;
+
+        for (File location : this.fileStore.getLocations())
+        {
+            File file = new File(location, path);
+            if (file.exists() && file.lastModified() < expiryTime)
+            {
+                try
+                {
+                    this.fileStore.removeFile(file.toURI().toURL());
+                }
+                catch (java.net.MalformedURLException e)
+                {
+                    Logging.logger().log(java.util.logging.Level.WARNING,
+                        Logging.getMessage("generic.MalformedURL", file), e);
+                }
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected ExecutorService createExecutor()
+    {
+        return Executors.newFixedThreadPool(this.numThreads, new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "World Wind Bulk Tile Seeder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    protected Set<String> readManifest()
+    {
+        Set<String> rows = new HashSet<String>();
+
+        File file = this.getManifestFile();
+        if (!file.exists())
+            return rows;
+
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.length() > 0 && !line.startsWith("#"))
+                    rows.add(line);
+            }
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(java.util.logging.Level.WARNING,
+                Logging.getMessage("generic.ExceptionAttemptingToReadFile", file), e);
+        }
+        finally
+        {
+            WWIO.closeStream(reader, file.getPath());
+        }
+
+        return rows;
+    }
+
+    protected synchronized void openManifest()
+    {
+        File file = this.getManifestFile();
+        try
+        {
+            boolean isNew = !file.exists();
+            if (isNew && file.getParentFile() != null)
+                file.getParentFile().mkdirs();
+
+            this.manifestWriter = new BufferedWriter(new FileWriter(file, true));
+            if (isNew)
+            {
+                this.manifestWriter.write("# " + this.sector + " levels 0-" + this.maxLevel);
+                this.manifestWriter.write(System.getProperty("line.separator"));
+                this.manifestWriter.flush();
+            }
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(java.util.logging.Level.WARNING,
+                Logging.getMessage("generic.ExceptionAttemptingToWriteTo", file), e);
+            this.manifestWriter = null;
+        }
+    }
+
+    protected synchronized void closeManifest()
+    {
+        WWIO.closeStream(this.manifestWriter, this.getManifestFile().getPath());
+        this.manifestWriter = null;
+    }
+
+    /**
+     * Records in the manifest that all tiles of a row are local.
+     *
+     * @param rowKey the row's key, formed from its level number and row number.
+     */
+    protected synchronized void rowCompleted(String rowKey)
+    {
+        if (this.manifestWriter == null)
+            return;
+
+        try
+        {
+            this.manifestWriter.write(rowKey);
+            this.manifestWriter.write(System.getProperty("line.separator"));
+            this.manifestWriter.flush();
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(java.util.logging.Level.WARNING,
+                Logging.getMessage("generic.ExceptionAttemptingToWriteTo", this.getManifestFile()), e);
+            WWIO.closeStream(this.manifestWriter, this.getManifestFile().getPath());
+            this.manifestWriter = null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.retrieve;
+
+import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
+
+/**
+ * Runs a request task issued for a predicted view, unless the view's motion has changed since the task was created. Two
+ * prefetch tasks are equal if their request tasks are equal, so the task service does not queue duplicate prefetches.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class PrefetchTask implements Runnable
+{
+    protected final Runnable task;
+    protected final ViewMotionPredictor predictor;
+    protected final long motionId;
+
+    /**
+     * Creates a prefetch task for the predictor's current motion.
+     *
+     * @param task      the request task to run.
+     * @param predictor the predictor whose motion the task was issued for.
+     *
+     * @throws IllegalArgumentException if the task or predictor is null.
+     */
+    public PrefetchTask(Runnable task, ViewMotionPredictor predictor)
+    {
+        if (task == null)
+        {
+            String message = Logging.getMessage("nullValue.RunnableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (predictor == null)
+        {
+            String message = Logging.getMessage("nullValue.PredictorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.task = task;
+        this.predictor = predictor;
+        this.motionId = predictor.getMotionId();
+    }
+
+    public Runnable getTask()
+    {
+        return this.task;
+    }
+
+    /**
+     * Indicates whether the view's motion has changed since this task was created.
+     *
+     * @return true if the task's prediction is no longer valid, otherwise false.
+     */
+    public boolean isStale()
+    {
+        return this.predictor.getMotionId() != this.motionId;
+    }
+
+    public void run()
+    {
+        if (Thread.currentThread().isInterrupted() || this.isStale())
+            return; // the task was cancelled because it's a duplicate or the view's motion changed
+
+        this.task.run();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        return this.task.equals(((PrefetchTask) o).task);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.task.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.task.toString();
+    }
+}
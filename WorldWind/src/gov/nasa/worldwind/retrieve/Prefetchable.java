@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.retrieve;
+
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
+
+/**
+ * Interface for classes that can request, ahead of time, the data a moving view is predicted to need. The scene
+ * controller calls {@link #prefetch(gov.nasa.worldwind.render.DrawContext, gov.nasa.worldwind.view.ViewMotionPredictor,
+ * int)} after each frame while the view is moving. Prefetch requests are issued after the frame's own requests, and are
+ * abandoned when they run if the view's motion has changed since they were issued. See {@link PrefetchTask}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public interface Prefetchable
+{
+    /**
+     * Requests the data needed to display the region the view is predicted to show, and that is not already in memory.
+     *
+     * @param dc          the current draw context.
+     * @param predictor   the view's motion predictor. The predictor indicates that the view is moving.
+     * @param maxRequests the maximum number of requests to issue.
+     *
+     * @return the number of requests issued.
+     */
+    int prefetch(DrawContext dc, ViewMotionPredictor predictor, int maxRequests);
+}
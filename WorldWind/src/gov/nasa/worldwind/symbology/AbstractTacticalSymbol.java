@@ -10,6 +10,7 @@ import com.sun.opengl.util.j2d.TextRenderer;
 import com.sun.opengl.util.texture.*;
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.Layer;
 import gov.nasa.worldwind.pick.*;
@@ -22,6 +23,7 @@ import java.awt.geom.*;
 import java.awt.image.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.*;
 
 /**
  * @author dcollins
@@ -135,9 +137,7 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         {
             try
             {
-                IconSource source = (IconSource) this.getImageSource();
-                BufferedImage image = source.getRetriever().createIcon(source.getSymbolId(),
-                    source.getRetrieverParams());
+                BufferedImage image = getIconImage((IconSource) this.getImageSource());
 
                 if (image == null)
                 {
@@ -213,27 +213,20 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         }
     }
 
+    /**
+     * Texture atlas element for a glyph modifier. Elements are shared by all symbols drawing the same glyph into the
+     * same atlas, and therefore do not carry any per-symbol layout state. See {@link Glyph}.
+     */
     protected static class IconAtlasElement extends TextureAtlasElement
     {
-        protected Point point;
         /** Indicates the last time, in milliseconds, the element was requested or added. */
-        protected long lastUsed = System.currentTimeMillis();
+        protected volatile long lastUsed = System.currentTimeMillis();
 
         public IconAtlasElement(TextureAtlas atlas, IconSource source)
         {
             super(atlas, source);
         }
 
-        public Point getPoint()
-        {
-            return this.point;
-        }
-
-        public void setPoint(Point point)
-        {
-            this.point = point;
-        }
-
         @Override
         protected boolean loadImage()
         {
@@ -249,9 +242,7 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         {
             try
             {
-                IconSource source = (IconSource) this.getImageSource();
-                BufferedImage image = source.getRetriever().createIcon(source.getSymbolId(),
-                    source.getRetrieverParams());
+                BufferedImage image = getIconImage((IconSource) this.getImageSource());
 
                 if (image == null)
                 {
@@ -274,6 +265,29 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         }
     }
 
+    /** A shared glyph atlas element placed at a symbol-specific location. */
+    protected static class Glyph
+    {
+        protected IconAtlasElement element;
+        protected Point point;
+
+        public Glyph(IconAtlasElement element, Point point)
+        {
+            this.element = element;
+            this.point = point;
+        }
+
+        public IconAtlasElement getElement()
+        {
+            return this.element;
+        }
+
+        public Point getPoint()
+        {
+            return this.point;
+        }
+    }
+
     protected static class Label
     {
         protected TextRenderer renderer;
@@ -392,6 +406,26 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
      * 2048x2048. Configured to remove the least recently used texture elements when more space is needed.
      */
     protected static final TextureAtlas DEFAULT_GLYPH_ATLAS = new TextureAtlas(1024, 128, 2048, 2048);
+    /** The name of the memory cache holding composed icon and glyph images shared by all symbols. */
+    protected static final String ICON_CACHE_NAME = "Tactical Symbol Icons";
+    /** The key used to identify the composed icon cache in the World Wind memory cache set. */
+    protected static final String ICON_CACHE_KEY = IconSource.class.getName();
+    /** The default size, in bytes, of the composed icon cache. Used when the configuration does not specify one. */
+    protected static final long DEFAULT_ICON_CACHE_SIZE = 16000000L;
+    /**
+     * Icon compositions currently in progress, keyed by icon source. Threads requesting an icon that is already being
+     * composed wait for that composition rather than composing the same icon again.
+     */
+    protected static final ConcurrentHashMap<IconSource, FutureTask<BufferedImage>> pendingIcons =
+        new ConcurrentHashMap<IconSource, FutureTask<BufferedImage>>();
+    /**
+     * Glyph atlas elements shared by all symbols, keyed first by texture atlas and then by icon source. Symbols drawing
+     * the same modifier into the same atlas use the same element, so the glyph is requested and loaded only once.
+     */
+    protected static final Map<TextureAtlas, Map<IconSource, IconAtlasElement>> sharedGlyphs =
+        new WeakHashMap<TextureAtlas, Map<IconSource, IconAtlasElement>>();
+    /** The last time, in milliseconds, that unused elements were removed from the shared glyph map. */
+    protected static long lastGlyphSweep;
     /**
      * Maximum expected size of a symbol, used to estimate screen bounds for view frustum culling. This value is
      * configured a bit higher than a symbol is likely to be drawn in practice to err on the side of not culling a
@@ -558,14 +592,13 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
     /** Indicates that one or more glyphs have not been resolved. */
     protected boolean unresolvedGlyph;
 
-    protected List<IconAtlasElement> currentGlyphs = new ArrayList<IconAtlasElement>();
+    protected List<Glyph> currentGlyphs = new ArrayList<Glyph>();
     protected List<Label> currentLabels = new ArrayList<Label>();
     protected List<Line> currentLines = new ArrayList<Line>();
 
     protected WWTexture iconTexture;
     protected WWTexture activeIconTexture;
     protected TextureAtlas glyphAtlas;
-    protected Map<String, IconAtlasElement> glyphMap = new HashMap<String, IconAtlasElement>();
     protected long maxTimeSinceLastUsed = DEFAULT_MAX_TIME_SINCE_LAST_USED;
 
     /** Unit format used to format location and altitude for text modifiers. */
@@ -972,6 +1005,120 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         this.glyphAtlas = atlas;
     }
 
+    /**
+     * Indicates the symbol identifier passed to this symbol's icon retriever. The default implementation returns this
+     * symbol's identifier. Subclasses can override this to mask out any parts of the identifier that the icon retriever
+     * ignores, so that symbols which differ only in those parts share the same composed icon.
+     *
+     * @return the identifier used to retrieve this symbol's icon.
+     */
+    protected String getIconIdentifier()
+    {
+        return this.getIdentifier();
+    }
+
+    /**
+     * Returns the memory cache holding composed icon and glyph images shared by all tactical symbols. The cache is
+     * created and added to the World Wind memory cache set the first time this is called. Its capacity is specified by
+     * the configuration value {@link AVKey#TACTICAL_SYMBOL_ICON_CACHE_SIZE}.
+     *
+     * @return the composed icon cache.
+     */
+    protected static MemoryCache getIconCache()
+    {
+        synchronized (AbstractTacticalSymbol.class)
+        {
+            if (!WorldWind.getMemoryCacheSet().containsCache(ICON_CACHE_KEY))
+            {
+                long size = Configuration.getLongValue(AVKey.TACTICAL_SYMBOL_ICON_CACHE_SIZE, DEFAULT_ICON_CACHE_SIZE);
+                MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+                cache.setName(ICON_CACHE_NAME);
+                WorldWind.getMemoryCacheSet().addCache(ICON_CACHE_KEY, cache);
+            }
+        }
+
+        return WorldWind.getMemoryCache(ICON_CACHE_KEY);
+    }
+
+    /**
+     * Returns the image for an icon source, composing it with the source's icon retriever only if the image is not
+     * already in the shared icon cache. Concurrent requests for the same source compose the image once: the first
+     * caller composes it, and the others wait for and share its result. This is called from the worker threads that
+     * load icon textures and glyphs, and may block.
+     * <p/>
+     * The returned image is shared and must not be modified.
+     *
+     * @param source the icon source to compose.
+     *
+     * @return the composed image, or <code>null</code> if the icon retriever does not recognize the source.
+     *
+     * @throws Exception if the icon retriever fails, or if the calling thread is interrupted while waiting for another
+     *                   thread to compose the image.
+     */
+    protected static BufferedImage getIconImage(final IconSource source) throws Exception
+    {
+        if (source == null)
+        {
+            String msg = Logging.getMessage("nullValue.ImageSource");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        MemoryCache cache = getIconCache();
+        BufferedImage image = (BufferedImage) cache.getObject(source);
+        if (image != null)
+            return image;
+
+        FutureTask<BufferedImage> task = new FutureTask<BufferedImage>(new Callable<BufferedImage>()
+        {
+            public BufferedImage call() throws Exception
+            {
+                return source.getRetriever().createIcon(source.getSymbolId(), source.getRetrieverParams());
+            }
+        });
+
+        FutureTask<BufferedImage> pending = pendingIcons.putIfAbsent(source, task);
+        if (pending != null)
+            return waitForIconImage(pending);
+
+        try
+        {
+            // Another thread may have finished composing this icon between our cache lookup and our claim.
+            image = (BufferedImage) cache.getObject(source);
+            if (image != null)
+                return image;
+
+            task.run();
+            image = waitForIconImage(task);
+
+            if (image != null)
+                cache.add(source, image, ImageUtil.computeSizeInBytes(image));
+
+            return image;
+        }
+        finally
+        {
+            pendingIcons.remove(source, task);
+        }
+    }
+
+    protected static BufferedImage waitForIconImage(FutureTask<BufferedImage> task) throws Exception
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            else if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            else
+                throw e;
+        }
+    }
+
     /** {@inheritDoc} */
     public double getDistanceFromEye()
     {
@@ -1178,7 +1325,7 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
 
         // If the icon retrieval parameters have changed then the icon needs to be updated, which may affect layout.
         AVList retrieverParams = this.assembleIconRetrieverParameters(null);
-        IconSource iconSource = new IconSource(this.getIconRetriever(), this.getIdentifier(), retrieverParams);
+        IconSource iconSource = new IconSource(this.getIconRetriever(), this.getIconIdentifier(), retrieverParams);
 
         // Compute layout of icon and static modifiers only when necessary.
         if (this.mustLayout(iconSource, modifierParams))
@@ -1586,8 +1733,7 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         if (elem.load(dc))
         {
             Rectangle rect = this.layoutRect(offset, hotspot, elem.getSize(), layoutMode);
-            elem.setPoint(rect.getLocation());
-            this.currentGlyphs.add(elem);
+            this.currentGlyphs.add(new Glyph(elem, rect.getLocation()));
         }
         else
         {
@@ -1654,13 +1800,24 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
         if (this.getGlyphAtlas() == null || this.getModifierRetriever() == null)
             return null;
 
-        IconAtlasElement elem = this.glyphMap.get(modifierCode);
+        IconSource source = new IconSource(this.getModifierRetriever(), modifierCode, retrieverParams);
+        IconAtlasElement elem;
 
-        if (elem == null)
+        synchronized (sharedGlyphs)
         {
-            IconSource source = new IconSource(this.getModifierRetriever(), modifierCode, retrieverParams);
-            elem = new IconAtlasElement(this.getGlyphAtlas(), source);
-            this.glyphMap.put(modifierCode, elem);
+            Map<IconSource, IconAtlasElement> glyphMap = sharedGlyphs.get(this.getGlyphAtlas());
+            if (glyphMap == null)
+            {
+                glyphMap = new HashMap<IconSource, IconAtlasElement>();
+                sharedGlyphs.put(this.getGlyphAtlas(), glyphMap);
+            }
+
+            elem = glyphMap.get(source);
+            if (elem == null)
+            {
+                elem = new IconAtlasElement(this.getGlyphAtlas(), source);
+                glyphMap.put(source, elem);
+            }
         }
 
         elem.lastUsed = System.currentTimeMillis();
@@ -1670,28 +1827,25 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
 
     protected void removeDeadModifiers(long now)
     {
-        if (this.glyphMap.isEmpty())
-            return;
+        synchronized (sharedGlyphs)
+        {
+            // The glyph map is shared by all symbols, so sweep it at most once per the maximum time since last use
+            // rather than each time a symbol computes its layout.
+            if (lastGlyphSweep + this.maxTimeSinceLastUsed >= now)
+                return;
 
-        List<String> deadKeys = null; // Lazily created below to avoid unnecessary allocation.
+            lastGlyphSweep = now;
 
-        for (Map.Entry<String, IconAtlasElement> entry : this.glyphMap.entrySet())
-        {
-            if (entry.getValue().lastUsed + this.maxTimeSinceLastUsed < now)
+            for (Map<IconSource, IconAtlasElement> glyphMap : sharedGlyphs.values())
             {
-                if (deadKeys == null)
-                    deadKeys = new ArrayList<String>();
-                deadKeys.add(entry.getKey());
+                Iterator<IconAtlasElement> iter = glyphMap.values().iterator();
+                while (iter.hasNext())
+                {
+                    if (iter.next().lastUsed + this.maxTimeSinceLastUsed < now)
+                        iter.remove();
+                }
             }
         }
-
-        if (deadKeys == null)
-            return;
-
-        for (String key : deadKeys)
-        {
-            this.glyphMap.remove(key);
-        }
     }
 
     protected void computeScale()
@@ -2155,11 +2309,11 @@ public abstract class AbstractTacticalSymbol extends WWObjectImpl implements Tac
 
         GL gl = dc.getGL();
 
-        for (IconAtlasElement atlasElem : this.currentGlyphs)
+        for (Glyph glyph : this.currentGlyphs)
         {
-            Point point = atlasElem.getPoint();
-            Dimension size = atlasElem.getSize();
-            TextureCoords texCoords = atlasElem.getTexCoords();
+            Point point = glyph.getPoint();
+            Dimension size = glyph.getElement().getSize();
+            TextureCoords texCoords = glyph.getElement().getTexCoords();
 
             if (point == null || size == null || texCoords == null)
                 continue;
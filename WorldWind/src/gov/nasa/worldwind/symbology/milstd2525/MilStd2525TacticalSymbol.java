@@ -154,6 +154,27 @@ public class MilStd2525TacticalSymbol extends AbstractTacticalSymbol
         return this.symbolCode.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * MilStd2525IconRetriever ignores the Symbol Modifier, Country Code, and Order of Battle fields when composing an
+     * icon; those fields are displayed as modifiers. This returns the symbol identifier in upper case with those fields
+     * replaced by hyphens, so that symbols that differ only in those fields share the same icon.
+     */
+    @Override
+    protected String getIconIdentifier()
+    {
+        SymbolCode iconCode = new SymbolCode();
+        iconCode.setValues(this.symbolCode);
+        iconCode.setEchelon(null);
+        iconCode.setSymbolModifier(null);
+        iconCode.setCountryCode(null);
+        iconCode.setOrderOfBattle(null);
+
+        String s = iconCode.toString();
+        return s != null ? s.toUpperCase() : this.getIdentifier();
+    }
+
     /**
      * Indicates the current value of symbol's Status/Operational Condition field.
      *
@@ -14,7 +14,9 @@ import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.ogc.wms.WMSCapabilities;
 import gov.nasa.worldwind.retrieve.*;
+import gov.nasa.worldwind.render.DrawContext;
 import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
 import org.w3c.dom.*;
 
 import javax.imageio.ImageIO;
@@ -51,7 +53,7 @@ import java.util.concurrent.*;
  * @author Tom Gaskins
  * @version $Id$
  */
-public class BasicElevationModel extends AbstractElevationModel implements BulkRetrievable
+public class BasicElevationModel extends AbstractElevationModel implements BulkRetrievable, Prefetchable
 {
     protected final LevelSet levels;
     protected final double minElevation;
@@ -409,6 +411,84 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         WorldWind.getTaskService().addTask(request);
     }
 
+    /**
+     * Requests the tiles covering the region the view is predicted to show, at the resolution the terrain is predicted
+     * to need there. The resolution is estimated from the predicted distance between the eye and the center of the
+     * region, using the default resolution target of {@link RectangularTessellator}. Tiles nearest the center of the
+     * region are requested first.
+     *
+     * @param dc          the current draw context.
+     * @param predictor   the view's motion predictor.
+     * @param maxRequests the maximum number of requests to issue.
+     *
+     * @return the number of requests issued.
+     */
+    public int prefetch(DrawContext dc, ViewMotionPredictor predictor, int maxRequests)
+    {
+        if (maxRequests <= 0 || !this.isEnabled())
+            return 0;
+
+        Vec4 eyePoint = predictor.getPredictedEyePoint();
+        Vec4 centerPoint = predictor.getPredictedCenterPoint();
+        Sector region = predictor.getPredictedSector(dc.getGlobe());
+        if (eyePoint == null || centerPoint == null || region == null)
+            return 0;
+
+        region = region.intersection(this.levels.getSector());
+        if (region == null)
+            return 0;
+
+        double cellSize = eyePoint.distanceTo3(centerPoint)
+            / Math.pow(10, RectangularTessellator.DEFAULT_LOG10_RESOLUTION_TARGET + this.getDetailHint(region));
+        Level level = this.getTargetLevel(region, cellSize / dc.getGlobe().getRadius());
+        if (level == null)
+            return 0;
+
+        LatLon delta = level.getTileDelta();
+        LatLon origin = this.levels.getTileOrigin();
+        int nwRow = Tile.computeRow(delta.getLatitude(), region.getMaxLatitude(), origin.getLatitude());
+        int nwCol = Tile.computeColumn(delta.getLongitude(), region.getMinLongitude(), origin.getLongitude());
+        int seRow = Tile.computeRow(delta.getLatitude(), region.getMinLatitude(), origin.getLatitude());
+        int seCol = Tile.computeColumn(delta.getLongitude(), region.getMaxLongitude(), origin.getLongitude());
+
+        LatLon center = dc.getGlobe().computePositionFromPoint(centerPoint);
+        final int centerRow = Tile.computeRow(delta.getLatitude(), center.getLatitude(), origin.getLatitude());
+        final int centerCol = Tile.computeColumn(delta.getLongitude(), center.getLongitude(), origin.getLongitude());
+
+        List<TileKey> keys = new ArrayList<TileKey>();
+        for (int row = seRow; row <= nwRow; row++)
+        {
+            for (int col = nwCol; col <= seCol; col++)
+            {
+                TileKey key = new TileKey(level.getLevelNumber(), row, col, level.getCacheName());
+                if (!this.levels.isResourceAbsent(key) && !this.areElevationsInMemory(key))
+                    keys.add(key);
+            }
+        }
+
+        Collections.sort(keys, new Comparator<TileKey>()
+        {
+            public int compare(TileKey ka, TileKey kb)
+            {
+                int da = Math.max(Math.abs(ka.getRow() - centerRow), Math.abs(ka.getColumn() - centerCol));
+                int db = Math.max(Math.abs(kb.getRow() - centerRow), Math.abs(kb.getColumn() - centerCol));
+                return da < db ? -1 : da == db ? 0 : 1;
+            }
+        });
+
+        int numRequests = 0;
+        for (TileKey key : keys)
+        {
+            if (numRequests >= maxRequests || WorldWind.getTaskService().isFull())
+                break;
+
+            WorldWind.getTaskService().addTask(new PrefetchTask(new RequestTask(key, this), predictor));
+            numRequests++;
+        }
+
+        return numRequests;
+    }
+
     protected static class RequestTask implements Runnable
     {
         protected final BasicElevationModel elevationModel;
@@ -741,9 +821,25 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         if (!WorldWind.getLocalRetrievalService().isAvailable())
             return;
 
+        Retriever retriever = this.createLocalElevationsRetriever(tile, postProcessor);
+        if (retriever != null)
+            WorldWind.getLocalRetrievalService().runRetriever(retriever, tile.getPriority());
+    }
+
+    /**
+     * Creates a retriever that reads a tile's elevations from this elevation model's local retriever factory, {@link
+     * AVKey#RETRIEVER_FACTORY_LOCAL}, and passes them to a post-processor. The retriever is not started.
+     *
+     * @param tile          the tile to retrieve.
+     * @param postProcessor the post-processor to pass the retrieved elevations to.
+     *
+     * @return the new retriever, or null if this elevation model has no local retriever factory.
+     */
+    protected Retriever createLocalElevationsRetriever(Tile tile, DownloadPostProcessor postProcessor)
+    {
         RetrieverFactory retrieverFactory = (RetrieverFactory) this.getValue(AVKey.RETRIEVER_FACTORY_LOCAL);
         if (retrieverFactory == null)
-            return;
+            return null;
 
         AVListImpl avList = new AVListImpl();
         avList.setValue(AVKey.SECTOR, tile.getSector());
@@ -751,22 +847,40 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         avList.setValue(AVKey.HEIGHT, tile.getHeight());
         avList.setValue(AVKey.FILE_NAME, tile.getPath());
 
-        Retriever retriever = retrieverFactory.createRetriever(avList, postProcessor);
-
-        WorldWind.getLocalRetrievalService().runRetriever(retriever, tile.getPriority());
+        return retrieverFactory.createRetriever(avList, postProcessor);
     }
 
     protected void retrieveRemoteElevations(final Tile tile, DownloadPostProcessor postProcessor)
+    {
+        if (!WorldWind.getRetrievalService().isAvailable())
+            return;
+
+        Retriever retriever = this.createRemoteElevationsRetriever(tile, postProcessor);
+        if (retriever == null || WorldWind.getRetrievalService().contains(retriever))
+            return;
+
+        WorldWind.getRetrievalService().runRetriever(retriever, 0d);
+    }
+
+    /**
+     * Creates a retriever that downloads a tile's elevations from this elevation model's remote source and passes them
+     * to a post-processor. The retriever is not started. This marks the tile absent if network retrieval is disabled
+     * or the tile's host is unavailable.
+     *
+     * @param tile          the tile to retrieve.
+     * @param postProcessor the post-processor to pass the retrieved elevations to. If null, this creates a {@link
+     *                      DownloadPostProcessor}.
+     *
+     * @return the new retriever, or null if the tile cannot be retrieved.
+     */
+    protected Retriever createRemoteElevationsRetriever(Tile tile, DownloadPostProcessor postProcessor)
     {
         if (!this.isNetworkRetrievalEnabled())
         {
             this.getLevels().markResourceAbsent(tile);
-            return;
+            return null;
         }
 
-        if (!WorldWind.getRetrievalService().isAvailable())
-            return;
-
         java.net.URL url = null;
         try
         {
@@ -774,24 +888,22 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
             if (WorldWind.getNetworkStatus().isHostUnavailable(url))
             {
                 this.getLevels().markResourceAbsent(tile);
-                return;
+                return null;
             }
         }
         catch (java.net.MalformedURLException e)
         {
             Logging.logger().log(java.util.logging.Level.SEVERE,
                 Logging.getMessage("TiledElevationModel.ExceptionCreatingElevationsUrl", url), e);
-            return;
+            return null;
         }
 
         if (postProcessor == null)
             postProcessor = new DownloadPostProcessor(tile, this);
         URLRetriever retriever = new HTTPRetriever(url, postProcessor);
         retriever.setValue(URLRetriever.EXTRACT_ZIP_ENTRY, "true"); // supports legacy elevation models
-        if (WorldWind.getRetrievalService().contains(retriever))
-            return;
 
-        WorldWind.getRetrievalService().runRetriever(retriever, 0d);
+        return retriever;
     }
 
     protected static class DownloadPostProcessor extends AbstractRetrievalPostProcessor
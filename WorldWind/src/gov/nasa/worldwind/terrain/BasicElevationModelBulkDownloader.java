@@ -6,7 +6,6 @@
 
 package gov.nasa.worldwind.terrain;
 
-import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.cache.FileStore;
 import gov.nasa.worldwind.event.*;
@@ -16,7 +15,6 @@ import gov.nasa.worldwind.util.*;
 
 import java.io.*;
 import java.net.URL;
-import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -30,14 +28,11 @@ import java.util.*;
  */
 public class BasicElevationModelBulkDownloader extends BulkRetrievalThread
 {
-    protected final static int MAX_TILE_COUNT_PER_REGION = 200;
     protected final static long DEFAULT_AVERAGE_FILE_SIZE = 45000L;
 
     protected final BasicElevationModel elevationModel;
     protected final int level;
 
-    protected ArrayList<Tile> missingTiles;
-
     /**
      * Constructs a downloader to retrieve elevations not currently available in the World Wind file cache.
      * <p/>
@@ -93,34 +88,18 @@ public class BasicElevationModelBulkDownloader extends BulkRetrievalThread
             this.progress.setTotalCount(this.estimateMissingTilesCount(20));
             this.progress.setTotalSize(this.progress.getTotalCount() * estimateAverageTileSize());
 
-            // Determine and request missing tiles by level/region
-            for (int levelNumber = 0; levelNumber <= this.level; levelNumber++)
-            {
-                if (elevationModel.getLevels().isLevelEmpty(levelNumber))
-                    continue;
+            // Determine and retrieve missing tiles by level and row
+            BulkTileSeeder seeder = this.createSeeder();
+            seeder.seed();
 
-                int div = this.computeRegionDivisions(this.sector, levelNumber, MAX_TILE_COUNT_PER_REGION);
-                Iterator<Sector> regionsIterator = this.getRegionIterator(this.sector, div);
-
-                Sector region;
-                while (regionsIterator.hasNext())
-                {
-                    region = regionsIterator.next();
-                    // Determine missing tiles
-                    this.missingTiles = getMissingTilesInSector(region, levelNumber);
-
-                    // Submit missing tiles requests at intervals
-                    while (this.missingTiles.size() > 0)
-                    {
-                        submitMissingTilesRequests();
-                        if (this.missingTiles.size() > 0)
-                            Thread.sleep(RETRIEVAL_SERVICE_POLL_DELAY);
-                    }
-                }
-            }
             // Set progress to 100%
             this.progress.setTotalCount(this.progress.getCurrentCount());
             this.progress.setTotalSize(this.progress.getCurrentSize());
+
+            Logging.logger().info(Logging.getMessage("generic.BulkRetrievalCompleted", elevationModel.getName(),
+                seeder.getNumRetrievedTiles(), seeder.getNumBytes(), seeder.getElapsedTime() / 1000d,
+                seeder.getTilesPerSecond(), seeder.getBytesPerSecond(), seeder.getNumLocalTiles(),
+                seeder.getNumAbsentTiles(), seeder.getNumFailedTiles()));
         }
         catch (InterruptedException e)
         {
@@ -135,91 +114,85 @@ public class BasicElevationModelBulkDownloader extends BulkRetrievalThread
         }
     }
 
-//    protected int countMissingTiles() throws InterruptedException
-//    {
-//        int count = 0;
-//        for (int levelNumber = 0; levelNumber <= this.level; levelNumber++)
-//        {
-//            if (this.elevationModel.getLevels().isLevelEmpty(levelNumber))
-//                continue;
-//
-//            count += getMissingTilesInSector(this.sector, levelNumber).size();
-//        }
-//
-//        return count;
-//    }
-
-    protected synchronized void submitMissingTilesRequests() throws InterruptedException
+    protected BulkTileSeeder createSeeder()
     {
-        RetrievalService rs = WorldWind.getRetrievalService();
-        int i = 0;
-        while (this.missingTiles.size() > i && rs.isAvailable())
-        {
-            Thread.sleep(1); // generates InterruptedException if thread has been interrupted
+        return new Seeder(this.sector, this.level, this.fileStore);
+    }
 
-            Tile tile = this.missingTiles.get(i);
+    /** Seeds this downloader's file store with the elevation model's tiles, and reports each tile's outcome. */
+    protected class Seeder extends BulkTileSeeder
+    {
+        public Seeder(Sector sector, int maxLevel, FileStore fileStore)
+        {
+            super(elevationModel.getLevels(), sector, maxLevel, fileStore);
+        }
 
-            if (this.elevationModel.getLevels().isResourceAbsent(tile))
-            {
-                removeAbsentTile(tile);  // tile is absent, count it off.
-                continue;
-            }
+        @Override
+        protected Tile createTile(Sector sector, Level level, int row, int column)
+        {
+            return new Tile(sector, level, row, column);
+        }
 
-            URL url = this.fileStore.findFile(tile.getPath(), false);
-            if (url != null)
-            {
-                // tile has been retrieved and is local now, count it as retrieved.
-                removeRetrievedTile(tile);
-                continue;
-            }
+        @Override
+        protected Retriever createRetriever(Tile tile)
+        {
+            BasicElevationModel.DownloadPostProcessor postProcessor = createBulkDownloadPostProcessor(tile);
 
-            this.elevationModel.downloadElevations(tile,
-                new BulkDownloadPostProcessor(tile, this.elevationModel, this.fileStore));
-            i++;
+            if (elevationModel.getValue(AVKey.RETRIEVER_FACTORY_LOCAL) != null)
+                return elevationModel.createLocalElevationsRetriever(tile, postProcessor);
+            else
+                return elevationModel.createRemoteElevationsRetriever(tile, postProcessor);
         }
-    }
 
-    protected class BulkDownloadPostProcessor extends BasicElevationModel.DownloadPostProcessor
-    {
-        public BulkDownloadPostProcessor(Tile tile, BasicElevationModel elevationModel, FileStore fileStore)
+        @Override
+        protected void tileRetrieved(Tile tile, Retriever retriever, long size)
         {
-            super(tile, elevationModel, fileStore);
+            removeRetrievedTile(tile, size);
+
+            if (hasRetrievalListeners())
+                callRetrievalListeners(retriever, tile);
         }
 
-        public ByteBuffer run(Retriever retriever)
+        @Override
+        protected void tileAbsent(Tile tile, Retriever retriever)
         {
-            ByteBuffer buffer = super.run(retriever);
+            removeAbsentTile(tile);
 
-            if (retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
-                removeRetrievedTile(this.tile);
+            if (retriever != null && hasRetrievalListeners())
+                callRetrievalListeners(retriever, tile);
+        }
 
+        @Override
+        protected void tileFailed(Tile tile, Retriever retriever)
+        {
             if (hasRetrievalListeners())
-                callRetrievalListeners(retriever, this.tile);
-
-            return buffer;
+                callRetrievalListeners(retriever, tile);
         }
     }
 
+    protected BasicElevationModel.DownloadPostProcessor createBulkDownloadPostProcessor(Tile tile)
+    {
+        return new BasicElevationModel.DownloadPostProcessor(tile, this.elevationModel, this.fileStore);
+    }
+
     protected void callRetrievalListeners(Retriever retriever, Tile tile)
     {
-        String eventType = (retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
+        String eventType = (retriever != null && retriever.getState().equals(Retriever.RETRIEVER_STATE_SUCCESSFUL))
             ? BulkRetrievalEvent.RETRIEVAL_SUCCEEDED : BulkRetrievalEvent.RETRIEVAL_FAILED;
         super.callRetrievalListeners(new BulkRetrievalEvent(this.elevationModel, eventType, tile.getPath()));
     }
 
-    protected synchronized void removeRetrievedTile(Tile tile)
+    protected synchronized void removeRetrievedTile(Tile tile, long size)
     {
-        this.missingTiles.remove(tile);
         // Update progress
         this.progress.setCurrentCount(this.progress.getCurrentCount() + 1);
-        this.progress.setCurrentSize(this.progress.getCurrentSize() + estimateAverageTileSize());
+        this.progress.setCurrentSize(this.progress.getCurrentSize() + size);
         this.progress.setLastUpdateTime(System.currentTimeMillis());
         this.normalizeProgress();
     }
 
     protected synchronized void removeAbsentTile(Tile tile)
     {
-        this.missingTiles.remove(tile);
         // Decrease progress expected total count and size
         this.progress.setTotalCount(this.progress.getTotalCount() - 1);
         this.progress.setTotalSize(this.progress.getTotalSize() - estimateAverageTileSize());
@@ -494,10 +467,11 @@ public class BasicElevationModelBulkDownloader extends BulkRetrievalThread
         Tile[][] tileArray = getTilesInSector(sector, levelNumber);
         for (Tile[] row : tileArray)
         {
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedException();
+
             for (Tile tile : row)
             {
-                Thread.sleep(1); // generates InterruptedException if thread has been interrupted
-
                 if (tile == null)
                     continue;
 
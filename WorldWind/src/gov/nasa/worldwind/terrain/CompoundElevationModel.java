@@ -7,7 +7,10 @@ package gov.nasa.worldwind.terrain;
 
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.globes.ElevationModel;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.retrieve.Prefetchable;
 import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.view.ViewMotionPredictor;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -16,7 +19,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author tag
  * @version $Id$
  */
-public class CompoundElevationModel extends AbstractElevationModel
+public class CompoundElevationModel extends AbstractElevationModel implements Prefetchable
 {
     protected CopyOnWriteArrayList<ElevationModel> elevationModels = new CopyOnWriteArrayList<ElevationModel>();
 
@@ -559,6 +562,22 @@ public class CompoundElevationModel extends AbstractElevationModel
         }
     }
 
+    public int prefetch(DrawContext dc, ViewMotionPredictor predictor, int maxRequests)
+    {
+        int numRequests = 0;
+
+        // Elevations from later models replace those from earlier models, which are typically global and lower
+        // resolution. Give the later models the first share of the requests.
+        for (int i = this.elevationModels.size() - 1; i >= 0 && numRequests < maxRequests; i--)
+        {
+            ElevationModel em = this.elevationModels.get(i);
+            if (em.isEnabled() && em instanceof Prefetchable)
+                numRequests += ((Prefetchable) em).prefetch(dc, predictor, maxRequests - numRequests);
+        }
+
+        return numRequests;
+    }
+
     @Override
     public double getLocalDataAvailability(Sector sector, Double targetResolution)
     {
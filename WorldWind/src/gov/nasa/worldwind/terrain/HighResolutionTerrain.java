@@ -17,6 +17,7 @@ import gov.nasa.worldwind.util.*;
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.*;
 
 /**
  * Provides operations on the best available terrain. Operations such as line/terrain intersection and surface point
@@ -38,6 +39,18 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
         protected final float[] vertices;
         protected Position minElevation;
         protected Position maxElevation;
+        /**
+         * A min/max pyramid of the tile's cell bounds, used to skip empty space when intersecting lines with the tile.
+         * Each cell's bounds are six values relative to the reference center: its minimum X, Y and Z coordinates
+         * followed by its maximum X, Y and Z coordinates. The first level holds the bounds of each cell in the vertex
+         * grid. Each subsequent level holds the union of 2x2 cells of the level below it, and the last level holds one
+         * cell bounding the entire tile.
+         */
+        protected float[] cellBounds;
+        /** The index of each pyramid level's first cell in <code>cellBounds</code>, in units of cells. */
+        protected int[] levelOffsets;
+        /** The number of cells along each side of each pyramid level. */
+        protected int[] levelSizes;
 
         protected RenderInfo(int density, float[] vertices, Vec4 refCenter, Position minElev, Position maxElev)
         {
@@ -46,13 +59,202 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
             this.vertices = vertices;
             this.minElevation = minElev;
             this.maxElevation = maxElev;
+            this.buildCellBounds();
         }
 
         protected long getSizeInBytes()
         {
-            // 2 references, an int, and vertices. (indices are shared among all tiles)
+            // 2 references, an int, vertices and cell bounds. (indices are shared among all tiles)
 //            System.out.println(2 * 4 + 4 + this.vertices.length * 3 * 4);
-            return 2 * 4 + 4 + this.vertices.length * 3 * 4; // 588 bytes at a density of 3
+            return 2 * 4 + 4 + this.vertices.length * 3 * 4 + this.cellBounds.length * 4; // 924 bytes at a density of 3
+        }
+
+        protected void buildCellBounds()
+        {
+            int numLevels = 1;
+            int numCells = this.density * this.density;
+            for (int size = this.density; size > 1; size = (size + 1) / 2)
+            {
+                numLevels++;
+                numCells += ((size + 1) / 2) * ((size + 1) / 2);
+            }
+
+            this.cellBounds = new float[6 * numCells];
+            this.levelOffsets = new int[numLevels];
+            this.levelSizes = new int[numLevels];
+            this.levelSizes[0] = this.density;
+
+            // Compute the bounds of each grid cell from its four corner vertices.
+            int n = this.density + 1;
+            for (int j = 0; j < this.density; j++)
+            {
+                for (int i = 0; i < this.density; i++)
+                {
+                    int b = 6 * (j * this.density + i);
+                    int k = 3 * (j * n + i);
+                    this.initBounds(b, k);
+                    this.addToBounds(b, k + 3);
+                    this.addToBounds(b, k + 3 * n);
+                    this.addToBounds(b, k + 3 * n + 3);
+                }
+            }
+
+            // Compute the bounds of each level's cells from the cells of the level below.
+            for (int level = 1; level < numLevels; level++)
+            {
+                int childSize = this.levelSizes[level - 1];
+                int childOffset = this.levelOffsets[level - 1];
+                int size = (childSize + 1) / 2;
+                this.levelSizes[level] = size;
+                this.levelOffsets[level] = childOffset + childSize * childSize;
+
+                for (int j = 0; j < size; j++)
+                {
+                    for (int i = 0; i < size; i++)
+                    {
+                        int b = 6 * (this.levelOffsets[level] + j * size + i);
+                        for (int c = 0; c < 6; c++)
+                        {
+                            this.cellBounds[b + c] = c < 3 ? Float.MAX_VALUE : -Float.MAX_VALUE;
+                        }
+
+                        for (int cj = 2 * j; cj <= 2 * j + 1 && cj < childSize; cj++)
+                        {
+                            for (int ci = 2 * i; ci <= 2 * i + 1 && ci < childSize; ci++)
+                            {
+                                int cb = 6 * (childOffset + cj * childSize + ci);
+                                for (int c = 0; c < 3; c++)
+                                {
+                                    this.cellBounds[b + c] = Math.min(this.cellBounds[b + c], this.cellBounds[cb + c]);
+                                    this.cellBounds[b + c + 3] = Math.max(this.cellBounds[b + c + 3],
+                                        this.cellBounds[cb + c + 3]);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        protected void initBounds(int b, int k)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                this.cellBounds[b + c] = this.vertices[k + c];
+                this.cellBounds[b + c + 3] = this.vertices[k + c];
+            }
+        }
+
+        protected void addToBounds(int b, int k)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                this.cellBounds[b + c] = Math.min(this.cellBounds[b + c], this.vertices[k + c]);
+                this.cellBounds[b + c + 3] = Math.max(this.cellBounds[b + c + 3], this.vertices[k + c]);
+            }
+        }
+    }
+
+    /**
+     * Holds the state of a line intersection traversal. A single instance is reused for each line intersected by a
+     * thread, so that the traversal allocates no objects per tile, cell or triangle.
+     */
+    protected static class RayState
+    {
+        protected double ox; // line origin
+        protected double oy;
+        protected double oz;
+        protected double dx; // unit line direction
+        protected double dy;
+        protected double dz;
+        /** The maximum distance along the line at which intersections are accepted. */
+        protected double maxDistance;
+        /** Indicates whether to keep only the nearest intersection, rather than all intersections. */
+        protected boolean nearestOnly;
+        /** The distances of the intersections found so far. */
+        protected double[] distances = new double[8];
+        protected int numIntersections;
+
+        protected void set(Vec4 origin, Vec4 direction, double maxDistance, boolean nearestOnly)
+        {
+            this.ox = origin.x;
+            this.oy = origin.y;
+            this.oz = origin.z;
+            this.dx = direction.x;
+            this.dy = direction.y;
+            this.dz = direction.z;
+            this.maxDistance = maxDistance;
+            this.nearestOnly = nearestOnly;
+            this.numIntersections = 0;
+        }
+
+        protected void addIntersection(double distance)
+        {
+            if (distance > this.maxDistance)
+                return;
+
+            if (this.nearestOnly)
+            {
+                // Only intersections nearer than this one remain of interest.
+                this.distances[0] = distance;
+                this.numIntersections = 1;
+                this.maxDistance = distance;
+                return;
+            }
+
+            if (this.numIntersections == this.distances.length)
+            {
+                double[] newDistances = new double[2 * this.distances.length];
+                System.arraycopy(this.distances, 0, newDistances, 0, this.numIntersections);
+                this.distances = newDistances;
+            }
+
+            this.distances[this.numIntersections++] = distance;
+        }
+
+        /**
+         * Indicates whether the line intersects a box within the current distance range. The box is specified relative
+         * to a reference point, and is enlarged slightly to compensate for the precision of its coordinates.
+         *
+         * @param bounds the array containing the box's minimum and maximum coordinates.
+         * @param b      the index of the box's minimum X coordinate.
+         * @param ref    the reference point.
+         *
+         * @return true if the line intersects the box, otherwise false.
+         */
+        protected boolean intersectsBox(float[] bounds, int b, Vec4 ref)
+        {
+            double tMin = 0;
+            double tMax = this.maxDistance;
+
+            for (int c = 0; c < 3 && tMin <= tMax; c++)
+            {
+                double o = c == 0 ? this.ox - ref.x : (c == 1 ? this.oy - ref.y : this.oz - ref.z);
+                double d = c == 0 ? this.dx : (c == 1 ? this.dy : this.dz);
+                double min = bounds[b + c] - BOX_TOLERANCE;
+                double max = bounds[b + c + 3] + BOX_TOLERANCE;
+
+                if (d == 0)
+                {
+                    if (o < min || o > max)
+                        return false;
+                    continue;
+                }
+
+                double t0 = (min - o) / d;
+                double t1 = (max - o) / d;
+                if (t0 > t1)
+                {
+                    double tmp = t0;
+                    t0 = t1;
+                    t1 = tmp;
+                }
+
+                tMin = Math.max(tMin, t0);
+                tMax = Math.min(tMax, t1);
+            }
+
+            return tMin <= tMax;
         }
     }
 
@@ -78,6 +280,10 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
     }
 
     protected static final int DEFAULT_DENSITY = 3;
+    /** The amount, in meters, by which cell bounds are enlarged to compensate for their single precision. */
+    protected static final double BOX_TOLERANCE = 0.01;
+    /** The number of segments each thread claims at a time during batch intersection. */
+    protected static final int BATCH_CHUNK_SIZE = 64;
     protected static final long DEFAULT_CACHE_CAPACITY = (long) 20e6; // about 34,000 RenderInfos at a density of 20
 
     // User-specified fields.
@@ -411,6 +617,166 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
         }
     }
 
+    /**
+     * Computes the nearest terrain intersection of each of many line segments, dividing the segments among a specified
+     * number of threads. Segments are specified and results returned in primitive arrays, so that large batches such as
+     * line-of-sight grids do not allocate objects per segment.
+     * <p/>
+     * Each segment is interpreted as in {@link #intersect(gov.nasa.worldwind.geom.Position,
+     * gov.nasa.worldwind.geom.Position)}: each position's altitude is relative to the terrain. Only intersections
+     * between the segment's two positions are considered. A segment has no intersection if either of its positions is
+     * outside this terrain's sector, or if its positions have the same latitude and longitude.
+     * <p/>
+     * The current timeout applies to each thread's portion of the segments. This operation fails with a {@link
+     * gov.nasa.worldwind.exception.WWTimeoutException} if the timeout is exceeded.
+     *
+     * @param segments   the segments' positions, six values per segment: the first position's latitude and longitude
+     *                   in degrees and altitude in meters, followed by the second position's latitude, longitude and
+     *                   altitude.
+     * @param results    an array to receive four values per segment: the Cartesian coordinates of the segment's
+     *                   nearest intersection followed by its distance in meters from the segment's first position. All
+     *                   four values are <code>NaN</code> if the segment does not intersect the terrain. Must have at
+     *                   least four elements for every six elements of <code>segments</code>.
+     * @param numThreads the number of threads to use. Specify 1 to perform all intersections on the calling thread.
+     *
+     * @return the number of segments that intersect the terrain.
+     *
+     * @throws IllegalArgumentException if either array is null, if the results array is too short, or if the number
+     *                                  of threads is less than 1.
+     * @throws WWRuntimeException       if the operation is interrupted.
+     * @see #setTimeout(Long)
+     */
+    public int intersect(final double[] segments, final double[] results, int numThreads)
+    {
+        if (segments == null || results == null)
+        {
+            String msg = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int numSegments = segments.length / 6;
+        if (results.length < 4 * numSegments)
+        {
+            String msg = Logging.getMessage("generic.ArrayInvalidLength", results.length);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (numThreads < 1)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "numThreads < 1");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final AtomicInteger nextSegment = new AtomicInteger();
+        final AtomicInteger numIntersections = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+
+        // Each thread repeatedly claims a chunk of segments until all segments are claimed or a thread fails.
+        ParallelTaskRunner.run(new Runnable()
+        {
+            public void run()
+            {
+                RayState ray = new RayState();
+                startTime.set(System.currentTimeMillis());
+                boolean completed = false;
+                try
+                {
+                    int start;
+                    while (!failed.get() && (start = nextSegment.getAndAdd(BATCH_CHUNK_SIZE)) < numSegments)
+                    {
+                        int end = Math.min(start + BATCH_CHUNK_SIZE, numSegments);
+                        for (int i = start; i < end; i++)
+                        {
+                            if (intersectSegment(segments, results, i, ray))
+                                numIntersections.incrementAndGet();
+                        }
+                    }
+                    completed = true;
+                }
+                catch (InterruptedException e)
+                {
+                    throw new WWRuntimeException(e);
+                }
+                finally
+                {
+                    if (!completed)
+                        failed.set(true); // stops the other threads claiming segments
+                    startTime.set(null); // signals that no operation is active
+                }
+            }
+        }, numThreads);
+
+        return numIntersections.get();
+    }
+
+    /**
+     * Computes the nearest terrain intersection of one segment of a batch. See {@link #intersect(double[], double[],
+     * int)}.
+     *
+     * @param segments the segments' positions, six values per segment.
+     * @param results  the array to receive four values per segment.
+     * @param index    the index of the segment to intersect.
+     * @param ray      the traversal state to use for the segment.
+     *
+     * @return true if the segment intersects the terrain, otherwise false.
+     *
+     * @throws InterruptedException if the operation is interrupted.
+     */
+    protected boolean intersectSegment(double[] segments, double[] results, int index, RayState ray)
+        throws InterruptedException
+    {
+        int r = 4 * index;
+        Arrays.fill(results, r, r + 4, Double.NaN);
+
+        int s = 6 * index;
+        Angle latA = Angle.fromDegrees(segments[s]);
+        Angle lonA = Angle.fromDegrees(segments[s + 1]);
+        Angle latB = Angle.fromDegrees(segments[s + 3]);
+        Angle lonB = Angle.fromDegrees(segments[s + 4]);
+
+        if (latA.equals(latB) && lonA.equals(lonB))
+            return false;
+
+        RectTile tileA = this.getContainingTile(latA, lonA);
+        RectTile tileB = this.getContainingTile(latB, lonB);
+        if (tileA == null || tileB == null)
+            return false;
+
+        List<RectTile> tiles = this.getIntersectingTiles(new LatLon(latA, lonA), new LatLon(latB, lonB));
+        if (tiles == null)
+            return false;
+
+        Vec4 ptA = this.getSurfacePoint(tileA, latA, lonA, segments[s + 2]);
+        Vec4 ptB = this.getSurfacePoint(tileB, latB, lonB, segments[s + 5]);
+        if (ptA == null || ptB == null)
+            return false;
+
+        Line line = new Line(ptA, ptB.subtract3(ptA).normalize3());
+        ray.set(ptA, line.getDirection(), ptA.distanceTo3(ptB), true);
+
+        // The tiles are ordered from the first position to the second, so once an intersection is found the remaining
+        // tiles are usually rejected by their pyramid's root bounds.
+        for (RectTile tile : tiles)
+        {
+            if (tile.extent.intersects(line))
+                this.intersect(tile, ray);
+        }
+
+        if (ray.numIntersections == 0)
+            return false;
+
+        double t = ray.distances[0];
+        results[r] = ray.ox + t * ray.dx;
+        results[r + 1] = ray.oy + t * ray.dy;
+        results[r + 2] = ray.oz + t * ray.dz;
+        results[r + 3] = t;
+
+        return true;
+    }
+
     /**
      * Cause the tiles used by subsequent intersection calculations to be cached so that they are available immediately
      * to those subsequent calculations.
@@ -652,45 +1018,40 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
 
         Line line = new Line(ptA, ptB.subtract3(ptA).normalize3());
 
-        Intersection[] hits;
-        ArrayList<Intersection> list = new ArrayList<Intersection>();
+        RayState ray = new RayState();
+        ray.set(line.getOrigin(), line.getDirection(), Double.MAX_VALUE, false);
+
         for (RectTile tile : tiles)
         {
             if (tile.extent.intersects(line))
-            {
-                if ((hits = this.intersect(tile, line)) != null)
-                    list.addAll(Arrays.asList(hits));
-            }
+                this.intersect(tile, ray);
         }
 
-        if (list.size() == 0)
-            return null;
+        return this.createIntersections(line, ray);
+    }
 
-        hits = new Intersection[list.size()];
-        list.toArray(hits);
+    /**
+     * Creates the intersections found by a line traversal, sorted by distance from the line's origin.
+     *
+     * @param line the line.
+     * @param ray  the line's traversal state.
+     *
+     * @return an array of intersections, or null if the traversal found no intersections.
+     */
+    protected Intersection[] createIntersections(Line line, RayState ray)
+    {
+        int numHits = ray.numIntersections;
+        if (numHits == 0)
+            return null;
 
-        if (list.size() == 1)
-            return hits;
+        // Sort the intersections by distance from line origin, nearer are first in the sorted list.
+        Arrays.sort(ray.distances, 0, numHits);
 
-        final Vec4 origin = line.getOrigin();
-        Arrays.sort(hits, new Comparator<Intersection>()
+        Intersection[] hits = new Intersection[numHits];
+        for (int i = 0; i < numHits; i++)
         {
-            public int compare(Intersection i1, Intersection i2)
-            {
-                if (i1 == null && i2 == null)
-                    return 0;
-                if (i2 == null)
-                    return -1;
-                if (i1 == null)
-                    return 1;
-
-                Vec4 v1 = i1.getIntersectionPoint();
-                Vec4 v2 = i2.getIntersectionPoint();
-                double d1 = origin.distanceTo3(v1);
-                double d2 = origin.distanceTo3(v2);
-                return Double.compare(d1, d2);
-            }
-        });
+            hits[i] = new Intersection(line.getPointAt(ray.distances[i]), ray.distances[i], false);
+        }
 
         return hits;
     }
@@ -1124,80 +1485,90 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
      * @throws InterruptedException if the operation is interrupted.
      */
     protected Intersection[] intersect(RectTile tile, Line line) throws InterruptedException
+    {
+        RayState ray = new RayState();
+        ray.set(line.getOrigin(), line.getDirection(), Double.MAX_VALUE, false);
+
+        this.intersect(tile, ray);
+
+        return this.createIntersections(line, ray);
+    }
+
+    /**
+     * Intersects a line with a tile, adding the distance of each intersection to the line's traversal state. The
+     * tile's min/max pyramid is traversed from its root, and only the triangles of cells whose bounds the line
+     * intersects are tested.
+     *
+     * @param tile the tile.
+     * @param ray  the line's traversal state.
+     *
+     * @throws InterruptedException if the operation is interrupted.
+     */
+    protected void intersect(RectTile tile, RayState ray) throws InterruptedException
     {
         if (tile.ri == null)
             this.makeVerts(tile);
 
-        if (tile.ri == null)
-            return null;
+        RenderInfo ri = tile.ri;
+        if (ri == null)
+            return;
 
-        Intersection[] hits;
-        ArrayList<Intersection> list = new ArrayList<Intersection>();
+        this.intersectCell(ri, ri.levelSizes.length - 1, 0, 0, ray);
+    }
 
-        double cx = tile.ri.referenceCenter.x;
-        double cy = tile.ri.referenceCenter.y;
-        double cz = tile.ri.referenceCenter.z;
+    protected void intersectCell(RenderInfo ri, int level, int row, int col, RayState ray)
+    {
+        int size = ri.levelSizes[level];
+        if (!ray.intersectsBox(ri.cellBounds, 6 * (ri.levelOffsets[level] + row * size + col), ri.referenceCenter))
+            return;
 
-        // Loop through all the tile's triangles
-        int n = tile.density + 1;
-        float[] coords = tile.ri.vertices;
+        if (level == 0)
+        {
+            this.intersectCellTriangles(ri, row, col, ray);
+            return;
+        }
 
-        for (int j = 0; j < n - 1; j++)
+        int childSize = ri.levelSizes[level - 1];
+        for (int j = 2 * row; j <= 2 * row + 1 && j < childSize; j++)
         {
-            for (int i = 0; i < n - 1; i++)
+            for (int i = 2 * col; i <= 2 * col + 1 && i < childSize; i++)
             {
-                int k = (j * n + i) * 3;
-                Vec4 va = new Vec4(coords[k] + cx, coords[k + 1] + cy, coords[k + 2] + cz);
-
-                k += 3;
-                Vec4 vb = new Vec4(coords[k] + cx, coords[k + 1] + cy, coords[k + 2] + cz);
-
-                k += n * 3;
-                Vec4 vc = new Vec4(coords[k] + cx, coords[k + 1] + cy, coords[k + 2] + cz);
+                this.intersectCell(ri, level - 1, j, i, ray);
+            }
+        }
+    }
 
-                k -= 3;
-                Vec4 vd = new Vec4(coords[k] + cx, coords[k + 1] + cy, coords[k + 2] + cz);
+    protected void intersectCellTriangles(RenderInfo ri, int row, int col, RayState ray)
+    {
+        double cx = ri.referenceCenter.x;
+        double cy = ri.referenceCenter.y;
+        double cz = ri.referenceCenter.z;
 
-                // Intersect triangles with line
-                Intersection intersection;
+        int n = ri.density + 1;
+        float[] coords = ri.vertices;
 
-                if ((intersection = Triangle.intersect(line, va, vb, vc)) != null)
-                    list.add(intersection);
+        int k = (row * n + col) * 3;
+        double vax = coords[k] + cx, vay = coords[k + 1] + cy, vaz = coords[k + 2] + cz;
 
-                if ((intersection = Triangle.intersect(line, va, vc, vd)) != null)
-                    list.add(intersection);
-            }
-        }
+        k += 3;
+        double vbx = coords[k] + cx, vby = coords[k + 1] + cy, vbz = coords[k + 2] + cz;
 
-        int numHits = list.size();
-        if (numHits == 0)
-            return null;
+        k += n * 3;
+        double vcx = coords[k] + cx, vcy = coords[k + 1] + cy, vcz = coords[k + 2] + cz;
 
-        // Sort the intersections by distance from line origin, nearer are first in the sorted list.
-        hits = new Intersection[numHits];
-        list.toArray(hits);
+        k -= 3;
+        double vdx = coords[k] + cx, vdy = coords[k + 1] + cy, vdz = coords[k + 2] + cz;
 
-        final Vec4 origin = line.getOrigin();
-        Arrays.sort(hits, new Comparator<Intersection>()
-        {
-            public int compare(Intersection i1, Intersection i2)
-            {
-                if (i1 == null && i2 == null)
-                    return 0;
-                if (i2 == null)
-                    return -1;
-                if (i1 == null)
-                    return 1;
-
-                Vec4 v1 = i1.getIntersectionPoint();
-                Vec4 v2 = i2.getIntersectionPoint();
-                double d1 = origin.distanceTo3(v1);
-                double d2 = origin.distanceTo3(v2);
-                return Double.compare(d1, d2);
-            }
-        });
+        // Intersect the cell's two triangles with the line.
+        double t = Triangle.intersectDistance(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+            vax, vay, vaz, vbx, vby, vbz, vcx, vcy, vcz);
+        if (t >= 0)
+            ray.addIntersection(t);
 
-        return hits;
+        t = Triangle.intersectDistance(ray.ox, ray.oy, ray.oz, ray.dx, ray.dy, ray.dz,
+            vax, vay, vaz, vcx, vcy, vcz, vdx, vdy, vdz);
+        if (t >= 0)
+            ray.addIntersection(t);
     }
 
     /**
@@ -369,7 +369,7 @@ public class RectangularTessellator extends WWObjectImpl implements Tessellator
 
     // TODO: Make all this configurable
     protected static final int DEFAULT_MAX_LEVEL = 30;
-    protected static final double DEFAULT_LOG10_RESOLUTION_TARGET = 1.3;
+    public static final double DEFAULT_LOG10_RESOLUTION_TARGET = 1.3;
     protected static final int DEFAULT_NUM_LAT_SUBDIVISIONS = 3;
     protected static final int DEFAULT_NUM_LON_SUBDIVISIONS = 6;
     protected static final int DEFAULT_DENSITY = 20;
@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.data.BufferWrapperRaster;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Computes the terrain visible from an observer using the elevations of a {@link HighResolutionTerrain}. Rather than
+ * intersecting a line with the terrain for each location, a viewshed retrieves the elevations of a grid surrounding
+ * the observer once, then sweeps rays outward from the observer across that grid. Each ray tracks the steepest
+ * elevation angle encountered so far, so every grid cell is visited by a small number of rays and each visit costs a
+ * few arithmetic operations. Both the elevation retrieval and the sweep are divided among several threads.
+ * <p/>
+ * The result is a {@link BufferWrapperRaster} of byte values centered on the observer: {@link #VISIBLE} for visible
+ * cells, {@link #NOT_VISIBLE} for hidden cells, and {@link #NO_DATA} for cells beyond the viewshed radius or outside
+ * the terrain's sector. The raster's transparent value is <code>NO_DATA</code>. Its samples lie on a regular grid
+ * spanning the raster's sector from edge to edge, starting at the sector's upper left corner, which is the layout
+ * expected by <code>gov.nasa.worldwindx.examples.analytics.AnalyticSurface</code>:
+ * <pre>
+ * BufferWrapperRaster raster = viewshed.compute(observer, 10e3, 2, 30);
+ * AnalyticSurface surface = new AnalyticSurface();
+ * surface.setSector(raster.getSector());
+ * surface.setDimensions(raster.getWidth(), raster.getHeight());
+ * surface.setValues(AnalyticSurface.createColorGradientValues(raster.getBuffer(), raster.getTransparentValue(),
+ *     Viewshed.NOT_VISIBLE, Viewshed.VISIBLE, minHue, maxHue));
+ * </pre>
+ * Earth curvature is accounted for by lowering each cell by the drop of the globe's surface below the observer's
+ * tangent plane. The terrain's vertical exaggeration and timeout apply to the viewshed's elevation retrieval.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class Viewshed
+{
+    /** The raster value of cells visible from the observer. */
+    public static final byte VISIBLE = 1;
+    /** The raster value of cells hidden from the observer. */
+    public static final byte NOT_VISIBLE = 0;
+    /** The raster value of cells beyond the viewshed's radius or outside the terrain's sector. */
+    public static final byte NO_DATA = -1;
+
+    protected static final int DEFAULT_NUM_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    /** The number of grid rows whose elevations are retrieved in one request. */
+    protected static final int ELEVATION_BAND_SIZE = 32;
+    /** The number of rays a thread claims at a time during the sweep. */
+    protected static final int SWEEP_CHUNK_SIZE = 64;
+
+    /** Holds the grid shared by the threads computing one viewshed. */
+    protected static class Grid
+    {
+        /** The number of cells from the observer's cell to the grid's edge. The grid is 2 * halfSize + 1 cells wide. */
+        protected int halfSize;
+        protected int size;
+        protected double latitude; // observer latitude, in radians
+        protected double longitude; // observer longitude, in radians
+        protected double deltaLat; // cell spacing, in radians
+        protected double deltaLon;
+        protected double resolution; // cell spacing, in meters
+        protected double radius;
+        protected double targetHeight;
+        protected double globeRadius;
+        /** The east-west cell spacing of each row, in meters. */
+        protected double[] columnSpacing;
+        /** The elevation of each cell, or NaN if the cell is outside the terrain's sector. */
+        protected float[] elevations;
+        protected byte[] visibility;
+        protected double eyeElevation;
+
+        protected double getLatitude(int row)
+        {
+            return this.latitude + (this.halfSize - row) * this.deltaLat;
+        }
+
+        protected double getLongitude(int col)
+        {
+            return this.longitude + (col - this.halfSize) * this.deltaLon;
+        }
+    }
+
+    protected final HighResolutionTerrain terrain;
+    protected int numThreads = DEFAULT_NUM_THREADS;
+
+    /**
+     * Constructs a viewshed calculator for a specified terrain.
+     *
+     * @param terrain the terrain whose elevations determine visibility.
+     *
+     * @throws IllegalArgumentException if the terrain is null.
+     */
+    public Viewshed(HighResolutionTerrain terrain)
+    {
+        if (terrain == null)
+        {
+            String msg = Logging.getMessage("nullValue.TerrainIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.terrain = terrain;
+    }
+
+    public HighResolutionTerrain getTerrain()
+    {
+        return this.terrain;
+    }
+
+    /**
+     * Indicates the number of threads used to compute a viewshed.
+     *
+     * @return the number of threads. The default is the number of available processors.
+     */
+    public int getNumThreads()
+    {
+        return this.numThreads;
+    }
+
+    /**
+     * Specifies the number of threads used to compute a viewshed. The calling thread is one of these threads.
+     *
+     * @param numThreads the number of threads. Specify 1 to compute viewsheds entirely on the calling thread.
+     *
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setNumThreads(int numThreads)
+    {
+        if (numThreads < 1)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "numThreads < 1");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Computes the terrain visible from an observer within a specified radius.
+     * <p/>
+     * This operation blocks while it retrieves the terrain's elevations, and fails with a {@link WWRuntimeException} if
+     * the terrain's timeout is exceeded.
+     *
+     * @param observer     the observer's position. The altitude is the observer's height above the terrain, in
+     *                     meters.
+     * @param radius       the distance from the observer to the edge of the viewshed, in meters.
+     * @param targetHeight the height above the terrain of the points whose visibility is computed, in meters. Specify
+     *                     0 to determine the visibility of the terrain surface itself.
+     * @param resolution   the distance between the raster's cells, in meters.
+     *
+     * @return a raster of {@link #VISIBLE}, {@link #NOT_VISIBLE} and {@link #NO_DATA} values centered on the observer.
+     *
+     * @throws IllegalArgumentException if the observer is null or outside the terrain's sector, if the radius or
+     *                                  resolution are not positive, or if the radius and resolution describe a raster
+     *                                  too large to allocate.
+     * @throws WWRuntimeException       if the operation is interrupted or the terrain's timeout is exceeded.
+     */
+    public BufferWrapperRaster compute(Position observer, double radius, double targetHeight, double resolution)
+    {
+        if (observer == null)
+        {
+            String msg = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (!this.terrain.getSector().contains(observer))
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", observer);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (!(radius > 0))
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "radius <= 0");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (!(resolution > 0))
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "resolution <= 0");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        double halfSize = Math.ceil(radius / resolution);
+        if ((2 * halfSize + 1) * (2 * halfSize + 1) > Integer.MAX_VALUE)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "radius / resolution");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        final Grid grid = this.createGrid(observer, radius, targetHeight, resolution, (int) halfSize);
+
+        final int numBands = (grid.size + ELEVATION_BAND_SIZE - 1) / ELEVATION_BAND_SIZE;
+        final AtomicInteger nextBand = new AtomicInteger();
+        this.runInParallel(new Runnable()
+        {
+            public void run()
+            {
+                terrain.startTime.set(System.currentTimeMillis());
+                try
+                {
+                    int band;
+                    while ((band = nextBand.getAndIncrement()) < numBands)
+                    {
+                        int startRow = band * ELEVATION_BAND_SIZE;
+                        retrieveElevations(grid, startRow, Math.min(startRow + ELEVATION_BAND_SIZE, grid.size));
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    throw new WWRuntimeException(e);
+                }
+                finally
+                {
+                    terrain.startTime.set(null); // signals that no operation is active
+                }
+            }
+        });
+
+        this.initVisibility(grid, observer.getAltitude());
+
+        final int numRays = 8 * grid.halfSize;
+        final AtomicInteger nextRay = new AtomicInteger();
+        this.runInParallel(new Runnable()
+        {
+            public void run()
+            {
+                int start;
+                while ((start = nextRay.getAndAdd(SWEEP_CHUNK_SIZE)) < numRays)
+                {
+                    int end = Math.min(start + SWEEP_CHUNK_SIZE, numRays);
+                    for (int i = start; i < end; i++)
+                    {
+                        sweepRay(grid, i);
+                    }
+                }
+            }
+        });
+
+        Sector sector = Sector.fromRadians(
+            grid.latitude - grid.halfSize * grid.deltaLat, grid.latitude + grid.halfSize * grid.deltaLat,
+            grid.longitude - grid.halfSize * grid.deltaLon, grid.longitude + grid.halfSize * grid.deltaLon);
+        BufferWrapperRaster raster = new BufferWrapperRaster(grid.size, grid.size, sector,
+            new BufferWrapper.ByteBufferWrapper(ByteBuffer.wrap(grid.visibility)));
+        raster.setTransparentValue(NO_DATA);
+
+        return raster;
+    }
+
+    /**
+     * Creates the grid for a viewshed computation. The grid's rows and columns are evenly spaced in latitude and
+     * longitude, respectively, and the observer is at the center of the grid.
+     *
+     * @param observer     the observer's position.
+     * @param radius       the viewshed radius, in meters.
+     * @param targetHeight the height of the target points above the terrain, in meters.
+     * @param resolution   the cell spacing, in meters.
+     * @param halfSize     the number of cells between the observer and the edge of the grid.
+     *
+     * @return the new grid, without elevations.
+     */
+    protected Grid createGrid(Position observer, double radius, double targetHeight, double resolution, int halfSize)
+    {
+        Grid grid = new Grid();
+        grid.halfSize = halfSize;
+        grid.size = 2 * halfSize + 1;
+        grid.latitude = observer.getLatitude().radians;
+        grid.longitude = observer.getLongitude().radians;
+        grid.resolution = resolution;
+        grid.radius = radius;
+        grid.targetHeight = targetHeight;
+        grid.globeRadius = this.terrain.getGlobe().getRadius();
+
+        // Keep cells from becoming arbitrarily wide in longitude near the poles.
+        double cosLat = Math.max(Math.cos(grid.latitude), 1e-3);
+        grid.deltaLat = resolution / grid.globeRadius;
+        grid.deltaLon = grid.deltaLat / cosLat;
+
+        grid.columnSpacing = new double[grid.size];
+        for (int row = 0; row < grid.size; row++)
+        {
+            grid.columnSpacing[row] = resolution * Math.max(Math.cos(grid.getLatitude(row)), 0) / cosLat;
+        }
+
+        grid.elevations = new float[grid.size * grid.size];
+        grid.visibility = new byte[grid.size * grid.size];
+
+        return grid;
+    }
+
+    /**
+     * Retrieves the elevations of a band of grid rows. Cells outside the terrain's sector are assigned NaN.
+     *
+     * @param grid     the grid.
+     * @param startRow the first row of the band.
+     * @param endRow   the row following the band's last row.
+     *
+     * @throws InterruptedException if the operation is interrupted.
+     */
+    protected void retrieveElevations(Grid grid, int startRow, int endRow) throws InterruptedException
+    {
+        Sector terrainSector = this.terrain.getSector();
+        int numCells = (endRow - startRow) * grid.size;
+        List<LatLon> locations = new ArrayList<LatLon>(numCells);
+        int[] indices = new int[numCells];
+
+        for (int row = startRow; row < endRow; row++)
+        {
+            double lat = grid.getLatitude(row);
+            for (int col = 0; col < grid.size; col++)
+            {
+                int index = row * grid.size + col;
+                double lon = grid.getLongitude(col);
+                if (terrainSector.containsRadians(lat, lon))
+                {
+                    indices[locations.size()] = index;
+                    locations.add(LatLon.fromRadians(lat, lon));
+                }
+                else
+                {
+                    grid.elevations[index] = Float.NaN;
+                }
+            }
+        }
+
+        if (locations.size() == 0)
+            return;
+
+        double[] elevations = new double[locations.size()];
+        this.terrain.getElevations(Sector.boundingSector(locations), locations, this.getTargetResolution(grid),
+            elevations);
+
+        double verticalExaggeration = this.terrain.getVerticalExaggeration();
+        for (int i = 0; i < elevations.length; i++)
+        {
+            grid.elevations[indices[i]] = (float) (elevations[i] * verticalExaggeration);
+        }
+    }
+
+    /**
+     * Indicates the elevation resolution to retrieve for a grid. Data finer than the grid's spacing does not improve
+     * the result, so this is the coarser of the grid's spacing and the terrain's target resolution.
+     *
+     * @param grid the grid.
+     *
+     * @return the target resolution, in radians.
+     */
+    protected double getTargetResolution(Grid grid)
+    {
+        return Math.max(grid.deltaLat, this.terrain.getTargetResolution());
+    }
+
+    /**
+     * Marks the cells within the viewshed's radius and the terrain's sector as hidden, all other cells as missing, and
+     * the observer's cell as visible. Also computes the observer's eye elevation.
+     *
+     * @param grid           the grid, with elevations.
+     * @param observerHeight the observer's height above the terrain, in meters.
+     */
+    protected void initVisibility(Grid grid, double observerHeight)
+    {
+        for (int row = 0; row < grid.size; row++)
+        {
+            double y = (row - grid.halfSize) * grid.resolution;
+            for (int col = 0; col < grid.size; col++)
+            {
+                int index = row * grid.size + col;
+                double x = (col - grid.halfSize) * grid.columnSpacing[row];
+                boolean inside = x * x + y * y <= grid.radius * grid.radius && !Float.isNaN(grid.elevations[index]);
+                grid.visibility[index] = inside ? NOT_VISIBLE : NO_DATA;
+            }
+        }
+
+        int center = grid.halfSize * grid.size + grid.halfSize;
+        grid.visibility[center] = VISIBLE;
+        grid.eyeElevation = grid.elevations[center] + observerHeight;
+    }
+
+    /**
+     * Sweeps one ray from the observer to a cell on the edge of the grid, marking the cells along the ray that are
+     * visible. Rays are numbered clockwise around the grid's edge starting at its upper left corner. A ray steps one
+     * cell at a time along its major axis, so the rays to all edge cells together visit every cell of the grid.
+     * <p/>
+     * Cells are only ever changed from hidden to visible, so concurrent rays crossing the same cell need no
+     * synchronization.
+     *
+     * @param grid  the grid, with elevations and initial visibility.
+     * @param index the ray's index, from 0 to 8 * halfSize - 1.
+     */
+    protected void sweepRay(Grid grid, int index)
+    {
+        int n = grid.halfSize;
+        int side = index / (2 * n);
+        int offset = index % (2 * n);
+
+        int edgeCol, edgeRow; // relative to the observer's cell
+        if (side == 0) // top, left to right
+        {
+            edgeCol = offset - n;
+            edgeRow = -n;
+        }
+        else if (side == 1) // right, top to bottom
+        {
+            edgeCol = n;
+            edgeRow = offset - n;
+        }
+        else if (side == 2) // bottom, right to left
+        {
+            edgeCol = n - offset;
+            edgeRow = n;
+        }
+        else // left, bottom to top
+        {
+            edgeCol = -n;
+            edgeRow = n - offset;
+        }
+
+        double radiusSquared = grid.radius * grid.radius;
+        double twiceGlobeRadius = 2 * grid.globeRadius;
+        double maxSlope = -Double.MAX_VALUE;
+
+        for (int k = 1; k <= n; k++)
+        {
+            int dc = (int) Math.round((double) edgeCol * k / n);
+            int dr = (int) Math.round((double) edgeRow * k / n);
+            int row = n + dr;
+            int cellIndex = row * grid.size + n + dc;
+
+            double x = dc * grid.columnSpacing[row];
+            double y = dr * grid.resolution;
+            double distanceSquared = x * x + y * y;
+            if (distanceSquared > radiusSquared)
+                break;
+
+            float elevation = grid.elevations[cellIndex];
+            if (Float.isNaN(elevation))
+                continue;
+
+            // The cell's height relative to the observer's eye, lowered by the globe's curvature.
+            double distance = Math.sqrt(distanceSquared);
+            double height = elevation - distanceSquared / twiceGlobeRadius - grid.eyeElevation;
+
+            if ((height + grid.targetHeight) / distance >= maxSlope)
+                grid.visibility[cellIndex] = VISIBLE;
+
+            double slope = height / distance;
+            if (slope > maxSlope)
+                maxSlope = slope;
+        }
+    }
+
+    /**
+     * Runs a task on this instance's number of threads, including the calling thread, and waits for all of them to
+     * finish. See {@link ParallelTaskRunner#run(Runnable, int)}.
+     *
+     * @param task the task to run. Each thread runs the same task instance.
+     *
+     * @throws WWRuntimeException if the calling thread is interrupted or a task throws a checked exception.
+     */
+    protected void runInParallel(Runnable task)
+    {
+        ParallelTaskRunner.run(task, this.numThreads);
+    }
+}
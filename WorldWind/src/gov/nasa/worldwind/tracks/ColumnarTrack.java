@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A track whose segments are {@link ColumnarTrackSegment}s. See {@link ColumnarTrackSegment} for a description of the
+ * columnar storage and its queries.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrack implements Track, Disposable
+{
+    protected String name;
+    protected List<ColumnarTrackSegment> segments = new CopyOnWriteArrayList<ColumnarTrackSegment>();
+
+    public ColumnarTrack(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Creates a columnar copy of a track, holding its points in the heap in chunks of a specified size.
+     *
+     * @param track     the track to copy.
+     * @param chunkSize the number of points in each chunk.
+     *
+     * @throws IllegalArgumentException if the track is null, or if the chunk size is less than 1.
+     */
+    public ColumnarTrack(Track track, int chunkSize)
+    {
+        if (track == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.name = track.getName();
+
+        if (track.getSegments() == null)
+            return;
+
+        for (TrackSegment ts : track.getSegments())
+        {
+            ColumnarTrackSegment segment = new ColumnarTrackSegment(chunkSize);
+            for (TrackPoint tp : ts.getPoints())
+            {
+                segment.addPoint(tp);
+            }
+
+            this.addSegment(segment);
+        }
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public List<TrackSegment> getSegments()
+    {
+        return Collections.<TrackSegment>unmodifiableList(this.segments);
+    }
+
+    /**
+     * Returns this track's segments as columnar segments.
+     *
+     * @return this track's segments.
+     */
+    public List<ColumnarTrackSegment> getColumnarSegments()
+    {
+        return Collections.unmodifiableList(this.segments);
+    }
+
+    /**
+     * Adds a segment to the end of this track.
+     *
+     * @param segment the segment to add.
+     *
+     * @throws IllegalArgumentException if the segment is null.
+     */
+    public void addSegment(ColumnarTrackSegment segment)
+    {
+        if (segment == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackSegmentIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.segments.add(segment);
+    }
+
+    public int getNumPoints()
+    {
+        int numPoints = 0;
+        for (ColumnarTrackSegment segment : this.segments)
+        {
+            numPoints += segment.getNumPoints();
+        }
+
+        return numPoints;
+    }
+
+    /**
+     * Computes the sector bounding this track's points.
+     *
+     * @return the bounding sector, or null if the track has no points.
+     */
+    public Sector getSector()
+    {
+        Sector sector = null;
+        for (ColumnarTrackSegment segment : this.segments)
+        {
+            Sector s = segment.getSector();
+            if (s != null)
+                sector = sector != null ? sector.union(s) : s;
+        }
+
+        return sector;
+    }
+
+    /**
+     * Returns an iterator over all of this track's points. See {@link ColumnarTrackPointIterator}.
+     *
+     * @return an iterator over this track's points.
+     */
+    public ColumnarTrackPointIterator iterator()
+    {
+        return new ColumnarTrackPointIterator(this.segments);
+    }
+
+    /**
+     * Returns an iterator over the points of this track that lie within a sector and a time range. See {@link
+     * ColumnarTrackPointIterator}.
+     *
+     * @param sector  the sector the points must lie in, or null to accept points at any location.
+     * @param minTime the earliest time, inclusive, in milliseconds since the epoch.
+     * @param maxTime the latest time, inclusive, in milliseconds since the epoch.
+     *
+     * @return an iterator over the matching points.
+     */
+    public ColumnarTrackPointIterator iterator(Sector sector, long minTime, long maxTime)
+    {
+        return new ColumnarTrackPointIterator(this.segments, sector, minTime, maxTime);
+    }
+
+    /** Disposes of this track's segments. */
+    public void dispose()
+    {
+        for (ColumnarTrackSegment segment : this.segments)
+        {
+            segment.dispose();
+        }
+    }
+}
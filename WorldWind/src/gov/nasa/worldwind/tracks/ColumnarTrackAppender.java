@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * A {@link TrackPointListener} that appends the points it receives to a {@link ColumnarTrack}, adding a segment to the
+ * track for each segment read. The track may be rendered while points are appended; see {@link ColumnarTrackSegment}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrackAppender implements TrackPointListener
+{
+    protected final ColumnarTrack track;
+    protected final int chunkSize;
+    protected ColumnarTrackSegment segment;
+    protected int segmentNumber = -1;
+
+    /**
+     * Creates an appender that adds heap segments with chunks of the default size.
+     *
+     * @param track the track to append to.
+     *
+     * @throws IllegalArgumentException if the track is null.
+     */
+    public ColumnarTrackAppender(ColumnarTrack track)
+    {
+        this(track, ColumnarTrackSegment.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an appender that adds heap segments with chunks of a specified size.
+     *
+     * @param track     the track to append to.
+     * @param chunkSize the number of points in each chunk of the segments added.
+     *
+     * @throws IllegalArgumentException if the track is null or the chunk size is less than 1.
+     */
+    public ColumnarTrackAppender(ColumnarTrack track, int chunkSize)
+    {
+        if (track == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.track = track;
+        this.chunkSize = ColumnarTrackSegment.validateChunkSize(chunkSize);
+    }
+
+    public ColumnarTrack getTrack()
+    {
+        return this.track;
+    }
+
+    public void pointsRead(TrackPointBatch batch)
+    {
+        if (this.segment == null || batch.getSegmentNumber() != this.segmentNumber)
+        {
+            this.segment = this.createSegment();
+            this.segmentNumber = batch.getSegmentNumber();
+            this.track.addSegment(this.segment);
+        }
+
+        this.segment.addPoints(batch);
+    }
+
+    /**
+     * Creates a segment for a new segment read. Override this method to hold segments in memory-mapped files.
+     *
+     * @return the new segment.
+     */
+    protected ColumnarTrackSegment createSegment()
+    {
+        return new ColumnarTrackSegment(this.chunkSize);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * A {@link TrackPoint} view of one point of a {@link ColumnarTrackSegment}. The view holds no values of its own; its
+ * accessors read and write the segment's columns. {@link ColumnarTrackPointIterator} moves a single view from point to
+ * point, so views obtained from an iterator must not be retained.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrackPoint implements TrackPoint
+{
+    protected ColumnarTrackSegment segment;
+    protected int index;
+
+    /**
+     * Creates a view of a point of a segment.
+     *
+     * @param segment the segment.
+     * @param index   the index of the point in the segment.
+     *
+     * @throws IllegalArgumentException if the segment is null.
+     */
+    public ColumnarTrackPoint(ColumnarTrackSegment segment, int index)
+    {
+        if (segment == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackSegmentIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.segment = segment;
+        this.index = index;
+    }
+
+    public ColumnarTrackSegment getSegment()
+    {
+        return this.segment;
+    }
+
+    public int getIndex()
+    {
+        return this.index;
+    }
+
+    protected void set(ColumnarTrackSegment segment, int index)
+    {
+        this.segment = segment;
+        this.index = index;
+    }
+
+    public double getLatitude()
+    {
+        return this.segment.getLatitude(this.index);
+    }
+
+    public void setLatitude(double latitude)
+    {
+        this.segment.setPoint(this.index, latitude, this.getLongitude(), this.getElevation(), this.getEpochTime());
+    }
+
+    public double getLongitude()
+    {
+        return this.segment.getLongitude(this.index);
+    }
+
+    public void setLongitude(double longitude)
+    {
+        this.segment.setPoint(this.index, this.getLatitude(), longitude, this.getElevation(), this.getEpochTime());
+    }
+
+    public double getElevation()
+    {
+        return this.segment.getElevation(this.index);
+    }
+
+    public void setElevation(double elevation)
+    {
+        this.segment.setPoint(this.index, this.getLatitude(), this.getLongitude(), elevation, this.getEpochTime());
+    }
+
+    /**
+     * Returns this point's time.
+     *
+     * @return the time in milliseconds since the epoch, or {@link ColumnarTrackSegment#NO_TIME} if the point has no
+     *         time.
+     */
+    public long getEpochTime()
+    {
+        return this.segment.getTime(this.index);
+    }
+
+    /**
+     * Returns this point's time as a UTC time string. See {@link ColumnarTrackSegment#formatTime(long)}.
+     *
+     * @return the time string, or null if the point has no time.
+     */
+    public String getTime()
+    {
+        return ColumnarTrackSegment.formatTime(this.getEpochTime());
+    }
+
+    /**
+     * Specifies this point's time. See {@link ColumnarTrackSegment#parseTime(String)}.
+     *
+     * @param time the time string.
+     */
+    public void setTime(String time)
+    {
+        this.segment.setPoint(this.index, this.getLatitude(), this.getLongitude(), this.getElevation(),
+            ColumnarTrackSegment.parseTime(time));
+    }
+
+    /**
+     * Creates a position for this point. The position is a copy and remains valid after this view moves to another
+     * point.
+     *
+     * @return a new position for this point.
+     */
+    public Position getPosition()
+    {
+        return this.segment.getPosition(this.index);
+    }
+
+    public void setPosition(Position position)
+    {
+        if (position == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.segment.setPoint(this.index, position.getLatitude().degrees, position.getLongitude().degrees,
+            position.getElevation(), this.getEpochTime());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+
+/**
+ * Iterates over the points of one or more {@link ColumnarTrackSegment}s, optionally limited to a sector and a time
+ * range. The iterator returns the same {@link ColumnarTrackPoint} from every call to {@link #next()}, moved to the next
+ * point, so iterating does not create an object per point. Callers that retain points must copy them, for example with
+ * {@link TrackPoint#getPosition()}. The iterator can be passed directly to {@link
+ * gov.nasa.worldwind.render.TrackRenderer}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrackPointIterator implements TrackPointIterator
+{
+    protected Iterable<ColumnarTrackSegment> segmentIterable;
+    protected Sector sector;
+    protected long minTime;
+    protected long maxTime;
+    protected Iterator<ColumnarTrackSegment> segments;
+    protected ColumnarTrackSegment segment;
+    protected int nextIndex = -1;
+    protected ColumnarTrackPoint point;
+
+    /**
+     * Creates an iterator over all the points of a collection of segments.
+     *
+     * @param segments the segments.
+     *
+     * @throws IllegalArgumentException if the segments are null.
+     */
+    public ColumnarTrackPointIterator(Iterable<ColumnarTrackSegment> segments)
+    {
+        this(segments, null, ColumnarTrackSegment.NO_TIME, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates an iterator over the points of a collection of segments that lie within a sector and a time range.
+     *
+     * @param segments the segments.
+     * @param sector   the sector the points must lie in, or null to accept points at any location.
+     * @param minTime  the earliest time, inclusive, in milliseconds since the epoch.
+     * @param maxTime  the latest time, inclusive, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException if the segments are null.
+     */
+    public ColumnarTrackPointIterator(Iterable<ColumnarTrackSegment> segments, Sector sector, long minTime,
+        long maxTime)
+    {
+        this.segmentIterable = segments;
+        this.sector = sector;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.reset();
+    }
+
+    public ColumnarTrackPointIterator reset()
+    {
+        if (this.segmentIterable == null)
+        {
+            String msg = Logging.getMessage("nullValue.TracksIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.segments = this.segmentIterable.iterator();
+        this.segment = null;
+        this.nextIndex = -1;
+        this.point = null;
+        this.advance(0);
+
+        return this;
+    }
+
+    protected void advance(int fromIndex)
+    {
+        if (this.segment != null)
+            this.nextIndex = this.segment.nextIndex(fromIndex, this.sector, this.minTime, this.maxTime);
+
+        while (this.nextIndex < 0 && this.segments.hasNext())
+        {
+            this.segment = this.segments.next();
+            this.nextIndex = this.segment.nextIndex(0, this.sector, this.minTime, this.maxTime);
+        }
+    }
+
+    public boolean hasNext()
+    {
+        return this.nextIndex >= 0;
+    }
+
+    public TrackPoint next()
+    {
+        if (!this.hasNext())
+        {
+            String msg = Logging.getMessage("TrackPointIterator.NoMoreTrackPoints");
+            Logging.logger().severe(msg);
+            throw new NoSuchElementException(msg);
+        }
+
+        if (this.point == null)
+            this.point = new ColumnarTrackPoint(this.segment, this.nextIndex);
+        else
+            this.point.set(this.segment, this.nextIndex);
+
+        this.advance(this.nextIndex + 1);
+
+        return this.point;
+    }
+
+    public void remove()
+    {
+        String msg = Logging.getMessage("TrackPointIterator.RemoveNotSupported");
+        Logging.logger().severe(msg);
+        throw new UnsupportedOperationException(msg);
+    }
+
+    public int getNumPoints()
+    {
+        int numPoints;
+        for (numPoints = 0; this.hasNext(); this.next())
+            ++numPoints;
+
+        return numPoints;
+    }
+}
@@ -0,0 +1,735 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A track segment that stores its points in columns of primitive values rather than as one object per point. Each point
+ * occupies 32 bytes: its latitude and longitude in degrees, its elevation in meters, and its time in milliseconds since
+ * the epoch. The columns are divided into chunks of a fixed number of points, and each chunk records the bounds of its
+ * locations and times so that time-range and sector queries skip chunks that cannot contain matching points.
+ * <p/>
+ * The chunks are held either in heap buffers or, when the segment is created with a file, in buffers memory-mapped from
+ * that file, which keeps very large segments out of the Java heap. The file is scratch storage for the segment; it is
+ * not deleted by the segment and its contents are not read when a new segment is created with it.
+ * <p/>
+ * The points are typically added in time order. When they are, the segment locates time ranges by binary search. See
+ * {@link #isTimeOrdered()}.
+ * <p/>
+ * One thread may add points while other threads read and query the segment, which lets a live feed append to a
+ * segment that is being rendered. Readers see a consistent prefix of the points added so far.
+ * <p/>
+ * The segment's {@link #getPoints()} list creates a lightweight {@link TrackPoint} view of a stored point each time an
+ * element is requested. Rendering code that visits many points should instead use {@link #iterator()}, which reuses a
+ * single track point, or {@link #getPositions()} with {@link gov.nasa.worldwind.render.Path}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrackSegment implements TrackSegment, Disposable
+{
+    /** The default number of points in a chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    /** The time of points that have no time. This time precedes all other times. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+    /** The number of bytes each point occupies. */
+    protected static final int BYTES_PER_POINT = 32;
+
+    /** The storage and bounds of a fixed size run of points. */
+    protected static class Chunk
+    {
+        protected DoubleBuffer latitudes;
+        protected DoubleBuffer longitudes;
+        protected DoubleBuffer elevations;
+        protected LongBuffer times;
+        protected int numPoints;
+        protected double minLatitude = Double.MAX_VALUE;
+        protected double maxLatitude = -Double.MAX_VALUE;
+        protected double minLongitude = Double.MAX_VALUE;
+        protected double maxLongitude = -Double.MAX_VALUE;
+        protected long minTime = Long.MAX_VALUE;
+        protected long maxTime = Long.MIN_VALUE;
+
+        protected void set(int index, double latitude, double longitude, double elevation, long time)
+        {
+            this.latitudes.put(index, latitude);
+            this.longitudes.put(index, longitude);
+            this.elevations.put(index, elevation);
+            this.times.put(index, time);
+
+            // The bounds only grow, so they remain conservative when a point is modified.
+            this.minLatitude = Math.min(this.minLatitude, latitude);
+            this.maxLatitude = Math.max(this.maxLatitude, latitude);
+            this.minLongitude = Math.min(this.minLongitude, longitude);
+            this.maxLongitude = Math.max(this.maxLongitude, longitude);
+            this.minTime = Math.min(this.minTime, time);
+            this.maxTime = Math.max(this.maxTime, time);
+        }
+
+        protected boolean intersects(Sector sector, long minTime, long maxTime)
+        {
+            if (this.maxTime < minTime || this.minTime > maxTime)
+                return false;
+
+            return sector == null
+                || (this.maxLatitude >= sector.getMinLatitude().degrees
+                && this.minLatitude <= sector.getMaxLatitude().degrees
+                && this.maxLongitude >= sector.getMinLongitude().degrees
+                && this.minLongitude <= sector.getMaxLongitude().degrees);
+        }
+    }
+
+    protected final int chunkSize;
+    protected final File file;
+    protected RandomAccessFile randomAccessFile;
+    protected FileChannel channel;
+    protected List<Chunk> chunks = new CopyOnWriteArrayList<Chunk>();
+    protected volatile int numPoints;
+    protected volatile boolean timeOrdered = true;
+
+    /** Creates an empty segment that holds its points in the heap, in chunks of the default size. */
+    public ColumnarTrackSegment()
+    {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an empty segment that holds its points in the heap.
+     *
+     * @param chunkSize the number of points in each chunk.
+     *
+     * @throws IllegalArgumentException if the chunk size is less than 1 or too large to map.
+     */
+    public ColumnarTrackSegment(int chunkSize)
+    {
+        this.chunkSize = validateChunkSize(chunkSize);
+        this.file = null;
+    }
+
+    /**
+     * Creates an empty segment that holds its points in buffers memory-mapped from a specified file. Any existing
+     * contents of the file are overwritten as points are added.
+     *
+     * @param file      the file to map.
+     * @param chunkSize the number of points in each chunk.
+     *
+     * @throws IllegalArgumentException if the file is null, or if the chunk size is less than 1 or too large to map.
+     * @throws IOException              if the file cannot be opened for writing.
+     */
+    public ColumnarTrackSegment(File file, int chunkSize) throws IOException
+    {
+        if (file == null)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.chunkSize = validateChunkSize(chunkSize);
+        this.file = file;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = this.randomAccessFile.getChannel();
+    }
+
+    protected static int validateChunkSize(int chunkSize)
+    {
+        if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE / BYTES_PER_POINT)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", chunkSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return chunkSize;
+    }
+
+    /**
+     * Indicates the number of points in each of this segment's chunks.
+     *
+     * @return the chunk size.
+     */
+    public int getChunkSize()
+    {
+        return this.chunkSize;
+    }
+
+    /**
+     * Indicates the file this segment's points are mapped from.
+     *
+     * @return the file, or null if the points are held in the heap.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    public int getNumPoints()
+    {
+        return this.numPoints;
+    }
+
+    /**
+     * Indicates whether the times of this segment's points never decrease from one point to the next. Time-range
+     * queries on time ordered segments use binary search, and stop at the first point past the end of the range.
+     *
+     * @return true if the points are in time order, otherwise false.
+     */
+    public boolean isTimeOrdered()
+    {
+        return this.timeOrdered;
+    }
+
+    /**
+     * Adds a point to the end of this segment.
+     *
+     * @param latitude  the point's latitude in degrees.
+     * @param longitude the point's longitude in degrees.
+     * @param elevation the point's elevation in meters.
+     * @param time      the point's time in milliseconds since the epoch, or {@link #NO_TIME}.
+     *
+     * @throws WWRuntimeException if the segment is mapped from a file and the file cannot be extended.
+     */
+    public void addPoint(double latitude, double longitude, double elevation, long time)
+    {
+        int c = this.numPoints / this.chunkSize;
+        if (c == this.chunks.size())
+            this.chunks.add(this.createChunk(c));
+
+        if (this.numPoints > 0 && time < this.getTime(this.numPoints - 1))
+            this.timeOrdered = false;
+
+        Chunk chunk = this.chunks.get(c);
+        chunk.set(chunk.numPoints++, latitude, longitude, elevation, time);
+        this.numPoints++;
+    }
+
+    /**
+     * Adds the points of a batch to the end of this segment.
+     *
+     * @param batch the points to add.
+     *
+     * @throws IllegalArgumentException if the batch is null.
+     */
+    public void addPoints(TrackPointBatch batch)
+    {
+        if (batch == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackPointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double[] latitudes = batch.getLatitudes();
+        double[] longitudes = batch.getLongitudes();
+        double[] elevations = batch.getElevations();
+        long[] times = batch.getTimes();
+
+        for (int i = 0; i < batch.getSize(); i++)
+        {
+            this.addPoint(latitudes[i], longitudes[i], elevations[i], times[i]);
+        }
+    }
+
+    /**
+     * Adds a point to the end of this segment.
+     *
+     * @param position the point's position.
+     * @param time     the point's time in milliseconds since the epoch, or {@link #NO_TIME}.
+     *
+     * @throws IllegalArgumentException if the position is null.
+     */
+    public void addPoint(Position position, long time)
+    {
+        if (position == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.addPoint(position.getLatitude().degrees, position.getLongitude().degrees, position.getElevation(), time);
+    }
+
+    /**
+     * Adds a copy of a track point to the end of this segment. The point's time string is converted to milliseconds
+     * by {@link WWUtil#parseTimeString(String)}. Points without a time, or with a time in an unrecognized format, are
+     * given the time {@link #NO_TIME}.
+     *
+     * @param point the point to add.
+     *
+     * @throws IllegalArgumentException if the point is null.
+     */
+    public void addPoint(TrackPoint point)
+    {
+        if (point == null)
+        {
+            String message = Logging.getMessage("nullValue.TrackPointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.addPoint(point.getLatitude(), point.getLongitude(), point.getElevation(), parseTime(point.getTime()));
+    }
+
+    protected Chunk createChunk(int index)
+    {
+        Chunk chunk = new Chunk();
+
+        if (this.channel == null)
+        {
+            chunk.latitudes = DoubleBuffer.allocate(this.chunkSize);
+            chunk.longitudes = DoubleBuffer.allocate(this.chunkSize);
+            chunk.elevations = DoubleBuffer.allocate(this.chunkSize);
+            chunk.times = LongBuffer.allocate(this.chunkSize);
+            return chunk;
+        }
+
+        try
+        {
+            int columnSize = this.chunkSize * 8;
+            ByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                (long) index * this.chunkSize * BYTES_PER_POINT, this.chunkSize * BYTES_PER_POINT);
+
+            chunk.latitudes = sliceColumn(buffer, 0, columnSize).asDoubleBuffer();
+            chunk.longitudes = sliceColumn(buffer, columnSize, columnSize).asDoubleBuffer();
+            chunk.elevations = sliceColumn(buffer, 2 * columnSize, columnSize).asDoubleBuffer();
+            chunk.times = sliceColumn(buffer, 3 * columnSize, columnSize).asLongBuffer();
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.ExceptionAttemptingToWriteTo", this.file);
+            Logging.logger().severe(message);
+            throw new WWRuntimeException(message, e);
+        }
+
+        return chunk;
+    }
+
+    protected static ByteBuffer sliceColumn(ByteBuffer buffer, int offset, int length)
+    {
+        buffer.limit(offset + length);
+        buffer.position(offset);
+
+        // Slices are always big endian, so the native order is applied to the slice itself.
+        return buffer.slice().order(ByteOrder.nativeOrder());
+    }
+
+    protected Chunk getChunk(int index)
+    {
+        if (index < 0 || index >= this.numPoints)
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", index);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.chunks.get(index / this.chunkSize);
+    }
+
+    /**
+     * Returns the latitude of a point.
+     *
+     * @param index the point's index.
+     *
+     * @return the point's latitude in degrees.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public double getLatitude(int index)
+    {
+        return this.getChunk(index).latitudes.get(index % this.chunkSize);
+    }
+
+    /**
+     * Returns the longitude of a point.
+     *
+     * @param index the point's index.
+     *
+     * @return the point's longitude in degrees.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public double getLongitude(int index)
+    {
+        return this.getChunk(index).longitudes.get(index % this.chunkSize);
+    }
+
+    /**
+     * Returns the elevation of a point.
+     *
+     * @param index the point's index.
+     *
+     * @return the point's elevation in meters.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public double getElevation(int index)
+    {
+        return this.getChunk(index).elevations.get(index % this.chunkSize);
+    }
+
+    /**
+     * Returns the time of a point.
+     *
+     * @param index the point's index.
+     *
+     * @return the point's time in milliseconds since the epoch, or {@link #NO_TIME} if the point has no time.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public long getTime(int index)
+    {
+        return this.getChunk(index).times.get(index % this.chunkSize);
+    }
+
+    /**
+     * Creates a position for a point.
+     *
+     * @param index the point's index.
+     *
+     * @return a new position for the point.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public Position getPosition(int index)
+    {
+        Chunk chunk = this.getChunk(index);
+        int i = index % this.chunkSize;
+
+        return Position.fromDegrees(chunk.latitudes.get(i), chunk.longitudes.get(i), chunk.elevations.get(i));
+    }
+
+    /**
+     * Replaces the values of a point.
+     *
+     * @param index     the point's index.
+     * @param latitude  the point's new latitude in degrees.
+     * @param longitude the point's new longitude in degrees.
+     * @param elevation the point's new elevation in meters.
+     * @param time      the point's new time in milliseconds since the epoch, or {@link #NO_TIME}.
+     *
+     * @throws IllegalArgumentException if the index is out of range.
+     */
+    public void setPoint(int index, double latitude, double longitude, double elevation, long time)
+    {
+        Chunk chunk = this.getChunk(index);
+
+        if ((index > 0 && time < this.getTime(index - 1))
+            || (index < this.numPoints - 1 && time > this.getTime(index + 1)))
+            this.timeOrdered = false;
+
+        chunk.set(index % this.chunkSize, latitude, longitude, elevation, time);
+    }
+
+    /**
+     * Computes the sector bounding this segment's points.
+     *
+     * @return the bounding sector, or null if the segment has no points.
+     */
+    public Sector getSector()
+    {
+        if (this.numPoints == 0)
+            return null;
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (Chunk chunk : this.chunks)
+        {
+            minLat = Math.min(minLat, chunk.minLatitude);
+            maxLat = Math.max(maxLat, chunk.maxLatitude);
+            minLon = Math.min(minLon, chunk.minLongitude);
+            maxLon = Math.max(maxLon, chunk.maxLongitude);
+        }
+
+        return Sector.fromDegrees(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Finds the first point whose time is at or after a specified time.
+     *
+     * @param time the time in milliseconds since the epoch.
+     *
+     * @return the index of the first point at or after the time, or the number of points if there is no such point.
+     */
+    public int indexOfTime(long time)
+    {
+        // Read the number of points first, so that the chunks reflect at least that many points.
+        int numPoints = this.numPoints;
+
+        if (!this.timeOrdered)
+        {
+            int index = this.nextIndex(0, null, time, Long.MAX_VALUE);
+            return index >= 0 ? index : numPoints;
+        }
+
+        // Find the first chunk that ends at or after the time, then search within it.
+        int lo = 0, hi = (numPoints + this.chunkSize - 1) / this.chunkSize;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (this.chunks.get(mid).maxTime < time)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        if (lo * this.chunkSize >= numPoints)
+            return numPoints;
+
+        Chunk chunk = this.chunks.get(lo);
+        int first = 0, last = Math.min(this.chunkSize, numPoints - lo * this.chunkSize);
+        while (first < last)
+        {
+            int mid = (first + last) >>> 1;
+            if (chunk.times.get(mid) < time)
+                first = mid + 1;
+            else
+                last = mid;
+        }
+
+        return lo * this.chunkSize + first;
+    }
+
+    /**
+     * Finds the next point, starting at a specified index, that lies within a sector and a time range. Chunks whose
+     * bounds do not intersect the sector and time range are skipped without visiting their points.
+     *
+     * @param fromIndex the index at which to start searching.
+     * @param sector    the sector the point must lie in, or null to accept points at any location.
+     * @param minTime   the earliest time, inclusive, in milliseconds since the epoch.
+     * @param maxTime   the latest time, inclusive, in milliseconds since the epoch.
+     *
+     * @return the index of the next matching point, or -1 if there are no more matching points.
+     */
+    public int nextIndex(int fromIndex, Sector sector, long minTime, long maxTime)
+    {
+        // Read the number of points first, so that the chunks reflect at least that many points.
+        int numPoints = this.numPoints;
+
+        int index = Math.max(fromIndex, 0);
+        if (this.timeOrdered && minTime > NO_TIME && index < numPoints && this.getTime(index) < minTime)
+            index = Math.max(index, this.indexOfTime(minTime));
+
+        while (index < numPoints)
+        {
+            int c = index / this.chunkSize;
+            Chunk chunk = this.chunks.get(c);
+
+            if (this.timeOrdered && chunk.minTime > maxTime)
+                return -1;
+
+            if (chunk.intersects(sector, minTime, maxTime))
+            {
+                int chunkEnd = Math.min(this.chunkSize, numPoints - c * this.chunkSize);
+                for (int i = index - c * this.chunkSize; i < chunkEnd; i++)
+                {
+                    long t = chunk.times.get(i);
+                    if (t > maxTime && this.timeOrdered)
+                        return -1;
+
+                    if (t < minTime || t > maxTime)
+                        continue;
+
+                    if (sector != null && !sector.containsDegrees(chunk.latitudes.get(i), chunk.longitudes.get(i)))
+                        continue;
+
+                    return c * this.chunkSize + i;
+                }
+            }
+
+            index = (c + 1) * this.chunkSize;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a list view of this segment's points. Each call to the list's <code>get</code> method creates a new
+     * track point that reads and writes this segment's columns. The list cannot be structurally modified.
+     *
+     * @return a list of this segment's points.
+     */
+    public List<TrackPoint> getPoints()
+    {
+        return new AbstractList<TrackPoint>()
+        {
+            public TrackPoint get(int index)
+            {
+                return new ColumnarTrackPoint(ColumnarTrackSegment.this, index);
+            }
+
+            public int size()
+            {
+                return ColumnarTrackSegment.this.getNumPoints();
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over all of this segment's points. See {@link ColumnarTrackPointIterator}.
+     *
+     * @return an iterator over this segment's points.
+     */
+    public ColumnarTrackPointIterator iterator()
+    {
+        return this.iterator(null, NO_TIME, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns an iterator over the points of this segment that lie within a sector and a time range. See {@link
+     * ColumnarTrackPointIterator}.
+     *
+     * @param sector  the sector the points must lie in, or null to accept points at any location.
+     * @param minTime the earliest time, inclusive, in milliseconds since the epoch.
+     * @param maxTime the latest time, inclusive, in milliseconds since the epoch.
+     *
+     * @return an iterator over the matching points.
+     */
+    public ColumnarTrackPointIterator iterator(Sector sector, long minTime, long maxTime)
+    {
+        return new ColumnarTrackPointIterator(Arrays.asList(this), sector, minTime, maxTime);
+    }
+
+    /**
+     * Returns the positions of this segment's points, in a form suitable for {@link gov.nasa.worldwind.render.Path}.
+     * The positions are created as they are iterated and are not retained by this segment.
+     *
+     * @return an iterable over the positions of this segment's points.
+     */
+    public Iterable<Position> getPositions()
+    {
+        return this.getPositions(null, NO_TIME, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the positions of the points of this segment that lie within a sector and a time range, in a form
+     * suitable for {@link gov.nasa.worldwind.render.Path}. The positions are created as they are iterated and are not
+     * retained by this segment.
+     *
+     * @param sector  the sector the points must lie in, or null to accept points at any location.
+     * @param minTime the earliest time, inclusive, in milliseconds since the epoch.
+     * @param maxTime the latest time, inclusive, in milliseconds since the epoch.
+     *
+     * @return an iterable over the positions of the matching points.
+     */
+    public Iterable<Position> getPositions(final Sector sector, final long minTime, final long maxTime)
+    {
+        return new Iterable<Position>()
+        {
+            public Iterator<Position> iterator()
+            {
+                return new Iterator<Position>()
+                {
+                    protected int next = nextIndex(0, sector, minTime, maxTime);
+
+                    public boolean hasNext()
+                    {
+                        return this.next >= 0;
+                    }
+
+                    public Position next()
+                    {
+                        if (this.next < 0)
+                        {
+                            String msg = Logging.getMessage("TrackPointIterator.NoMoreTrackPoints");
+                            Logging.logger().severe(msg);
+                            throw new NoSuchElementException(msg);
+                        }
+
+                        Position position = getPosition(this.next);
+                        this.next = nextIndex(this.next + 1, sector, minTime, maxTime);
+
+                        return position;
+                    }
+
+                    public void remove()
+                    {
+                        String msg = Logging.getMessage("TrackPointIterator.RemoveNotSupported");
+                        Logging.logger().severe(msg);
+                        throw new UnsupportedOperationException(msg);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Releases this segment's storage and closes its file, if any. The segment is empty after this method returns.
+     * Memory-mapped buffers are released when they are garbage collected.
+     */
+    public void dispose()
+    {
+        this.chunks.clear();
+        this.numPoints = 0;
+        this.timeOrdered = true;
+
+        if (this.randomAccessFile != null)
+        {
+            WWIO.closeStream(this.randomAccessFile, this.file.getPath());
+            this.randomAccessFile = null;
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Converts a track point time string to milliseconds since the epoch. UTC times of the form
+     * "1997-07-16T07:30:15Z" or "1997-07-16T07:30:15.250Z", which GPS receivers produce, are recognized, as are the
+     * formats recognized by {@link WWUtil#parseTimeString(String)}.
+     *
+     * @param time the time string.
+     *
+     * @return the time in milliseconds, or {@link #NO_TIME} if the string is null or its format is not recognized.
+     */
+    public static long parseTime(String time)
+    {
+        if (time == null)
+            return NO_TIME;
+
+        time = time.trim();
+        if (time.endsWith("Z"))
+        {
+            java.text.DateFormat df = new java.text.SimpleDateFormat(
+                time.indexOf('.') > 0 ? "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" : "yyyy-MM-dd'T'HH:mm:ss'Z'");
+            df.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+            java.text.ParsePosition pos = new java.text.ParsePosition(0);
+            Date date = df.parse(time, pos);
+            if (date != null && pos.getIndex() == time.length())
+                return date.getTime();
+        }
+
+        Long t = WWUtil.parseTimeString(time);
+        return t != null ? t : NO_TIME;
+    }
+
+    /**
+     * Formats a time as a UTC time string of the form "1997-07-16T07:30:15Z".
+     *
+     * @param time the time in milliseconds since the epoch.
+     *
+     * @return the time string, or null if the time is {@link #NO_TIME}.
+     */
+    public static String formatTime(long time)
+    {
+        if (time == NO_TIME)
+            return null;
+
+        java.text.DateFormat df = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        df.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        return df.format(new Date(time));
+    }
+}
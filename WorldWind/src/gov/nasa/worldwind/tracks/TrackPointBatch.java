@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * A reusable batch of track points held in primitive arrays. {@link TrackStreamReader}s fill a batch as they parse and
+ * pass it to a {@link TrackPointListener} when it is full or when the input pauses. All the points of a batch belong to
+ * the same track segment, identified by the batch's segment number.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class TrackPointBatch
+{
+    protected double[] latitudes;
+    protected double[] longitudes;
+    protected double[] elevations;
+    protected long[] times;
+    protected int size;
+    protected int segmentNumber;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity the maximum number of points in the batch.
+     *
+     * @throws IllegalArgumentException if the capacity is less than 1.
+     */
+    public TrackPointBatch(int capacity)
+    {
+        if (capacity < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", capacity);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.elevations = new double[capacity];
+        this.times = new long[capacity];
+    }
+
+    public int getCapacity()
+    {
+        return this.times.length;
+    }
+
+    public int getSize()
+    {
+        return this.size;
+    }
+
+    public boolean isFull()
+    {
+        return this.size == this.times.length;
+    }
+
+    /**
+     * Indicates the segment the batch's points belong to. Segments are numbered from zero in the order they are read.
+     *
+     * @return the segment number.
+     */
+    public int getSegmentNumber()
+    {
+        return this.segmentNumber;
+    }
+
+    public void setSegmentNumber(int segmentNumber)
+    {
+        this.segmentNumber = segmentNumber;
+    }
+
+    /**
+     * Returns the batch's latitudes, in degrees. Only the first {@link #getSize()} elements are valid.
+     *
+     * @return the latitude array.
+     */
+    public double[] getLatitudes()
+    {
+        return this.latitudes;
+    }
+
+    /**
+     * Returns the batch's longitudes, in degrees. Only the first {@link #getSize()} elements are valid.
+     *
+     * @return the longitude array.
+     */
+    public double[] getLongitudes()
+    {
+        return this.longitudes;
+    }
+
+    /**
+     * Returns the batch's elevations, in meters. Only the first {@link #getSize()} elements are valid.
+     *
+     * @return the elevation array.
+     */
+    public double[] getElevations()
+    {
+        return this.elevations;
+    }
+
+    /**
+     * Returns the batch's times, in milliseconds since the epoch or {@link ColumnarTrackSegment#NO_TIME}. Only the
+     * first {@link #getSize()} elements are valid.
+     *
+     * @return the time array.
+     */
+    public long[] getTimes()
+    {
+        return this.times;
+    }
+
+    /**
+     * Adds a point to the batch.
+     *
+     * @param latitude  the point's latitude in degrees.
+     * @param longitude the point's longitude in degrees.
+     * @param elevation the point's elevation in meters.
+     * @param time      the point's time in milliseconds since the epoch, or {@link ColumnarTrackSegment#NO_TIME}.
+     *
+     * @throws IllegalStateException if the batch is full.
+     */
+    public void add(double latitude, double longitude, double elevation, long time)
+    {
+        if (this.isFull())
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", this.size);
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        this.latitudes[this.size] = latitude;
+        this.longitudes[this.size] = longitude;
+        this.elevations[this.size] = elevation;
+        this.times[this.size] = time;
+        this.size++;
+    }
+
+    /** Removes all points from the batch. The segment number is unchanged. */
+    public void clear()
+    {
+        this.size = 0;
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+/**
+ * Receives the points parsed by a {@link TrackStreamReader}.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public interface TrackPointListener
+{
+    /**
+     * Called on the reading thread with each batch of parsed points. The reader reuses the batch once this method
+     * returns, so implementations must copy any points they keep.
+     *
+     * @param batch the points.
+     */
+    void pointsRead(TrackPointBatch batch);
+}
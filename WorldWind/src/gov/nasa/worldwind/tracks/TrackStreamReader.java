@@ -0,0 +1,456 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+
+/**
+ * Base class for incremental track readers. A reader parses a stream as it arrives and passes the parsed points to a
+ * {@link TrackPointListener} in {@link TrackPointBatch}es, rather than building a list of point objects. A batch is
+ * delivered when it is full and whenever the input pauses, so a listener sees the points of a live feed as soon as they
+ * arrive. {@link #tail(File, long)} follows a file that is still being written.
+ * <p/>
+ * Subclasses implement {@link #doRead(InputStream)}. Line oriented formats call {@link #readLines(InputStream)} and
+ * override {@link #parseLine(byte[], int)}; the static parsing methods of this class read numbers and times directly
+ * from the line's bytes.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public abstract class TrackStreamReader
+{
+    /** The default number of points in a batch. */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    protected static final int READ_BUFFER_SIZE = 8192;
+    protected static final long MILLIS_PER_DAY = 86400000L;
+
+    protected final TrackPointListener listener;
+    protected final TrackPointBatch batch;
+    protected boolean segmentHasPoints;
+    protected long numPoints;
+    protected volatile boolean stopped;
+    protected volatile TailingInputStream tailingStream;
+
+    /**
+     * Creates a reader that delivers points in batches of the default size.
+     *
+     * @param listener the listener to receive the points.
+     *
+     * @throws IllegalArgumentException if the listener is null.
+     */
+    public TrackStreamReader(TrackPointListener listener)
+    {
+        this(listener, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param listener  the listener to receive the points.
+     * @param batchSize the maximum number of points in a batch.
+     *
+     * @throws IllegalArgumentException if the listener is null or the batch size is less than 1.
+     */
+    public TrackStreamReader(TrackPointListener listener, int batchSize)
+    {
+        if (listener == null)
+        {
+            String message = Logging.getMessage("nullValue.ListenerIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.listener = listener;
+        this.batch = new TrackPointBatch(batchSize);
+    }
+
+    public TrackPointListener getListener()
+    {
+        return this.listener;
+    }
+
+    /**
+     * Indicates the number of points this reader has delivered to its listener.
+     *
+     * @return the number of points delivered.
+     */
+    public long getNumPoints()
+    {
+        return this.numPoints;
+    }
+
+    /**
+     * Reads a stream until it ends, the reader is stopped, or the reading thread is interrupted. Points parsed before
+     * the method returns are delivered to the listener before it returns. The stream is not closed.
+     *
+     * @param stream the stream to read.
+     *
+     * @throws IllegalArgumentException if the stream is null.
+     * @throws IOException              if an error occurs reading the stream.
+     */
+    public void read(InputStream stream) throws IOException
+    {
+        if (stream == null)
+        {
+            String message = Logging.getMessage("nullValue.InputStreamIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        try
+        {
+            this.doRead(stream);
+        }
+        finally
+        {
+            this.flush();
+        }
+    }
+
+    /**
+     * Reads a file from its beginning and then follows it as it grows, until {@link #stop()} is called or the reading
+     * thread is interrupted. See {@link TailingInputStream}.
+     *
+     * @param file         the file to read.
+     * @param pollInterval the interval, in milliseconds, between checks for new data.
+     *
+     * @throws IllegalArgumentException if the file is null or the poll interval is less than 1.
+     * @throws IOException              if the file does not exist or an error occurs reading it.
+     */
+    public void tail(File file, long pollInterval) throws IOException
+    {
+        TailingInputStream stream = new TailingInputStream(file, pollInterval);
+        this.tailingStream = stream;
+
+        try
+        {
+            if (!this.stopped)
+                this.read(stream);
+        }
+        finally
+        {
+            this.tailingStream = null;
+            WWIO.closeStream(stream, file.getPath());
+        }
+    }
+
+    /**
+     * Stops reading. A reader that is waiting for data returns shortly after this method is called, and a stopped
+     * reader reads no more data. This method may be called from any thread.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+
+        TailingInputStream stream = this.tailingStream;
+        if (stream != null)
+            stream.stop();
+    }
+
+    public boolean isStopped()
+    {
+        return this.stopped;
+    }
+
+    /**
+     * Parses a stream, passing each parsed point to {@link #addPoint(double, double, double, long)}.
+     *
+     * @param stream the stream to parse.
+     *
+     * @throws IOException if an error occurs reading the stream.
+     */
+    protected abstract void doRead(InputStream stream) throws IOException;
+
+    /**
+     * Parses a line of a line oriented format. Called by {@link #readLines(InputStream)} for each non-empty line. This
+     * implementation does nothing.
+     *
+     * @param line   the line's bytes, without the line terminator. The array is reused for the next line.
+     * @param length the number of bytes in the line.
+     */
+    protected void parseLine(byte[] line, int length)
+    {
+    }
+
+    /**
+     * Reads a stream a block at a time and passes each non-empty line to {@link #parseLine(byte[], int)}. Lines may be
+     * terminated by CR, LF or both. Zero bytes, which some devices send while idle, are ignored. Pending points are
+     * delivered whenever reading more would wait for the stream.
+     *
+     * @param stream the stream to read.
+     *
+     * @throws IOException if an error occurs reading the stream.
+     */
+    protected void readLines(InputStream stream) throws IOException
+    {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[256];
+        int length = 0;
+
+        while (!this.stopped && !Thread.currentThread().isInterrupted())
+        {
+            if (stream.available() == 0)
+                this.flush();
+
+            int n = stream.read(buffer, 0, buffer.length);
+            if (n < 0)
+                break;
+
+            for (int i = 0; i < n; i++)
+            {
+                byte b = buffer[i];
+                if (b == '\r' || b == '\n')
+                {
+                    if (length > 0)
+                        this.parseLine(line, length);
+                    length = 0;
+                }
+                else if (b != 0)
+                {
+                    if (length == line.length)
+                    {
+                        byte[] newLine = new byte[2 * line.length];
+                        System.arraycopy(line, 0, newLine, 0, length);
+                        line = newLine;
+                    }
+
+                    line[length++] = b;
+                }
+            }
+        }
+
+        if (length > 0 && !this.stopped)
+            this.parseLine(line, length);
+    }
+
+    /**
+     * Wraps a stream so that pending points are delivered whenever reading more would wait for the stream. Subclasses
+     * that pass the stream to another parser use this to deliver points while the parser waits for data.
+     *
+     * @param stream the stream to wrap.
+     *
+     * @return the wrapped stream.
+     */
+    protected InputStream createFlushingStream(InputStream stream)
+    {
+        return new FilterInputStream(stream)
+        {
+            @Override
+            public int read() throws IOException
+            {
+                if (this.available() == 0)
+                    flush();
+
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException
+            {
+                if (stopped)
+                    return -1;
+
+                if (this.available() == 0)
+                    flush();
+
+                return super.read(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Adds a point to the current segment.
+     *
+     * @param latitude  the point's latitude in degrees.
+     * @param longitude the point's longitude in degrees.
+     * @param elevation the point's elevation in meters.
+     * @param time      the point's time in milliseconds since the epoch, or {@link ColumnarTrackSegment#NO_TIME}.
+     */
+    protected void addPoint(double latitude, double longitude, double elevation, long time)
+    {
+        this.batch.add(latitude, longitude, elevation, time);
+        this.segmentHasPoints = true;
+
+        if (this.batch.isFull())
+            this.flush();
+    }
+
+    /** Ends the current segment, if it has points. Subsequent points are delivered with the next segment number. */
+    protected void startSegment()
+    {
+        if (!this.segmentHasPoints)
+            return;
+
+        this.flush();
+        this.batch.setSegmentNumber(this.batch.getSegmentNumber() + 1);
+        this.segmentHasPoints = false;
+    }
+
+    /** Delivers the pending points, if any, to the listener. */
+    protected void flush()
+    {
+        if (this.batch.getSize() == 0)
+            return;
+
+        this.numPoints += this.batch.getSize();
+        this.listener.pointsRead(this.batch);
+        this.batch.clear();
+    }
+
+    /**
+     * Finds a byte in a range of an array.
+     *
+     * @param bytes the array.
+     * @param start the first index to search.
+     * @param end   the index following the last index to search.
+     * @param b     the byte to find.
+     *
+     * @return the index of the first occurrence of the byte, or -1 if it does not occur in the range.
+     */
+    public static int indexOf(byte[] bytes, int start, int end, byte b)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (bytes[i] == b)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses a non-negative decimal integer from a range of ASCII bytes.
+     *
+     * @param bytes the array.
+     * @param start the index of the first byte.
+     * @param end   the index following the last byte.
+     *
+     * @return the integer, or -1 if the range is empty or contains a byte that is not a digit.
+     */
+    public static long parseDigits(byte[] bytes, int start, int end)
+    {
+        if (start >= end || end - start > 18)
+            return -1;
+
+        long value = 0;
+        for (int i = start; i < end; i++)
+        {
+            if (bytes[i] < '0' || bytes[i] > '9')
+                return -1;
+
+            value = value * 10 + (bytes[i] - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses an ISO 8601 time from a range of ASCII bytes. Times of the form "1997-07-16T07:30:15Z",
+     * "1997-07-16T07:30:15.25Z" and "1997-07-16T07:30:15+03:00" are parsed without creating objects. Other forms are
+     * parsed by {@link ColumnarTrackSegment#parseTime(String)}.
+     *
+     * @param bytes the array.
+     * @param start the index of the first byte.
+     * @param end   the index following the last byte.
+     *
+     * @return the time in milliseconds since the epoch, or {@link ColumnarTrackSegment#NO_TIME} if the range is empty
+     *         or is not a recognized time.
+     */
+    public static long parseTime(byte[] bytes, int start, int end)
+    {
+        while (start < end && bytes[start] == ' ')
+            start++;
+        while (end > start && bytes[end - 1] == ' ')
+            end--;
+
+        if (start == end)
+            return ColumnarTrackSegment.NO_TIME;
+
+        if (end - start >= 20 && bytes[start + 4] == '-' && bytes[start + 7] == '-' && bytes[start + 10] == 'T'
+            && bytes[start + 13] == ':' && bytes[start + 16] == ':')
+        {
+            long year = parseDigits(bytes, start, start + 4);
+            long month = parseDigits(bytes, start + 5, start + 7);
+            long day = parseDigits(bytes, start + 8, start + 10);
+            long hour = parseDigits(bytes, start + 11, start + 13);
+            long minute = parseDigits(bytes, start + 14, start + 16);
+            long second = parseDigits(bytes, start + 17, start + 19);
+
+            int i = start + 19;
+            long millis = 0;
+            if (bytes[i] == '.')
+            {
+                // Digits beyond milliseconds are ignored.
+                int numDigits = 0;
+                for (i++; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++, numDigits++)
+                {
+                    if (numDigits < 3)
+                        millis = millis * 10 + (bytes[i] - '0');
+                }
+
+                for (; numDigits < 3; numDigits++)
+                {
+                    millis *= 10;
+                }
+            }
+
+            long offset = -1;
+            if (i == end - 1 && bytes[i] == 'Z')
+            {
+                offset = 0;
+            }
+            else if ((i == end - 6 && bytes[i + 3] == ':') || i == end - 5)
+            {
+                long offsetHours = parseDigits(bytes, i + 1, i + 3);
+                long offsetMinutes = parseDigits(bytes, end - 2, end);
+                if ((bytes[i] == '+' || bytes[i] == '-') && offsetHours >= 0 && offsetMinutes >= 0)
+                    offset = (bytes[i] == '-' ? -1 : 1) * (offsetHours * 3600000 + offsetMinutes * 60000);
+            }
+
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31 && hour >= 0 && minute >= 0
+                && second >= 0 && offset != -1)
+            {
+                return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                    + hour * 3600000 + minute * 60000 + second * 1000 + millis - offset;
+            }
+        }
+
+        return ColumnarTrackSegment.parseTime(toString(bytes, start, end));
+    }
+
+    /**
+     * Computes the number of days from 1970-01-01 to a date in the proleptic Gregorian calendar.
+     *
+     * @param year  the year.
+     * @param month the month, from 1 to 12.
+     * @param day   the day of the month, from 1 to 31.
+     *
+     * @return the number of days since the epoch.
+     */
+    public static long daysFromCivil(long year, long month, long day)
+    {
+        year -= month <= 2 ? 1 : 0;
+        long era = (year >= 0 ? year : year - 399) / 400;
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    protected static String toString(byte[] bytes, int start, int end)
+    {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++)
+        {
+            sb.append((char) (bytes[i] & 0xFF));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.util;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Keeps track of the screen regions already occupied by drawn items such as labels and icons, so that items that would
+ * overlap them can be skipped. The screen is divided into square cells, and each occupied rectangle is registered in
+ * the cells it covers. Testing a new rectangle therefore only considers the rectangles sharing a cell with it, rather
+ * than every rectangle accepted so far.
+ * <p/>
+ * A grid is meant to be reused from frame to frame: call {@link #reset(java.awt.Rectangle)} with the viewport at the
+ * start of each frame. The grid's internal storage grows as needed and is kept across resets, so a grid in steady use
+ * does not allocate memory. Rectangles may lie partially or completely outside the reset bounds; they are registered
+ * in the nearest border cells.
+ * <p/>
+ * Instances are not thread safe.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class DeclutterGrid
+{
+    /** The default cell size, in pixels. */
+    protected static final int DEFAULT_CELL_SIZE = 32;
+
+    protected int cellSize;
+    protected int originX;
+    protected int originY;
+    protected int numCols;
+    protected int numRows;
+
+    /** Index of the first entry of each cell's list, or -1 if the cell is empty. */
+    protected int[] cellHeads = new int[0];
+    /** Index of the next entry in the same cell, or -1 at the end of the list. */
+    protected int[] entryNext = new int[256];
+    /** Rectangle referred to by each entry. */
+    protected int[] entryRect = new int[256];
+    protected int numEntries;
+    /** Occupied rectangles, stored as consecutive (minX, minY, maxX, maxY) values. */
+    protected double[] rects = new double[4 * 64];
+    protected int numRects;
+
+    /** Creates a grid with the default cell size. */
+    public DeclutterGrid()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a grid with the specified cell size. The cell size should be in the order of the size of the typical
+     * item; smaller cells register items in more cells, larger cells test more items per cell.
+     *
+     * @param cellSize the width and height of a cell, in pixels.
+     *
+     * @throws IllegalArgumentException if the cell size is less than 1.
+     */
+    public DeclutterGrid(int cellSize)
+    {
+        if (cellSize < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+        this.reset(new Rectangle(0, 0, cellSize, cellSize));
+    }
+
+    public int getCellSize()
+    {
+        return this.cellSize;
+    }
+
+    /**
+     * Returns the number of rectangles marked as occupied since the last reset.
+     *
+     * @return the number of occupied rectangles.
+     */
+    public int getOccupiedCount()
+    {
+        return this.numRects;
+    }
+
+    /**
+     * Removes all occupied rectangles and sets the screen region covered by the grid, typically the viewport.
+     *
+     * @param bounds the screen region covered by the grid.
+     *
+     * @throws IllegalArgumentException if the bounds is null.
+     */
+    public void reset(Rectangle bounds)
+    {
+        if (bounds == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.originX = bounds.x;
+        this.originY = bounds.y;
+        this.numCols = Math.max(1, (bounds.width + this.cellSize - 1) / this.cellSize);
+        this.numRows = Math.max(1, (bounds.height + this.cellSize - 1) / this.cellSize);
+
+        int numCells = this.numCols * this.numRows;
+        if (this.cellHeads.length < numCells)
+            this.cellHeads = new int[numCells];
+
+        java.util.Arrays.fill(this.cellHeads, 0, numCells, -1);
+        this.numEntries = 0;
+        this.numRects = 0;
+    }
+
+    /**
+     * Indicates whether a rectangle overlaps any of the rectangles marked as occupied. Rectangles that only share an edge
+     * do not overlap.
+     *
+     * @param rect the rectangle to test.
+     *
+     * @return true if the rectangle overlaps an occupied rectangle.
+     *
+     * @throws IllegalArgumentException if the rectangle is null.
+     */
+    public boolean intersects(Rectangle2D rect)
+    {
+        if (rect == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.intersects(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+    }
+
+    /**
+     * Marks a rectangle as occupied.
+     *
+     * @param rect the rectangle to mark.
+     *
+     * @throws IllegalArgumentException if the rectangle is null.
+     */
+    public void add(Rectangle2D rect)
+    {
+        if (rect == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.add(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY());
+    }
+
+    /**
+     * Marks a rectangle as occupied if it does not overlap any rectangle already marked as occupied.
+     *
+     * @param rect the rectangle to mark.
+     *
+     * @return true if the rectangle was free and is now marked, false if it overlaps an occupied rectangle.
+     *
+     * @throws IllegalArgumentException if the rectangle is null.
+     */
+    public boolean addIfFree(Rectangle2D rect)
+    {
+        if (rect == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double minX = rect.getMinX();
+        double minY = rect.getMinY();
+        double maxX = rect.getMaxX();
+        double maxY = rect.getMaxY();
+
+        if (this.intersects(minX, minY, maxX, maxY))
+            return false;
+
+        this.add(minX, minY, maxX, maxY);
+        return true;
+    }
+
+    protected boolean intersects(double minX, double minY, double maxX, double maxY)
+    {
+        // Like Rectangle2D.intersects, an empty rectangle does not intersect anything.
+        if (this.numRects == 0 || !(maxX > minX) || !(maxY > minY))
+            return false;
+
+        int col0 = this.colFor(minX), col1 = this.colFor(maxX);
+        int row0 = this.rowFor(minY), row1 = this.rowFor(maxY);
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                for (int e = this.cellHeads[row * this.numCols + col]; e >= 0; e = this.entryNext[e])
+                {
+                    int i = 4 * this.entryRect[e];
+                    if (minX < this.rects[i + 2] && this.rects[i] < maxX
+                        && minY < this.rects[i + 3] && this.rects[i + 1] < maxY)
+                        return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    protected void add(double minX, double minY, double maxX, double maxY)
+    {
+        if (!(maxX > minX) || !(maxY > minY))
+            return;
+
+        if (4 * (this.numRects + 1) > this.rects.length)
+        {
+            double[] newRects = new double[2 * this.rects.length];
+            System.arraycopy(this.rects, 0, newRects, 0, this.rects.length);
+            this.rects = newRects;
+        }
+
+        int rectIndex = this.numRects++;
+        int i = 4 * rectIndex;
+        this.rects[i] = minX;
+        this.rects[i + 1] = minY;
+        this.rects[i + 2] = maxX;
+        this.rects[i + 3] = maxY;
+
+        int col0 = this.colFor(minX), col1 = this.colFor(maxX);
+        int row0 = this.rowFor(minY), row1 = this.rowFor(maxY);
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                this.addEntry(row * this.numCols + col, rectIndex);
+            }
+        }
+    }
+
+    protected void addEntry(int cell, int rectIndex)
+    {
+        if (this.numEntries == this.entryNext.length)
+        {
+            int[] newNext = new int[2 * this.entryNext.length];
+            System.arraycopy(this.entryNext, 0, newNext, 0, this.numEntries);
+            this.entryNext = newNext;
+
+            int[] newRect = new int[2 * this.entryRect.length];
+            System.arraycopy(this.entryRect, 0, newRect, 0, this.numEntries);
+            this.entryRect = newRect;
+        }
+
+        int e = this.numEntries++;
+        this.entryRect[e] = rectIndex;
+        this.entryNext[e] = this.cellHeads[cell];
+        this.cellHeads[cell] = e;
+    }
+
+    protected int colFor(double x)
+    {
+        int col = (int) Math.floor((x - this.originX) / this.cellSize);
+        return col < 0 ? 0 : (col >= this.numCols ? this.numCols - 1 : col);
+    }
+
+    protected int rowFor(double y)
+    {
+        int row = (int) Math.floor((y - this.originY) / this.cellSize);
+        return row < 0 ? 0 : (row >= this.numRows ? this.numRows - 1 : row);
+    }
+}
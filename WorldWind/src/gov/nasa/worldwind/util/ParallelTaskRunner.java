@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.exception.WWRuntimeException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runs a task on several threads at once and waits for all of them to finish. The calling thread runs the task as
+ * well, and the other threads are drawn from a pool shared by all callers, so that no threads are created per call. The
+ * pool has one thread per available processor; requests for more threads than that queue in the pool.
+ * <p/>
+ * The task is intended to divide shared work among the threads that run it: each thread claims portions of the work,
+ * typically by incrementing an atomic counter, until none remain. Once the calling thread's run of the task returns,
+ * threads that have not yet started the task are cancelled, since they would find no work left to claim.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ParallelTaskRunner
+{
+    /** The pool of threads shared by all parallel tasks. Idle threads exit after a minute. */
+    protected static final ThreadPoolExecutor executor = createExecutor();
+
+    protected static ThreadPoolExecutor createExecutor()
+    {
+        final AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "World Wind parallel task " + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    /**
+     * Runs a task on a specified number of threads, including the calling thread, and waits for all of them to finish.
+     * If the task throws an exception on any thread, the first such exception is rethrown on the calling thread once
+     * all threads have finished.
+     *
+     * @param task       the task to run. Each thread runs the same task instance.
+     * @param numThreads the number of threads to run the task on. Specify 1 to run the task only on the calling
+     *                   thread.
+     *
+     * @throws IllegalArgumentException if the task is null, or if the number of threads is less than 1.
+     * @throws WWRuntimeException       if the calling thread is interrupted, or if the task throws a checked
+     *                                  exception.
+     */
+    public static void run(Runnable task, int numThreads)
+    {
+        if (task == null)
+        {
+            String msg = Logging.getMessage("nullValue.RunnableIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (numThreads < 1)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "numThreads < 1");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        CountDownLatch latch = new CountDownLatch(numThreads - 1);
+        Helper[] helpers = new Helper[numThreads - 1];
+        for (int i = 0; i < helpers.length; i++)
+        {
+            helpers[i] = new Helper(task, failure, latch);
+            executor.execute(helpers[i]);
+        }
+
+        try
+        {
+            task.run();
+        }
+        catch (Throwable e)
+        {
+            failure.compareAndSet(null, e);
+        }
+
+        for (Helper helper : helpers)
+        {
+            if (helper.cancel())
+                executor.remove(helper);
+        }
+
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            failure.compareAndSet(null, e);
+            for (Helper helper : helpers)
+            {
+                helper.interrupt();
+            }
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException)
+            throw (RuntimeException) e;
+        else if (e instanceof Error)
+            throw (Error) e;
+        else if (e != null)
+            throw new WWRuntimeException(e);
+    }
+
+    /** Runs the task on a pool thread, unless the calling thread cancels it first. */
+    protected static class Helper implements Runnable
+    {
+        protected final Runnable task;
+        protected final AtomicReference<Throwable> failure;
+        protected final CountDownLatch latch;
+        // Set by whichever of the pool thread and the calling thread claims this helper first.
+        protected final AtomicBoolean claimed = new AtomicBoolean();
+        // The pool thread running the task, guarded by this helper's lock.
+        protected Thread thread;
+
+        public Helper(Runnable task, AtomicReference<Throwable> failure, CountDownLatch latch)
+        {
+            this.task = task;
+            this.failure = failure;
+            this.latch = latch;
+        }
+
+        public void run()
+        {
+            if (!this.claimed.compareAndSet(false, true))
+                return;
+
+            synchronized (this)
+            {
+                this.thread = Thread.currentThread();
+            }
+
+            try
+            {
+                this.task.run();
+            }
+            catch (Throwable e)
+            {
+                this.failure.compareAndSet(null, e);
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    this.thread = null;
+                    Thread.interrupted(); // clears an interrupt meant for this task before returning to the pool
+                }
+                this.latch.countDown();
+            }
+        }
+
+        /**
+         * Prevents this helper from running the task if it has not yet started.
+         *
+         * @return true if this helper was cancelled, false if it has already started.
+         */
+        public boolean cancel()
+        {
+            if (!this.claimed.compareAndSet(false, true))
+                return false;
+
+            this.latch.countDown();
+            return true;
+        }
+
+        public synchronized void interrupt()
+        {
+            if (this.thread != null)
+                this.thread.interrupt();
+        }
+    }
+}
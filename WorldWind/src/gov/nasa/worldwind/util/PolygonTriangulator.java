@@ -0,0 +1,1607 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ *
+ * The ear clipping, hole elimination and z-order index of this class are derived from earcut
+ * (https://github.com/mapbox/earcut), distributed under the following license:
+ *
+ * ISC License
+ *
+ * Copyright (c) 2016, Mapbox
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose
+ * with or without fee is hereby granted, provided that the above copyright notice
+ * and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND ISC DISCLAIMS ALL WARRANTIES WITH REGARD TO
+ * THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS.
+ * IN NO EVENT SHALL ISC BE LIABLE FOR ANY SPECIAL, DIRECT, INDIRECT, OR
+ * CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS OF USE, DATA
+ * OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION,
+ * ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Vec4;
+
+import javax.media.opengl.glu.*;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * PolygonTriangulator divides complex polygons into triangles without using the GLU tessellator. A polygon is specified
+ * as one or more contours, which may be nested to any depth. Contours are classified by how many other contours enclose
+ * them: a contour enclosed by an even number of contours is an outer boundary, and a contour enclosed by an odd number
+ * of contours is a hole in the contour immediately enclosing it. For contours which do not cross one another this is
+ * equivalent to the GLU tessellator's default odd winding rule, and independent of each contour's winding order. Two
+ * contours which coincide cancel one another, as they do under the odd winding rule.
+ * <p/>
+ * Each outer boundary is triangulated together with its holes by ear clipping. Holes are first joined to the outer
+ * boundary by bridge edges, producing a single contour. Ears are then cut from that contour until only one triangle
+ * remains. Contours with many vertices use a z-order curve index to accelerate the ear tests. The ear clipping is
+ * derived from the earcut library; see the notice at the top of this file.
+ * <p/>
+ * Polygons whose edges cross one another, either within a contour or between contours, are passed to the GLU
+ * tessellator with the odd winding rule instead, so that they're triangulated without overlapping triangles. The GLU
+ * tessellator splits crossing edges at new vertices, which are appended to the polygon's vertices: their indices follow
+ * the indices of the vertices specified by the caller, and their coordinates are available from {@link #getCoords()}.
+ * Callers which can only use their own vertices may request that each new vertex be replaced by the nearest of the
+ * vertices it was computed from; see {@link #endPolygon(boolean)}. Otherwise, vertices are never added to the polygon,
+ * so every triangle index refers to a vertex specified by the caller.
+ * <p/>
+ * The standard pattern for using PolygonTriangulator is similar to the GLU tessellator:
+ * <code>
+ * <pre>
+ * PolygonTriangulator triangulator = new PolygonTriangulator();
+ * triangulator.beginPolygon();
+ * triangulator.beginContour();
+ * triangulator.addVertex(x, y); // Repeat for each vertex of the contour.
+ * triangulator.endContour();
+ * // Repeat beginContour, addVertex and endContour for each hole.
+ * int numIndices = triangulator.endPolygon();
+ * int[] indices = triangulator.getIndices(); // Triangle indices in the first numIndices elements.
+ * </pre>
+ * </code>
+ * Vertices are numbered in the order they are added, starting at zero with each call to <code>beginPolygon</code>.
+ * Three dimensional vertices are projected onto a plane perpendicular to the normal specified to <code>beginPolygon(Vec4)</code>.
+ * The resulting triangles are counter-clockwise with respect to that normal, or to the positive Z axis for two
+ * dimensional vertices.
+ * <p/>
+ * PolygonTriangulator keeps its working storage between polygons, so reusing an instance avoids nearly all allocation.
+ * PolygonTriangulator does not require an OpenGL context, and may be used on any thread. This class is not thread safe, however.
+ * Each thread must use its own instance, such as the one returned by {@link #getThreadLocalTriangulator()}.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class PolygonTriangulator
+{
+    /** Contours with more vertices than this are indexed along a z-order curve to accelerate the ear tests. */
+    protected static final int Z_ORDER_THRESHOLD = 80;
+    /** Indicates a missing node link. */
+    protected static final int NONE = -1;
+
+    protected static final int OUTSIDE = 0;
+    protected static final int INSIDE = 1;
+    protected static final int BOUNDARY = 2;
+
+    protected static final ThreadLocal<PolygonTriangulator> threadTriangulators = new ThreadLocal<PolygonTriangulator>()
+    {
+        @Override
+        protected PolygonTriangulator initialValue()
+        {
+            return new PolygonTriangulator();
+        }
+    };
+
+    // Polygon vertices, projected onto two dimensions.
+    protected double[] coords = new double[128];
+    protected int numVertices;
+    protected int[] contourStart = new int[8];
+    protected int[] contourCount = new int[8];
+    protected int numContours;
+    protected int currentContourStart;
+    // The coordinate axes used to project three dimensional vertices, chosen from the polygon's normal.
+    protected int uAxis = 0;
+    protected int vAxis = 1;
+    // Contour nesting.
+    protected int[] contourDepth = new int[8];
+    protected int[] contourParent = new int[8];
+    protected double[] contourArea = new double[8];
+    protected double[] contourBounds = new double[32];
+    protected int[] holeNodes = new int[8];
+    // Circular doubly linked lists of polygon nodes, stored as parallel arrays indexed by node.
+    protected int numNodes;
+    protected int[] nodeVertex = new int[64];
+    protected double[] nodeX = new double[64];
+    protected double[] nodeY = new double[64];
+    protected int[] nodePrev = new int[64];
+    protected int[] nodeNext = new int[64];
+    protected int[] nodeZ = new int[64];
+    protected int[] nodePrevZ = new int[64];
+    protected int[] nodeNextZ = new int[64];
+    protected boolean[] nodeSteiner = new boolean[64];
+    // The z-order curve transform of the polygon being triangulated.
+    protected double minX;
+    protected double minY;
+    protected double invSize;
+    // Triangle indices.
+    protected int[] indices = new int[192];
+    protected int numIndices;
+    // Polygon edges sorted by their minimum X coordinate, used to find crossing edges.
+    protected long[] sortedEdges = new long[64];
+    protected int[] edgeVertex = new int[64];
+    protected int numEdges;
+
+    /** Creates a new PolygonTriangulator, but otherwise does nothing. */
+    public PolygonTriangulator()
+    {
+    }
+
+    /**
+     * Returns a PolygonTriangulator for exclusive use by the calling thread. The same instance is returned to each call
+     * on a given thread, so its working storage is reused.
+     *
+     * @return the calling thread's PolygonTriangulator.
+     */
+    public static PolygonTriangulator getThreadLocalTriangulator()
+    {
+        return threadTriangulators.get();
+    }
+
+    /**
+     * Starts a new polygon with two dimensional vertices, discarding any previous polygon and its triangles.
+     * Three dimensional vertices added to this polygon are projected onto the X-Y plane.
+     */
+    public void beginPolygon()
+    {
+        this.numVertices = 0;
+        this.numContours = 0;
+        this.numIndices = 0;
+        this.uAxis = 0;
+        this.vAxis = 1;
+    }
+
+    /**
+     * Starts a new polygon with three dimensional vertices, discarding any previous polygon and its triangles. Each
+     * vertex is projected onto the coordinate plane most nearly perpendicular to the specified normal.
+     *
+     * @param normal a vector perpendicular to the polygon's plane. The vertices need not be coplanar, but the polygon
+     *               must not fold over itself when viewed along the normal.
+     *
+     * @throws IllegalArgumentException if the normal is null.
+     */
+    public void beginPolygon(Vec4 normal)
+    {
+        if (normal == null)
+        {
+            String message = Logging.getMessage("nullValue.NormalIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.beginPolygon();
+
+        // Choose the axes (u, v) so that u cross v points in the direction of the normal's dominant component. This
+        // preserves each contour's winding order with respect to the normal.
+        double x = Math.abs(normal.x), y = Math.abs(normal.y), z = Math.abs(normal.z);
+        if (z >= x && z >= y)
+        {
+            this.uAxis = normal.z >= 0 ? 0 : 1;
+            this.vAxis = normal.z >= 0 ? 1 : 0;
+        }
+        else if (x >= y)
+        {
+            this.uAxis = normal.x >= 0 ? 1 : 2;
+            this.vAxis = normal.x >= 0 ? 2 : 1;
+        }
+        else
+        {
+            this.uAxis = normal.y >= 0 ? 2 : 0;
+            this.vAxis = normal.y >= 0 ? 0 : 2;
+        }
+    }
+
+    /** Starts a new contour in the current polygon. */
+    public void beginContour()
+    {
+        this.currentContourStart = this.numVertices;
+    }
+
+    /**
+     * Adds a two dimensional vertex to the current contour.
+     *
+     * @param x the vertex's X coordinate.
+     * @param y the vertex's Y coordinate.
+     */
+    public void addVertex(double x, double y)
+    {
+        if (2 * this.numVertices + 2 > this.coords.length)
+            this.coords = grow(this.coords, 2 * this.numVertices + 2);
+
+        this.coords[2 * this.numVertices] = x;
+        this.coords[2 * this.numVertices + 1] = y;
+        this.numVertices++;
+    }
+
+    /**
+     * Adds a three dimensional vertex to the current contour. The vertex is projected onto two dimensions according to
+     * the normal specified to {@link #beginPolygon(gov.nasa.worldwind.geom.Vec4)}.
+     *
+     * @param x the vertex's X coordinate.
+     * @param y the vertex's Y coordinate.
+     * @param z the vertex's Z coordinate.
+     */
+    public void addVertex(double x, double y, double z)
+    {
+        double u = this.uAxis == 0 ? x : (this.uAxis == 1 ? y : z);
+        double v = this.vAxis == 0 ? x : (this.vAxis == 1 ? y : z);
+        this.addVertex(u, v);
+    }
+
+    /** Ends the current contour. A closing vertex equal to the contour's first vertex is optional. */
+    public void endContour()
+    {
+        int count = this.numVertices - this.currentContourStart;
+        if (count == 0)
+            return;
+
+        if (this.numContours == this.contourStart.length)
+        {
+            this.contourStart = grow(this.contourStart, this.numContours + 1);
+            this.contourCount = grow(this.contourCount, this.numContours + 1);
+        }
+
+        this.contourStart[this.numContours] = this.currentContourStart;
+        this.contourCount[this.numContours] = count;
+        this.numContours++;
+    }
+
+    /**
+     * Ends the current polygon and triangulates it. The resulting triangle indices are available from {@link
+     * #getIndices()} until the next polygon begins. Vertices are added where the polygon's edges cross; see {@link
+     * #endPolygon(boolean)}.
+     *
+     * @return the number of triangle indices, three per triangle.
+     */
+    public int endPolygon()
+    {
+        return this.endPolygon(true);
+    }
+
+    /**
+     * Ends the current polygon and triangulates it. The resulting triangle indices are available from {@link
+     * #getIndices()} until the next polygon begins.
+     * <p/>
+     * If any of the polygon's edges cross, the polygon is triangulated by the GLU tessellator, which splits the
+     * crossing edges at their intersections. When <code>addIntersectionVertices</code> is true each intersection is
+     * appended to the polygon's vertices, and the triangles exactly cover the polygon's interior. When false, each
+     * intersection is replaced by the nearest of the vertices it was computed from, so that every index refers to a
+     * vertex specified by the caller, but the triangles only approximate the interior near the intersections.
+     *
+     * @param addIntersectionVertices true to add vertices where edges cross, false to use only the caller's vertices.
+     *
+     * @return the number of triangle indices, three per triangle.
+     */
+    public int endPolygon(boolean addIntersectionVertices)
+    {
+        this.numIndices = 0;
+
+        if (this.hasCrossingEdges())
+        {
+            this.tessellateCrossingPolygon(addIntersectionVertices);
+            return this.numIndices;
+        }
+
+        this.classifyContours();
+
+        for (int c = 0; c < this.numContours; c++)
+        {
+            if (this.contourDepth[c] >= 0 && this.contourDepth[c] % 2 == 0)
+                this.triangulateContour(c);
+        }
+
+        return this.numIndices;
+    }
+
+    /**
+     * Convenience method which triangulates a polygon whose vertices are packed in an array of two dimensional
+     * coordinates.
+     *
+     * @param coords        the polygon's X and Y coordinates, contour after contour.
+     * @param contourCounts the number of vertices in each contour.
+     *
+     * @return the number of triangle indices, three per triangle.
+     *
+     * @throws IllegalArgumentException if either array is null, or if the coordinate array is shorter than the contours
+     *                                  require.
+     */
+    public int triangulate(double[] coords, int[] contourCounts)
+    {
+        if (coords == null || contourCounts == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int total = 0;
+        for (int count : contourCounts)
+        {
+            total += count;
+        }
+
+        if (coords.length < 2 * total)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", coords.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.beginPolygon();
+
+        int index = 0;
+        for (int count : contourCounts)
+        {
+            this.beginContour();
+            for (int i = 0; i < count; i++, index += 2)
+            {
+                this.addVertex(coords[index], coords[index + 1]);
+            }
+            this.endContour();
+        }
+
+        return this.endPolygon();
+    }
+
+    /**
+     * Returns the number of triangle indices produced by the most recent call to {@link #endPolygon()}.
+     *
+     * @return the number of triangle indices, three per triangle.
+     */
+    public int getIndexCount()
+    {
+        return this.numIndices;
+    }
+
+    /**
+     * Returns the triangle indices produced by the most recent call to {@link #endPolygon()}. The returned array is
+     * this triangulator's working storage. Only its first {@link #getIndexCount()} elements are valid, and its contents
+     * change when the next polygon is triangulated.
+     *
+     * @return an array containing the triangle indices.
+     */
+    public int[] getIndices()
+    {
+        return this.indices;
+    }
+
+    /**
+     * Puts the triangle indices produced by the most recent call to {@link #endPolygon()} into a buffer, starting at the
+     * buffer's position.
+     *
+     * @param buffer the buffer to receive the indices.
+     *
+     * @throws IllegalArgumentException if the buffer is null.
+     */
+    public void getIndices(IntBuffer buffer)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        buffer.put(this.indices, 0, this.numIndices);
+    }
+
+    /**
+     * Returns the current polygon's vertices, projected onto two dimensions. The returned array is this triangulator's
+     * working storage. The coordinates of vertex <code>i</code> are at indices <code>2 * i</code> and <code>2 * i +
+     * 1</code>.
+     *
+     * @return an array containing the projected vertex coordinates.
+     */
+    public double[] getCoords()
+    {
+        return this.coords;
+    }
+
+    /**
+     * Returns the number of vertices in the current polygon, including any vertices added where its edges cross.
+     *
+     * @return the number of vertices.
+     */
+    public int getVertexCount()
+    {
+        return this.numVertices;
+    }
+
+    //**************************************************************//
+    //********************  Crossing Edges  ************************//
+    //**************************************************************//
+
+    /**
+     * Indicates whether any two edges of the current polygon cross at a point interior to both. Edges which only touch,
+     * or which overlap along a line, do not cross. The edges are swept in order of their minimum X coordinate, and each
+     * edge is tested only against the edges whose X extent overlaps its own.
+     *
+     * @return true if the polygon has crossing edges, otherwise false.
+     */
+    protected boolean hasCrossingEdges()
+    {
+        this.numEdges = 0;
+
+        for (int c = 0; c < this.numContours; c++)
+        {
+            int start = this.contourStart[c];
+            int count = this.contourCount[c];
+            if (count < 3)
+                continue;
+
+            for (int i = 0; i < count; i++)
+            {
+                int a = start + i;
+                int b = start + (i + 1) % count;
+                if (this.coords[2 * a] != this.coords[2 * b] || this.coords[2 * a + 1] != this.coords[2 * b + 1])
+                    this.addEdge(a, b);
+            }
+        }
+
+        // Each key holds the edge's minimum X rounded down to a float in its upper half, and the edge's index in its
+        // lower half. The float's bits are adjusted so that the keys sort in order of the minimum X.
+        Arrays.sort(this.sortedEdges, 0, this.numEdges);
+
+        for (int i = 0; i < this.numEdges; i++)
+        {
+            int e = (int) this.sortedEdges[i];
+            int a = this.edgeVertex[2 * e], b = this.edgeVertex[2 * e + 1];
+            double maxX = Math.max(this.coords[2 * a], this.coords[2 * b]);
+
+            for (int j = i + 1; j < this.numEdges; j++)
+            {
+                if (Float.intBitsToFloat(unsortableFloatBits((int) (this.sortedEdges[j] >> 32))) > maxX)
+                    break;
+
+                int f = (int) this.sortedEdges[j];
+                if (this.edgesCross(a, b, this.edgeVertex[2 * f], this.edgeVertex[2 * f + 1]))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected void addEdge(int a, int b)
+    {
+        if (this.numEdges == this.sortedEdges.length)
+            this.sortedEdges = grow(this.sortedEdges, this.numEdges + 1);
+        if (2 * this.numEdges + 2 > this.edgeVertex.length)
+            this.edgeVertex = grow(this.edgeVertex, 2 * this.numEdges + 2);
+
+        double x = Math.min(this.coords[2 * a], this.coords[2 * b]);
+        float key = (float) x;
+        if (key > x)
+            key = Math.nextAfter(key, Double.NEGATIVE_INFINITY);
+
+        this.sortedEdges[this.numEdges] = ((long) sortableFloatBits(key) << 32) | this.numEdges;
+        this.edgeVertex[2 * this.numEdges] = a;
+        this.edgeVertex[2 * this.numEdges + 1] = b;
+        this.numEdges++;
+    }
+
+    protected boolean edgesCross(int a, int b, int c, int d)
+    {
+        double abc = this.orient(a, b, c);
+        double abd = this.orient(a, b, d);
+        if ((abc <= 0 || abd >= 0) && (abc >= 0 || abd <= 0))
+            return false;
+
+        double cda = this.orient(c, d, a);
+        double cdb = this.orient(c, d, b);
+        return (cda > 0 && cdb < 0) || (cda < 0 && cdb > 0);
+    }
+
+    protected double orient(int a, int b, int c)
+    {
+        double ax = this.coords[2 * a], ay = this.coords[2 * a + 1];
+        return (this.coords[2 * b] - ax) * (this.coords[2 * c + 1] - ay)
+            - (this.coords[2 * b + 1] - ay) * (this.coords[2 * c] - ax);
+    }
+
+    /**
+     * Converts a float to bits whose signed integer order matches the order of the float values.
+     *
+     * @param value the float value.
+     *
+     * @return the value's sortable bits.
+     */
+    protected static int sortableFloatBits(float value)
+    {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    protected static int unsortableFloatBits(int bits)
+    {
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    /**
+     * Triangulates the current polygon with the GLU tessellator, using the odd winding rule. The tessellator does not
+     * depend on an OpenGL context.
+     *
+     * @param addIntersectionVertices true to add vertices where edges cross, false to use only the caller's vertices.
+     */
+    protected void tessellateCrossingPolygon(final boolean addIntersectionVertices)
+    {
+        GLUtessellatorCallback cb = new GLUtessellatorCallbackAdapter()
+        {
+            public void vertex(Object vertexData)
+            {
+                if (numIndices == indices.length)
+                    indices = grow(indices, numIndices + 1);
+
+                indices[numIndices++] = (Integer) vertexData;
+            }
+
+            public void combine(double[] coords, Object[] data, float[] weight, Object[] outData)
+            {
+                if (addIntersectionVertices)
+                {
+                    addVertex(coords[0], coords[1]);
+                    outData[0] = numVertices - 1;
+                    return;
+                }
+
+                int nearest = 0;
+                for (int i = 1; i < data.length; i++)
+                {
+                    if (data[i] != null && weight[i] > weight[nearest])
+                        nearest = i;
+                }
+
+                outData[0] = data[nearest];
+            }
+
+            // Registering the edge flag callback limits the tessellator's output to independent triangles.
+            public void edgeFlag(boolean boundaryEdge)
+            {
+            }
+        };
+
+        GLU glu = new GLU();
+        GLUtessellator tess = glu.gluNewTess();
+        try
+        {
+            glu.gluTessCallback(tess, GLU.GLU_TESS_VERTEX, cb);
+            glu.gluTessCallback(tess, GLU.GLU_TESS_COMBINE, cb);
+            glu.gluTessCallback(tess, GLU.GLU_TESS_EDGE_FLAG, cb);
+            glu.gluTessProperty(tess, GLU.GLU_TESS_WINDING_RULE, GLU.GLU_TESS_WINDING_ODD);
+            glu.gluTessNormal(tess, 0, 0, 1);
+
+            // The tessellator copies each vertex's coordinates, so one array serves every vertex.
+            double[] vertex = new double[3];
+            int numContours = this.numContours;
+
+            glu.gluTessBeginPolygon(tess, null);
+            for (int c = 0; c < numContours; c++)
+            {
+                glu.gluTessBeginContour(tess);
+                for (int i = this.contourStart[c]; i < this.contourStart[c] + this.contourCount[c]; i++)
+                {
+                    vertex[0] = this.coords[2 * i];
+                    vertex[1] = this.coords[2 * i + 1];
+                    glu.gluTessVertex(tess, vertex, 0, i);
+                }
+                glu.gluTessEndContour(tess);
+            }
+            glu.gluTessEndPolygon(tess);
+        }
+        finally
+        {
+            glu.gluDeleteTess(tess);
+        }
+    }
+
+    //**************************************************************//
+    //********************  Contour Nesting  ***********************//
+    //**************************************************************//
+
+    /**
+     * Computes each contour's nesting depth and its immediately enclosing contour. Contours with fewer than three
+     * vertices or zero area are assigned a depth of -1 and ignored.
+     */
+    protected void classifyContours()
+    {
+        int n = this.numContours;
+        if (this.contourDepth.length < n)
+        {
+            this.contourDepth = new int[n];
+            this.contourParent = new int[n];
+            this.contourArea = new double[n];
+            this.contourBounds = new double[4 * n];
+        }
+
+        for (int c = 0; c < n; c++)
+        {
+            this.contourArea[c] = this.computeArea(this.contourStart[c], this.contourCount[c]);
+            this.computeBounds(c);
+            this.contourDepth[c] = (this.contourCount[c] < 3 || this.contourArea[c] == 0) ? -1 : 0;
+            this.contourParent[c] = NONE;
+        }
+
+        if (n < 2)
+            return;
+
+        // Contours which coincide bound the same region twice, and therefore cancel one another under the odd winding
+        // rule. This occurs in topological data sets, where a hole in one face may be filled by another face.
+        for (int c = 0; c < n; c++)
+        {
+            for (int d = c + 1; d < n && this.contourDepth[c] >= 0; d++)
+            {
+                if (this.contourDepth[d] >= 0 && this.boundsContain(d, c) && this.boundsContain(c, d)
+                    && this.locateContour(c, d) == BOUNDARY && this.locateContour(d, c) == BOUNDARY)
+                {
+                    this.contourDepth[c] = -1;
+                    this.contourDepth[d] = -1;
+                }
+            }
+        }
+
+        for (int c = 0; c < n; c++)
+        {
+            if (this.contourDepth[c] < 0)
+                continue;
+
+            for (int d = 0; d < n; d++)
+            {
+                if (d == c || this.contourDepth[d] < 0 || !this.boundsContain(d, c)
+                    || this.locateContour(c, d) != INSIDE)
+                    continue;
+
+                this.contourDepth[c]++;
+                int parent = this.contourParent[c];
+                if (parent == NONE || Math.abs(this.contourArea[d]) < Math.abs(this.contourArea[parent]))
+                    this.contourParent[c] = d;
+            }
+        }
+
+        // A contour at odd depth whose enclosing contour is not an outer boundary, as can happen when contours
+        // overlap, is treated as an outer boundary.
+        for (int c = 0; c < n; c++)
+        {
+            int depth = this.contourDepth[c];
+            if (depth > 0 && depth % 2 == 1 && this.contourDepth[this.contourParent[c]] % 2 == 1)
+                this.contourDepth[c]++;
+        }
+    }
+
+    protected double computeArea(int start, int count)
+    {
+        double area = 0;
+        for (int i = start, j = start + count - 1; i < start + count; j = i++)
+        {
+            area += this.coords[2 * j] * this.coords[2 * i + 1] - this.coords[2 * i] * this.coords[2 * j + 1];
+        }
+
+        return area / 2;
+    }
+
+    protected void computeBounds(int contour)
+    {
+        int start = this.contourStart[contour];
+        int end = start + this.contourCount[contour];
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = start; i < end; i++)
+        {
+            double x = this.coords[2 * i];
+            double y = this.coords[2 * i + 1];
+            if (x < minX)
+                minX = x;
+            if (x > maxX)
+                maxX = x;
+            if (y < minY)
+                minY = y;
+            if (y > maxY)
+                maxY = y;
+        }
+
+        this.contourBounds[4 * contour] = minX;
+        this.contourBounds[4 * contour + 1] = minY;
+        this.contourBounds[4 * contour + 2] = maxX;
+        this.contourBounds[4 * contour + 3] = maxY;
+    }
+
+    protected boolean boundsContain(int outer, int inner)
+    {
+        double[] b = this.contourBounds;
+        return b[4 * outer] <= b[4 * inner] && b[4 * outer + 1] <= b[4 * inner + 1]
+            && b[4 * outer + 2] >= b[4 * inner + 2] && b[4 * outer + 3] >= b[4 * inner + 3];
+    }
+
+    /**
+     * Determines whether one contour lies inside another. The inner contour's vertices are tested in order until one
+     * is found that is not on the outer contour's boundary, so contours which share edges are classified correctly.
+     *
+     * @param inner the contour to locate.
+     * @param outer the potentially enclosing contour.
+     *
+     * @return INSIDE or OUTSIDE according to the first inner vertex not on the outer contour's boundary, or BOUNDARY
+     *         if every inner vertex is on the outer contour's boundary.
+     */
+    protected int locateContour(int inner, int outer)
+    {
+        int start = this.contourStart[inner];
+        int end = start + this.contourCount[inner];
+        for (int i = start; i < end; i++)
+        {
+            int location = this.classifyPoint(this.coords[2 * i], this.coords[2 * i + 1], outer);
+            if (location != BOUNDARY)
+                return location;
+        }
+
+        return BOUNDARY;
+    }
+
+    protected int classifyPoint(double px, double py, int contour)
+    {
+        int start = this.contourStart[contour];
+        int end = start + this.contourCount[contour];
+        boolean inside = false;
+
+        for (int i = start, j = end - 1; i < end; j = i++)
+        {
+            double xi = this.coords[2 * i], yi = this.coords[2 * i + 1];
+            double xj = this.coords[2 * j], yj = this.coords[2 * j + 1];
+
+            if ((xj - xi) * (py - yi) - (yj - yi) * (px - xi) == 0
+                && px >= Math.min(xi, xj) && px <= Math.max(xi, xj) && py >= Math.min(yi, yj) && py <= Math.max(yi, yj))
+                return BOUNDARY;
+
+            if ((yi > py) != (yj > py) && px < (xj - xi) * (py - yi) / (yj - yi) + xi)
+                inside = !inside;
+        }
+
+        return inside ? INSIDE : OUTSIDE;
+    }
+
+    //**************************************************************//
+    //********************  Ear Clipping  **************************//
+    //**************************************************************//
+
+    /**
+     * Triangulates an outer contour together with the holes it immediately encloses.
+     *
+     * @param contour the outer contour.
+     */
+    protected void triangulateContour(int contour)
+    {
+        this.numNodes = 0;
+
+        int outerNode = this.createLinkedList(contour, true);
+        if (outerNode == NONE || this.nodeNext[outerNode] == this.nodePrev[outerNode])
+            return;
+
+        int numHoles = 0;
+        for (int c = 0; c < this.numContours; c++)
+        {
+            if (this.contourParent[c] != contour || this.contourDepth[c] != this.contourDepth[contour] + 1)
+                continue;
+
+            int list = this.createLinkedList(c, false);
+            if (list == NONE)
+                continue;
+            if (list == this.nodeNext[list])
+                this.nodeSteiner[list] = true;
+
+            if (numHoles == this.holeNodes.length)
+                this.holeNodes = grow(this.holeNodes, numHoles + 1);
+            this.holeNodes[numHoles++] = this.getLeftmost(list);
+        }
+
+        if (numHoles > 0)
+            outerNode = this.eliminateHoles(numHoles, outerNode);
+
+        // Index the polygon along a z-order curve if it's large enough for the index to pay off.
+        this.invSize = 0;
+        if (this.numNodes > Z_ORDER_THRESHOLD)
+        {
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            this.minX = Double.MAX_VALUE;
+            this.minY = Double.MAX_VALUE;
+            for (int i = 0; i < this.numNodes; i++)
+            {
+                this.minX = Math.min(this.minX, this.nodeX[i]);
+                this.minY = Math.min(this.minY, this.nodeY[i]);
+                maxX = Math.max(maxX, this.nodeX[i]);
+                maxY = Math.max(maxY, this.nodeY[i]);
+            }
+
+            double size = Math.max(maxX - this.minX, maxY - this.minY);
+            this.invSize = size != 0 ? 32767 / size : 0;
+        }
+
+        this.earcutLinked(outerNode, 0);
+    }
+
+    /**
+     * Creates a circular doubly linked list of nodes from a contour's vertices, in counter-clockwise order for an outer
+     * contour, or clockwise order for a hole.
+     *
+     * @param contour the contour.
+     * @param outer   true to link the vertices counter-clockwise, and false to link them clockwise.
+     *
+     * @return the last node of the list, or NONE if the contour is empty.
+     */
+    protected int createLinkedList(int contour, boolean outer)
+    {
+        int start = this.contourStart[contour];
+        int end = start + this.contourCount[contour];
+        int last = NONE;
+
+        if (outer == (this.contourArea[contour] > 0))
+        {
+            for (int i = start; i < end; i++)
+            {
+                last = this.insertNode(i, last);
+            }
+        }
+        else
+        {
+            for (int i = end - 1; i >= start; i--)
+            {
+                last = this.insertNode(i, last);
+            }
+        }
+
+        if (last != NONE && this.equals(last, this.nodeNext[last]))
+        {
+            this.removeNode(last);
+            last = this.nodeNext[last];
+        }
+
+        return last;
+    }
+
+    /**
+     * The main ear clipping loop, which cuts ears from the polygon until one triangle remains. When no ear can be
+     * found, the polygon is first filtered of duplicate and collinear points, then cured of small self intersections,
+     * and finally split in two.
+     *
+     * @param ear  any node of the polygon.
+     * @param pass the number of recovery passes already attempted.
+     */
+    protected void earcutLinked(int ear, int pass)
+    {
+        if (ear == NONE)
+            return;
+
+        if (pass == 0 && this.invSize != 0)
+            this.indexCurve(ear);
+
+        int stop = ear;
+        while (this.nodePrev[ear] != this.nodeNext[ear])
+        {
+            int prev = this.nodePrev[ear];
+            int next = this.nodeNext[ear];
+
+            if (this.invSize != 0 ? this.isEarHashed(ear) : this.isEar(ear))
+            {
+                this.addTriangle(prev, ear, next);
+                this.removeNode(ear);
+
+                // Skipping the next vertex leads to fewer sliver triangles.
+                ear = this.nodeNext[next];
+                stop = ear;
+                continue;
+            }
+
+            ear = next;
+
+            if (ear == stop)
+            {
+                if (pass == 0)
+                {
+                    this.earcutLinked(this.filterPoints(ear, NONE), 1);
+                }
+                else if (pass == 1)
+                {
+                    ear = this.cureLocalIntersections(this.filterPoints(ear, NONE));
+                    this.earcutLinked(ear, 2);
+                }
+                else if (pass == 2)
+                {
+                    this.splitEarcut(ear);
+                }
+
+                break;
+            }
+        }
+    }
+
+    protected boolean isEar(int ear)
+    {
+        int a = this.nodePrev[ear], c = this.nodeNext[ear];
+        if (this.area(a, ear, c) >= 0)
+            return false; // Reflex vertex; can't be an ear.
+
+        double ax = this.nodeX[a], ay = this.nodeY[a];
+        double bx = this.nodeX[ear], by = this.nodeY[ear];
+        double cx = this.nodeX[c], cy = this.nodeY[c];
+        double x0 = Math.min(ax, Math.min(bx, cx)), y0 = Math.min(ay, Math.min(by, cy));
+        double x1 = Math.max(ax, Math.max(bx, cx)), y1 = Math.max(ay, Math.max(by, cy));
+
+        // Make sure no other reflex vertex lies inside the potential ear.
+        for (int p = this.nodeNext[c]; p != a; p = this.nodeNext[p])
+        {
+            double px = this.nodeX[p], py = this.nodeY[p];
+            if (px >= x0 && px <= x1 && py >= y0 && py <= y1
+                && pointInTriangle(ax, ay, bx, by, cx, cy, px, py)
+                && this.area(this.nodePrev[p], p, this.nodeNext[p]) >= 0)
+                return false;
+        }
+
+        return true;
+    }
+
+    protected boolean isEarHashed(int ear)
+    {
+        int a = this.nodePrev[ear], c = this.nodeNext[ear];
+        if (this.area(a, ear, c) >= 0)
+            return false; // Reflex vertex; can't be an ear.
+
+        double ax = this.nodeX[a], ay = this.nodeY[a];
+        double bx = this.nodeX[ear], by = this.nodeY[ear];
+        double cx = this.nodeX[c], cy = this.nodeY[c];
+        double x0 = Math.min(ax, Math.min(bx, cx)), y0 = Math.min(ay, Math.min(by, cy));
+        double x1 = Math.max(ax, Math.max(bx, cx)), y1 = Math.max(ay, Math.max(by, cy));
+
+        // Only nodes within the z-order range of the triangle's bounding box can lie inside the triangle.
+        int minZ = this.zOrder(x0, y0);
+        int maxZ = this.zOrder(x1, y1);
+
+        int p = this.nodePrevZ[ear];
+        int n = this.nodeNextZ[ear];
+
+        // Look for points inside the triangle in both directions.
+        while (p != NONE && this.nodeZ[p] >= minZ && n != NONE && this.nodeZ[n] <= maxZ)
+        {
+            if (this.isPointInEar(p, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+                return false;
+            p = this.nodePrevZ[p];
+
+            if (this.isPointInEar(n, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+                return false;
+            n = this.nodeNextZ[n];
+        }
+
+        // Look for remaining points in decreasing z-order.
+        while (p != NONE && this.nodeZ[p] >= minZ)
+        {
+            if (this.isPointInEar(p, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+                return false;
+            p = this.nodePrevZ[p];
+        }
+
+        // Look for remaining points in increasing z-order.
+        while (n != NONE && this.nodeZ[n] <= maxZ)
+        {
+            if (this.isPointInEar(n, a, c, ax, ay, bx, by, cx, cy, x0, y0, x1, y1))
+                return false;
+            n = this.nodeNextZ[n];
+        }
+
+        return true;
+    }
+
+    protected boolean isPointInEar(int p, int a, int c, double ax, double ay, double bx, double by, double cx,
+        double cy, double x0, double y0, double x1, double y1)
+    {
+        double px = this.nodeX[p], py = this.nodeY[p];
+        return px >= x0 && px <= x1 && py >= y0 && py <= y1 && p != a && p != c
+            && pointInTriangle(ax, ay, bx, by, cx, cy, px, py)
+            && this.area(this.nodePrev[p], p, this.nodeNext[p]) >= 0;
+    }
+
+    /**
+     * Removes duplicate and collinear points between two nodes.
+     *
+     * @param start the first node.
+     * @param end   the last node, or NONE to filter the entire polygon.
+     *
+     * @return the last remaining node.
+     */
+    protected int filterPoints(int start, int end)
+    {
+        if (start == NONE)
+            return start;
+        if (end == NONE)
+            end = start;
+
+        int p = start;
+        boolean again;
+        do
+        {
+            again = false;
+
+            if (!this.nodeSteiner[p] && (this.equals(p, this.nodeNext[p])
+                || this.area(this.nodePrev[p], p, this.nodeNext[p]) == 0))
+            {
+                this.removeNode(p);
+                p = end = this.nodePrev[p];
+                if (p == this.nodeNext[p])
+                    break;
+                again = true;
+            }
+            else
+            {
+                p = this.nodeNext[p];
+            }
+        }
+        while (again || p != end);
+
+        return end;
+    }
+
+    /**
+     * Cuts off triangles where two adjacent edges cross, curing small self intersections.
+     *
+     * @param start any node of the polygon.
+     *
+     * @return a node of the remaining polygon.
+     */
+    protected int cureLocalIntersections(int start)
+    {
+        int p = start;
+        do
+        {
+            int a = this.nodePrev[p], b = this.nodeNext[this.nodeNext[p]];
+
+            if (!this.equals(a, b) && this.intersects(a, p, this.nodeNext[p], b)
+                && this.locallyInside(a, b) && this.locallyInside(b, a))
+            {
+                this.addTriangle(a, p, b);
+
+                // Remove the two nodes involved.
+                this.removeNode(p);
+                this.removeNode(this.nodeNext[p]);
+
+                p = start = b;
+            }
+
+            p = this.nodeNext[p];
+        }
+        while (p != start);
+
+        return this.filterPoints(p, NONE);
+    }
+
+    /**
+     * Splits the polygon in two along a valid diagonal, and triangulates each half independently.
+     *
+     * @param start any node of the polygon.
+     */
+    protected void splitEarcut(int start)
+    {
+        int a = start;
+        do
+        {
+            int b = this.nodeNext[this.nodeNext[a]];
+            while (b != this.nodePrev[a])
+            {
+                if (this.nodeVertex[a] != this.nodeVertex[b] && this.isValidDiagonal(a, b))
+                {
+                    int c = this.splitPolygon(a, b);
+
+                    // Filter collinear points around the cuts.
+                    a = this.filterPoints(a, this.nodeNext[a]);
+                    c = this.filterPoints(c, this.nodeNext[c]);
+
+                    this.earcutLinked(a, 0);
+                    this.earcutLinked(c, 0);
+                    return;
+                }
+
+                b = this.nodeNext[b];
+            }
+
+            a = this.nodeNext[a];
+        }
+        while (a != start);
+    }
+
+    /**
+     * Links each hole into the outer polygon with a bridge edge, producing a single polygon without holes. Holes are
+     * processed from left to right by their leftmost node.
+     *
+     * @param numHoles  the number of holes in <code>holeNodes</code>.
+     * @param outerNode a node of the outer polygon.
+     *
+     * @return a node of the resulting polygon.
+     */
+    protected int eliminateHoles(int numHoles, int outerNode)
+    {
+        int[] holes = this.holeNodes;
+        for (int i = 1; i < numHoles; i++)
+        {
+            int hole = holes[i];
+            int j = i - 1;
+            for (; j >= 0 && this.nodeX[holes[j]] > this.nodeX[hole]; j--)
+            {
+                holes[j + 1] = holes[j];
+            }
+            holes[j + 1] = hole;
+        }
+
+        for (int i = 0; i < numHoles; i++)
+        {
+            int bridge = this.findHoleBridge(holes[i], outerNode);
+            if (bridge == NONE)
+                continue;
+
+            int bridgeReverse = this.splitPolygon(bridge, holes[i]);
+            this.filterPoints(bridgeReverse, this.nodeNext[bridgeReverse]);
+            outerNode = this.filterPoints(bridge, this.nodeNext[bridge]);
+        }
+
+        return outerNode;
+    }
+
+    /**
+     * Finds a node of the outer polygon visible from a hole's leftmost node, using David Eberly's algorithm.
+     *
+     * @param hole      the hole's leftmost node.
+     * @param outerNode a node of the outer polygon.
+     *
+     * @return the node to connect to the hole, or NONE if no node is visible.
+     */
+    protected int findHoleBridge(int hole, int outerNode)
+    {
+        double hx = this.nodeX[hole], hy = this.nodeY[hole];
+        double qx = -Double.MAX_VALUE;
+        int m = NONE;
+
+        // Find the segment intersected by a ray from the hole's leftmost point to the left. The segment's endpoint with
+        // lesser x is the potential connection point.
+        int p = outerNode;
+        do
+        {
+            int next = this.nodeNext[p];
+            if (hy <= this.nodeY[p] && hy >= this.nodeY[next] && this.nodeY[next] != this.nodeY[p])
+            {
+                double x = this.nodeX[p] + (hy - this.nodeY[p]) * (this.nodeX[next] - this.nodeX[p])
+                    / (this.nodeY[next] - this.nodeY[p]);
+                if (x <= hx && x > qx)
+                {
+                    qx = x;
+                    m = this.nodeX[p] < this.nodeX[next] ? p : next;
+                    if (x == hx)
+                        return m; // The hole touches the outer segment; pick the leftmost endpoint.
+                }
+            }
+            p = next;
+        }
+        while (p != outerNode);
+
+        if (m == NONE)
+            return NONE;
+
+        // Look for points inside the triangle formed by the hole point, the segment intersection and the endpoint. If
+        // there are none, the endpoint is a valid connection. Otherwise choose the point with the minimum angle to the
+        // ray as the connection point.
+        int stop = m;
+        double mx = this.nodeX[m], my = this.nodeY[m];
+        double tanMin = Double.MAX_VALUE;
+
+        p = m;
+        do
+        {
+            double px = this.nodeX[p], py = this.nodeY[p];
+            if (hx >= px && px >= mx && hx != px
+                && pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, px, py))
+            {
+                double tan = Math.abs(hy - py) / (hx - px);
+                if (this.locallyInside(p, hole) && (tan < tanMin || (tan == tanMin
+                    && (px > this.nodeX[m] || (px == this.nodeX[m] && this.sectorContainsSector(m, p))))))
+                {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = this.nodeNext[p];
+        }
+        while (p != stop);
+
+        return m;
+    }
+
+    protected boolean sectorContainsSector(int m, int p)
+    {
+        return this.area(this.nodePrev[m], m, this.nodePrev[p]) < 0
+            && this.area(this.nodeNext[p], m, this.nodeNext[m]) < 0;
+    }
+
+    protected int getLeftmost(int start)
+    {
+        int p = start, leftmost = start;
+        do
+        {
+            if (this.nodeX[p] < this.nodeX[leftmost]
+                || (this.nodeX[p] == this.nodeX[leftmost] && this.nodeY[p] < this.nodeY[leftmost]))
+                leftmost = p;
+            p = this.nodeNext[p];
+        }
+        while (p != start);
+
+        return leftmost;
+    }
+
+    /**
+     * Indicates whether a diagonal between two nodes lies in the polygon's interior and does not cross any edge.
+     *
+     * @param a the diagonal's first node.
+     * @param b the diagonal's second node.
+     *
+     * @return true if the diagonal is valid, and false otherwise.
+     */
+    protected boolean isValidDiagonal(int a, int b)
+    {
+        int aNext = this.nodeNext[a], aPrev = this.nodePrev[a];
+        int bNext = this.nodeNext[b], bPrev = this.nodePrev[b];
+
+        if (this.nodeVertex[aNext] == this.nodeVertex[b] || this.nodeVertex[aPrev] == this.nodeVertex[b]
+            || this.intersectsPolygon(a, b))
+            return false;
+
+        // The diagonal must be locally visible and must not create opposite-facing sectors, with a special case for
+        // zero length diagonals.
+        return (this.locallyInside(a, b) && this.locallyInside(b, a) && this.middleInside(a, b)
+            && (this.area(aPrev, a, bPrev) != 0 || this.area(a, bPrev, b) != 0))
+            || (this.equals(a, b) && this.area(aPrev, a, aNext) > 0 && this.area(bPrev, b, bNext) > 0);
+    }
+
+    protected boolean intersectsPolygon(int a, int b)
+    {
+        int va = this.nodeVertex[a], vb = this.nodeVertex[b];
+        int p = a;
+        do
+        {
+            int next = this.nodeNext[p];
+            int vp = this.nodeVertex[p], vn = this.nodeVertex[next];
+            if (vp != va && vn != va && vp != vb && vn != vb && this.intersects(p, next, a, b))
+                return true;
+            p = next;
+        }
+        while (p != a);
+
+        return false;
+    }
+
+    protected boolean locallyInside(int a, int b)
+    {
+        int prev = this.nodePrev[a], next = this.nodeNext[a];
+        return this.area(prev, a, next) < 0
+            ? this.area(a, b, next) >= 0 && this.area(a, prev, b) >= 0
+            : this.area(a, b, prev) < 0 || this.area(a, next, b) < 0;
+    }
+
+    protected boolean middleInside(int a, int b)
+    {
+        double px = (this.nodeX[a] + this.nodeX[b]) / 2;
+        double py = (this.nodeY[a] + this.nodeY[b]) / 2;
+        boolean inside = false;
+
+        int p = a;
+        do
+        {
+            int next = this.nodeNext[p];
+            double y0 = this.nodeY[p], y1 = this.nodeY[next];
+            if ((y0 > py) != (y1 > py) && y1 != y0
+                && px < (this.nodeX[next] - this.nodeX[p]) * (py - y0) / (y1 - y0) + this.nodeX[p])
+                inside = !inside;
+            p = next;
+        }
+        while (p != a);
+
+        return inside;
+    }
+
+    protected boolean intersects(int p1, int q1, int p2, int q2)
+    {
+        int o1 = sign(this.area(p1, q1, p2));
+        int o2 = sign(this.area(p1, q1, q2));
+        int o3 = sign(this.area(p2, q2, p1));
+        int o4 = sign(this.area(p2, q2, q1));
+
+        if (o1 != o2 && o3 != o4)
+            return true; // General case.
+
+        // Collinear cases.
+        return (o1 == 0 && this.onSegment(p1, p2, q1)) || (o2 == 0 && this.onSegment(p1, q2, q1))
+            || (o3 == 0 && this.onSegment(p2, p1, q2)) || (o4 == 0 && this.onSegment(p2, q1, q2));
+    }
+
+    protected boolean onSegment(int p, int q, int r)
+    {
+        return this.nodeX[q] <= Math.max(this.nodeX[p], this.nodeX[r])
+            && this.nodeX[q] >= Math.min(this.nodeX[p], this.nodeX[r])
+            && this.nodeY[q] <= Math.max(this.nodeY[p], this.nodeY[r])
+            && this.nodeY[q] >= Math.min(this.nodeY[p], this.nodeY[r]);
+    }
+
+    /**
+     * Returns twice the signed area of the triangle formed by three nodes. The area is negative when the nodes turn
+     * counter-clockwise.
+     *
+     * @param p the first node.
+     * @param q the second node.
+     * @param r the third node.
+     *
+     * @return the triangle's signed area, times two.
+     */
+    protected double area(int p, int q, int r)
+    {
+        return (this.nodeY[q] - this.nodeY[p]) * (this.nodeX[r] - this.nodeX[q])
+            - (this.nodeX[q] - this.nodeX[p]) * (this.nodeY[r] - this.nodeY[q]);
+    }
+
+    protected boolean equals(int p, int q)
+    {
+        return this.nodeX[p] == this.nodeX[q] && this.nodeY[p] == this.nodeY[q];
+    }
+
+    protected static boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy,
+        double px, double py)
+    {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+            && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+            && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    protected static int sign(double value)
+    {
+        return value > 0 ? 1 : (value < 0 ? -1 : 0);
+    }
+
+    //**************************************************************//
+    //********************  Z-Order Index  *************************//
+    //**************************************************************//
+
+    /**
+     * Links the polygon's nodes in z-order, using Simon Tatham's linked list merge sort.
+     *
+     * @param start any node of the polygon.
+     */
+    protected void indexCurve(int start)
+    {
+        int p = start;
+        do
+        {
+            if (this.nodeZ[p] == 0)
+                this.nodeZ[p] = this.zOrder(this.nodeX[p], this.nodeY[p]);
+            this.nodePrevZ[p] = this.nodePrev[p];
+            this.nodeNextZ[p] = this.nodeNext[p];
+            p = this.nodeNext[p];
+        }
+        while (p != start);
+
+        this.nodeNextZ[this.nodePrevZ[p]] = NONE;
+        this.nodePrevZ[p] = NONE;
+
+        int list = p;
+        int inSize = 1;
+        int numMerges;
+        do
+        {
+            p = list;
+            list = NONE;
+            int tail = NONE;
+            numMerges = 0;
+
+            while (p != NONE)
+            {
+                numMerges++;
+                int q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++)
+                {
+                    pSize++;
+                    q = this.nodeNextZ[q];
+                    if (q == NONE)
+                        break;
+                }
+
+                int qSize = inSize;
+                while (pSize > 0 || (qSize > 0 && q != NONE))
+                {
+                    int e;
+                    if (pSize != 0 && (qSize == 0 || q == NONE || this.nodeZ[p] <= this.nodeZ[q]))
+                    {
+                        e = p;
+                        p = this.nodeNextZ[p];
+                        pSize--;
+                    }
+                    else
+                    {
+                        e = q;
+                        q = this.nodeNextZ[q];
+                        qSize--;
+                    }
+
+                    if (tail != NONE)
+                        this.nodeNextZ[tail] = e;
+                    else
+                        list = e;
+
+                    this.nodePrevZ[e] = tail;
+                    tail = e;
+                }
+
+                p = q;
+            }
+
+            this.nodeNextZ[tail] = NONE;
+            inSize *= 2;
+        }
+        while (numMerges > 1);
+    }
+
+    /**
+     * Computes the position of a point along a z-order curve covering the polygon's bounding box. Coordinates are
+     * transformed into the range of non-negative 15-bit integers, and their bits are interleaved.
+     *
+     * @param x the point's X coordinate.
+     * @param y the point's Y coordinate.
+     *
+     * @return the point's z-order value.
+     */
+    protected int zOrder(double x, double y)
+    {
+        int ix = (int) ((x - this.minX) * this.invSize);
+        int iy = (int) ((y - this.minY) * this.invSize);
+
+        ix = (ix | (ix << 8)) & 0x00FF00FF;
+        ix = (ix | (ix << 4)) & 0x0F0F0F0F;
+        ix = (ix | (ix << 2)) & 0x33333333;
+        ix = (ix | (ix << 1)) & 0x55555555;
+
+        iy = (iy | (iy << 8)) & 0x00FF00FF;
+        iy = (iy | (iy << 4)) & 0x0F0F0F0F;
+        iy = (iy | (iy << 2)) & 0x33333333;
+        iy = (iy | (iy << 1)) & 0x55555555;
+
+        return ix | (iy << 1);
+    }
+
+    //**************************************************************//
+    //********************  Node Storage  **************************//
+    //**************************************************************//
+
+    protected int createNode(int vertex, double x, double y)
+    {
+        if (this.numNodes == this.nodeVertex.length)
+        {
+            int capacity = this.numNodes + 1;
+            this.nodeVertex = grow(this.nodeVertex, capacity);
+            this.nodeX = grow(this.nodeX, capacity);
+            this.nodeY = grow(this.nodeY, capacity);
+            this.nodePrev = grow(this.nodePrev, capacity);
+            this.nodeNext = grow(this.nodeNext, capacity);
+            this.nodeZ = grow(this.nodeZ, capacity);
+            this.nodePrevZ = grow(this.nodePrevZ, capacity);
+            this.nodeNextZ = grow(this.nodeNextZ, capacity);
+            boolean[] steiner = new boolean[this.nodeVertex.length];
+            System.arraycopy(this.nodeSteiner, 0, steiner, 0, this.numNodes);
+            this.nodeSteiner = steiner;
+        }
+
+        int node = this.numNodes++;
+        this.nodeVertex[node] = vertex;
+        this.nodeX[node] = x;
+        this.nodeY[node] = y;
+        this.nodePrev[node] = NONE;
+        this.nodeNext[node] = NONE;
+        this.nodeZ[node] = 0;
+        this.nodePrevZ[node] = NONE;
+        this.nodeNextZ[node] = NONE;
+        this.nodeSteiner[node] = false;
+
+        return node;
+    }
+
+    protected int insertNode(int vertex, int last)
+    {
+        int p = this.createNode(vertex, this.coords[2 * vertex], this.coords[2 * vertex + 1]);
+
+        if (last == NONE)
+        {
+            this.nodePrev[p] = p;
+            this.nodeNext[p] = p;
+        }
+        else
+        {
+            this.nodeNext[p] = this.nodeNext[last];
+            this.nodePrev[p] = last;
+            this.nodePrev[this.nodeNext[last]] = p;
+            this.nodeNext[last] = p;
+        }
+
+        return p;
+    }
+
+    protected void removeNode(int p)
+    {
+        this.nodePrev[this.nodeNext[p]] = this.nodePrev[p];
+        this.nodeNext[this.nodePrev[p]] = this.nodeNext[p];
+
+        if (this.nodePrevZ[p] != NONE)
+            this.nodeNextZ[this.nodePrevZ[p]] = this.nodeNextZ[p];
+        if (this.nodeNextZ[p] != NONE)
+            this.nodePrevZ[this.nodeNextZ[p]] = this.nodePrevZ[p];
+    }
+
+    /**
+     * Links two nodes with a bridge edge. If the nodes belong to the same polygon, this splits the polygon in two. If
+     * one belongs to the outer polygon and the other to a hole, this merges the hole into the outer polygon.
+     *
+     * @param a the first node.
+     * @param b the second node.
+     *
+     * @return a copy of <code>b</code> in the polygon which does not contain <code>a</code> after the split.
+     */
+    protected int splitPolygon(int a, int b)
+    {
+        int a2 = this.createNode(this.nodeVertex[a], this.nodeX[a], this.nodeY[a]);
+        int b2 = this.createNode(this.nodeVertex[b], this.nodeX[b], this.nodeY[b]);
+        int an = this.nodeNext[a];
+        int bp = this.nodePrev[b];
+
+        this.nodeNext[a] = b;
+        this.nodePrev[b] = a;
+
+        this.nodeNext[a2] = an;
+        this.nodePrev[an] = a2;
+
+        this.nodeNext[b2] = a2;
+        this.nodePrev[a2] = b2;
+
+        this.nodeNext[bp] = b2;
+        this.nodePrev[b2] = bp;
+
+        return b2;
+    }
+
+    protected void addTriangle(int a, int b, int c)
+    {
+        if (this.numIndices + 3 > this.indices.length)
+            this.indices = grow(this.indices, this.numIndices + 3);
+
+        this.indices[this.numIndices++] = this.nodeVertex[a];
+        this.indices[this.numIndices++] = this.nodeVertex[b];
+        this.indices[this.numIndices++] = this.nodeVertex[c];
+    }
+
+    protected static int[] grow(int[] array, int minCapacity)
+    {
+        int[] newArray = new int[Math.max(minCapacity, 2 * array.length)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    protected static long[] grow(long[] array, int minCapacity)
+    {
+        long[] newArray = new long[Math.max(minCapacity, 2 * array.length)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    protected static double[] grow(double[] array, int minCapacity)
+    {
+        double[] newArray = new double[Math.max(minCapacity, 2 * array.length)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Sector;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.*;
+
+/**
+ * A spatial index of items with a geographic extent, intended for finding the items that intersect the visible
+ * regions of a frame. The globe is divided into a uniform grid of latitude-longitude cells, and each item is registered
+ * in the cells its sector covers. Items whose sector spans many cells are kept in a separate list, and items without
+ * a sector are always returned by queries.
+ * <p/>
+ * Queries return the items in the order they were added to the index, so a layer can keep its drawing order. An item
+ * whose extent changes keeps its position in that order when it is updated with {@link #update(Object,
+ * gov.nasa.worldwind.geom.Sector)}.
+ * <p/>
+ * The index is safe for use by multiple threads. It is guarded by a single read-write lock: queries share the read lock
+ * and do not block each other, while additions, updates and removals take the write lock for the whole index. Each
+ * modification holds the lock only for the time it takes to update the cells the item covers.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class SectorGridIndex<T>
+{
+    /** The default cell size, in degrees. */
+    protected static final double DEFAULT_CELL_SIZE = 2d;
+    /** Items covering more cells than this are not registered in cells, but tested individually by every query. */
+    protected static final int MAX_CELLS_PER_ITEM = 64;
+
+    protected static class Entry<T>
+    {
+        protected final T item;
+        protected final long sequence;
+        protected Sector sector;
+        protected boolean large;
+        /** Position of the entry in the list of large or unlocated entries, so it can be removed in constant time. */
+        protected int listIndex = -1;
+        /** Stamp of the last query that returned this entry, used to return each entry once per query. */
+        protected volatile long queryStamp;
+
+        public Entry(T item, long sequence)
+        {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+
+    protected static final Comparator<Entry<?>> SEQUENCE_ORDER = new Comparator<Entry<?>>()
+    {
+        public int compare(Entry<?> a, Entry<?> b)
+        {
+            return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+        }
+    };
+
+    protected final double cellSize;
+    protected final int numRows;
+    protected final int numCols;
+    protected final ArrayList<ArrayList<Entry<T>>> cells;
+    protected final ArrayList<Entry<T>> largeEntries = new ArrayList<Entry<T>>();
+    protected final ArrayList<Entry<T>> unlocatedEntries = new ArrayList<Entry<T>>();
+    protected final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<T, Entry<T>>();
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    protected final AtomicLong sequence = new AtomicLong();
+    protected final AtomicLong queryStamp = new AtomicLong();
+
+    /** Creates an index with the default cell size. */
+    public SectorGridIndex()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates an index with the specified cell size.
+     *
+     * @param cellSize the width and height of a cell, in degrees.
+     *
+     * @throws IllegalArgumentException if the cell size is not positive or larger than 180 degrees.
+     */
+    public SectorGridIndex(double cellSize)
+    {
+        if (!(cellSize > 0d) || cellSize > 180d)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize=" + cellSize);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+        this.numRows = (int) Math.ceil(180d / cellSize);
+        this.numCols = (int) Math.ceil(360d / cellSize);
+        this.cells = new ArrayList<ArrayList<Entry<T>>>(Collections.nCopies(this.numRows * this.numCols,
+            (ArrayList<Entry<T>>) null));
+    }
+
+    /**
+     * Returns the number of items in the index.
+     *
+     * @return the number of items.
+     */
+    public int size()
+    {
+        this.lock.readLock().lock();
+        try
+        {
+            return this.entries.size();
+        }
+        finally
+        {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indicates whether an item is in the index.
+     *
+     * @param item the item.
+     *
+     * @return true if the item is in the index.
+     */
+    public boolean contains(T item)
+    {
+        this.lock.readLock().lock();
+        try
+        {
+            return this.entries.containsKey(item);
+        }
+        finally
+        {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an item to the index, after all items already in the index. Adding an item that is already in the index
+     * updates its sector, like {@link #update(Object, gov.nasa.worldwind.geom.Sector)}.
+     *
+     * @param item   the item to add.
+     * @param sector the item's extent. If null, the item is returned by every query.
+     *
+     * @throws IllegalArgumentException if the item is null.
+     */
+    public void add(T item, Sector sector)
+    {
+        if (item == null)
+        {
+            String message = Logging.getMessage("nullValue.ItemIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.lock.writeLock().lock();
+        try
+        {
+            Entry<T> entry = this.entries.get(item);
+            if (entry == null)
+            {
+                entry = new Entry<T>(item, this.sequence.getAndIncrement());
+                this.entries.put(item, entry);
+            }
+            else
+            {
+                this.unregister(entry);
+            }
+
+            entry.sector = sector;
+            this.register(entry);
+        }
+        finally
+        {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the extent of an item in the index. The item keeps its position in the order of the index.
+     *
+     * @param item   the item to update.
+     * @param sector the item's new extent. If null, the item is returned by every query.
+     *
+     * @return true if the item is in the index, false if it is not and was not added.
+     *
+     * @throws IllegalArgumentException if the item is null.
+     */
+    public boolean update(T item, Sector sector)
+    {
+        if (item == null)
+        {
+            String message = Logging.getMessage("nullValue.ItemIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.lock.writeLock().lock();
+        try
+        {
+            Entry<T> entry = this.entries.get(item);
+            if (entry == null)
+                return false;
+
+            if (sector != null && sector.equals(entry.sector))
+                return true;
+
+            this.unregister(entry);
+            entry.sector = sector;
+            this.register(entry);
+            return true;
+        }
+        finally
+        {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param item the item to remove. If null or not in the index, nothing is removed.
+     *
+     * @return true if the item was in the index.
+     */
+    public boolean remove(T item)
+    {
+        if (item == null)
+            return false;
+
+        this.lock.writeLock().lock();
+        try
+        {
+            Entry<T> entry = this.entries.remove(item);
+            if (entry == null)
+                return false;
+
+            this.unregister(entry);
+            return true;
+        }
+        finally
+        {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes all items from the index. */
+    public void clear()
+    {
+        this.lock.writeLock().lock();
+        try
+        {
+            this.entries.clear();
+            this.largeEntries.clear();
+            this.unlocatedEntries.clear();
+            Collections.fill(this.cells, null);
+        }
+        finally
+        {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the items intersecting any of the specified sectors, plus the items without a sector. The items are
+     * returned in the order they were added to the index, and each item is returned once.
+     *
+     * @param sectors  the sectors of interest.
+     * @param outItems a list in which to place the items. If null, a new list is created. The items are appended to the
+     *                 list.
+     *
+     * @return the list of items. The list passed as the <code>outItems</code> argument is returned, or a new list if that
+     *         argument is null.
+     *
+     * @throws IllegalArgumentException if the sectors iterable is null.
+     */
+    public List<T> getItemsInRegions(Iterable<Sector> sectors, List<T> outItems)
+    {
+        if (sectors == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (outItems == null)
+            outItems = new ArrayList<T>();
+
+        long stamp = this.queryStamp.incrementAndGet();
+        ArrayList<Entry<T>> found = new ArrayList<Entry<T>>();
+
+        this.lock.readLock().lock();
+        try
+        {
+            found.addAll(this.unlocatedEntries);
+
+            for (Sector sector : sectors)
+            {
+                if (sector == null)
+                    continue;
+
+                int row0 = this.rowFor(sector.getMinLatitude().degrees);
+                int row1 = this.rowFor(sector.getMaxLatitude().degrees);
+                int col0 = this.colFor(sector.getMinLongitude().degrees);
+                int col1 = this.colFor(sector.getMaxLongitude().degrees);
+
+                for (int row = row0; row <= row1; row++)
+                {
+                    for (int col = col0; col <= col1; col++)
+                    {
+                        ArrayList<Entry<T>> cell = this.cells.get(row * this.numCols + col);
+                        if (cell != null)
+                            this.collect(cell, sector, stamp, found);
+                    }
+                }
+
+                this.collect(this.largeEntries, sector, stamp, found);
+            }
+        }
+        finally
+        {
+            this.lock.readLock().unlock();
+        }
+
+        Collections.sort(found, SEQUENCE_ORDER);
+
+        Entry<T> previous = null;
+        for (Entry<T> entry : found)
+        {
+            // Concurrent queries may both return an entry; drop the duplicates.
+            if (entry != previous)
+                outItems.add(entry.item);
+            previous = entry;
+        }
+
+        return outItems;
+    }
+
+    protected void collect(List<Entry<T>> candidates, Sector sector, long stamp, List<Entry<T>> found)
+    {
+        for (int i = 0; i < candidates.size(); i++)
+        {
+            Entry<T> entry = candidates.get(i);
+            if (entry.queryStamp != stamp && intersects(entry.sector, sector))
+            {
+                entry.queryStamp = stamp;
+                found.add(entry);
+            }
+        }
+    }
+
+    /** Tests two sectors for intersection, including sectors that only touch. */
+    protected static boolean intersects(Sector a, Sector b)
+    {
+        return a.getMinLatitude().degrees <= b.getMaxLatitude().degrees
+            && b.getMinLatitude().degrees <= a.getMaxLatitude().degrees
+            && a.getMinLongitude().degrees <= b.getMaxLongitude().degrees
+            && b.getMinLongitude().degrees <= a.getMaxLongitude().degrees;
+    }
+
+    protected void register(Entry<T> entry)
+    {
+        Sector sector = entry.sector;
+        if (sector == null)
+        {
+            addListEntry(this.unlocatedEntries, entry);
+            return;
+        }
+
+        int row0 = this.rowFor(sector.getMinLatitude().degrees);
+        int row1 = this.rowFor(sector.getMaxLatitude().degrees);
+        int col0 = this.colFor(sector.getMinLongitude().degrees);
+        int col1 = this.colFor(sector.getMaxLongitude().degrees);
+
+        entry.large = (row1 - row0 + 1) * (col1 - col0 + 1) > MAX_CELLS_PER_ITEM;
+        if (entry.large)
+        {
+            addListEntry(this.largeEntries, entry);
+            return;
+        }
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                int index = row * this.numCols + col;
+                ArrayList<Entry<T>> cell = this.cells.get(index);
+                if (cell == null)
+                {
+                    cell = new ArrayList<Entry<T>>(4);
+                    this.cells.set(index, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    protected void unregister(Entry<T> entry)
+    {
+        Sector sector = entry.sector;
+        if (sector == null)
+        {
+            removeListEntry(this.unlocatedEntries, entry);
+            return;
+        }
+
+        if (entry.large)
+        {
+            removeListEntry(this.largeEntries, entry);
+            return;
+        }
+
+        int row0 = this.rowFor(sector.getMinLatitude().degrees);
+        int row1 = this.rowFor(sector.getMaxLatitude().degrees);
+        int col0 = this.colFor(sector.getMinLongitude().degrees);
+        int col1 = this.colFor(sector.getMaxLongitude().degrees);
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                int index = row * this.numCols + col;
+                ArrayList<Entry<T>> cell = this.cells.get(index);
+                if (cell != null)
+                {
+                    removeEntry(cell, entry);
+                    if (cell.isEmpty())
+                        this.cells.set(index, null);
+                }
+            }
+        }
+    }
+
+    /** Adds an entry to the list of large or unlocated entries, recording its position in the list. */
+    protected static <T> void addListEntry(ArrayList<Entry<T>> list, Entry<T> entry)
+    {
+        entry.listIndex = list.size();
+        list.add(entry);
+    }
+
+    /**
+     * Removes an entry from the list of large or unlocated entries in constant time, by moving the last entry into its
+     * position.
+     */
+    protected static <T> void removeListEntry(ArrayList<Entry<T>> list, Entry<T> entry)
+    {
+        int index = entry.listIndex;
+        if (index < 0 || index >= list.size() || list.get(index) != entry)
+            return;
+
+        int last = list.size() - 1;
+        Entry<T> lastEntry = list.remove(last);
+        if (index != last)
+        {
+            list.set(index, lastEntry);
+            lastEntry.listIndex = index;
+        }
+        entry.listIndex = -1;
+    }
+
+    /** Removes an entry from a cell. Cells hold few entries, so the cell is searched. */
+    protected static <T> void removeEntry(ArrayList<Entry<T>> list, Entry<T> entry)
+    {
+        for (int i = list.size() - 1; i >= 0; i--)
+        {
+            if (list.get(i) == entry)
+            {
+                // The order within a list does not matter, so move the last entry into the hole.
+                int last = list.size() - 1;
+                list.set(i, list.get(last));
+                list.remove(last);
+                return;
+            }
+        }
+    }
+
+    protected int rowFor(double latitude)
+    {
+        int row = (int) Math.floor((latitude + 90d) / this.cellSize);
+        return row < 0 ? 0 : (row >= this.numRows ? this.numRows - 1 : row);
+    }
+
+    protected int colFor(double longitude)
+    {
+        int col = (int) Math.floor((longitude + 180d) / this.cellSize);
+        return col < 0 ? 0 : (col >= this.numCols ? this.numCols - 1 : col);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.util;
+
+import java.io.*;
+
+/**
+ * An input stream that follows a file as it grows, in the manner of <code>tail -f</code>. When a read reaches the end
+ * of the file, the stream waits for more data by polling the file's length rather than returning end of stream. The
+ * stream ends when {@link #stop()} is called or the reading thread is interrupted. If the file is truncated, reading
+ * starts again from its beginning.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class TailingInputStream extends InputStream
+{
+    /** The default interval, in milliseconds, between checks for new data. */
+    public static final long DEFAULT_POLL_INTERVAL = 200;
+
+    protected final File file;
+    protected final long pollInterval;
+    protected RandomAccessFile randomAccessFile;
+    protected volatile boolean stopped;
+
+    /**
+     * Opens a file for tailing, starting at its beginning.
+     *
+     * @param file         the file.
+     * @param pollInterval the interval, in milliseconds, between checks for new data.
+     *
+     * @throws IllegalArgumentException if the file is null or the poll interval is less than 1.
+     * @throws FileNotFoundException    if the file does not exist.
+     */
+    public TailingInputStream(File file, long pollInterval) throws FileNotFoundException
+    {
+        if (file == null)
+        {
+            String message = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (pollInterval < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", pollInterval);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.file = file;
+        this.pollInterval = pollInterval;
+        this.randomAccessFile = new RandomAccessFile(file, "r");
+    }
+
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Ends the stream. A read that is waiting for data returns end of stream within one poll interval. This method may
+     * be called from any thread.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+    }
+
+    public boolean isStopped()
+    {
+        return this.stopped;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        byte[] b = new byte[1];
+        return this.read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+            return 0;
+
+        while (!this.stopped)
+        {
+            int n = this.randomAccessFile.read(b, off, len);
+            if (n > 0)
+                return n;
+
+            if (this.randomAccessFile.length() < this.randomAccessFile.getFilePointer())
+            {
+                this.randomAccessFile.seek(0); // The file was truncated.
+                continue;
+            }
+
+            try
+            {
+                Thread.sleep(this.pollInterval);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Indicates the number of bytes that can be read without waiting for the file to grow.
+     *
+     * @return the number of bytes between the current position and the end of the file.
+     *
+     * @throws IOException if the file's length cannot be determined.
+     */
+    @Override
+    public int available() throws IOException
+    {
+        if (this.stopped)
+            return 0;
+
+        long remaining = this.randomAccessFile.length() - this.randomAccessFile.getFilePointer();
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, remaining));
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.stopped = true;
+        this.randomAccessFile.close();
+    }
+}
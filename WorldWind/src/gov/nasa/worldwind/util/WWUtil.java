@@ -22,6 +22,12 @@ import java.util.regex.Pattern;
  */
 public class WWUtil
 {
+    /** The largest mantissa that a double represents exactly. */
+    protected static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** The powers of ten that a double represents exactly. */
+    protected static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     /**
      * Converts a specified string to an integer value. Returns null if the string cannot be converted.
      *
@@ -301,6 +307,186 @@ public class WWUtil
         }
     }
 
+    /**
+     * Parses a decimal number from a character sequence, without creating a string. See {@link
+     * #parseDouble(CharSequence, int, int)}.
+     *
+     * @param charSequence the characters to parse.
+     *
+     * @return the number, or NaN if the characters are not a decimal number.
+     *
+     * @throws IllegalArgumentException if the charSequence is null.
+     */
+    public static double parseDouble(CharSequence charSequence)
+    {
+        if (charSequence == null)
+        {
+            String message = Logging.getMessage("nullValue.CharSequenceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return parseDouble(null, charSequence, 0, charSequence.length());
+    }
+
+    /**
+     * Parses a decimal number from a range of a character sequence, without creating a string. Leading and trailing
+     * whitespace is ignored. Numbers whose digits fit in a double's mantissa and whose decimal exponent is at most 22
+     * in magnitude, which covers most coordinates, are computed from their digits with a single multiplication or
+     * division of two exactly represented values. The result is therefore identical to {@link
+     * Double#parseDouble(String)}. Other numbers are passed to {@link Double#parseDouble(String)}.
+     *
+     * @param charSequence the characters to parse.
+     * @param start        the index of the first character.
+     * @param end          the index following the last character.
+     *
+     * @return the number, or NaN if the range is empty or is not a decimal number.
+     *
+     * @throws IllegalArgumentException if the charSequence is null.
+     */
+    public static double parseDouble(CharSequence charSequence, int start, int end)
+    {
+        if (charSequence == null)
+        {
+            String message = Logging.getMessage("nullValue.CharSequenceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return parseDouble(null, charSequence, start, end);
+    }
+
+    /**
+     * Parses a decimal number from a range of ASCII bytes, without creating a string. See {@link
+     * #parseDouble(CharSequence, int, int)}.
+     *
+     * @param bytes the array.
+     * @param start the index of the first byte.
+     * @param end   the index following the last byte.
+     *
+     * @return the number, or NaN if the range is empty or is not a decimal number.
+     *
+     * @throws IllegalArgumentException if the array is null.
+     */
+    public static double parseDouble(byte[] bytes, int start, int end)
+    {
+        if (bytes == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return parseDouble(bytes, null, start, end);
+    }
+
+    // Reads from the byte array if it's non-null, otherwise from the character sequence.
+    protected static double parseDouble(byte[] bytes, CharSequence cs, int start, int end)
+    {
+        while (start < end && charAt(bytes, cs, start) <= ' ')
+        {
+            start++;
+        }
+        while (end > start && charAt(bytes, cs, end - 1) <= ' ')
+        {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (charAt(bytes, cs, i) == '-' || charAt(bytes, cs, i) == '+'))
+            negative = charAt(bytes, cs, i++) == '-';
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean exact = true;
+        boolean fraction = false;
+
+        for (; i < end; i++)
+        {
+            char c = charAt(bytes, cs, i);
+            if (c >= '0' && c <= '9')
+            {
+                hasDigits = true;
+                if (mantissa < MAX_EXACT_MANTISSA)
+                {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction)
+                        exponent--;
+                }
+                else
+                {
+                    exact = false;
+                }
+            }
+            else if (c == '.' && !fraction)
+            {
+                fraction = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if (!hasDigits)
+            return Double.NaN;
+
+        if (i < end && (charAt(bytes, cs, i) == 'e' || charAt(bytes, cs, i) == 'E'))
+        {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (charAt(bytes, cs, i) == '-' || charAt(bytes, cs, i) == '+'))
+                negativeExponent = charAt(bytes, cs, i++) == '-';
+
+            int value = 0;
+            int expStart = i;
+            for (; i < end && charAt(bytes, cs, i) >= '0' && charAt(bytes, cs, i) <= '9'; i++)
+            {
+                // Larger exponents overflow or underflow regardless of the digits, and go to the general parser.
+                if (value < 1000)
+                    value = value * 10 + (charAt(bytes, cs, i) - '0');
+            }
+
+            if (i == expStart)
+                return Double.NaN;
+
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (i != end)
+            return Double.NaN;
+
+        if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent > -POWERS_OF_TEN.length
+            && exponent < POWERS_OF_TEN.length)
+        {
+            // Both operands are exact, so the result is correctly rounded.
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+        for (i = start; i < end; i++)
+        {
+            sb.append(charAt(bytes, cs, i));
+        }
+
+        try
+        {
+            return Double.parseDouble(sb.toString());
+        }
+        catch (NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+
+    protected static char charAt(byte[] bytes, CharSequence cs, int index)
+    {
+        return bytes != null ? (char) (bytes[index] & 0xFF) : cs.charAt(index);
+    }
+
     /**
      * Returns a sub sequence of the specified {@link CharSequence}, with leading and trailing whitespace omitted. If
      * the CharSequence has length zero, this returns a reference to the CharSequence. If the CharSequence represents
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2011 United States Government as represented by the Administrator of the
+ * National Aeronautics and Space Administration.
+ * All Rights Reserved.
+ */
+package gov.nasa.worldwind.view;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.util.Logging;
+
+/**
+ * Predicts where a {@link View} will be a short time in the future by extrapolating its recent motion. The predictor is
+ * updated once per frame with the view's eye point and center point, and maintains smoothed velocities for both. Tile
+ * prefetching uses the predicted points to request the tiles the view is likely to need before it needs them. See
+ * {@link gov.nasa.worldwind.retrieve.Prefetchable}.
+ * <p/>
+ * The predictor identifies each continuous motion by a motion ID, which changes whenever the view starts moving, stops
+ * moving, or changes direction. Work scheduled for a prediction can compare the motion ID at the time it was scheduled
+ * with the current motion ID to determine whether the prediction is still valid.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ViewMotionPredictor
+{
+    /** The default time, in milliseconds, to look ahead. */
+    public static final long DEFAULT_LOOK_AHEAD_TIME = 1000;
+    /** The longest interval, in milliseconds, between two updates that are considered part of the same motion. */
+    protected static final long MAX_UPDATE_INTERVAL = 500;
+    /** The weight of the newest velocity sample in the smoothed velocities. */
+    protected static final double SMOOTHING = 0.5;
+    /**
+     * The fraction of the eye's distance to the center point the view must be predicted to travel during the look ahead
+     * time to be considered moving.
+     */
+    protected static final double MIN_RELATIVE_TRAVEL = 0.02;
+    /** The cosine of the largest change in direction that is considered part of the same motion. */
+    protected static final double MAX_DIRECTION_CHANGE_COSINE = Math.cos(Math.toRadians(30));
+
+    protected long lookAheadTime = DEFAULT_LOOK_AHEAD_TIME;
+    protected Vec4 eyePoint;
+    protected Vec4 centerPoint;
+    protected long time;
+    protected Vec4 eyeVelocity;
+    protected Vec4 centerVelocity;
+    protected boolean moving;
+    protected Vec4 motionEyeDirection;
+    protected Vec4 motionCenterDirection;
+    protected volatile long motionId;
+
+    public ViewMotionPredictor()
+    {
+    }
+
+    /**
+     * Indicates how far ahead, in milliseconds, the view's position is predicted.
+     *
+     * @return the look ahead time in milliseconds.
+     */
+    public long getLookAheadTime()
+    {
+        return this.lookAheadTime;
+    }
+
+    /**
+     * Specifies how far ahead, in milliseconds, the view's position is predicted.
+     *
+     * @param lookAheadTime the look ahead time in milliseconds.
+     *
+     * @throws IllegalArgumentException if the time is less than or equal to zero.
+     */
+    public void setLookAheadTime(long lookAheadTime)
+    {
+        if (lookAheadTime <= 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", lookAheadTime);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.lookAheadTime = lookAheadTime;
+    }
+
+    /**
+     * Updates the predictor with a view's current eye point and center point. If the view is not looking at the globe,
+     * the point on the globe's surface beneath the eye is used as the center point.
+     *
+     * @param view the view.
+     * @param time the time of the view's current state, in milliseconds.
+     *
+     * @throws IllegalArgumentException if the view is null.
+     */
+    public void update(View view, long time)
+    {
+        if (view == null)
+        {
+            String message = Logging.getMessage("nullValue.ViewIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Vec4 eye = view.getEyePoint();
+        if (eye == null)
+            return;
+
+        Vec4 center = view.getCenterPoint();
+        if (center == null && view.getGlobe() != null)
+        {
+            Position eyePosition = view.getEyePosition();
+            center = view.getGlobe().computePointFromPosition(eyePosition.getLatitude(), eyePosition.getLongitude(),
+                0);
+        }
+
+        this.update(eye, center != null ? center : eye, time);
+    }
+
+    /**
+     * Updates the predictor with the view's eye point and center point at a specified time.
+     *
+     * @param eyePoint    the eye point in model coordinates.
+     * @param centerPoint the center point in model coordinates.
+     * @param time        the time of the view's state, in milliseconds.
+     *
+     * @throws IllegalArgumentException if either point is null.
+     */
+    public void update(Vec4 eyePoint, Vec4 centerPoint, long time)
+    {
+        if (eyePoint == null || centerPoint == null)
+        {
+            String message = Logging.getMessage("nullValue.PointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        long dt = time - this.time;
+        if (this.eyePoint == null || dt > MAX_UPDATE_INTERVAL || dt < 0)
+        {
+            // There's no previous state, or the previous state is too old to be part of the same motion.
+            this.eyeVelocity = null;
+            this.centerVelocity = null;
+            this.setMoving(false);
+        }
+        else if (dt > 0)
+        {
+            Vec4 ev = eyePoint.subtract3(this.eyePoint).divide3(dt);
+            Vec4 cv = centerPoint.subtract3(this.centerPoint).divide3(dt);
+
+            this.eyeVelocity = this.eyeVelocity != null
+                ? ev.multiply3(SMOOTHING).add3(this.eyeVelocity.multiply3(1 - SMOOTHING)) : ev;
+            this.centerVelocity = this.centerVelocity != null
+                ? cv.multiply3(SMOOTHING).add3(this.centerVelocity.multiply3(1 - SMOOTHING)) : cv;
+
+            double travel = Math.max(this.eyeVelocity.getLength3(), this.centerVelocity.getLength3())
+                * this.lookAheadTime;
+            this.setMoving(travel > MIN_RELATIVE_TRAVEL * eyePoint.distanceTo3(centerPoint));
+        }
+        else
+        {
+            return; // Same time as the previous update.
+        }
+
+        this.eyePoint = eyePoint;
+        this.centerPoint = centerPoint;
+        this.time = time;
+    }
+
+    /** Discards the predictor's motion history. The next update starts a new motion. */
+    public void reset()
+    {
+        this.eyePoint = null;
+        this.centerPoint = null;
+        this.eyeVelocity = null;
+        this.centerVelocity = null;
+        this.setMoving(false);
+    }
+
+    protected void setMoving(boolean moving)
+    {
+        if (!moving)
+        {
+            if (this.moving)
+                this.motionId++;
+
+            this.moving = false;
+            this.motionEyeDirection = null;
+            this.motionCenterDirection = null;
+            return;
+        }
+
+        Vec4 eyeDirection = this.eyeVelocity.normalize3();
+        Vec4 centerDirection = this.centerVelocity.normalize3();
+
+        if (!this.moving || !this.isSameDirection(eyeDirection, centerDirection))
+        {
+            this.motionId++;
+            this.motionEyeDirection = eyeDirection;
+            this.motionCenterDirection = centerDirection;
+        }
+
+        this.moving = true;
+    }
+
+    protected boolean isSameDirection(Vec4 eyeDirection, Vec4 centerDirection)
+    {
+        // Compare the eye and center directions jointly, so that a pan (both move) and a zoom (only the eye moves) are
+        // distinguished, and a change in either one is detected.
+        double dot = eyeDirection.dot3(this.motionEyeDirection) + centerDirection.dot3(this.motionCenterDirection);
+        double norm = Math.sqrt((eyeDirection.getLengthSquared3() + centerDirection.getLengthSquared3())
+            * (this.motionEyeDirection.getLengthSquared3() + this.motionCenterDirection.getLengthSquared3()));
+
+        return norm == 0 || dot / norm >= MAX_DIRECTION_CHANGE_COSINE;
+    }
+
+    /**
+     * Indicates whether the view is moving fast enough for its position to be predicted.
+     *
+     * @return true if the view is moving, otherwise false.
+     */
+    public boolean isMoving()
+    {
+        return this.moving;
+    }
+
+    /**
+     * Identifies the view's current motion. The ID changes whenever the view starts moving, stops moving or changes
+     * direction. This method may be called from any thread.
+     *
+     * @return the current motion ID.
+     */
+    public long getMotionId()
+    {
+        return this.motionId;
+    }
+
+    /**
+     * Computes the eye point predicted for the look ahead time.
+     *
+     * @return the predicted eye point, or null if the view is not moving.
+     */
+    public Vec4 getPredictedEyePoint()
+    {
+        return this.moving ? this.eyePoint.add3(this.eyeVelocity.multiply3(this.lookAheadTime)) : null;
+    }
+
+    /**
+     * Computes the center point predicted for the look ahead time.
+     *
+     * @return the predicted center point, or null if the view is not moving.
+     */
+    public Vec4 getPredictedCenterPoint()
+    {
+        return this.moving ? this.centerPoint.add3(this.centerVelocity.multiply3(this.lookAheadTime)) : null;
+    }
+
+    /**
+     * Computes the region of a globe the view is predicted to show at the look ahead time. The region is centered on
+     * the predicted center point, and its radius is the predicted distance from the eye to the center point, which
+     * bounds the view's footprint for the usual fields of view.
+     *
+     * @param globe the globe the view is looking at.
+     *
+     * @return the predicted region, or null if the view is not moving.
+     *
+     * @throws IllegalArgumentException if the globe is null.
+     */
+    public Sector getPredictedSector(Globe globe)
+    {
+        if (globe == null)
+        {
+            String message = Logging.getMessage("nullValue.GlobeIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Vec4 eye = this.getPredictedEyePoint();
+        Vec4 center = this.getPredictedCenterPoint();
+        if (eye == null || center == null)
+            return null;
+
+        Position centerPosition = globe.computePositionFromPoint(center);
+
+        return Sector.boundingSector(globe, centerPosition, eye.distanceTo3(center));
+    }
+}
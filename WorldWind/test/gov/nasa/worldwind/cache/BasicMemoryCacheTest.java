@@ -0,0 +1,66 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.cache;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+/**
+ * Tests the eviction and usage statistics of BasicMemoryCache.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class BasicMemoryCacheTest
+{
+    public static class Tests extends TestCase
+    {
+        public void testHitRate()
+        {
+            BasicMemoryCache cache = new BasicMemoryCache(80, 100);
+            assertEquals("Initial hit rate", 0d, cache.getHitRate());
+
+            cache.add("a", "A", 10);
+            assertEquals("Hit", "A", cache.getObject("a"));
+            assertEquals("Hit", "A", cache.getObject("a"));
+            assertEquals("Hit", "A", cache.getObject("a"));
+            assertNull("Miss", cache.getObject("b"));
+
+            assertEquals("Hit count", 3, cache.getHitCount());
+            assertEquals("Miss count", 1, cache.getMissCount());
+            assertEquals("Hit rate", 0.75, cache.getHitRate());
+        }
+
+        public void testLeastRecentlyUsedEvicted() throws Exception
+        {
+            BasicMemoryCache cache = new BasicMemoryCache(60, 100);
+            for (String key : new String[] {"a", "b", "c", "d", "e"})
+            {
+                cache.add(key, key.toUpperCase(), 20);
+                Thread.sleep(1); // distinguishes the entries' last used times
+            }
+
+            assertEquals("Cache not full", 100, cache.getUsedCapacity());
+            assertEquals("Evictions before full", 0, cache.getEvictionCount());
+
+            cache.getObject("a");
+            cache.add("f", "F", 20);
+
+            assertTrue("Capacity exceeded", cache.getUsedCapacity() <= 100);
+            assertTrue("No evictions", cache.getEvictionCount() > 0);
+            assertTrue("Recently used entry evicted", cache.contains("a"));
+            assertTrue("New entry evicted", cache.contains("f"));
+            assertFalse("Least recently used entry retained", cache.contains("b"));
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,298 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.formats.geojson;
+
+import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests feature-at-a-time reading of GeoJSON documents into a shared coordinate sequence.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class GeoJSONStreamReaderTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static class RecordingListener implements GeoJSONFeatureListener
+        {
+            protected List<GeoJSONStreamFeature> features = new ArrayList<GeoJSONStreamFeature>();
+
+            public void featureRead(GeoJSONStreamFeature feature)
+            {
+                this.features.add(feature);
+            }
+        }
+
+        protected static InputStream stream(String text)
+        {
+            try
+            {
+                return new ByteArrayInputStream(text.getBytes("UTF-8"));
+            }
+            catch (UnsupportedEncodingException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        protected static List<GeoJSONStreamFeature> read(GeoJSONStreamReader reader) throws IOException
+        {
+            RecordingListener listener = new RecordingListener();
+            try
+            {
+                reader.read(listener);
+            }
+            finally
+            {
+                reader.close();
+            }
+
+            return listener.features;
+        }
+
+        protected static void assertCoordinates(String message, double[] expected, VecBuffer buffer)
+        {
+            int coordsPerVec = buffer.getCoordsPerVec();
+            assertEquals(message + " size", expected.length / coordsPerVec, buffer.getSize());
+
+            double[] actual = new double[coordsPerVec];
+            for (int i = 0; i < buffer.getSize(); i++)
+            {
+                buffer.get(i, actual);
+                for (int j = 0; j < coordsPerVec; j++)
+                {
+                    assertEquals(message, expected[i * coordsPerVec + j], actual[j], 0);
+                }
+            }
+        }
+
+        protected static String feature(String geometry, String properties)
+        {
+            return "{\"type\":\"Feature\",\"properties\":" + properties + ",\"geometry\":" + geometry + "}";
+        }
+
+        public void testFeatureCollection() throws Exception
+        {
+            String doc = "{\"type\":\"FeatureCollection\",\"features\":["
+                + "{\"type\":\"Feature\",\"id\":\"a\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,2]},"
+                + "\"properties\":{\"name\":\"point\",\"rank\":3,\"open\":true,\"tags\":[\"x\",1],"
+                + "\"nested\":{\"k\":\"v\"},\"none\":null}},"
+                + feature("{\"coordinates\":[[10,20],[11,21],[12,22,500]],\"type\":\"LineString\"}", "{}") + ","
+                + feature("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[4,0],[4,4],[0,0]],[[1,1],[2,1],[1,1]]]}",
+                "null") + ","
+                + feature("{\"type\":\"MultiPolygon\",\"coordinates\":[[[[0,0],[1,0],[0,0]]],"
+                + "[[[5,5],[6,5],[5,5]],[[5.1,5.1],[5.2,5.1],[5.1,5.1]]]]}", "{}") + ","
+                + feature("{\"type\":\"GeometryCollection\",\"geometries\":["
+                + "{\"type\":\"MultiPoint\",\"coordinates\":[[7,8],[9,10]]},"
+                + "{\"type\":\"MultiLineString\",\"coordinates\":[[[1,1],[2,2]],[[3,3],[4,4]]]}]}", "{}") + ","
+                + feature("null", "{\"name\":\"no geometry\"}")
+                + "]}";
+
+            GeoJSONStreamReader reader = new GeoJSONStreamReader(stream(doc));
+            List<GeoJSONStreamFeature> features = read(reader);
+
+            assertEquals("Number of features", 6, features.size());
+            assertEquals("Number of features", 6, reader.getNumFeatures());
+            assertEquals("Number of skipped features", 0, reader.getNumSkippedFeatures());
+
+            GeoJSONStreamFeature point = features.get(0);
+            assertEquals("Id", "a", point.getId());
+            assertEquals("Geometry type", GeoJSONConstants.TYPE_POINT, point.getGeometryType());
+            assertEquals("Sector", Sector.fromDegrees(2, 2, 1, 1), point.getSector());
+            assertCoordinates("Point", new double[] {1, 2}, point.getPartCoordinates(0).subBuffer(0));
+            AVList properties = point.getProperties();
+            assertEquals("String property", "point", properties.getValue("name"));
+            assertEquals("Numeric property", 3d, properties.getValue("rank"));
+            assertEquals("Boolean property", Boolean.TRUE, properties.getValue("open"));
+            assertTrue("Array property", Arrays.equals(new Object[] {"x", 1d}, (Object[]) properties.getValue("tags")));
+            assertEquals("Object property", "v", ((AVList) properties.getValue("nested")).getValue("k"));
+            assertTrue("Null property", properties.hasKey("none"));
+
+            // Positions hold longitude and latitude only.
+            GeoJSONStreamFeature line = features.get(1);
+            assertEquals("Number of parts", 1, line.getNumParts());
+            assertEquals("Part type", GeoJSONConstants.TYPE_LINE_STRING, line.getPartType(0));
+            assertCoordinates("Line", new double[] {10, 20, 11, 21, 12, 22}, line.getCoordinates().subBuffer(0));
+
+            GeoJSONStreamFeature polygon = features.get(2);
+            assertNull("Null properties", polygon.getProperties());
+            assertEquals("Number of parts", 1, polygon.getNumParts());
+            assertEquals("Number of rings", 2, polygon.getPartCoordinates(0).size());
+            assertCoordinates("Inner ring", new double[] {1, 1, 2, 1, 1, 1},
+                polygon.getPartCoordinates(0).subBuffer(1));
+
+            GeoJSONStreamFeature multiPolygon = features.get(3);
+            assertEquals("Geometry type", GeoJSONConstants.TYPE_MULTI_POLYGON, multiPolygon.getGeometryType());
+            assertEquals("Number of parts", 2, multiPolygon.getNumParts());
+            assertEquals("Part type", GeoJSONConstants.TYPE_POLYGON, multiPolygon.getPartType(1));
+            assertEquals("Number of rings", 1, multiPolygon.getPartCoordinates(0).size());
+            assertEquals("Number of rings", 2, multiPolygon.getPartCoordinates(1).size());
+            assertCoordinates("Hole", new double[] {5.1, 5.1, 5.2, 5.1, 5.1, 5.1},
+                multiPolygon.getPartCoordinates(1).subBuffer(1));
+
+            GeoJSONStreamFeature collection = features.get(4);
+            assertEquals("Number of parts", 2, collection.getNumParts());
+            assertEquals("Part type", GeoJSONConstants.TYPE_MULTI_POINT, collection.getPartType(0));
+            assertEquals("Part type", GeoJSONConstants.TYPE_MULTI_LINE_STRING, collection.getPartType(1));
+            assertCoordinates("Points", new double[] {7, 8, 9, 10}, collection.getPartCoordinates(0).subBuffer(0));
+            assertEquals("Number of lines", 2, collection.getPartCoordinates(1).size());
+            assertEquals("Sector", Sector.fromDegrees(1, 10, 1, 9), collection.getSector());
+
+            GeoJSONStreamFeature empty = features.get(5);
+            assertNull("Geometry type", empty.getGeometryType());
+            assertNull("Sector", empty.getSector());
+            assertEquals("Number of parts", 0, empty.getNumParts());
+            assertEquals("Number of sub-buffers", 0, empty.getCoordinates().size());
+            assertEquals("Properties", "no geometry", empty.getProperties().getValue("name"));
+
+            // Every feature's coordinates are consecutive sub-buffers of the one shared sequence.
+            VecBufferSequence coordinates = reader.getCoordinates();
+            assertEquals("Number of sub-buffers", 1 + 1 + 2 + 3 + 3, coordinates.size());
+            int next = 0;
+            for (GeoJSONStreamFeature feature : features)
+            {
+                assertSame("Shared buffer", coordinates, feature.getBuffer());
+                assertEquals("First sub-buffer", next, feature.getFirstSubBuffer());
+                next += feature.getNumSubBuffers();
+            }
+        }
+
+        public void testSectorFilter() throws Exception
+        {
+            String doc = "{\"type\":\"FeatureCollection\",\"features\":["
+                + feature("{\"type\":\"Point\",\"coordinates\":[1,1]}", "{\"name\":\"inside\"}") + ","
+                + feature("{\"type\":\"Point\",\"coordinates\":[50,50]}", "{\"name\":\"outside\"}") + ","
+                + feature("{\"type\":\"LineString\",\"coordinates\":[[-20,1],[20,1]]}", "{\"name\":\"crossing\"}")
+                + ","
+                + "{\"type\":\"Feature\",\"bbox\":[40,40,60,60],"
+                + "\"geometry\":{\"type\":\"Point\",\"coordinates\":[1,1]},\"properties\":{}},"
+                + feature("null", "{\"name\":\"no geometry\"}")
+                + "]}";
+
+            GeoJSONStreamReader reader = new GeoJSONStreamReader(stream(doc));
+            reader.setSector(Sector.fromDegrees(-10, 10, -10, 10));
+            List<GeoJSONStreamFeature> features = read(reader);
+
+            assertEquals("Number of features", 2, features.size());
+            assertEquals("Number of skipped features", 3, reader.getNumSkippedFeatures());
+            assertEquals("Properties", "inside", features.get(0).getProperties().getValue("name"));
+            assertEquals("Properties", "crossing", features.get(1).getProperties().getValue("name"));
+
+            // Skipped features add nothing to the shared sequence.
+            assertEquals("Number of sub-buffers", 2, reader.getCoordinates().size());
+            assertCoordinates("Crossing line", new double[] {-20, 1, 20, 1}, features.get(1).getCoordinates()
+                .subBuffer(0));
+        }
+
+        public void testSingleGeometryWithAltitude() throws Exception
+        {
+            String doc = "{\"coordinates\":[[1,2,3],[4,5]],\"bbox\":[1,2,4,5],\"type\":\"LineString\"}";
+
+            GeoJSONStreamReader reader = new GeoJSONStreamReader(stream(doc), 3);
+            List<GeoJSONStreamFeature> features = read(reader);
+
+            assertEquals("Number of features", 1, features.size());
+            assertEquals("Geometry type", GeoJSONConstants.TYPE_LINE_STRING, features.get(0).getGeometryType());
+            assertNull("Properties", features.get(0).getProperties());
+            assertCoordinates("Line", new double[] {1, 2, 3, 4, 5, 0},
+                features.get(0).getPartCoordinates(0).subBuffer(0));
+        }
+
+        public void testLargeDocument() throws Exception
+        {
+            int numFeatures = 2000;
+            int numPositions = 3000;
+
+            StringBuilder sb = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+            for (int i = 0; i < numFeatures; i++)
+            {
+                sb.append(i > 0 ? "," : "").append(feature(
+                    "{\"type\":\"Point\",\"coordinates\":[" + (i % 180) + "," + (i % 90) + "]}", "{\"i\":" + i + "}"));
+            }
+            sb.append(",{\"type\":\"Feature\",\"properties\":{},");
+            sb.append("\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+            for (int i = 0; i < numPositions; i++)
+            {
+                sb.append(i > 0 ? "," : "").append('[').append(i * 0.01).append(",0]");
+            }
+            sb.append("]}}]}");
+
+            // The listener consumes each feature and clears the shared sequence, so its size stays bounded.
+            final GeoJSONStreamReader reader = new GeoJSONStreamReader(stream(sb.toString()));
+            final int[] count = new int[1];
+            final int[] maxSize = new int[1];
+            final VecBuffer[] last = new VecBuffer[1];
+            reader.read(new GeoJSONFeatureListener()
+            {
+                public void featureRead(GeoJSONStreamFeature feature)
+                {
+                    if (count[0] < 2000)
+                        assertEquals("Properties", (double) count[0], feature.getProperties().getValue("i"));
+
+                    count[0]++;
+                    maxSize[0] = Math.max(maxSize[0], reader.getCoordinates().size());
+                    last[0] = feature.getCoordinates().subBuffer(0);
+                    reader.getCoordinates().clear();
+                }
+            });
+            reader.close();
+
+            assertEquals("Number of features", numFeatures + 1, count[0]);
+            assertEquals("Maximum number of sub-buffers", 1, maxSize[0]);
+            assertEquals("Number of positions", numPositions, last[0].getSize());
+            assertEquals("Last longitude", (numPositions - 1) * 0.01, last[0].getLocation(numPositions - 1)
+                .getLongitude().degrees, 1e-9);
+        }
+
+        public void testInvalidArguments() throws Exception
+        {
+            try
+            {
+                new GeoJSONStreamReader(null);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new GeoJSONStreamReader(stream("{}"), 4);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new GeoJSONStreamReader(stream("{}")).read(null);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
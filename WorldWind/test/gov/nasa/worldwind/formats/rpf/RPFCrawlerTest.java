@@ -0,0 +1,145 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.formats.rpf;
+
+import gov.nasa.worldwind.util.WWIO;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests operation of RPFCrawler.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class RPFCrawlerTest
+{
+    public static class Tests extends TestCase
+    {
+        protected File root;
+        protected Set<String> expected = new HashSet<String>();
+
+        @Override
+        public void setUp() throws IOException
+        {
+            this.root = WWIO.makeTempDir();
+
+            // Three levels of directories, with frame files and other files in each.
+            int n = 0;
+            for (int i = 0; i < 4; i++)
+            {
+                File dir = new File(this.root, "dir" + i);
+                for (int j = 0; j < 3; j++)
+                {
+                    File subdir = new File(dir, "sub" + j);
+                    assertTrue(subdir.mkdirs());
+                    this.createFile(new File(subdir, "readme.txt"));
+                    for (int k = 0; k < 3; k++)
+                    {
+                        this.expected.add(this.createFile(new File(subdir, String.format("%07d1.ON1", n++))));
+                    }
+                }
+                this.expected.add(this.createFile(new File(dir, String.format("%07d1.ON1", n++))));
+            }
+        }
+
+        @Override
+        public void tearDown() throws IOException
+        {
+            WWIO.deleteDirectory(this.root);
+            this.root.delete();
+        }
+
+        protected String createFile(File file) throws IOException
+        {
+            new FileOutputStream(file).close();
+            return file.getPath();
+        }
+
+        protected List<String> crawl(RPFCrawler crawler)
+        {
+            final List<String> found = new ArrayList<String>();
+            crawler.invoke(this.root, new RPFCrawler.RPFCrawlerListener()
+            {
+                public void fileFound(File file, boolean isTOCFile)
+                {
+                    found.add(file.getPath());
+                }
+
+                public void finished()
+                {
+                }
+            }, false);
+
+            return found;
+        }
+
+        /** Tests that single and multiple threads find each frame file once. */
+        public void testFindsAllFiles()
+        {
+            RPFCrawler crawler = new RPFCrawler();
+            List<String> found = this.crawl(crawler);
+            assertEquals(this.expected.size(), found.size());
+            assertEquals(this.expected, new HashSet<String>(found));
+
+            crawler = new RPFCrawler();
+            crawler.setThreadPoolSize(4);
+            found = this.crawl(crawler);
+            assertEquals(this.expected.size(), found.size());
+            assertEquals(this.expected, new HashSet<String>(found));
+        }
+
+        /** Tests that a crawl resumes from its progress file, and that the file is deleted on completion. */
+        public void testResume() throws IOException
+        {
+            File progressFile = new File(this.root.getParentFile(), this.root.getName() + ".progress");
+            progressFile.deleteOnExit();
+
+            // Record a partial crawl of the root directory and one of its subdirectories. The subdirectory's frame file
+            // is then deleted, so that finding it can only come from the progress file.
+            File dir0 = new File(this.root, "dir0");
+            File[] frames = dir0.listFiles(new FileFilter()
+            {
+                public boolean accept(File file)
+                {
+                    return file.isFile();
+                }
+            });
+            assertEquals(1, frames.length);
+
+            RPFCrawlJournal journal = new RPFCrawlJournal(progressFile, this.root, false);
+            journal.open(null);
+            journal.directoryDone(this.root, Collections.<File>emptyList(), Arrays.asList(this.root.listFiles()));
+            journal.directoryDone(dir0, Arrays.asList(frames), Arrays.asList(new File(dir0, "sub0"),
+                new File(dir0, "sub1"), new File(dir0, "sub2")));
+            journal.close(false);
+            assertTrue(frames[0].delete());
+
+            // Append a block cut short by a crash; it must be ignored.
+            Writer writer = new FileWriter(progressFile, true);
+            writer.write("F\t" + new File(dir0, "bogus").getPath() + "\n");
+            writer.close();
+
+            RPFCrawler crawler = new RPFCrawler();
+            crawler.setThreadPoolSize(3);
+            crawler.setProgressFile(progressFile);
+            List<String> found = this.crawl(crawler);
+            assertEquals(this.expected.size(), found.size());
+            assertEquals(this.expected, new HashSet<String>(found));
+            assertFalse("Progress file is deleted", progressFile.exists());
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,259 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.formats.vpf;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Tests the background symbol loading of VPFLayer, using a layer whose primitive data and symbols are generated rather
+ * than read from a VPF database.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class VPFLayerTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final int NUM_FEATURE_CLASSES = 5;
+        protected static final int SYMBOLS_PER_CLASS = 3;
+        protected static final long TIMEOUT = 10000;
+
+        public void testLoadsSymbolsOfEveryFeatureClass() throws Exception
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "tile");
+            VPFLayer.VPFSymbolCollection symbols = waitForSymbols(layer, "tile");
+
+            assertEquals("Symbol count", NUM_FEATURE_CLASSES * SYMBOLS_PER_CLASS, symbols.getSymbols().size());
+            assertTrue("Load still pending", layer.pendingLoads.isEmpty());
+
+            layer.dispose();
+        }
+
+        public void testFailedLoadIsNotCached() throws Exception
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+            layer.failingClass = 2;
+
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "tile");
+            waitForPendingLoads(layer);
+
+            assertNull("Failed load cached", layer.symbolCache.getObject("tile"));
+
+            // A failed tile isn't requested again until the list of failed loads allows another attempt.
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "tile");
+            assertTrue("Failed load retried early", layer.pendingLoads.isEmpty());
+
+            layer.failingClass = -1;
+            layer.failedLoads.setMinCheckInterval(0);
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "tile");
+            VPFLayer.VPFSymbolCollection symbols = waitForSymbols(layer, "tile");
+
+            assertEquals("Symbol count", NUM_FEATURE_CLASSES * SYMBOLS_PER_CLASS, symbols.getSymbols().size());
+            assertFalse("Loaded tile still failed", layer.failedLoads.isResourceAbsent("tile"));
+
+            layer.dispose();
+        }
+
+        public void testRequestAgainReprioritizesWaitingLoad() throws Exception
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+
+            // Occupy the loader's only thread so that the requested loads wait in its queue.
+            final CountDownLatch latch = new CountDownLatch(1);
+            layer.loader = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>());
+            layer.loader.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        latch.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            layer.frameNumber = 1;
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "first");
+            layer.frameNumber = 2;
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "second");
+
+            BlockingQueue<Runnable> queue = layer.loader.getQueue();
+            assertEquals("Most recent load", "second", ((VPFLayer.LoadTask) queue.peek()).load.key);
+
+            layer.frameNumber = 3;
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "first");
+
+            assertEquals("Queued task count", 2, queue.size());
+            VPFLayer.LoadTask head = (VPFLayer.LoadTask) queue.peek();
+            assertEquals("Most recent load", "first", head.load.key);
+            assertEquals("Priority frame", 3, head.priorityFrame);
+
+            latch.countDown();
+            waitForSymbols(layer, "first");
+            waitForSymbols(layer, "second");
+
+            layer.dispose();
+        }
+
+        public void testTaskPriorityDoesNotChangeWhileQueued()
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+
+            VPFLayer.TileLoad first = new VPFLayer.TileLoad(coverage, VPFLayer.NULL_TILE, "first", 1);
+            VPFLayer.TileLoad second = new VPFLayer.TileLoad(coverage, VPFLayer.NULL_TILE, "second", 2);
+            VPFLayer.LoadTask firstTask = new VPFLayer.PrimitiveTask(first);
+            VPFLayer.LoadTask secondTask = new VPFLayer.PrimitiveTask(second);
+
+            assertTrue("Recent task first", secondTask.compareTo(firstTask) < 0);
+
+            first.requestFrame = 3;
+            assertTrue("Recent task first", secondTask.compareTo(firstTask) < 0);
+            assertTrue("Recent task first", firstTask.compareTo(secondTask) > 0);
+        }
+
+        public void testDisposedLayerDoesNotLoad()
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+
+            layer.getLoader();
+            layer.dispose();
+
+            assertNull("Loader after dispose", layer.getLoader());
+
+            layer.requestTileSymbols(coverage, VPFLayer.NULL_TILE, "tile");
+            assertTrue("Load pending after dispose", layer.pendingLoads.isEmpty());
+
+            VPFLayer.TileLoad load = new VPFLayer.TileLoad(coverage, VPFLayer.NULL_TILE, "tile", 0);
+            layer.completeLoad(load, VPFLayer.VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION);
+            assertNull("Symbols cached after dispose", layer.symbolCache.getObject("tile"));
+        }
+
+        public void testCancelledLoadIsNotCached()
+        {
+            TestLayer layer = new TestLayer();
+            VPFLayer.VPFCoverageRenderable coverage = new TestCoverageRenderable(layer);
+
+            VPFLayer.TileLoad cancelled = new VPFLayer.TileLoad(coverage, VPFLayer.NULL_TILE, "cancelled", 0);
+            assertTrue("Load not cancelled", layer.cancelLoad(cancelled));
+            layer.completeLoad(cancelled, VPFLayer.VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION);
+            assertNull("Cancelled load cached", layer.symbolCache.getObject("cancelled"));
+
+            // Cancelling a completed load leaves its symbols in the cache.
+            VPFLayer.TileLoad completed = new VPFLayer.TileLoad(coverage, VPFLayer.NULL_TILE, "completed", 0);
+            layer.completeLoad(completed, VPFLayer.VPFSymbolCollection.EMPTY_SYMBOL_COLLECTION);
+            assertFalse("Completed load cancelled", layer.cancelLoad(completed));
+            assertFalse("Completed load reports cancelled", completed.isCancelled());
+            assertNotNull("Completed load not cached", layer.symbolCache.getObject("completed"));
+
+            layer.dispose();
+        }
+
+        protected static VPFLayer.VPFSymbolCollection waitForSymbols(VPFLayer layer, String key)
+            throws InterruptedException
+        {
+            long start = System.currentTimeMillis();
+            while (System.currentTimeMillis() - start < TIMEOUT)
+            {
+                Object symbols = layer.symbolCache.getObject(key);
+                if (symbols != null)
+                    return (VPFLayer.VPFSymbolCollection) symbols;
+
+                Thread.sleep(10);
+            }
+
+            fail("Symbols of " + key + " not loaded");
+            return null;
+        }
+
+        protected static void waitForPendingLoads(VPFLayer layer) throws InterruptedException
+        {
+            long start = System.currentTimeMillis();
+            while (!layer.pendingLoads.isEmpty())
+            {
+                if (System.currentTimeMillis() - start > TIMEOUT)
+                    fail("Loads still pending");
+
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    protected static class TestLayer extends VPFLayer
+    {
+        protected volatile int failingClass = -1;
+
+        @Override
+        protected VPFPrimitiveData loadPrimitiveData(VPFCoverage coverage, VPFTile tile)
+        {
+            return new VPFPrimitiveData();
+        }
+
+        @Override
+        protected Collection<? extends VPFSymbol> loadFeatureClassSymbols(VPFFeatureClass featureClass, VPFTile tile,
+            VPFPrimitiveData primitiveData)
+        {
+            int index = Integer.parseInt(featureClass.getClassName());
+            if (index == this.failingClass)
+                throw new IllegalStateException("Feature class " + index);
+
+            ArrayList<VPFSymbol> symbols = new ArrayList<VPFSymbol>();
+            for (int i = 0; i < Tests.SYMBOLS_PER_CLASS; i++)
+            {
+                symbols.add(new VPFSymbol(null, null, null));
+            }
+
+            return symbols;
+        }
+    }
+
+    protected static class TestCoverageRenderable extends VPFLayer.VPFCoverageRenderable
+    {
+        public TestCoverageRenderable(VPFLayer layer)
+        {
+            super(layer, null);
+        }
+
+        @Override
+        protected synchronized VPFFeatureClass[] getFeatureClasses()
+        {
+            if (this.featureClasses == null)
+            {
+                this.featureClasses = new VPFFeatureClass[Tests.NUM_FEATURE_CLASSES];
+                for (int i = 0; i < this.featureClasses.length; i++)
+                {
+                    VPFFeatureClassSchema schema = new VPFFeatureClassSchema(Integer.toString(i),
+                        VPFFeatureType.POINT, "table");
+                    this.featureClasses[i] = new VPFFeatureClass(null, schema, null, null);
+                }
+            }
+
+            return this.featureClasses;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.util.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.nio.*;
+import java.util.Iterator;
+
+/**
+ * Tests operation of VPFTableReader.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class VPFTableReaderTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final String HEADER = "L;Test edges;-;"
+            + "id=I,1,P,Row Identifier,-,-,-,:"
+            + "tile_id=S,1,N,Tile Reference ID,-,-,-,:"
+            + "name=T,*,N,Name,-,-,-,:"
+            + "coordinates=C,*,N,Coordinates,-,-,-,:"
+            + "left_face=K,1,N,Left Face,-,-,-,:"
+            + "length=F,1,N,Length,-,-,-,:;";
+        protected static final String[] COLUMNS = {"id", "tile_id", "name", "coordinates", "left_face", "length"};
+        protected static final int NUM_ROWS = 200;
+
+        protected File dir;
+        protected File tableFile;
+
+        @Override
+        public void setUp() throws IOException
+        {
+            this.dir = WWIO.makeTempDir();
+            this.tableFile = new File(this.dir, "edg");
+            this.writeTable(this.tableFile, new File(this.dir, "edx"));
+        }
+
+        @Override
+        public void tearDown() throws IOException
+        {
+            WWIO.deleteDirectory(this.dir);
+            this.dir.delete();
+        }
+
+        protected void writeTable(File tableFile, File indexFile) throws IOException
+        {
+            ByteBuffer table = ByteBuffer.allocate(65536).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer index = ByteBuffer.allocate(8 + 8 * NUM_ROWS).order(ByteOrder.LITTLE_ENDIAN);
+
+            table.putInt(HEADER.length());
+            table.put(HEADER.getBytes("US-ASCII"));
+            index.putInt(NUM_ROWS);
+            index.putInt(HEADER.length());
+
+            for (int i = 1; i <= NUM_ROWS; i++)
+            {
+                int offset = table.position();
+
+                table.putInt(i);
+                table.putShort((short) (1 + i % 5));
+
+                // Variable length text, empty in some rows.
+                byte[] name = (i % 7 == 0) ? new byte[0] : ("Edge " + i).getBytes("US-ASCII");
+                table.putInt(name.length);
+                table.put(name);
+
+                // Variable length coordinates, with a partially null coordinate in some rows.
+                int numCoords = 1 + i % 3;
+                table.putInt(numCoords);
+                for (int j = 0; j < numCoords; j++)
+                {
+                    table.putFloat((i % 11 == 0) ? Float.NaN : i + j);
+                    table.putFloat(-i - j);
+                }
+
+                // Triplet id with a one byte id, a two byte tile id, and no external id. Null in some rows.
+                if (i % 3 == 0)
+                {
+                    table.put((byte) 0);
+                }
+                else
+                {
+                    table.put((byte) ((1 << 6) | (2 << 4)));
+                    table.put((byte) (i % 100));
+                    table.putShort((short) (1 + i % 5));
+                }
+
+                table.putFloat((i % 9 == 0) ? Float.NaN : i * 0.5f);
+
+                index.putInt(offset);
+                index.putInt(table.position() - offset);
+            }
+
+            table.flip();
+            index.flip();
+            WWIO.saveBuffer(table, tableFile);
+            WWIO.saveBuffer(index, indexFile);
+        }
+
+        protected VPFBufferedRecordData read(boolean memoryMapped)
+        {
+            VPFTableReader reader = new VPFTableReader();
+            reader.setMemoryMapped(memoryMapped);
+            return reader.read(this.tableFile);
+        }
+
+        protected static void assertValuesEqual(String message, Object expected, Object actual)
+        {
+            if (expected instanceof VecBuffer)
+            {
+                VecBuffer e = (VecBuffer) expected;
+                VecBuffer a = (VecBuffer) actual;
+                assertEquals(message, e.getSize(), a.getSize());
+                for (int i = 0; i < e.getSize(); i++)
+                {
+                    assertEquals(message, e.getLocation(i), a.getLocation(i));
+                }
+            }
+            else if (expected instanceof VPFTripletId)
+            {
+                VPFTripletId e = (VPFTripletId) expected;
+                VPFTripletId a = (VPFTripletId) actual;
+                assertEquals(message, e.getId(), a.getId());
+                assertEquals(message, e.getTileId(), a.getTileId());
+                assertEquals(message, e.getExtId(), a.getExtId());
+            }
+            else
+            {
+                assertEquals(message, expected, actual);
+            }
+        }
+
+        /** Tests that a memory-mapped table has the same records as a table read in full. */
+        public void testMappedMatchesBuffered()
+        {
+            VPFBufferedRecordData buffered = this.read(false);
+            VPFBufferedRecordData mapped = this.read(true);
+            assertEquals(NUM_ROWS, buffered.getNumRecords());
+            assertEquals(NUM_ROWS, mapped.getNumRecords());
+
+            // Visit the rows out of order, so that blocks are decoded in the middle of the table first.
+            for (int n = 0; n < NUM_ROWS; n++)
+            {
+                int id = 1 + (n * 37) % NUM_ROWS;
+                VPFRecord expected = buffered.getRecord(id);
+                VPFRecord actual = mapped.getRecord(id);
+
+                for (String column : COLUMNS)
+                {
+                    String message = "Row " + id + ", column " + column;
+                    assertEquals(message, expected.hasValue(column), actual.hasValue(column));
+                    assertValuesEqual(message, expected.getValue(column), actual.getValue(column));
+                }
+            }
+
+            // Requesting the backing data decodes the complete column.
+            VecBufferSequence expectedCoords = (VecBufferSequence) buffered.getRecordData(
+                "coordinates").getBackingData();
+            VecBufferSequence actualCoords = (VecBufferSequence) mapped.getRecordData("coordinates").getBackingData();
+            assertEquals(expectedCoords.size(), actualCoords.size());
+
+            Iterator<VPFRecord> expectedIter = buffered.iterator();
+            for (VPFRecord actual : mapped)
+            {
+                VPFRecord expected = expectedIter.next();
+                assertValuesEqual("Row " + actual.getId(), expected.getValue("coordinates"),
+                    actual.getValue("coordinates"));
+            }
+        }
+
+        /** Tests that numeric columns are decoded to primitives, and that other columns are only decoded on access. */
+        public void testLazyDecoding()
+        {
+            VPFBufferedRecordData mapped = this.read(true);
+            VPFMappedDataBuffer tileIds = (VPFMappedDataBuffer) mapped.getRecordData("tile_id");
+            VPFMappedDataBuffer names = (VPFMappedDataBuffer) mapped.getRecordData("name");
+
+            for (int id = 1; id <= NUM_ROWS; id++)
+            {
+                assertEquals(1 + id % 5, tileIds.getInt(id));
+            }
+            assertNull(names.blocks);
+
+            assertEquals("Edge 130", mapped.getRecord(130).getValue("name"));
+            assertEquals(1, countDecodedBlocks(names));
+
+            try
+            {
+                names.getInt(1);
+                fail("Expected an IllegalStateException");
+            }
+            catch (IllegalStateException e)
+            {
+                // Expected.
+            }
+        }
+
+        /** Tests that rows read into a memory-mapped column follow the rows of the table. */
+        public void testReadAppendsRows()
+        {
+            VPFBufferedRecordData mapped = this.read(true);
+            VPFMappedDataBuffer tileIds = (VPFMappedDataBuffer) mapped.getRecordData("tile_id");
+            VPFMappedDataBuffer names = (VPFMappedDataBuffer) mapped.getRecordData("name");
+            VPFMappedDataBuffer coords = (VPFMappedDataBuffer) mapped.getRecordData("coordinates");
+
+            // Decode the existing rows first, so that appending must replace the decoded values.
+            assertEquals(1 + NUM_ROWS % 5, tileIds.getInt(NUM_ROWS));
+            assertEquals("Edge 1", names.get(1));
+            assertEquals(NUM_ROWS + 1, ((VecBufferSequence) coords.getBackingData()).size());
+
+            ByteBuffer fields = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+            fields.putShort((short) 42);
+            fields.putInt(3).put((byte) 'N').put((byte) 'e').put((byte) 'w');
+            fields.putInt(2).putFloat(1).putFloat(2).putFloat(3).putFloat(4);
+            fields.flip();
+
+            tileIds.read(fields, 1);
+            names.read(fields);
+            coords.read(fields);
+            assertEquals("Fields consumed", 0, fields.remaining());
+
+            assertEquals(NUM_ROWS + 1, tileIds.getNumRecords());
+            assertEquals(42, tileIds.getInt(NUM_ROWS + 1));
+            assertEquals(1 + NUM_ROWS % 5, tileIds.getInt(NUM_ROWS));
+            assertEquals("New", names.get(NUM_ROWS + 1));
+            assertEquals("Edge 1", names.get(1));
+
+            VecBuffer vecBuffer = (VecBuffer) coords.get(NUM_ROWS + 1);
+            assertEquals(2, vecBuffer.getSize());
+            assertEquals(3.0, vecBuffer.getLocation(1).getLongitude().degrees, 0);
+            assertEquals(NUM_ROWS + 2, ((VecBufferSequence) coords.getBackingData()).size());
+        }
+
+        protected static int countDecodedBlocks(VPFMappedDataBuffer buffer)
+        {
+            int count = 0;
+            for (VPFDataBuffer block : buffer.blocks)
+            {
+                if (block != null)
+                    count++;
+            }
+
+            return count;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
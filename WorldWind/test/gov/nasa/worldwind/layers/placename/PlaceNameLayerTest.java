@@ -0,0 +1,88 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.layers.placename;
+
+import gov.nasa.worldwind.geom.Position;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests the place name chunk pipeline of PlaceNameLayer.
+ *
+ * @author Paul Collins
+ * @version $Id$
+ */
+public class PlaceNameLayerTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final String GML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<wfs:FeatureCollection xmlns:wfs=\"http://www.opengis.net/wfs\" xmlns:gml=\"http://www.opengis.net/gml\""
+            + " xmlns:topp=\"http://www.openplans.org/topp\">"
+            + "<gml:featureMember><topp:places><topp:full_name_nd>Pasadena</topp:full_name_nd>"
+            + "<topp:latitude>34.1477849</topp:latitude><topp:longitude>-118.1445155</topp:longitude>"
+            + "</topp:places></gml:featureMember>"
+            + "<gml:featureMember><topp:places><topp:full_name_nd>Ouagadougou</topp:full_name_nd>"
+            + "<topp:latitude>12.3714277</topp:latitude><topp:longitude>-1.5196603</topp:longitude>"
+            + "</topp:places></gml:featureMember>"
+            + "<gml:featureMember><topp:places><topp:full_name_nd>Hobart</topp:full_name_nd>"
+            + "<topp:latitude>-42.8821377</topp:latitude><topp:longitude>147.3271949</topp:longitude>"
+            + "</topp:places></gml:featureMember>"
+            + "</wfs:FeatureCollection>";
+
+        protected static PlaceNameLayer.PlaceNameChunk parse(String gml) throws Exception
+        {
+            PlaceNameLayer.GMLPlaceNameSAXHandler handler = PlaceNameLayer.saxHandlers.get();
+            handler.reset();
+            PlaceNameLayer.saxParsers.get().parse(new ByteArrayInputStream(gml.getBytes("UTF-8")), handler);
+            PlaceNameLayer.saxParsers.get().reset();
+            return handler.createPlaceNameChunk(null);
+        }
+
+        protected static void assertChunk(PlaceNameLayer.PlaceNameChunk chunk)
+        {
+            assertEquals(3, chunk.numEntries);
+            assertEquals("Pasadena", chunk.getText(0).toString());
+            assertEquals("Ouagadougou", chunk.getText(1).toString());
+            assertEquals("Hobart", chunk.getText(2).toString());
+            assertEquals(Position.fromDegrees(34.1477849, -118.1445155, 0), chunk.getPosition(0));
+            assertEquals(Position.fromDegrees(-42.8821377, 147.3271949, 0), chunk.getPosition(2));
+        }
+
+        /** Tests parsing GML with a reused parser and handler. */
+        public void testParseReused() throws Exception
+        {
+            assertChunk(parse(GML));
+            assertChunk(parse(GML));
+        }
+
+        /** Tests that a chunk survives a round trip through its compact form, and that damaged forms are rejected. */
+        public void testCompactRoundTrip() throws Exception
+        {
+            PlaceNameLayer.PlaceNameChunk chunk = parse(GML);
+            ByteBuffer buffer = chunk.toCompactBuffer();
+            assertChunk(PlaceNameLayer.PlaceNameChunk.fromCompactBuffer(null, buffer));
+
+            buffer.rewind();
+            buffer.limit(buffer.limit() - 1);
+            assertNull(PlaceNameLayer.PlaceNameChunk.fromCompactBuffer(null, buffer));
+
+            buffer.clear();
+            buffer.putInt(0, 0);
+            assertNull(PlaceNameLayer.PlaceNameChunk.fromCompactBuffer(null, buffer));
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
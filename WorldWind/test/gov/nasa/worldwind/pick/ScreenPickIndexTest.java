@@ -0,0 +1,136 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.pick;
+
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.view.orbit.BasicOrbitView;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.awt.*;
+import java.util.*;
+
+/**
+ * Tests operation of ScreenPickIndex.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ScreenPickIndexTest
+{
+    public static class Tests extends TestCase
+    {
+        protected DrawContext dc;
+
+        @Override
+        public void setUp()
+        {
+            this.dc = new DrawContextImpl();
+            this.dc.setView(new BasicOrbitView()
+            {
+                {
+                    this.viewport = new Rectangle(0, 0, 800, 600);
+                }
+            });
+            this.dc.setFrameTimeStamp(1);
+        }
+
+        /** Tests that the item drawn last is picked, and that points are converted from AWT to GL coordinates. */
+        public void testPickPoint()
+        {
+            ScreenPickIndex index = new ScreenPickIndex();
+            // GL coordinates: the rectangles span rows 0 through 19 from the bottom of the viewport.
+            index.add(this.dc, "a", null, new Rectangle(10, 0, 20, 20), null);
+            index.add(this.dc, "b", null, new Rectangle(20, 0, 20, 20), null);
+
+            PickedObjectList list = index.pick(new Point(25, 590), null);
+            assertEquals(2, list.size());
+            assertEquals("b", list.getTopObject());
+            assertEquals("a", list.get(1).getObject());
+
+            assertEquals("a", index.pick(new Point(15, 590), null).getTopObject());
+            assertTrue(index.pick(new Point(15, 10), null).isEmpty());
+        }
+
+        /** Tests that registering an item in a new frame discards the items of the previous frame. */
+        public void testNewFrame()
+        {
+            ScreenPickIndex index = new ScreenPickIndex();
+            assertFalse(index.hasFrame());
+
+            index.add(this.dc, "a", null, new Rectangle(0, 0, 100, 100), null);
+            assertTrue(index.hasFrame());
+
+            this.dc.setFrameTimeStamp(2);
+            index.beginFrame(this.dc);
+            assertTrue(index.hasFrame());
+            assertTrue(index.pick(new Point(50, 550), null).isEmpty());
+
+            index.clear();
+            assertFalse(index.hasFrame());
+        }
+
+        /** Tests that point and rectangle queries match an exhaustive search. */
+        public void testMatchesExhaustiveSearch()
+        {
+            Random random = new Random(3);
+            ScreenPickIndex index = new ScreenPickIndex();
+            ArrayList<Rectangle> rects = new ArrayList<Rectangle>();
+
+            for (int i = 0; i < 2000; i++)
+            {
+                Rectangle r = new Rectangle(random.nextInt(900) - 50, random.nextInt(700) - 50,
+                    1 + random.nextInt(80), 1 + random.nextInt(80));
+                rects.add(r);
+                index.add(this.dc, i, null, r, null);
+            }
+
+            for (int q = 0; q < 200; q++)
+            {
+                Point p = new Point(random.nextInt(800), random.nextInt(600));
+                int glY = 600 - p.y - 1;
+
+                Object expected = null;
+                for (int i = rects.size() - 1; i >= 0; i--)
+                {
+                    if (rects.get(i).contains(p.x, glY))
+                    {
+                        expected = i;
+                        break;
+                    }
+                }
+
+                assertEquals("Point " + p, expected, index.pick(p, null).getTopObject());
+
+                Rectangle awtRect = new Rectangle(p.x, p.y, 1 + random.nextInt(50), 1 + random.nextInt(50));
+                Rectangle glRect = new Rectangle(awtRect.x, 600 - awtRect.y - awtRect.height, awtRect.width,
+                    awtRect.height);
+
+                ArrayList<Object> expectedInRect = new ArrayList<Object>();
+                for (int i = 0; i < rects.size(); i++)
+                {
+                    if (rects.get(i).intersects(glRect))
+                        expectedInRect.add(i);
+                }
+
+                ArrayList<Object> inRect = new ArrayList<Object>();
+                for (PickedObject po : index.pick(awtRect, null))
+                {
+                    inRect.add(po.getObject());
+                }
+
+                assertEquals("Rectangle " + awtRect, expectedInRect, inRect);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -141,6 +141,61 @@ public class SurfaceShapeTest extends junit.framework.TestCase
         assertEquals(expected, shape);
     }
 
+    @SuppressWarnings({"unchecked"})
+    public void testShapeGeometryPacking()
+    {
+        AbstractSurfaceShape.ShapeGeometry geom = new AbstractSurfaceShape.ShapeGeometry(
+            Arrays.asList(sampleLocations, sampleLocations2));
+
+        assertEquals("Number of contours", 2, geom.getNumContours());
+        assertEquals("Number of locations", 6, geom.getNumLocations());
+        assertEquals("Packed array length", 12, geom.getCoords().length);
+        assertEquals("First contour", sampleLocations, geom.getContour(0));
+        assertEquals("Second contour", sampleLocations2, geom.getContour(1));
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public void testShapeGeometryReuse()
+    {
+        AbstractSurfaceShape.ShapeGeometry geom = new AbstractSurfaceShape.ShapeGeometry(
+            Arrays.asList(sampleLocations, sampleLocations2));
+        AbstractSurfaceShape.ShapeGeometry active = new AbstractSurfaceShape.ShapeGeometry();
+
+        for (int i = 0; i < 100; i++)
+        {
+            active.clear();
+            assertTrue("Cleared geometry not empty", active.isEmpty());
+
+            active.addContour(geom, 1);
+            active.addContour(sampleLocations);
+        }
+
+        assertEquals("Number of contours", 2, active.getNumContours());
+        assertEquals("Copied contour", sampleLocations2, active.getContour(0));
+        assertEquals("Added contour", sampleLocations, active.getContour(1));
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public void testShapeGeometryCrossesDateLine()
+    {
+        List<LatLon> crossing = Arrays.asList(LatLon.fromDegrees(0, 170), LatLon.fromDegrees(0, -170),
+            LatLon.fromDegrees(10, -170));
+        AbstractSurfaceShape.ShapeGeometry geom = new AbstractSurfaceShape.ShapeGeometry(
+            Arrays.asList(sampleLocations, crossing));
+
+        assertFalse("Contour does not cross the dateline", geom.crossesDateLine(0));
+        assertTrue("Contour crosses the dateline", geom.crossesDateLine(1));
+    }
+
+    public void testCacheVersionChangesWithShape()
+    {
+        SurfacePolygon shape = new SurfacePolygon(sampleLocations);
+        long version = shape.cacheVersion;
+
+        shape.setLocations(sampleLocations2);
+        assertTrue("Cache version unchanged", shape.cacheVersion != version);
+    }
+
     public void testSaveAndRestoreOnPolyline()
     {
         SurfacePolyline shape = new SurfacePolyline(sampleLocations);
@@ -0,0 +1,265 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.retrieve;
+
+import com.sun.net.httpserver.*;
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.cache.*;
+import gov.nasa.worldwind.exception.WWRuntimeException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests bulk seeding of a file store from a local tile server.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class BulkTileSeederTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final String CACHE_NAME = "BulkTileSeederTest";
+        protected static final int TILE_SIZE = 100;
+        protected static final Sector SECTOR = Sector.fromDegrees(0, 10, 0, 10);
+
+        /** Serves tiles of {@link #TILE_SIZE} bytes, or a specified status code for tiles of a specified level. */
+        protected static class TileHandler implements HttpHandler
+        {
+            protected final AtomicInteger numRequests = new AtomicInteger();
+            protected volatile String errorLevel;
+            protected volatile int errorCode;
+
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                this.numRequests.incrementAndGet();
+
+                String path = exchange.getRequestURI().getPath();
+                if (this.errorLevel != null && path.startsWith("/" + CACHE_NAME + "/" + this.errorLevel + "/"))
+                {
+                    exchange.sendResponseHeaders(this.errorCode, -1);
+                    exchange.close();
+                    return;
+                }
+
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                exchange.sendResponseHeaders(200, TILE_SIZE);
+                exchange.getResponseBody().write(new byte[TILE_SIZE]);
+                exchange.close();
+            }
+        }
+
+        /** Retrieves tiles from the local server, writing them to the file store or marking them absent. */
+        protected class TestSeeder extends BulkTileSeeder
+        {
+            public TestSeeder(LevelSet levels, FileStore fileStore)
+            {
+                super(levels, SECTOR, 2, fileStore);
+            }
+
+            @Override
+            protected Tile createTile(Sector sector, Level level, int row, int column)
+            {
+                return new Tile(sector, level, row, column);
+            }
+
+            @Override
+            protected Retriever createRetriever(final Tile tile)
+            {
+                try
+                {
+                    URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/" + tile.getPath());
+                    return new HTTPRetriever(url, new RetrievalPostProcessor()
+                    {
+                        public ByteBuffer run(Retriever retriever)
+                        {
+                            HTTPRetriever htr = (HTTPRetriever) retriever;
+                            if (htr.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND)
+                            {
+                                levels.markResourceAbsent(tile);
+                                return null;
+                            }
+
+                            ByteBuffer buffer = retriever.getBuffer();
+                            if (htr.getResponseCode() != HttpURLConnection.HTTP_OK || buffer == null)
+                                return null;
+
+                            try
+                            {
+                                WWIO.saveBuffer(buffer, fileStore.newFile(tile.getPath()));
+                            }
+                            catch (IOException e)
+                            {
+                                throw new WWRuntimeException(e);
+                            }
+
+                            return buffer;
+                        }
+                    });
+                }
+                catch (MalformedURLException e)
+                {
+                    throw new WWRuntimeException(e);
+                }
+            }
+        }
+
+        protected HttpServer server;
+        protected TileHandler handler;
+        protected File directory;
+        protected FileStore fileStore;
+        protected LevelSet levels;
+
+        @Override
+        protected void setUp() throws Exception
+        {
+            this.handler = new TileHandler();
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            this.server.createContext("/", this.handler);
+            this.server.start();
+
+            this.directory = File.createTempFile("BulkTileSeederTest", "");
+            this.directory.delete();
+            this.directory.mkdirs();
+            this.fileStore = new BasicDataFileStore(this.directory);
+
+            AVList params = new AVListImpl();
+            params.setValue(AVKey.SECTOR, Sector.FULL_SPHERE);
+            params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, new LatLon(Angle.fromDegrees(36), Angle.fromDegrees(36)));
+            params.setValue(AVKey.NUM_LEVELS, 3);
+            params.setValue(AVKey.TILE_WIDTH, 16);
+            params.setValue(AVKey.TILE_HEIGHT, 16);
+            params.setValue(AVKey.DATA_CACHE_NAME, CACHE_NAME);
+            params.setValue(AVKey.DATASET_NAME, "test");
+            params.setValue(AVKey.FORMAT_SUFFIX, ".dat");
+            this.levels = new LevelSet(params);
+        }
+
+        @Override
+        protected void tearDown() throws Exception
+        {
+            this.server.stop(0);
+            WWIO.deleteDirectory(this.directory);
+            this.directory.delete();
+        }
+
+        public void testSeed() throws Exception
+        {
+            BulkTileSeeder seeder = new TestSeeder(this.levels, this.fileStore);
+            assertEquals("Tile count", 6, seeder.countTiles());
+
+            seeder.seed();
+
+            assertEquals("Retrieved tiles", 6, seeder.getNumRetrievedTiles());
+            assertEquals("Bytes", 6 * TILE_SIZE, seeder.getNumBytes());
+            assertEquals("Local tiles", 0, seeder.getNumLocalTiles());
+            assertEquals("Failed tiles", 0, seeder.getNumFailedTiles());
+            assertEquals("Requests", 6, this.handler.numRequests.get());
+            assertTrue("Elapsed time", seeder.getElapsedTime() >= 0);
+            assertFalse("Manifest not deleted", seeder.getManifestFile().exists());
+
+            // A second seeder finds every tile in the file store.
+            seeder = new TestSeeder(this.levels, this.fileStore);
+            seeder.seed();
+
+            assertEquals("Retrieved tiles", 0, seeder.getNumRetrievedTiles());
+            assertEquals("Local tiles", 6, seeder.getNumLocalTiles());
+            assertEquals("Requests", 6, this.handler.numRequests.get());
+        }
+
+        public void testResumeFromManifest() throws Exception
+        {
+            // Level 2 tiles fail, so the rows of levels 0 and 1 are recorded in the manifest.
+            this.handler.errorLevel = "2";
+            this.handler.errorCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
+
+            BulkTileSeeder seeder = new TestSeeder(this.levels, this.fileStore);
+            seeder.setNumThreads(2);
+            seeder.seed();
+
+            assertEquals("Retrieved tiles", 2, seeder.getNumRetrievedTiles());
+            assertEquals("Failed tiles", 4, seeder.getNumFailedTiles());
+            assertTrue("Manifest deleted", seeder.getManifestFile().exists());
+
+            // Rows recorded in the manifest are not revisited, even if their tiles are removed from the file store.
+            Tile tile = new Tile(Sector.fromDegrees(0, 36, 0, 36), this.levels.getLevel(0), 2, 5);
+            assertTrue("Tile not local", new File(this.fileStore.getWriteLocation(), tile.getPath()).delete());
+
+            this.handler.errorLevel = null;
+            int numRequests = this.handler.numRequests.get();
+
+            seeder = new TestSeeder(this.levels, this.fileStore);
+            seeder.seed();
+
+            assertEquals("Retrieved tiles", 4, seeder.getNumRetrievedTiles());
+            assertEquals("Local tiles", 2, seeder.getNumLocalTiles());
+            assertEquals("Requests", numRequests + 4, this.handler.numRequests.get());
+            assertFalse("Manifest not deleted", seeder.getManifestFile().exists());
+        }
+
+        public void testAbsentTiles() throws Exception
+        {
+            this.handler.errorLevel = "1";
+            this.handler.errorCode = HttpURLConnection.HTTP_NOT_FOUND;
+
+            BulkTileSeeder seeder = new TestSeeder(this.levels, this.fileStore);
+            seeder.seed();
+
+            assertEquals("Retrieved tiles", 5, seeder.getNumRetrievedTiles());
+            assertEquals("Absent tiles", 1, seeder.getNumAbsentTiles());
+            assertEquals("Failed tiles", 0, seeder.getNumFailedTiles());
+            assertTrue("Manifest deleted", seeder.getManifestFile().exists());
+        }
+
+        public void testInvalidArguments()
+        {
+            try
+            {
+                new TestSeeder(this.levels, this.fileStore).setNumThreads(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new BulkTileSeeder(null, SECTOR, 2, this.fileStore)
+                {
+                    protected Tile createTile(Sector sector, Level level, int row, int column)
+                    {
+                        return null;
+                    }
+
+                    protected Retriever createRetriever(Tile tile)
+                    {
+                        return null;
+                    }
+                };
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
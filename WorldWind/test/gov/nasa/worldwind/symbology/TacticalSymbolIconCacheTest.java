@@ -0,0 +1,187 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.symbology;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.symbology.milstd2525.MilStd2525TacticalSymbol;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.awt.image.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the composed icon cache and the shared glyph elements used by tactical symbols.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class TacticalSymbolIconCacheTest
+{
+    public static class Tests extends TestCase
+    {
+        /** An icon retriever that counts the icons it composes, and takes a while to compose each one. */
+        protected static class CountingRetriever implements IconRetriever
+        {
+            protected final AtomicInteger count = new AtomicInteger();
+            protected final boolean returnNull;
+
+            public CountingRetriever(boolean returnNull)
+            {
+                this.returnNull = returnNull;
+            }
+
+            public BufferedImage createIcon(String symbolId, AVList params)
+            {
+                this.count.incrementAndGet();
+
+                try
+                {
+                    Thread.sleep(50);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+
+                if (symbolId.equals("fail"))
+                    throw new IllegalStateException(symbolId);
+
+                return this.returnNull ? null : new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+            }
+        }
+
+        protected static BufferedImage[] getConcurrently(final AbstractTacticalSymbol.IconSource source,
+            int numThreads) throws Exception
+        {
+            final BufferedImage[] images = new BufferedImage[numThreads];
+            final Exception[] errors = new Exception[numThreads];
+
+            Thread[] threads = new Thread[numThreads];
+            for (int i = 0; i < numThreads; i++)
+            {
+                final int index = i;
+                threads[i] = new Thread(new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            images[index] = AbstractTacticalSymbol.getIconImage(source);
+                        }
+                        catch (Exception e)
+                        {
+                            errors[index] = e;
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+
+            for (Exception e : errors)
+            {
+                if (e != null)
+                    throw e;
+            }
+
+            return images;
+        }
+
+        public void testConcurrentRequestsComposeOnce() throws Exception
+        {
+            CountingRetriever retriever = new CountingRetriever(false);
+            AbstractTacticalSymbol.IconSource source = new AbstractTacticalSymbol.IconSource(retriever, "once", null);
+
+            BufferedImage[] images = getConcurrently(source, 8);
+
+            assertEquals("Number of compositions", 1, retriever.count.get());
+            for (BufferedImage image : images)
+            {
+                assertSame("Image not shared", images[0], image);
+            }
+
+            // Equivalent sources are served from the cache.
+            AbstractTacticalSymbol.IconSource equivalent = new AbstractTacticalSymbol.IconSource(retriever, "once",
+                null);
+            assertSame("Cached image", images[0], AbstractTacticalSymbol.getIconImage(equivalent));
+            assertEquals("Number of compositions", 1, retriever.count.get());
+
+            // Sources with different parameters are composed separately.
+            AVList params = new AVListImpl();
+            params.setValue(SymbologyConstants.SHOW_FILL, false);
+            AbstractTacticalSymbol.getIconImage(new AbstractTacticalSymbol.IconSource(retriever, "once", params));
+            assertEquals("Number of compositions", 2, retriever.count.get());
+        }
+
+        public void testUnrecognizedIconNotCached() throws Exception
+        {
+            CountingRetriever retriever = new CountingRetriever(true);
+            AbstractTacticalSymbol.IconSource source = new AbstractTacticalSymbol.IconSource(retriever, "null", null);
+
+            assertNull("Image", AbstractTacticalSymbol.getIconImage(source));
+            assertNull("Image", AbstractTacticalSymbol.getIconImage(source));
+            assertEquals("Number of compositions", 2, retriever.count.get());
+        }
+
+        public void testRetrieverExceptionPropagates() throws Exception
+        {
+            CountingRetriever retriever = new CountingRetriever(false);
+            AbstractTacticalSymbol.IconSource source = new AbstractTacticalSymbol.IconSource(retriever, "fail", null);
+
+            try
+            {
+                getConcurrently(source, 4);
+                fail("Expected an IllegalStateException");
+            }
+            catch (IllegalStateException e)
+            {
+                // Expected.
+            }
+
+            assertTrue("No pending compositions", AbstractTacticalSymbol.pendingIcons.isEmpty());
+        }
+
+        public void testIconIdentifierNormalized()
+        {
+            AbstractTacticalSymbol a = new MilStd2525TacticalSymbol("sfgpuci----aus-",
+                Position.fromDegrees(0, 0, 0));
+            AbstractTacticalSymbol b = new MilStd2525TacticalSymbol("SFGPUCI---DCAFA",
+                Position.fromDegrees(0, 0, 0));
+
+            assertEquals("Icon identifier", "SFGPUCI--------", a.getIconIdentifier());
+            assertEquals("Icon identifier", a.getIconIdentifier(), b.getIconIdentifier());
+        }
+
+        public void testGlyphsShared()
+        {
+            AbstractTacticalSymbol a = new MilStd2525TacticalSymbol("SFGPUCI----A---", Position.fromDegrees(0, 0, 0));
+            AbstractTacticalSymbol b = new MilStd2525TacticalSymbol("SHGPUCI----A---", Position.fromDegrees(0, 0, 0));
+
+            AVList params = new AVListImpl();
+            params.setValue(AVKey.WIDTH, 64);
+
+            AbstractTacticalSymbol.IconAtlasElement elem = a.getGlyph("-A", params);
+            assertSame("Glyph not shared", elem, b.getGlyph("-A", params));
+            assertSame("Glyph atlas", a.getGlyphAtlas(), elem.getTextureAtlas());
+
+            params.setValue(AVKey.WIDTH, 32);
+            assertNotSame("Glyph with different parameters", elem, b.getGlyph("-A", params));
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.*;
+
+/**
+ * Tests line intersection with HighResolutionTerrain.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class HighResolutionTerrainTest
+{
+    public static class Tests extends TestCase
+    {
+        /** An elevation model with rolling hills, which requires no data retrieval. */
+        protected static class HillsElevationModel extends ZeroElevationModel
+        {
+            @Override
+            public double getElevations(Sector sector, List<? extends LatLon> latlons, double targetResolution,
+                double[] buffer)
+            {
+                for (int i = 0; i < latlons.size(); i++)
+                {
+                    LatLon ll = latlons.get(i);
+                    buffer[i] = 500 * (1 + Math.sin(2000 * ll.getLatitude().radians) * Math.cos(2000
+                        * ll.getLongitude().radians));
+                }
+
+                return 0;
+            }
+
+            @Override
+            public double getMaxElevation()
+            {
+                return 1000;
+            }
+
+            @Override
+            public double[] getExtremeElevations(Angle latitude, Angle longitude)
+            {
+                return new double[] {0, 1000};
+            }
+
+            @Override
+            public double[] getExtremeElevations(Sector sector)
+            {
+                return new double[] {0, 1000};
+            }
+
+            @Override
+            public double getBestResolution(Sector sector)
+            {
+                return 1e-4; // about 640 meters
+            }
+        }
+
+        protected HighResolutionTerrain terrain;
+
+        @Override
+        protected void setUp() throws Exception
+        {
+            Earth globe = new Earth();
+            globe.setElevationModel(new HillsElevationModel());
+            this.terrain = new HighResolutionTerrain(globe, Sector.fromDegrees(30, 32, -100, -98), null, null);
+            this.terrain.setDensity(20);
+        }
+
+        protected double[] createSegments(int numSegments)
+        {
+            Random random = new Random(1);
+            double[] segments = new double[6 * numSegments];
+            for (int i = 0; i < numSegments; i++)
+            {
+                segments[6 * i] = 30.8 + 0.4 * random.nextDouble();
+                segments[6 * i + 1] = -99.2 + 0.4 * random.nextDouble();
+                segments[6 * i + 2] = 10 + 300 * random.nextDouble();
+                segments[6 * i + 3] = 30.8 + 0.4 * random.nextDouble();
+                segments[6 * i + 4] = -99.2 + 0.4 * random.nextDouble();
+                segments[6 * i + 5] = 10 + 300 * random.nextDouble();
+            }
+
+            return segments;
+        }
+
+        public void testBatchMatchesSingleIntersections()
+        {
+            int numSegments = 200;
+            double[] segments = this.createSegments(numSegments);
+            double[] results = new double[4 * numSegments];
+
+            int numIntersections = this.terrain.intersect(segments, results, 1);
+            assertTrue("No segments intersect", numIntersections > 0);
+            assertTrue("All segments intersect", numIntersections < numSegments);
+
+            int count = 0;
+            for (int i = 0; i < numSegments; i++)
+            {
+                Position pA = Position.fromDegrees(segments[6 * i], segments[6 * i + 1], segments[6 * i + 2]);
+                Position pB = Position.fromDegrees(segments[6 * i + 3], segments[6 * i + 4], segments[6 * i + 5]);
+                Vec4 ptA = this.terrain.getSurfacePoint(pA);
+                Vec4 ptB = this.terrain.getSurfacePoint(pB);
+
+                Intersection[] hits = this.terrain.intersect(pA, pB);
+                Vec4 expected = null;
+                if (hits != null && ptA.distanceTo3(hits[0].getIntersectionPoint()) <= ptA.distanceTo3(ptB))
+                    expected = hits[0].getIntersectionPoint();
+
+                if (expected == null)
+                {
+                    assertTrue("Unexpected intersection " + i, Double.isNaN(results[4 * i]));
+                    continue;
+                }
+
+                count++;
+                Vec4 actual = new Vec4(results[4 * i], results[4 * i + 1], results[4 * i + 2]);
+                assertEquals("Intersection point " + i, 0, expected.distanceTo3(actual), 1e-6);
+                assertEquals("Intersection distance " + i, ptA.distanceTo3(expected), results[4 * i + 3], 1e-6);
+            }
+
+            assertEquals("Number of intersections", count, numIntersections);
+        }
+
+        public void testMultipleThreads()
+        {
+            int numSegments = 500;
+            double[] segments = this.createSegments(numSegments);
+            double[] expected = new double[4 * numSegments];
+            double[] actual = new double[4 * numSegments];
+
+            int expectedCount = this.terrain.intersect(segments, expected, 1);
+            int actualCount = this.terrain.intersect(segments, actual, 4);
+
+            assertEquals("Number of intersections", expectedCount, actualCount);
+            assertTrue("Results differ", Arrays.equals(expected, actual));
+        }
+
+        public void testIntersectionsSorted()
+        {
+            // A low line across the hills intersects the terrain many times.
+            Position pA = Position.fromDegrees(30.5, -99.5, 100);
+            Position pB = Position.fromDegrees(31.5, -98.5, 100);
+
+            Intersection[] hits = this.terrain.intersect(pA, pB);
+            assertNotNull("No intersections", hits);
+            assertTrue("Too few intersections", hits.length > 2);
+
+            Vec4 origin = this.terrain.getSurfacePoint(pA);
+            for (int i = 1; i < hits.length; i++)
+            {
+                assertTrue("Intersections not sorted", origin.distanceTo3(hits[i - 1].getIntersectionPoint())
+                    <= origin.distanceTo3(hits[i].getIntersectionPoint()));
+            }
+        }
+
+        public void testSegmentOutsideSector()
+        {
+            double[] segments = new double[] {10, 10, 100, 10.1, 10.1, 100};
+            double[] results = new double[4];
+
+            assertEquals("Intersections outside sector", 0, this.terrain.intersect(segments, results, 1));
+            assertTrue("Result not NaN", Double.isNaN(results[0]) && Double.isNaN(results[3]));
+        }
+
+        public void testInvalidArguments()
+        {
+            try
+            {
+                this.terrain.intersect(new double[6], new double[3], 1);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                this.terrain.intersect(new double[6], new double[4], 0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.data.BufferWrapperRaster;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.List;
+
+/**
+ * Tests viewshed computation.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ViewshedTest
+{
+    public static class Tests extends TestCase
+    {
+        /** A flat elevation model with a ridge running north-south west of the observer's location. */
+        protected static class RidgeElevationModel extends ZeroElevationModel
+        {
+            @Override
+            public double getElevations(Sector sector, List<? extends LatLon> latlons, double targetResolution,
+                double[] buffer)
+            {
+                for (int i = 0; i < latlons.size(); i++)
+                {
+                    double lon = latlons.get(i).getLongitude().degrees;
+                    buffer[i] = lon > -99.005 && lon < -99.003 ? 100 : 0;
+                }
+
+                return 0;
+            }
+        }
+
+        protected static final Position OBSERVER = Position.fromDegrees(31, -99, 2);
+
+        protected Viewshed createViewshed(ElevationModel elevationModel)
+        {
+            Earth globe = new Earth();
+            globe.setElevationModel(elevationModel);
+
+            return new Viewshed(new HighResolutionTerrain(globe, Sector.fromDegrees(30, 32, -100, -98), null, null));
+        }
+
+        protected static double distance(BufferWrapperRaster raster, int row, int col, double resolution)
+        {
+            int center = raster.getWidth() / 2;
+            double cosLat = Math.cos(raster.getSector().getMinLatitude().radians
+                + (raster.getHeight() - 1 - row) * raster.getSector().getDeltaLatRadians() / (raster.getHeight() - 1));
+
+            double x = (col - center) * resolution * cosLat / Math.cos(OBSERVER.getLatitude().radians);
+            double y = (row - center) * resolution;
+
+            return Math.sqrt(x * x + y * y);
+        }
+
+        public void testRasterLayout()
+        {
+            BufferWrapperRaster raster = this.createViewshed(new ZeroElevationModel()).compute(OBSERVER, 1000, 0, 100);
+
+            assertEquals("Raster width", 21, raster.getWidth());
+            assertEquals("Raster height", 21, raster.getHeight());
+            assertEquals("Transparent value", (double) Viewshed.NO_DATA, raster.getTransparentValue());
+            assertEquals("Raster center", OBSERVER.getLatitude().degrees,
+                raster.getSector().getCentroid().getLatitude().degrees, 1e-9);
+            assertEquals("Observer cell", (double) Viewshed.VISIBLE, raster.getDoubleAtPosition(10, 10));
+            assertEquals("Corner cell", (double) Viewshed.NO_DATA, raster.getDoubleAtPosition(0, 0));
+        }
+
+        public void testHorizon()
+        {
+            // On a smooth globe the horizon of an observer 10 meters above the surface is about 11.3 km away.
+            double resolution = 200;
+            BufferWrapperRaster raster = this.createViewshed(new ZeroElevationModel()).compute(
+                Position.fromDegrees(31, -99, 10), 20e3, 0, resolution);
+
+            int numVisible = 0;
+            for (int row = 0; row < raster.getHeight(); row++)
+            {
+                for (int col = 0; col < raster.getWidth(); col++)
+                {
+                    double d = distance(raster, row, col, resolution);
+                    double value = raster.getDoubleAtPosition(row, col);
+                    if (d > 20e3)
+                        assertEquals("Cell beyond radius", (double) Viewshed.NO_DATA, value);
+                    else if (d < 10e3)
+                        assertEquals("Cell before horizon at " + d, (double) Viewshed.VISIBLE, value);
+                    else if (d > 12.5e3)
+                        assertEquals("Cell beyond horizon at " + d, (double) Viewshed.NOT_VISIBLE, value);
+
+                    if (value == Viewshed.VISIBLE)
+                        numVisible++;
+                }
+            }
+
+            assertTrue("No cells visible", numVisible > 0);
+        }
+
+        public void testTargetHeight()
+        {
+            // Targets 10 meters tall are visible about 11.3 km beyond the horizon of a 10 meter tall observer.
+            double resolution = 200;
+            BufferWrapperRaster raster = this.createViewshed(new ZeroElevationModel()).compute(
+                Position.fromDegrees(31, -99, 10), 20e3, 10, resolution);
+
+            for (int row = 0; row < raster.getHeight(); row++)
+            {
+                for (int col = 0; col < raster.getWidth(); col++)
+                {
+                    double d = distance(raster, row, col, resolution);
+                    if (d <= 20e3)
+                        assertEquals("Target at " + d, (double) Viewshed.VISIBLE, raster.getDoubleAtPosition(row, col));
+                }
+            }
+        }
+
+        public void testRidgeHidesTerrain()
+        {
+            // The ridge is 300 to 450 meters west of the observer. Only its near edge is visible from below.
+            BufferWrapperRaster raster = this.createViewshed(new RidgeElevationModel()).compute(OBSERVER, 2000, 0, 50);
+            int center = raster.getWidth() / 2;
+
+            assertEquals("Ridge", (double) Viewshed.VISIBLE, raster.getDoubleAtPosition(center, center - 6));
+            assertEquals("Behind ridge", (double) Viewshed.NOT_VISIBLE,
+                raster.getDoubleAtPosition(center, center - 20));
+            assertEquals("Opposite ridge", (double) Viewshed.VISIBLE, raster.getDoubleAtPosition(center, center + 20));
+        }
+
+        public void testMultipleThreads()
+        {
+            Viewshed viewshed = this.createViewshed(new RidgeElevationModel());
+
+            viewshed.setNumThreads(1);
+            BufferWrapperRaster expected = viewshed.compute(OBSERVER, 3000, 1, 25);
+
+            viewshed.setNumThreads(4);
+            BufferWrapperRaster actual = viewshed.compute(OBSERVER, 3000, 1, 25);
+
+            for (int row = 0; row < expected.getHeight(); row++)
+            {
+                for (int col = 0; col < expected.getWidth(); col++)
+                {
+                    assertEquals("Cell " + row + ", " + col, expected.getDoubleAtPosition(row, col),
+                        actual.getDoubleAtPosition(row, col));
+                }
+            }
+        }
+
+        public void testInvalidArguments()
+        {
+            Viewshed viewshed = this.createViewshed(new ZeroElevationModel());
+
+            try
+            {
+                viewshed.compute(null, 1000, 0, 100);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                viewshed.compute(Position.fromDegrees(10, 10, 2), 1000, 0, 100);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                viewshed.compute(OBSERVER, 1000, 0, 0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                viewshed.setNumThreads(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
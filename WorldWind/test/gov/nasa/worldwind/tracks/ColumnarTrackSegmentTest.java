@@ -0,0 +1,231 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.geom.*;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Tests columnar track storage and its time-range and sector queries.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ColumnarTrackSegmentTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final int NUM_POINTS = 1000;
+        protected static final int CHUNK_SIZE = 64;
+        protected static final long START_TIME = 1300000000000L;
+
+        /** Adds points along the equator, one per second and every 0.01 degrees of longitude. */
+        protected static ColumnarTrackSegment fill(ColumnarTrackSegment segment)
+        {
+            for (int i = 0; i < NUM_POINTS; i++)
+            {
+                segment.addPoint(0, i * 0.01, i, START_TIME + i * 1000L);
+            }
+
+            return segment;
+        }
+
+        protected static List<Integer> indices(ColumnarTrackSegment segment, Sector sector, long minTime, long maxTime)
+        {
+            List<Integer> indices = new ArrayList<Integer>();
+            for (int i = segment.nextIndex(0, sector, minTime, maxTime); i >= 0;
+                i = segment.nextIndex(i + 1, sector, minTime, maxTime))
+            {
+                indices.add(i);
+            }
+
+            return indices;
+        }
+
+        protected static void assertPoints(ColumnarTrackSegment segment)
+        {
+            assertEquals("Number of points", NUM_POINTS, segment.getNumPoints());
+            for (int i = 0; i < NUM_POINTS; i++)
+            {
+                assertEquals("Longitude", i * 0.01, segment.getLongitude(i), 0);
+                assertEquals("Elevation", i, segment.getElevation(i), 0);
+                assertEquals("Time", START_TIME + i * 1000L, segment.getTime(i));
+            }
+        }
+
+        public void testHeapStorage()
+        {
+            assertPoints(fill(new ColumnarTrackSegment(CHUNK_SIZE)));
+        }
+
+        public void testMappedStorage() throws Exception
+        {
+            File file = File.createTempFile("ColumnarTrackSegmentTest", ".dat");
+            try
+            {
+                ColumnarTrackSegment segment = fill(new ColumnarTrackSegment(file, CHUNK_SIZE));
+                assertPoints(segment);
+                assertEquals("File length", 16 * CHUNK_SIZE * 32, file.length());
+
+                segment.dispose();
+                assertEquals("Number of points", 0, segment.getNumPoints());
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+
+        public void testTimeQuery()
+        {
+            ColumnarTrackSegment segment = fill(new ColumnarTrackSegment(CHUNK_SIZE));
+            assertTrue("Not time ordered", segment.isTimeOrdered());
+
+            assertEquals("Index of start", 0, segment.indexOfTime(START_TIME - 1));
+            assertEquals("Index of time", 100, segment.indexOfTime(START_TIME + 99500));
+            assertEquals("Index past end", NUM_POINTS, segment.indexOfTime(START_TIME + NUM_POINTS * 1000L));
+
+            List<Integer> indices = indices(segment, null, START_TIME + 100000, START_TIME + 199999);
+            assertEquals("Number of points", 100, indices.size());
+            assertEquals("First point", 100, (int) indices.get(0));
+            assertEquals("Last point", 199, (int) indices.get(99));
+
+            // Out of order points are found by scanning.
+            segment.addPoint(0, 0, 0, START_TIME + 150500);
+            assertFalse("Time ordered", segment.isTimeOrdered());
+            assertEquals("Number of points", 101, indices(segment, null, START_TIME + 100000, START_TIME + 199999)
+                .size());
+        }
+
+        public void testSectorQuery()
+        {
+            ColumnarTrackSegment segment = fill(new ColumnarTrackSegment(CHUNK_SIZE));
+            segment.addPoint(5, 5, 0, START_TIME + NUM_POINTS * 1000L);
+
+            Sector sector = segment.getSector();
+            assertEquals("Max latitude", 5, sector.getMaxLatitude().degrees, 1e-9);
+            assertEquals("Max longitude", 9.99, sector.getMaxLongitude().degrees, 1e-9);
+
+            List<Integer> indices = indices(segment, Sector.fromDegrees(-1, 1, 2.995, 4.005), Long.MIN_VALUE,
+                Long.MAX_VALUE);
+            assertEquals("Number of points", 101, indices.size());
+            assertEquals("First point", 300, (int) indices.get(0));
+
+            indices = indices(segment, Sector.fromDegrees(4, 6, 4, 6), Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals("Points", Arrays.asList(NUM_POINTS), indices);
+
+            // Combined sector and time range.
+            indices = indices(segment, Sector.fromDegrees(-1, 1, 2.995, 4.005), START_TIME, START_TIME + 349000);
+            assertEquals("Number of points", 50, indices.size());
+        }
+
+        public void testIteratorReusesPoint()
+        {
+            ColumnarTrack track = new ColumnarTrack("test");
+            track.addSegment(fill(new ColumnarTrackSegment(CHUNK_SIZE)));
+            track.addSegment(fill(new ColumnarTrackSegment(CHUNK_SIZE)));
+            assertEquals("Number of points", 2 * NUM_POINTS, track.getNumPoints());
+
+            ColumnarTrackPointIterator iter = track.iterator(null, START_TIME, START_TIME + 9000);
+            TrackPoint first = iter.next();
+            int count = 1;
+            while (iter.hasNext())
+            {
+                assertSame("Point not reused", first, iter.next());
+                count++;
+            }
+            assertEquals("Number of points", 20, count);
+            assertEquals("Number of points after reset", 20, iter.reset().getNumPoints());
+
+            // The track's point lists work with iterators that are not aware of columnar storage.
+            assertEquals("Number of points", 2 * NUM_POINTS,
+                new TrackPointIteratorImpl(Arrays.<Track>asList(track)).getNumPoints());
+        }
+
+        public void testPositions()
+        {
+            ColumnarTrackSegment segment = fill(new ColumnarTrackSegment(CHUNK_SIZE));
+
+            int count = 0;
+            for (Position position : segment.getPositions(null, START_TIME, START_TIME + 4000))
+            {
+                assertEquals("Position", Position.fromDegrees(0, count * 0.01, count), position);
+                count++;
+            }
+            assertEquals("Number of positions", 5, count);
+        }
+
+        public void testTrackPointView()
+        {
+            ColumnarTrackSegment segment = new ColumnarTrackSegment(CHUNK_SIZE);
+            segment.addPoint(new TrackPointImpl(Position.fromDegrees(10, 20, 30), null));
+
+            TrackPoint point = segment.getPoints().get(0);
+            assertNull("Time", point.getTime());
+
+            point.setTime("2011-03-13T07:06:40Z");
+            assertEquals("Time", 1300000000000L, segment.getTime(0));
+            assertEquals("Time string", "2011-03-13T07:06:40Z", point.getTime());
+            assertEquals("Time with fraction", 1300000000250L,
+                ColumnarTrackSegment.parseTime("2011-03-13T07:06:40.250Z"));
+
+            point.setElevation(40);
+            assertEquals("Position", Position.fromDegrees(10, 20, 40), point.getPosition());
+
+            // Copies of existing tracks hold the same points.
+            ColumnarTrack track = new ColumnarTrack("test");
+            track.addSegment(fill(new ColumnarTrackSegment(CHUNK_SIZE)));
+            ColumnarTrack copy = new ColumnarTrack(track, 100);
+            assertEquals("Name", "test", copy.getName());
+            assertEquals("Number of points", NUM_POINTS, copy.getNumPoints());
+            assertPoints(copy.getColumnarSegments().get(0));
+        }
+
+        public void testInvalidArguments()
+        {
+            try
+            {
+                new ColumnarTrackSegment(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new ColumnarTrackSegment(CHUNK_SIZE).getLatitude(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new ColumnarTrackSegment(CHUNK_SIZE).iterator().next();
+                fail("Expected a NoSuchElementException");
+            }
+            catch (NoSuchElementException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,288 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.tracks;
+
+import gov.nasa.worldwind.formats.csv.CSVStreamReader;
+import gov.nasa.worldwind.formats.gpx.GpxStreamReader;
+import gov.nasa.worldwind.formats.nmea.NmeaStreamReader;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests the incremental NMEA, CSV and GPX readers and the number and time parsing they share.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class TrackStreamReaderTest
+{
+    public static class Tests extends TestCase
+    {
+        /** Records the size of each batch, and appends the points to a track. */
+        protected static class RecordingListener extends ColumnarTrackAppender
+        {
+            protected List<Integer> batchSizes = new ArrayList<Integer>();
+
+            public RecordingListener()
+            {
+                super(new ColumnarTrack("test"), 16);
+            }
+
+            @Override
+            public void pointsRead(TrackPointBatch batch)
+            {
+                synchronized (this)
+                {
+                    this.batchSizes.add(batch.getSize());
+                }
+
+                super.pointsRead(batch);
+            }
+        }
+
+        protected static InputStream stream(String text)
+        {
+            try
+            {
+                return new ByteArrayInputStream(text.getBytes("US-ASCII"));
+            }
+            catch (UnsupportedEncodingException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /** Wraps an NMEA sentence body in its delimiter and checksum. */
+        protected static String sentence(String body)
+        {
+            int checksum = 0;
+            for (int i = 0; i < body.length(); i++)
+            {
+                checksum ^= body.charAt(i);
+            }
+
+            return String.format("$%s*%02X\r\n", body, checksum);
+        }
+
+        protected static long parseTime(String s)
+        {
+            byte[] bytes = s.getBytes();
+            return TrackStreamReader.parseTime(bytes, 0, bytes.length);
+        }
+
+        public void testParseTime()
+        {
+            assertEquals("UTC", 1300000000000L, parseTime("2011-03-13T07:06:40Z"));
+            assertEquals("Fraction", 1300000000250L, parseTime("2011-03-13T07:06:40.25Z"));
+            assertEquals("Long fraction", 1300000000123L, parseTime("2011-03-13T07:06:40.123456Z"));
+            assertEquals("Offset", 1300000000000L, parseTime("2011-03-13T10:06:40+03:00"));
+            assertEquals("Negative offset", 1300000000000L, parseTime("2011-03-13T02:06:40-0500"));
+            assertEquals("Leap day", ColumnarTrackSegment.parseTime("2012-02-29T12:00:00Z"),
+                parseTime("2012-02-29T12:00:00Z"));
+            assertEquals("Empty", ColumnarTrackSegment.NO_TIME, parseTime(""));
+            assertEquals("Invalid", ColumnarTrackSegment.NO_TIME, parseTime("yesterday"));
+        }
+
+        public void testNmea() throws Exception
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(sentence("GPRMC,235959,A,4807.038,N,01131.000,E,022.4,084.4,120311,003.1,W"));
+            sb.append(sentence("GPGGA,235959,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,"));
+            sb.append(sentence("GNGGA,000000.5,4807.038,S,01131.000,W,1,08,0.9,545.4,M,,M,,"));
+            sb.append(sentence("GPGGA,000001,,,,,0,00,,,M,,M,,")); // No fix.
+            sb.append("$GPGGA,000002,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,*00\r\n"); // Bad checksum.
+            sb.append(sentence("GPGSV,3,1,11,03,03,111,00,04,15,270,00,06,01,010,00,13,06,292,00"));
+
+            RecordingListener listener = new RecordingListener();
+            NmeaStreamReader reader = new NmeaStreamReader(listener);
+            reader.read(stream(sb.toString()));
+
+            assertEquals("Number of points", 2, reader.getNumPoints());
+            assertEquals("Invalid sentences", 1, reader.getNumInvalidSentences());
+
+            ColumnarTrackSegment segment = listener.getTrack().getColumnarSegments().get(0);
+            assertEquals("Latitude", 48 + 7.038 / 60, segment.getLatitude(0), 1e-12);
+            assertEquals("Longitude", 11 + 31.0 / 60, segment.getLongitude(0), 1e-12);
+            assertEquals("Elevation", 545.4 + 46.9, segment.getElevation(0), 1e-9);
+            assertEquals("Time", parseTime("2011-03-12T23:59:59Z"), segment.getTime(0));
+
+            assertEquals("Latitude", -(48 + 7.038 / 60), segment.getLatitude(1), 1e-12);
+            assertEquals("Longitude", -(11 + 31.0 / 60), segment.getLongitude(1), 1e-12);
+            assertEquals("Elevation", 545.4, segment.getElevation(1), 1e-9);
+            assertEquals("Time after midnight", parseTime("2011-03-13T00:00:00.500Z"), segment.getTime(1));
+        }
+
+        public void testCsvBatches() throws Exception
+        {
+            StringBuilder sb = new StringBuilder("time,lat,lon,ele\n");
+            for (int i = 0; i < 10; i++)
+            {
+                sb.append(1300000000000L + i * 1000).append(',').append(i).append(',').append(-i).append(',')
+                    .append(i * 10).append('\n');
+            }
+            sb.append("2011-03-13T07:06:50Z,10,-10"); // No line terminator or elevation.
+
+            RecordingListener listener = new RecordingListener();
+            CSVStreamReader reader = new CSVStreamReader(listener, 4);
+            reader.read(stream(sb.toString()));
+
+            // Full batches are delivered as they fill, and the rest when the stream pauses and when it ends.
+            assertEquals("Batch sizes", Arrays.asList(4, 4, 2, 1), listener.batchSizes);
+
+            ColumnarTrackSegment segment = listener.getTrack().getColumnarSegments().get(0);
+            assertEquals("Number of points", 11, segment.getNumPoints());
+            for (int i = 0; i < 11; i++)
+            {
+                assertEquals("Latitude", i, segment.getLatitude(i), 0);
+                assertEquals("Longitude", -i, segment.getLongitude(i), 0);
+                assertEquals("Elevation", i < 10 ? i * 10 : 0, segment.getElevation(i), 0);
+                assertEquals("Time", 1300000000000L + i * 1000, segment.getTime(i));
+            }
+        }
+
+        public void testGpxSegments() throws Exception
+        {
+            String gpx = "<?xml version=\"1.0\"?>"
+                + "<gpx version=\"1.1\" xmlns=\"http://www.topografix.com/GPX/1/1\">"
+                + "<wpt lat=\"1\" lon=\"1\"><ele>5</ele></wpt>"
+                + "<trk><trkseg>"
+                + "<trkpt lat=\"10.5\" lon=\"-20.25\"><ele>100.5</ele><time>2011-03-13T07:06:40Z</time></trkpt>"
+                + "<trkpt lat=\"10.6\" lon=\"-20.35\"><ele>101</ele></trkpt>"
+                + "</trkseg><trkseg>"
+                + "<trkpt lat=\"11\" lon=\"-21\"/>"
+                + "</trkseg></trk>"
+                + "<rte><rtept lat=\"12\" lon=\"-22\"/></rte>"
+                + "</gpx>";
+
+            RecordingListener listener = new RecordingListener();
+            new GpxStreamReader(listener).read(stream(gpx));
+
+            List<ColumnarTrackSegment> segments = listener.getTrack().getColumnarSegments();
+            assertEquals("Number of segments", 3, segments.size());
+            assertEquals("Number of points", 2, segments.get(0).getNumPoints());
+            assertEquals("Latitude", 10.5, segments.get(0).getLatitude(0), 0);
+            assertEquals("Longitude", -20.25, segments.get(0).getLongitude(0), 0);
+            assertEquals("Elevation", 100.5, segments.get(0).getElevation(0), 0);
+            assertEquals("Time", 1300000000000L, segments.get(0).getTime(0));
+            assertEquals("No time", ColumnarTrackSegment.NO_TIME, segments.get(0).getTime(1));
+            assertEquals("Latitude", 11, segments.get(1).getLatitude(0), 0);
+            assertEquals("Latitude", 12, segments.get(2).getLatitude(0), 0);
+
+            try
+            {
+                new GpxStreamReader(listener).read(stream("<kml/>"));
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+
+        public void testTailGrowingFile() throws Exception
+        {
+            File file = File.createTempFile("TrackStreamReaderTest", ".csv");
+            try
+            {
+                final RecordingListener listener = new RecordingListener();
+                final CSVStreamReader reader = new CSVStreamReader(listener);
+                final File tailedFile = file;
+                final Exception[] error = new Exception[1];
+
+                Thread thread = new Thread(new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            reader.tail(tailedFile, 10);
+                        }
+                        catch (Exception e)
+                        {
+                            error[0] = e;
+                        }
+                    }
+                });
+                thread.start();
+
+                FileOutputStream out = new FileOutputStream(file);
+                try
+                {
+                    for (int i = 0; i < 3; i++)
+                    {
+                        out.write((i + ",1,2,3\n").getBytes("US-ASCII"));
+                        out.flush();
+
+                        // Each line is delivered while the reader waits for more.
+                        long deadline = System.currentTimeMillis() + 5000;
+                        while (listener.getTrack().getNumPoints() < i + 1 && System.currentTimeMillis() < deadline)
+                        {
+                            Thread.sleep(10);
+                        }
+                        assertEquals("Number of points", i + 1, listener.getTrack().getNumPoints());
+                    }
+                }
+                finally
+                {
+                    out.close();
+                }
+
+                reader.stop();
+                thread.join(5000);
+                assertFalse("Reader not stopped", thread.isAlive());
+                assertNull("Exception while tailing", error[0]);
+                assertEquals("Time", 2, listener.getTrack().getColumnarSegments().get(0).getTime(2));
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+
+        public void testInvalidArguments() throws Exception
+        {
+            try
+            {
+                new CSVStreamReader(null);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new CSVStreamReader(new RecordingListener()).read(null);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new TrackPointBatch(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
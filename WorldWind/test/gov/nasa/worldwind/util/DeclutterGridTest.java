@@ -0,0 +1,104 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+
+/**
+ * Tests operation of DeclutterGrid.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class DeclutterGridTest
+{
+    public static class Tests extends TestCase
+    {
+        /** Tests that overlapping rectangles are rejected and separate ones accepted. */
+        public void testOverlap()
+        {
+            DeclutterGrid grid = new DeclutterGrid(16);
+            grid.reset(new Rectangle(0, 0, 200, 100));
+
+            assertTrue(grid.addIfFree(new Rectangle2D.Double(10, 10, 50, 10)));
+            assertFalse(grid.addIfFree(new Rectangle2D.Double(40, 15, 50, 10)));
+            assertTrue("Rectangles sharing an edge do not overlap",
+                grid.addIfFree(new Rectangle2D.Double(60, 10, 50, 10)));
+            assertTrue(grid.intersects(new Rectangle2D.Double(100, 12, 5, 5)));
+            assertEquals(2, grid.getOccupiedCount());
+        }
+
+        /** Tests rectangles extending beyond the grid bounds. */
+        public void testOutsideBounds()
+        {
+            DeclutterGrid grid = new DeclutterGrid(16);
+            grid.reset(new Rectangle(0, 0, 100, 100));
+
+            assertTrue(grid.addIfFree(new Rectangle2D.Double(-50, -50, 40, 40)));
+            assertFalse(grid.addIfFree(new Rectangle2D.Double(-30, -30, 5, 5)));
+            assertTrue(grid.addIfFree(new Rectangle2D.Double(150, 150, 10, 10)));
+            assertFalse(grid.addIfFree(new Rectangle2D.Double(90, 90, 70, 70)));
+        }
+
+        /** Tests that reset removes the occupied rectangles. */
+        public void testReset()
+        {
+            DeclutterGrid grid = new DeclutterGrid();
+            grid.reset(new Rectangle(0, 0, 100, 100));
+            grid.add(new Rectangle2D.Double(0, 0, 100, 100));
+            assertTrue(grid.intersects(new Rectangle2D.Double(50, 50, 1, 1)));
+
+            grid.reset(new Rectangle(0, 0, 400, 300));
+            assertFalse(grid.intersects(new Rectangle2D.Double(50, 50, 1, 1)));
+            assertEquals(0, grid.getOccupiedCount());
+        }
+
+        /** Tests that the grid accepts the same rectangles as an exhaustive pairwise test. */
+        public void testMatchesExhaustiveTest()
+        {
+            Random random = new Random(11);
+            DeclutterGrid grid = new DeclutterGrid(24);
+
+            for (int frame = 0; frame < 5; frame++)
+            {
+                grid.reset(new Rectangle(0, 0, 800, 600));
+                ArrayList<Rectangle2D> accepted = new ArrayList<Rectangle2D>();
+
+                for (int i = 0; i < 2000; i++)
+                {
+                    Rectangle2D r = new Rectangle2D.Double(random.nextDouble() * 900 - 50,
+                        random.nextDouble() * 700 - 50, 1 + random.nextDouble() * 120, 1 + random.nextDouble() * 20);
+
+                    boolean free = true;
+                    for (Rectangle2D a : accepted)
+                    {
+                        if (a.intersects(r))
+                        {
+                            free = false;
+                            break;
+                        }
+                    }
+
+                    assertEquals("Rectangle " + i + " of frame " + frame, free, grid.addIfFree(r));
+                    if (free)
+                        accepted.add(r);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Tests operation of ParallelTaskRunner.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class ParallelTaskRunnerTest
+{
+    public static class Tests extends TestCase
+    {
+        public void testAllWorkCompleted()
+        {
+            final int numItems = 10000;
+            final AtomicInteger nextItem = new AtomicInteger();
+            final AtomicIntegerArray counts = new AtomicIntegerArray(numItems);
+
+            ParallelTaskRunner.run(new Runnable()
+            {
+                public void run()
+                {
+                    int item;
+                    while ((item = nextItem.getAndIncrement()) < numItems)
+                    {
+                        counts.incrementAndGet(item);
+                    }
+                }
+            }, 8);
+
+            for (int i = 0; i < numItems; i++)
+            {
+                assertEquals("Item " + i, 1, counts.get(i));
+            }
+        }
+
+        public void testThreadsReused()
+        {
+            final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+            Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                    threads.add(Thread.currentThread());
+                    try
+                    {
+                        Thread.sleep(5);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+
+            for (int i = 0; i < 20; i++)
+            {
+                ParallelTaskRunner.run(task, 3);
+            }
+
+            // The calling thread plus at most one pool thread per processor.
+            int maxThreads = 1 + Runtime.getRuntime().availableProcessors();
+            assertTrue("Thread count " + threads.size(), threads.size() <= maxThreads);
+        }
+
+        public void testFailurePropagated()
+        {
+            final AtomicInteger runs = new AtomicInteger();
+
+            try
+            {
+                ParallelTaskRunner.run(new Runnable()
+                {
+                    public void run()
+                    {
+                        if (runs.getAndIncrement() == 0)
+                            throw new IllegalStateException("First run");
+                    }
+                }, 4);
+                fail("Expected an IllegalStateException");
+            }
+            catch (IllegalStateException e)
+            {
+                assertEquals("First run", e.getMessage());
+            }
+        }
+
+        public void testInvalidArguments()
+        {
+            try
+            {
+                ParallelTaskRunner.run(null, 2);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                ParallelTaskRunner.run(new Runnable()
+                {
+                    public void run()
+                    {
+                    }
+                }, 0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
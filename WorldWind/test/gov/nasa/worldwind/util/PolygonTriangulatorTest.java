@@ -0,0 +1,351 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Vec4;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+/**
+ * Tests operation of PolygonTriangulator.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class PolygonTriangulatorTest
+{
+    public static class Tests extends TestCase
+    {
+        private static final double EPSILON = 1e-9;
+
+        protected PolygonTriangulator triangulator;
+
+        @Override
+        protected void setUp() throws Exception
+        {
+            this.triangulator = new PolygonTriangulator();
+        }
+
+        protected static double[] square(double min, double max, boolean counterClockwise)
+        {
+            return counterClockwise ? new double[] {min, min, max, min, max, max, min, max}
+                : new double[] {min, min, min, max, max, max, max, min};
+        }
+
+        protected static double[] concat(double[]... arrays)
+        {
+            int length = 0;
+            for (double[] a : arrays)
+            {
+                length += a.length;
+            }
+
+            double[] result = new double[length];
+            int offset = 0;
+            for (double[] a : arrays)
+            {
+                System.arraycopy(a, 0, result, offset, a.length);
+                offset += a.length;
+            }
+
+            return result;
+        }
+
+        protected static double[] circle(double radius, int numVertices)
+        {
+            double[] coords = new double[2 * numVertices];
+            for (int i = 0; i < numVertices; i++)
+            {
+                double a = 2 * Math.PI * i / numVertices;
+                coords[2 * i] = radius * Math.cos(a);
+                coords[2 * i + 1] = radius * Math.sin(a);
+            }
+
+            return coords;
+        }
+
+        protected static double shoelaceArea(double[] coords, int start, int count)
+        {
+            double area = 0;
+            for (int i = 0, j = count - 1; i < count; j = i++)
+            {
+                area += coords[2 * (start + j)] * coords[2 * (start + i) + 1]
+                    - coords[2 * (start + i)] * coords[2 * (start + j) + 1];
+            }
+
+            return Math.abs(area / 2);
+        }
+
+        /** Returns the total area of the triangles, and asserts that each is counter-clockwise. */
+        protected double triangleArea(double[] coords)
+        {
+            int numIndices = this.triangulator.getIndexCount();
+            int[] indices = this.triangulator.getIndices();
+            assertEquals("Index count not a multiple of three", 0, numIndices % 3);
+
+            double total = 0;
+            for (int i = 0; i < numIndices; i += 3)
+            {
+                double ax = coords[2 * indices[i]], ay = coords[2 * indices[i] + 1];
+                double bx = coords[2 * indices[i + 1]], by = coords[2 * indices[i + 1] + 1];
+                double cx = coords[2 * indices[i + 2]], cy = coords[2 * indices[i + 2] + 1];
+                double area = ((bx - ax) * (cy - ay) - (cx - ax) * (by - ay)) / 2;
+                assertTrue("Triangle " + i / 3 + " not counter-clockwise", area >= 0);
+                total += area;
+            }
+
+            return total;
+        }
+
+        public void testSquare()
+        {
+            double[] coords = square(0, 1, true);
+            int numIndices = this.triangulator.triangulate(coords, new int[] {4});
+
+            assertEquals("Square index count", 6, numIndices);
+            assertEquals("Square area", 1, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testClockwiseSquare()
+        {
+            double[] coords = square(0, 1, false);
+            int numIndices = this.triangulator.triangulate(coords, new int[] {4});
+
+            assertEquals("Square index count", 6, numIndices);
+            assertEquals("Square area", 1, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testClosedContour()
+        {
+            double[] coords = concat(square(0, 1, true), new double[] {0, 0});
+            int numIndices = this.triangulator.triangulate(coords, new int[] {5});
+
+            assertEquals("Closed square index count", 6, numIndices);
+            assertEquals("Closed square area", 1, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testConcavePolygon()
+        {
+            double[] coords = new double[] {0, 0, 2, 0, 2, 1, 1, 1, 1, 2, 0, 2}; // L shape
+            int numIndices = this.triangulator.triangulate(coords, new int[] {6});
+
+            assertEquals("L shape index count", 12, numIndices);
+            assertEquals("L shape area", 3, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testHole()
+        {
+            double[] coords = concat(square(0, 10, true), square(2, 4, false));
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Area with hole", 96, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testHoleWindingIgnored()
+        {
+            double[] coords = concat(square(0, 10, false), square(2, 4, false));
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Area with same-winding hole", 96, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testHoleBeforeOuter()
+        {
+            double[] coords = concat(square(2, 4, true), square(0, 10, true));
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Area with hole specified first", 96, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testMultipleOuterContours()
+        {
+            double[] coords = concat(square(0, 1, true), square(2, 4, true));
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Disjoint squares area", 5, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testIslandInHole()
+        {
+            double[] coords = concat(square(0, 10, true), square(2, 8, false), square(4, 6, true));
+            this.triangulator.triangulate(coords, new int[] {4, 4, 4});
+
+            assertEquals("Island in hole area", 100 - 36 + 4, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testCoincidentContoursCancel()
+        {
+            // A hole filled by an adjacent face, as in a topological data set.
+            double[] coords = concat(square(0, 10, true), square(2, 8, false), square(2, 8, true));
+            this.triangulator.triangulate(coords, new int[] {4, 4, 4});
+
+            assertEquals("Filled hole area", 100, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testSharedEdges()
+        {
+            // Two faces sharing an edge are separate outer contours.
+            double[] coords = concat(new double[] {0, 0, 1, 0, 1, 1, 0, 1}, new double[] {1, 0, 2, 0, 2, 1, 1, 1});
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Adjacent faces area", 2, this.triangleArea(coords), EPSILON);
+        }
+
+        public void testSelfIntersectingContour()
+        {
+            // A bow tie whose edges cross at (1, 1).
+            double[] coords = new double[] {0, 0, 2, 2, 2, 0, 0, 2};
+            int numIndices = this.triangulator.triangulate(coords, new int[] {4});
+
+            assertEquals("Bow tie index count", 6, numIndices);
+            assertEquals("Vertex count", 5, this.triangulator.getVertexCount());
+            assertEquals("Intersection x", 1, this.triangulator.getCoords()[8], EPSILON);
+            assertEquals("Intersection y", 1, this.triangulator.getCoords()[9], EPSILON);
+            assertEquals("Bow tie area", 2, this.triangleArea(this.triangulator.getCoords()), EPSILON);
+        }
+
+        public void testCrossingContours()
+        {
+            // Overlapping squares; the odd winding rule excludes the region they share.
+            double[] coords = concat(square(0, 2, true), square(1, 3, true));
+            this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Vertex count", 10, this.triangulator.getVertexCount());
+            assertEquals("Overlapping squares area", 6, this.triangleArea(this.triangulator.getCoords()), EPSILON);
+        }
+
+        public void testSelfIntersectingContourWithoutNewVertices()
+        {
+            double[] coords = new double[] {0, 0, 2, 2, 2, 0, 0, 2};
+            this.triangulator.beginPolygon();
+            this.triangulator.beginContour();
+            for (int i = 0; i < coords.length; i += 2)
+            {
+                this.triangulator.addVertex(coords[i], coords[i + 1]);
+            }
+            this.triangulator.endContour();
+            int numIndices = this.triangulator.endPolygon(false);
+
+            assertEquals("Bow tie index count", 6, numIndices);
+            assertEquals("Vertex count", 4, this.triangulator.getVertexCount());
+            for (int i = 0; i < numIndices; i++)
+            {
+                assertTrue("Index " + i + " not an input vertex", this.triangulator.getIndices()[i] < 4);
+            }
+        }
+
+        public void testLargePolygonWithHoles()
+        {
+            // Exceeds the z-order threshold.
+            double[] outer = circle(100, 500);
+            double[] hole1 = circle(10, 100);
+            double[] hole2 = circle(5, 50);
+            for (int i = 0; i < hole1.length; i += 2)
+            {
+                hole1[i] -= 40;
+            }
+            for (int i = 0; i < hole2.length; i += 2)
+            {
+                hole2[i] += 40;
+            }
+
+            double[] coords = concat(outer, hole1, hole2);
+            int numIndices = this.triangulator.triangulate(coords, new int[] {500, 100, 50});
+
+            double expected = shoelaceArea(coords, 0, 500) - shoelaceArea(coords, 500, 100)
+                - shoelaceArea(coords, 600, 50);
+            assertEquals("Large polygon triangle count", 3 * (650 + 2 * 2 - 2), numIndices);
+            assertEquals("Large polygon area", expected, this.triangleArea(coords), 1e-6);
+        }
+
+        public void testReuse()
+        {
+            double[] coords = concat(square(0, 10, true), square(2, 4, false));
+            int first = this.triangulator.triangulate(coords, new int[] {4, 4});
+            int[] firstIndices = new int[first];
+            System.arraycopy(this.triangulator.getIndices(), 0, firstIndices, 0, first);
+
+            this.triangulator.triangulate(circle(1, 200), new int[] {200});
+            int second = this.triangulator.triangulate(coords, new int[] {4, 4});
+
+            assertEquals("Index count after reuse", first, second);
+            for (int i = 0; i < first; i++)
+            {
+                assertEquals("Index " + i + " after reuse", firstIndices[i], this.triangulator.getIndices()[i]);
+            }
+        }
+
+        public void testDegenerateInput()
+        {
+            assertEquals("Empty polygon", 0, this.triangulator.triangulate(new double[0], new int[0]));
+            assertEquals("Two vertices", 0, this.triangulator.triangulate(new double[] {0, 0, 1, 1}, new int[] {2}));
+            assertEquals("Collinear vertices", 0,
+                this.triangulator.triangulate(new double[] {0, 0, 1, 1, 2, 2, 3, 3}, new int[] {4}));
+        }
+
+        public void testThreeDimensionalPolygon()
+        {
+            double[][] normals = new double[][] {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+            for (double[] n : normals)
+            {
+                Vec4 normal = new Vec4(n[0], n[1], n[2]);
+                Vec4 u = Math.abs(n[0]) > 0.5 ? Vec4.UNIT_Y : Vec4.UNIT_X;
+                Vec4 v = normal.cross3(u);
+                Vec4 origin = normal.multiply3(5);
+
+                // A unit square counter-clockwise about the normal, offset from the origin along the normal.
+                Vec4[] points = new Vec4[] {origin, origin.add3(u), origin.add3(u).add3(v), origin.add3(v)};
+                this.triangulator.beginPolygon(normal);
+                this.triangulator.beginContour();
+                for (Vec4 p : points)
+                {
+                    this.triangulator.addVertex(p.x, p.y, p.z);
+                }
+                this.triangulator.endContour();
+                int numIndices = this.triangulator.endPolygon();
+
+                assertEquals("3D square index count", 6, numIndices);
+                int[] indices = this.triangulator.getIndices();
+                for (int i = 0; i < numIndices; i += 3)
+                {
+                    Vec4 a = points[indices[i]], b = points[indices[i + 1]], c = points[indices[i + 2]];
+                    Vec4 triangleNormal = b.subtract3(a).cross3(c.subtract3(a));
+                    assertTrue("Triangle not counter-clockwise about " + normal, triangleNormal.dot3(normal) > 0);
+                }
+            }
+        }
+
+        public void testNullArguments()
+        {
+            try
+            {
+                this.triangulator.beginPolygon(null);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                this.triangulator.triangulate(null, new int[] {4});
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
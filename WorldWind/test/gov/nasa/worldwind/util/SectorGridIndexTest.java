@@ -0,0 +1,171 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Sector;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.*;
+
+/**
+ * Tests operation of SectorGridIndex.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class SectorGridIndexTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static Sector randomSector(Random random, double maxSize)
+        {
+            double dLat = random.nextDouble() * maxSize;
+            double dLon = random.nextDouble() * maxSize;
+            double lat = -90 + random.nextDouble() * (180 - dLat);
+            double lon = -180 + random.nextDouble() * (360 - dLon);
+            return Sector.fromDegrees(lat, lat + dLat, lon, lon + dLon);
+        }
+
+        protected static boolean touches(Sector a, Sector b)
+        {
+            return a.getMinLatitude().degrees <= b.getMaxLatitude().degrees
+                && b.getMinLatitude().degrees <= a.getMaxLatitude().degrees
+                && a.getMinLongitude().degrees <= b.getMaxLongitude().degrees
+                && b.getMinLongitude().degrees <= a.getMaxLongitude().degrees;
+        }
+
+        /** Tests that queries find the same items, in the same order, as an exhaustive search. */
+        public void testMatchesExhaustiveSearch()
+        {
+            Random random = new Random(7);
+            SectorGridIndex<Integer> index = new SectorGridIndex<Integer>(5);
+            ArrayList<Sector> sectors = new ArrayList<Sector>();
+
+            for (int i = 0; i < 5000; i++)
+            {
+                // Mostly small items, a few items spanning many cells, and a few items without a sector.
+                Sector sector = (i % 100 == 0) ? null : randomSector(random, (i % 10 == 0) ? 90 : 3);
+                sectors.add(sector);
+                index.add(i, sector);
+            }
+
+            for (int q = 0; q < 50; q++)
+            {
+                List<Sector> regions = Arrays.asList(randomSector(random, 20), randomSector(random, 20));
+
+                ArrayList<Integer> expected = new ArrayList<Integer>();
+                for (int i = 0; i < sectors.size(); i++)
+                {
+                    Sector s = sectors.get(i);
+                    if (s == null || touches(s, regions.get(0)) || touches(s, regions.get(1)))
+                        expected.add(i);
+                }
+
+                assertEquals("Query " + q, expected, index.getItemsInRegions(regions, null));
+            }
+        }
+
+        /** Tests that updated items are found at their new location and keep their order. */
+        public void testUpdate()
+        {
+            SectorGridIndex<String> index = new SectorGridIndex<String>();
+            index.add("a", Sector.fromDegrees(10, 11, 10, 11));
+            index.add("b", Sector.fromDegrees(40, 41, 40, 41));
+            index.add("c", Sector.fromDegrees(10, 11, 10, 11));
+
+            List<Sector> region = Arrays.asList(Sector.fromDegrees(9, 12, 9, 12));
+            assertEquals(Arrays.asList("a", "c"), index.getItemsInRegions(region, null));
+
+            assertTrue(index.update("b", Sector.fromDegrees(10.5, 10.6, 10.5, 10.6)));
+            assertEquals(Arrays.asList("a", "b", "c"), index.getItemsInRegions(region, null));
+
+            assertTrue(index.update("a", Sector.fromDegrees(-50, -49, 100, 101)));
+            assertEquals(Arrays.asList("b", "c"), index.getItemsInRegions(region, null));
+
+            assertFalse(index.update("d", Sector.FULL_SPHERE));
+        }
+
+        /** Tests removal of items. */
+        public void testRemove()
+        {
+            SectorGridIndex<String> index = new SectorGridIndex<String>();
+            index.add("a", Sector.fromDegrees(10, 11, 10, 11));
+            index.add("b", null);
+            index.add("c", Sector.FULL_SPHERE);
+
+            List<Sector> region = Arrays.asList(Sector.fromDegrees(9, 12, 9, 12));
+            assertEquals(3, index.getItemsInRegions(region, null).size());
+
+            assertTrue(index.remove("a"));
+            assertTrue(index.remove("b"));
+            assertFalse(index.remove("b"));
+            assertEquals(Arrays.asList("c"), index.getItemsInRegions(region, null));
+            assertEquals(1, index.size());
+
+            index.clear();
+            assertEquals(0, index.getItemsInRegions(region, null).size());
+        }
+
+        public void testLocateUnlocatedItems()
+        {
+            // Items added without a sector and located later, in an order unrelated to the order they were added,
+            // leave the unlocated and large item lists consistent.
+            int numItems = 20000;
+            SectorGridIndex<Integer> index = new SectorGridIndex<Integer>();
+            List<Integer> order = new ArrayList<Integer>();
+            for (int i = 0; i < numItems; i++)
+            {
+                // The index compares items by identity, so each item is boxed once.
+                Integer item = i;
+                order.add(item);
+                index.add(item, null);
+            }
+            Collections.shuffle(order, new Random(11));
+
+            for (int i = 0; i < numItems / 2; i++)
+            {
+                Integer item = order.get(i);
+                assertTrue(index.update(item, item % 100 == 0 ? Sector.FULL_SPHERE
+                    : Sector.fromDegrees(item % 80, item % 80 + 1, item % 170, item % 170 + 1)));
+            }
+
+            // Half the items are still unlocated, and returned by any query.
+            List<Sector> nowhere = Arrays.asList(Sector.fromDegrees(-89, -88, -179, -178));
+            List<Integer> found = index.getItemsInRegions(nowhere, null);
+            int numLarge = 0;
+            for (int i = 0; i < numItems / 2; i++)
+            {
+                if (order.get(i) % 100 == 0)
+                    numLarge++;
+            }
+            assertEquals(numItems / 2 + numLarge, found.size());
+
+            for (int i = numItems / 2; i < numItems; i++)
+            {
+                assertTrue(index.remove(order.get(i)));
+            }
+            for (int i = 0; i < numItems / 2; i += 2)
+            {
+                assertTrue(index.remove(order.get(i)));
+            }
+
+            found = index.getItemsInRegions(Arrays.asList(Sector.FULL_SPHERE), null);
+            assertEquals(numItems / 4, found.size());
+            for (int i = 1; i < found.size(); i++)
+            {
+                assertTrue("Order", found.get(i - 1) < found.get(i));
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
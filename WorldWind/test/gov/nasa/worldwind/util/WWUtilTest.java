@@ -0,0 +1,73 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.util;
+
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.Random;
+
+/**
+ * Tests the decimal number parser of WWUtil.
+ *
+ * @author dcollins
+ * @version $Id$
+ */
+public class WWUtilTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static double parseBytes(String s)
+        {
+            byte[] bytes = ("x" + s + "x").getBytes();
+            return WWUtil.parseDouble(bytes, 1, bytes.length - 1);
+        }
+
+        protected static void assertParsed(String s)
+        {
+            long expected = Double.doubleToLongBits(Double.parseDouble(s));
+            assertEquals(s, expected, Double.doubleToLongBits(WWUtil.parseDouble(s)));
+            assertEquals(s, expected, Double.doubleToLongBits(WWUtil.parseDouble("x" + s + "x", 1, s.length() + 1)));
+            assertEquals(s, expected, Double.doubleToLongBits(parseBytes(s)));
+        }
+
+        /** Tests that the number parser gives the same results as Double.parseDouble. */
+        public void testParseDouble()
+        {
+            String[] values = {"0", "-0", "1", "+1", "-118.1445155", " 34.1477849\n", "0.000001", "123456789012345",
+                "1234567890123456789", "0.1234567890123456789", "1e10", "1.5E-7", "-2.5e+3", "12345.678e-30", ".5",
+                "5.", "000012.5000", "4807.038", "  545.4 ", "12345678901234567", "123456789.123456789", "1e3",
+                "9007199254740993", "1e400", "1e-400"};
+            for (String s : values)
+            {
+                assertParsed(s);
+            }
+
+            Random random = new Random(11);
+            for (int i = 0; i < 100000; i++)
+            {
+                double d = (random.nextDouble() - 0.5) * 360;
+                assertParsed((i % 2 == 0) ? Double.toString(d) : String.format("%.7f", d));
+            }
+        }
+
+        public void testParseInvalidDouble()
+        {
+            for (String s : new String[] {"", " ", "-", ".", "1e", "1.2.3", "abc", "1.5x", "lat"})
+            {
+                assertTrue(s, Double.isNaN(WWUtil.parseDouble(s)));
+                assertTrue(s, Double.isNaN(parseBytes(s)));
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+Copyright (C) 2001, 2011 United States Government
+as represented by the Administrator of the
+National Aeronautics and Space Administration.
+All Rights Reserved.
+*/
+
+package gov.nasa.worldwind.view;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.Earth;
+import gov.nasa.worldwind.retrieve.PrefetchTask;
+import junit.framework.*;
+import junit.textui.TestRunner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests view motion prediction and the cancellation of prefetch tasks when the motion changes.
+ *
+ * @author tag
+ * @version $Id$
+ */
+public class ViewMotionPredictorTest
+{
+    public static class Tests extends TestCase
+    {
+        protected static final long FRAME_TIME = 20;
+
+        /** Updates a predictor with an eye 10 km above a center point, both moving at a constant velocity. */
+        protected static long pan(ViewMotionPredictor predictor, Vec4 center, Vec4 velocity, long time, int numFrames)
+        {
+            for (int i = 0; i < numFrames; i++)
+            {
+                Vec4 c = center.add3(velocity.multiply3(time));
+                predictor.update(c.add3(0, 0, 10e3), c, time);
+                time += FRAME_TIME;
+            }
+
+            return time;
+        }
+
+        public void testStationaryView()
+        {
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            pan(predictor, new Vec4(0, 0, 0), Vec4.ZERO, 0, 10);
+
+            assertFalse("Moving", predictor.isMoving());
+            assertNull("Predicted eye point", predictor.getPredictedEyePoint());
+            assertNull("Predicted center point", predictor.getPredictedCenterPoint());
+            assertEquals("Motion ID", 0, predictor.getMotionId());
+        }
+
+        public void testConstantVelocity()
+        {
+            // 1 m/ms is 1 km per second of look ahead, a tenth of the eye altitude.
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            Vec4 velocity = new Vec4(1, 0, 0);
+            long time = pan(predictor, Vec4.ZERO, velocity, 0, 10);
+            long lastTime = time - FRAME_TIME;
+
+            assertTrue("Not moving", predictor.isMoving());
+
+            Vec4 expectedCenter = velocity.multiply3(lastTime + predictor.getLookAheadTime());
+            assertEquals("Predicted center", 0, predictor.getPredictedCenterPoint().distanceTo3(expectedCenter), 1e-6);
+            assertEquals("Predicted eye", 0,
+                predictor.getPredictedEyePoint().distanceTo3(expectedCenter.add3(0, 0, 10e3)), 1e-6);
+
+            predictor.setLookAheadTime(2000);
+            expectedCenter = velocity.multiply3(lastTime + 2000);
+            assertEquals("Predicted center", 0, predictor.getPredictedCenterPoint().distanceTo3(expectedCenter), 1e-6);
+        }
+
+        public void testSlowMotionIgnored()
+        {
+            // 0.01 m/ms travels 10 m in a second, a tiny fraction of the eye altitude.
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            pan(predictor, Vec4.ZERO, new Vec4(0.01, 0, 0), 0, 10);
+
+            assertFalse("Moving", predictor.isMoving());
+        }
+
+        public void testMotionChanges()
+        {
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            long time = pan(predictor, Vec4.ZERO, new Vec4(1, 0, 0), 0, 10);
+            long id = predictor.getMotionId();
+
+            // Small changes in direction are part of the same motion.
+            Vec4 center = predictor.centerPoint;
+            time = pan(predictor, center.subtract3(new Vec4(1, 0.1, 0).multiply3(time)), new Vec4(1, 0.1, 0), time,
+                10);
+            assertEquals("Motion ID after small turn", id, predictor.getMotionId());
+
+            // Turning back is a new motion.
+            center = predictor.centerPoint;
+            time = pan(predictor, center.subtract3(new Vec4(-1, 0, 0).multiply3(time)), new Vec4(-1, 0, 0), time, 10);
+            assertTrue("Motion ID unchanged after reversing", predictor.getMotionId() > id);
+            assertTrue("Not moving", predictor.isMoving());
+            id = predictor.getMotionId();
+
+            // Stopping ends the motion.
+            pan(predictor, predictor.centerPoint, Vec4.ZERO, time, 10);
+            assertFalse("Moving", predictor.isMoving());
+            assertTrue("Motion ID unchanged after stopping", predictor.getMotionId() > id);
+        }
+
+        public void testIdleIntervalResetsMotion()
+        {
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            long time = pan(predictor, Vec4.ZERO, new Vec4(1, 0, 0), 0, 10);
+            assertTrue("Not moving", predictor.isMoving());
+
+            // A jump after a long pause is not extrapolated.
+            predictor.update(new Vec4(1e6, 0, 10e3), new Vec4(1e6, 0, 0), time + 5000);
+            assertFalse("Moving", predictor.isMoving());
+        }
+
+        public void testPredictedSector()
+        {
+            Earth globe = new Earth();
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            assertNull("Predicted sector", predictor.getPredictedSector(globe));
+
+            // Pan north from a point on the equator.
+            Vec4 center = globe.computePointFromPosition(Angle.ZERO, Angle.ZERO, 0);
+            Vec4 north = new Vec4(0, 1, 0);
+            long time = 0;
+            for (int i = 0; i < 10; i++)
+            {
+                Vec4 c = center.add3(north.multiply3(time));
+                predictor.update(c.add3(c.normalize3().multiply3(10e3)), c, time);
+                time += FRAME_TIME;
+            }
+
+            Sector sector = predictor.getPredictedSector(globe);
+            assertNotNull("Predicted sector", sector);
+            assertTrue("Sector does not lead the view", sector.getCentroid().getLatitude().degrees > 0);
+        }
+
+        public void testStalePrefetchTaskSkipped()
+        {
+            final AtomicInteger count = new AtomicInteger();
+            Runnable task = new Runnable()
+            {
+                public void run()
+                {
+                    count.incrementAndGet();
+                }
+            };
+
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+            long time = pan(predictor, Vec4.ZERO, new Vec4(1, 0, 0), 0, 10);
+
+            PrefetchTask current = new PrefetchTask(task, predictor);
+            current.run();
+            assertEquals("Task not run", 1, count.get());
+
+            PrefetchTask stale = new PrefetchTask(task, predictor);
+            pan(predictor, predictor.centerPoint, Vec4.ZERO, time, 10);
+            assertTrue("Task not stale", stale.isStale());
+            stale.run();
+            assertEquals("Stale task run", 1, count.get());
+
+            assertEquals("Equal tasks", current, stale);
+        }
+
+        public void testInvalidArguments()
+        {
+            ViewMotionPredictor predictor = new ViewMotionPredictor();
+
+            try
+            {
+                predictor.setLookAheadTime(0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                predictor.update(null, Vec4.ZERO, 0);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+
+            try
+            {
+                new PrefetchTask(null, predictor);
+                fail("Expected an IllegalArgumentException");
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Expected.
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new TestRunner().doRun(new TestSuite(Tests.class));
+    }
+}